@@ -0,0 +1,30 @@
+/*
+  Clase EjecutorBenchmarks - punto de entrada de benchmarks.jar
+  Acepta las mismas opciones que el Main de JMH (-p, -f, -wi, -i, filtros por nombre...)
+  y siempre añade el perfilador de GC para mostrar la memoria reservada por operacion
+  (gc.alloc.rate.norm), que debe seguir en 0 bytes para proximaGeneracion
+*/
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions lineaComandos = new CommandLineOptions(args);
+        Options opciones = new OptionsBuilder()
+                .parent(lineaComandos)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opciones).run();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+  Clase ApiTablero - acceso a Board desde el paquete de los benchmarks
+  JMH no admite benchmarks en el paquete por defecto y desde un paquete con nombre
+  no se pueden importar las clases del paquete por defecto, asi que se llega a ellas
+  con MethodHandles guardados en constantes (static final): el JIT los trata como
+  llamadas directas y no añaden coste a la medida
+*/
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+final class BoardApi {
+    private static final Class<?> BOARD = cargar("Board");
+    private static final Class<?> MOTOR = cargar("SteppingEngine");
+
+    private static final MethodHandle CREAR = constructor();
+    private static final MethodHandle CREAR_MOTOR = estatico(cargar("EngineRegistry"), "crear",
+            MethodType.methodType(MOTOR, String.class), MethodType.methodType(Object.class, String.class));
+    private static final MethodHandle ESTABLECER_MOTOR = metodo("establecerMotor",
+            MethodType.methodType(void.class, MOTOR), MethodType.methodType(void.class, Object.class, Object.class));
+    private static final MethodHandle ESTABLECER_SEMILLA = metodo("establecerSemilla",
+            MethodType.methodType(void.class, long.class), MethodType.methodType(void.class, Object.class, long.class));
+    private static final MethodHandle ESTABLECER_PROBABILIDAD = metodo("establecerProbabilidadVolteo",
+            MethodType.methodType(void.class, double.class), MethodType.methodType(void.class, Object.class, double.class));
+    private static final MethodHandle RELLENAR = metodo("rellenarAleatorio",
+            MethodType.methodType(void.class, double.class), MethodType.methodType(void.class, Object.class, double.class));
+    private static final MethodHandle PROXIMA_GENERACION = metodo("proximaGeneracion",
+            MethodType.methodType(void.class), MethodType.methodType(void.class, Object.class));
+    private static final MethodHandle CONTAR_VECINOS = metodo("contarVecinos",
+            MethodType.methodType(int.class, int.class, int.class),
+            MethodType.methodType(int.class, Object.class, int.class, int.class));
+    private static final MethodHandle CANTIDAD_VIVAS = metodo("obtenerCantidadVivas",
+            MethodType.methodType(long.class), MethodType.methodType(long.class, Object.class));
+    private static final MethodHandle MOSTRAR = metodo("mostrar",
+            MethodType.methodType(void.class), MethodType.methodType(void.class, Object.class));
+
+    private BoardApi() {
+    }
+
+    /*
+      Crea un tablero relleno al azar con una semilla fija
+      @param tamaño ancho y alto del tablero
+      @param densidad la probabilidad de que cada celda empiece viva
+      @param motor el nombre del motor (ver EngineRegistry)
+      @param probabilidadVolteo la probabilidad de cambio espontaneo
+      @return el tablero, como Object
+    */
+    static Object crear(int tamaño, double densidad, String motor, double probabilidadVolteo) {
+        try {
+            Object tablero = CREAR.invokeExact(tamaño, tamaño, false);
+            ESTABLECER_SEMILLA.invokeExact(tablero, 1L);
+            ESTABLECER_PROBABILIDAD.invokeExact(tablero, probabilidadVolteo);
+            ESTABLECER_MOTOR.invokeExact(tablero, (Object) CREAR_MOTOR.invokeExact(motor));
+            RELLENAR.invokeExact(tablero, densidad);
+            return tablero;
+        } catch (Throwable e) {
+            throw propagar(e);
+        }
+    }
+
+    static void proximaGeneracion(Object tablero) {
+        try {
+            PROXIMA_GENERACION.invokeExact(tablero);
+        } catch (Throwable e) {
+            throw propagar(e);
+        }
+    }
+
+    static int contarVecinos(Object tablero, int fila, int columna) {
+        try {
+            return (int) CONTAR_VECINOS.invokeExact(tablero, fila, columna);
+        } catch (Throwable e) {
+            throw propagar(e);
+        }
+    }
+
+    static long obtenerCantidadVivas(Object tablero) {
+        try {
+            return (long) CANTIDAD_VIVAS.invokeExact(tablero);
+        } catch (Throwable e) {
+            throw propagar(e);
+        }
+    }
+
+    static void mostrar(Object tablero) {
+        try {
+            MOSTRAR.invokeExact(tablero);
+        } catch (Throwable e) {
+            throw propagar(e);
+        }
+    }
+
+    private static Class<?> cargar(String nombre) {
+        try {
+            return Class.forName(nombre);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("No se encuentra la clase " + nombre + " del juego", e);
+        }
+    }
+
+    private static MethodHandle constructor() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findConstructor(BOARD, MethodType.methodType(void.class, int.class, int.class, boolean.class))
+                    .asType(MethodType.methodType(Object.class, int.class, int.class, boolean.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle metodo(String nombre, MethodType tipo, MethodType tipoGenerico) {
+        try {
+            return MethodHandles.publicLookup().findVirtual(BOARD, nombre, tipo).asType(tipoGenerico);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle estatico(Class<?> clase, String nombre, MethodType tipo, MethodType tipoGenerico) {
+        try {
+            return MethodHandles.publicLookup().findStatic(clase, nombre, tipo).asType(tipoGenerico);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RuntimeException propagar(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+}
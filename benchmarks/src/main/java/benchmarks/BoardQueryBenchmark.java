@@ -0,0 +1,80 @@
+/*
+  Clase BenchmarkConsultas - mide las operaciones de Board que no avanzan generaciones:
+  contarVecinos, obtenerCantidadVivas y mostrar
+  mostrar escribe en un System.out descartado para medir solo el coste de generar el texto
+*/
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BoardQueryBenchmark {
+    @Param({"64", "512", "2048"})
+    int lado;
+
+    @Param({"0.1", "0.3", "0.5"})
+    double densidad;
+
+    private Object tablero;
+    private int fila;
+    private int columna;
+    private PrintStream salidaOriginal;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        tablero = BoardApi.crear(lado, densidad, "swar", 0.1);
+        salidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurar() {
+        System.setOut(salidaOriginal);
+    }
+
+    /*
+      Una llamada a contarVecinos; la celda avanza en cada invocacion para recorrer
+      el tablero entero, incluidos los bordes que se envuelven
+    */
+    @Benchmark
+    public int contarVecinos() {
+        if (++columna == lado) {
+            columna = 0;
+            if (++fila == lado) {
+                fila = 0;
+            }
+        }
+        return BoardApi.contarVecinos(tablero, fila, columna);
+    }
+
+    @Benchmark
+    public long obtenerCantidadVivas() {
+        return BoardApi.obtenerCantidadVivas(tablero);
+    }
+
+    @Benchmark
+    public void mostrar() {
+        BoardApi.mostrar(tablero);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+  Clase BenchmarkPaso - mide Board.proximaGeneracion con cada motor
+  Recorre varios tamaños, densidades iniciales (0.3 es la de generacionAleatoria)
+  y probabilidades de cambio espontaneo; el tablero sigue evolucionando entre
+  invocaciones, como en una simulacion real
+  Sin registro de edades, igual que el modo --headless por defecto
+*/
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SteppingBenchmark {
+    @Param({"64", "512", "2048"})
+    int lado;
+
+    @Param({"0.1", "0.3", "0.5"})
+    double densidad;
+
+    @Param({"escalar", "swar", "disperso", "teselas", "vector"})
+    String motor;
+
+    @Param({"0.0", "0.1"})
+    double probabilidadVolteo;
+
+    private Object tablero;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        tablero = BoardApi.crear(lado, densidad, motor, probabilidadVolteo);
+    }
+
+    /*
+      Una generacion completa; el resultado se lee como generaciones por segundo
+    */
+    @Benchmark
+    public void proximaGeneracion() {
+        BoardApi.proximaGeneracion(tablero);
+    }
+}
@@ -0,0 +1,481 @@
+/*
+  Clase CuadriculaBits - almacenamiento compacto de las celdas de un tablero
+  Guarda el estado vivo/muerto como bits empaquetados en palabras long (64 celdas por palabra)
+  Cada fila empieza en una palabra nueva, y los bits sobrantes de la ultima palabra
+  de cada fila se mantienen siempre a 0
+  Las edades se guardan en un arreglo short aparte que solo existe si se registran edades
+  Con reglas Generations (ver Rule) la edad de una celda muerta es su estado de muerte y un
+  tercer plano de bits marca las celdas que se estan muriendo, que no pueden nacer
+  Coste aproximado: 1/8 de byte por celda sin edades, 2.125 bytes por celda con edades
+  (frente a unos 20-24 bytes de un objeto Cell mas su referencia)
+  Los planos viven en el heap; OffHeapGrid es la misma cuadricula con los planos fuera de el
+*/
+
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+public class BitGrid {
+    // Las edades se saturan en este valor en lugar de desbordarse
+    public static final int EDAD_MAXIMA = Short.MAX_VALUE;
+
+    final int ancho;
+    final int alto;
+    final int palabrasPorFila;
+    final long mascaraUltima;
+    final long[] palabras;
+    final short[] edades;
+    // Estados de la regla y celdas muertas en un estado de muerte (null salvo con Generations)
+    int estados;
+    long[] muriendo;
+
+    /*
+      Constructor - crea una cuadricula con todas las celdas muertas
+      @param ancho el numero de columnas
+      @param alto el numero de filas
+      @param conEdades true para reservar el arreglo de edades
+    */
+    public BitGrid(int ancho, int alto, boolean conEdades) {
+        this(ancho, alto, conEdades, true);
+    }
+
+    /*
+      Constructor para las cuadriculas que guardan los planos en otro sitio
+      @param ancho el numero de columnas
+      @param alto el numero de filas
+      @param conEdades true para reservar el arreglo de edades (solo en el heap)
+      @param enHeap false para no reservar ningun arreglo
+    */
+    BitGrid(int ancho, int alto, boolean conEdades, boolean enHeap) {
+        if (ancho <= 0 || alto <= 0) {
+            throw new IllegalArgumentException("Dimensiones invalidas: " + ancho + "x" + alto);
+        }
+        int palabrasFila = (ancho + 63) >>> 6;
+        if ((long) palabrasFila * alto > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Tablero demasiado grande: " + ancho + "x" + alto);
+        }
+        if (enHeap && conEdades && (long) ancho * alto > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Tablero demasiado grande para registrar edades: " + ancho + "x" + alto);
+        }
+
+        this.ancho = ancho;
+        this.alto = alto;
+        this.palabrasPorFila = palabrasFila;
+        int bitsUltima = ancho & 63;
+        this.mascaraUltima = bitsUltima == 0 ? -1L : (1L << bitsUltima) - 1;
+        this.palabras = enHeap ? new long[palabrasFila * alto] : null;
+        this.edades = enHeap && conEdades ? new short[ancho * alto] : null;
+        this.estados = 2;
+    }
+
+    /*
+      Prepara la cuadricula para una regla con un numero de estados
+      Con mas de 2 reserva el plano de celdas que se estan muriendo y lo rellena a partir de las
+      edades de las celdas muertas; con 2 lo libera y deja a 0 la edad de las celdas muertas
+      @param estados los estados de la regla
+      @throws IllegalStateException si hacen falta edades y la cuadricula no las registra
+    */
+    void establecerEstados(int estados) {
+        if (estados > 2 && !registraEdades()) {
+            throw new IllegalStateException("Las reglas Generations necesitan registro de edades");
+        }
+        boolean conEstadosMuerte = muriendo != null;
+        this.estados = estados;
+        if (estados > 2 && muriendo == null) {
+            muriendo = new long[palabrasPorFila * alto];
+        } else if (estados == 2) {
+            muriendo = null;
+        }
+        if (estados > 2 || conEstadosMuerte) {
+            recalcularMuriendo();
+        }
+    }
+
+    /*
+      Rehace el plano de celdas que se estan muriendo a partir de las edades, tras cambios
+      hechos fuera del calculo de generaciones; las celdas muertas con una edad que ya no es
+      un estado de muerte de la regla pasan a edad 0
+    */
+    void recalcularMuriendo() {
+        if (edades == null) {
+            return;
+        }
+        int ultimoEstado = estados - 2;
+        for (int fila = 0; fila < alto; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                long vivas = palabras[fila * palabrasPorFila + palabra];
+                int base = fila * ancho + (palabra << 6);
+                int limite = Math.min(64, ancho - (palabra << 6));
+                long bits = 0L;
+                for (int bit = 0; bit < limite; bit++) {
+                    if ((vivas >>> bit & 1L) != 0 || edades[base + bit] == 0) {
+                        continue;
+                    }
+                    if (edades[base + bit] <= ultimoEstado) {
+                        bits |= 1L << bit;
+                    } else {
+                        edades[base + bit] = 0;
+                    }
+                }
+                if (muriendo != null) {
+                    muriendo[fila * palabrasPorFila + palabra] = bits;
+                }
+            }
+        }
+    }
+
+    /*
+      Lee las celdas de una palabra que se estan muriendo (solo con reglas Generations)
+      @param fila el indice de la fila
+      @param palabra el indice de la palabra dentro de la fila
+      @return los bits de esas celdas, 0 con reglas de dos estados
+    */
+    long leerMuriendo(int fila, int palabra) {
+        return muriendo == null ? 0L : muriendo[fila * palabrasPorFila + palabra];
+    }
+
+    /*
+      Indica si esta cuadricula guarda la edad de cada celda
+      @return true si hay arreglo de edades
+    */
+    public boolean registraEdades() {
+        return edades != null;
+    }
+
+    /*
+      Verifica si la celda esta viva
+      @param fila el indice de la fila
+      @param columna el indice de la columna
+      @return true si el bit de la celda esta activo
+    */
+    public boolean estaViva(int fila, int columna) {
+        return (palabras[fila * palabrasPorFila + (columna >>> 6)] & (1L << columna)) != 0;
+    }
+
+    /*
+      Cambia el estado de una celda sin tocar su edad
+      Con reglas Generations la celda deja de estar muriendose y su edad pasa a 0
+      @param fila el indice de la fila
+      @param columna el indice de la columna
+      @param viva el nuevo estado
+    */
+    public void establecer(int fila, int columna, boolean viva) {
+        int i = fila * palabrasPorFila + (columna >>> 6);
+        if (viva) {
+            palabras[i] |= 1L << columna;
+        } else {
+            palabras[i] &= ~(1L << columna);
+        }
+        if (muriendo != null) {
+            muriendo[i] &= ~(1L << columna);
+            edades[fila * ancho + columna] = 0;
+        }
+    }
+
+    /*
+      Pone vivas las celdas de una fila entre las columnas [desde, hasta) sin tocar sus edades
+      Trabaja por palabras: una racha larga cuesta una escritura cada 64 celdas
+      @param fila el indice de la fila
+      @param desde la primera columna
+      @param hasta la columna siguiente a la ultima (como mucho el ancho)
+    */
+    public void encenderRango(int fila, int desde, int hasta) {
+        if (desde >= hasta) {
+            return;
+        }
+        int base = fila * palabrasPorFila;
+        int primera = desde >>> 6;
+        int ultima = (hasta - 1) >>> 6;
+        long inicio = -1L << desde;
+        long fin = -1L >>> (63 - ((hasta - 1) & 63));
+        if (primera == ultima) {
+            palabras[base + primera] |= inicio & fin;
+            return;
+        }
+        palabras[base + primera] |= inicio;
+        Arrays.fill(palabras, base + primera + 1, base + ultima, -1L);
+        palabras[base + ultima] |= fin;
+    }
+
+    /*
+      Lee una palabra de 64 celdas de una fila
+      El bit 0 de la palabra corresponde a la columna palabra * 64
+      @param fila el indice de la fila
+      @param palabra el indice de la palabra dentro de la fila
+      @return los bits de estado de esas celdas
+    */
+    public long leerPalabra(int fila, int palabra) {
+        return palabras[fila * palabrasPorFila + palabra];
+    }
+
+    /*
+      Escribe una palabra de 64 celdas de una fila
+      Los bits que caen fuera del ancho del tablero deben venir a 0
+      @param fila el indice de la fila
+      @param palabra el indice de la palabra dentro de la fila
+      @param valor los nuevos bits de estado
+    */
+    public void escribirPalabra(int fila, int palabra, long valor) {
+        palabras[fila * palabrasPorFila + palabra] = valor;
+    }
+
+    /*
+      Obtiene el numero de palabras long de cada fila
+      @return (ancho + 63) / 64
+    */
+    public int palabrasPorFila() {
+        return palabrasPorFila;
+    }
+
+    /*
+      Obtiene la mascara de columnas validas de la ultima palabra de cada fila
+      @return los bits que caen dentro del ancho del tablero
+    */
+    public long mascaraUltima() {
+        return mascaraUltima;
+    }
+
+    /*
+      Obtiene la edad de una celda
+      Sin registro de edades una celda viva tiene edad 1 y una muerta edad 0
+      @param fila el indice de la fila
+      @param columna el indice de la columna
+      @return la edad en generaciones
+    */
+    public int edad(int fila, int columna) {
+        if (edades == null) {
+            return estaViva(fila, columna) ? 1 : 0;
+        }
+        return edades[fila * ancho + columna];
+    }
+
+    /*
+      Establece la edad de una celda (se satura en EDAD_MAXIMA)
+      No hace nada si no se registran edades
+      @param fila el indice de la fila
+      @param columna el indice de la columna
+      @param edad la nueva edad
+    */
+    public void establecerEdad(int fila, int columna, int edad) {
+        if (edades != null) {
+            edades[fila * ancho + columna] = (short) Math.min(edad, EDAD_MAXIMA);
+        }
+    }
+
+    /*
+      Actualiza las edades de una palabra recien calculada a partir de la generacion anterior
+      Supervivencia suma 1, nacimiento es 1 y muerte es 0; no hace nada si no se registran edades
+      Con reglas Generations una celda que muere pasa al estado de muerte 1, cada estado de
+      muerte avanza uno por generacion y tras el ultimo la celda queda muerta (edad 0)
+      Cada celda viva se suma a su cubo del histograma de edades (ver BoardStats)
+      @param origen la cuadricula con la generacion anterior
+      @param fila el indice de la fila
+      @param palabra el indice de la palabra dentro de la fila
+      @param antes los bits de esa palabra en la generacion anterior
+      @param despues los bits de esa palabra en la nueva generacion
+      @param histograma el histograma de edades de la banda
+    */
+    public void actualizarEdades(BitGrid origen, int fila, int palabra, long antes, long despues, long[] histograma) {
+        if (edades == null) {
+            return;
+        }
+
+        int columna = palabra << 6;
+        int base = fila * ancho + columna;
+        int limite = Math.min(64, ancho - columna);
+        short[] previas = origen.edades;
+        int ultimoEstado = estados - 2;
+        long bitsMuriendo = 0L;
+
+        for (int bit = 0; bit < limite; bit++) {
+            int edad = 0;
+            if ((despues >>> bit & 1L) != 0) {
+                edad = (antes >>> bit & 1L) != 0 ? Math.min(previas[base + bit] + 1, EDAD_MAXIMA) : 1;
+                histograma[BoardStats.cubo(edad)]++;
+            } else if (ultimoEstado > 0) {
+                int previa = previas[base + bit];
+                if ((antes >>> bit & 1L) != 0) {
+                    edad = 1;
+                } else if (previa != 0 && previa < ultimoEstado) {
+                    edad = previa + 1;
+                }
+                if (edad != 0) {
+                    bitsMuriendo |= 1L << bit;
+                }
+            }
+            edades[base + bit] = (short) edad;
+        }
+        if (muriendo != null) {
+            muriendo[fila * palabrasPorFila + palabra] = bitsMuriendo;
+        }
+    }
+
+    /*
+      Cuenta las celdas vivas usando Long.bitCount sobre cada palabra
+      @return cantidad de celdas vivas
+    */
+    public long contarVivas() {
+        long cantidad = 0;
+        for (long palabra : palabras) {
+            cantidad += Long.bitCount(palabra);
+        }
+        return cantidad;
+    }
+
+    /*
+      Suma cada celda viva a su cubo del histograma de edades (ver BoardStats)
+      Solo tiene sentido si se registran edades
+      @param histograma el histograma donde se suman las celdas
+    */
+    void histogramaEdades(long[] histograma) {
+        for (int fila = 0; fila < alto; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                long bits = palabras[fila * palabrasPorFila + palabra];
+                int base = fila * ancho + (palabra << 6);
+                while (bits != 0L) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    histograma[BoardStats.cubo(edades[base + bit])]++;
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    /*
+      Clave pseudoaleatoria de una palabra para el hash del plano de celdas vivas
+      El hash es la suma (modulo 2^64) de claveHash(i) * palabra i, al estilo de Zobrist pero
+      por palabras: cuando una palabra cambia basta con sumar claveHash(i) * (nueva - anterior)
+      @param indice el indice de la palabra en el arreglo (fila * palabrasPorFila + palabra)
+      @return una clave impar
+    */
+    static long claveHash(int indice) {
+        // Finalizador de SplitMix64
+        long z = (indice + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) | 1L;
+    }
+
+    /*
+      Calcula desde cero el hash del plano de celdas vivas (ver claveHash)
+      @return el hash
+    */
+    long calcularHash() {
+        long hash = 0;
+        for (int i = 0; i < palabras.length; i++) {
+            if (palabras[i] != 0L) {
+                hash += claveHash(i) * palabras[i];
+            }
+        }
+        return hash;
+    }
+
+    /*
+      Pone todas las celdas a muertas con edad 0
+    */
+    public void limpiar() {
+        Arrays.fill(palabras, 0L);
+        if (edades != null) {
+            Arrays.fill(edades, (short) 0);
+        }
+        if (muriendo != null) {
+            Arrays.fill(muriendo, 0L);
+        }
+    }
+
+    /*
+      Compara el plano de celdas vivas con una copia
+      @param copia las palabras copiadas con copiarPalabras
+      @return true si todas las palabras coinciden
+    */
+    boolean mismasPalabras(long[] copia) {
+        return Arrays.equals(palabras, copia);
+    }
+
+    /*
+      Copia el plano de celdas vivas a un arreglo del heap
+      @param copia un arreglo del tamaño del plano, o null para crear uno
+      @return la copia
+    */
+    long[] copiarPalabras(long[] copia) {
+        if (copia == null || copia.length != palabras.length) {
+            return palabras.clone();
+        }
+        System.arraycopy(palabras, 0, copia, 0, copia.length);
+        return copia;
+    }
+
+    /*
+      Obtiene el numero de palabras del plano de celdas vivas
+      @return alto x palabras por fila
+    */
+    int totalPalabras() {
+        return palabrasPorFila * alto;
+    }
+
+    /*
+      Copia palabras consecutivas del plano de celdas vivas a un buffer (instantaneas)
+      @param desde el indice de la primera palabra (fila * palabrasPorFila + palabra)
+      @param destino el buffer; se copian tantas palabras como le queden
+    */
+    void volcarPalabras(int desde, LongBuffer destino) {
+        destino.put(palabras, desde, destino.remaining());
+    }
+
+    /*
+      Copia palabras consecutivas de un buffer al plano de celdas vivas (instantaneas)
+      @param desde el indice de la primera palabra
+      @param origen el buffer; se copian tantas palabras como le queden
+    */
+    void cargarPalabras(int desde, LongBuffer origen) {
+        origen.get(palabras, desde, origen.remaining());
+    }
+
+    /*
+      Copia edades consecutivas a un buffer (instantaneas); solo con registro de edades
+      @param desde el indice de la primera celda (fila * ancho + columna)
+      @param destino el buffer; se copian tantas edades como le queden
+    */
+    void volcarEdades(long desde, ShortBuffer destino) {
+        destino.put(edades, (int) desde, destino.remaining());
+    }
+
+    /*
+      Copia edades consecutivas de un buffer (instantaneas); solo con registro de edades
+      @param desde el indice de la primera celda
+      @param origen el buffer; se copian tantas edades como le queden
+    */
+    void cargarEdades(long desde, ShortBuffer origen) {
+        origen.get(edades, (int) desde, origen.remaining());
+    }
+
+    /*
+      Indica si los planos estan fuera del heap (ver OffHeapGrid)
+      @return false para esta cuadricula
+    */
+    public boolean fueraDelHeap() {
+        return false;
+    }
+
+    /*
+      Devuelve la memoria de los planos sin esperar al recolector; despues la cuadricula
+      no se puede usar. En el heap no hace nada: los arreglos los libera el recolector
+    */
+    public void liberar() {
+    }
+
+    /*
+      Obtiene los bytes ocupados por los arreglos de esta cuadricula
+      @return bytes de bits mas bytes de edades
+    */
+    public long bytesUsados() {
+        long bytes = (long) palabras.length * Long.BYTES;
+        if (edades != null) {
+            bytes += (long) edades.length * Short.BYTES;
+        }
+        if (muriendo != null) {
+            bytes += (long) muriendo.length * Long.BYTES;
+        }
+        return bytes;
+    }
+}
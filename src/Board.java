@@ -1,38 +1,420 @@
 /*
-  Clase Tablero - gestiona la cuadricula de 6x6 celdas en el Juego de la Vida
+  Clase Tablero - gestiona la cuadricula de ancho x alto celdas en el Juego de la Vida
   Implementa la lógoca de mundo cicular donde los bordes se continuan entre ellos
+  Las celdas se guardan en un BitGrid (bits empaquetados y edades opcionales)
+  para que la memoria crezca de forma lineal sin un objeto por celda
+  Con varios hilos cada generacion se reparte en bandas de filas que se calculan a la vez
 */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class Board {
-    private Cell[][] cuadricula;
-    private static final int TAMAÑO = 6;
+    private static final int TAMAÑO_POR_DEFECTO = 6;
+    private static final double PROBABILIDAD_VOLTEO = 0.1;
+
+    // Bandas por hilo: mas de una para repartir mejor la carga entre hilos
+    private static final int BANDAS_POR_HILO = 4;
+    public static final int BLOQUE_TEMPORAL_MAXIMO = 64;
+
+    // Un pool por numero de hilos, compartido por los tableros que lo piden; nunca se cierra,
+    // porque otro tablero puede estar usandolo (sus hilos se retiran solos si no hay trabajo)
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final int ancho;
+    private final int alto;
+    private BitGrid cuadricula;
+    private BitGrid siguiente;
+    private int hilos;
+    private RandomSource fuente;
+    private RowBand[] bandas;
+    private SteppingEngine motor;
+    private final StepContext contexto;
+    private Probability probabilidadVolteo;
+    private Rule regla;
+    private long generacion;
+    private final BoardStats estadisticas;
+    private boolean conHash;
+    private long hash;
+    // Sin conteo de cambios no se cuentan nacimientos ni muertes y las celdas vivas se recuentan al leerlas
+    private boolean contarCambios;
+    // Generaciones por bloque de avanzar (1 = sin bloqueo temporal) y pasos del bloque en curso
+    private int bloqueTemporal;
+    private TemporalBlockStepper pasoTemporal;
+    private int pasosBloque;
 
     /*
       Constructor - inicializa un tablero de 6x6 con todas las celdas muertas
     */
     public Board() {
-        this.cuadricula = new Cell[TAMAÑO][TAMAÑO];
-        inicializarTablero();
+        this(TAMAÑO_POR_DEFECTO, TAMAÑO_POR_DEFECTO);
+    }
+
+    /*
+      Constructor - inicializa un tablero rectangular con todas las celdas muertas
+      Registra la edad de cada celda
+      @param ancho el numero de columnas
+      @param alto el numero de filas
+    */
+    public Board(int ancho, int alto) {
+        this(ancho, alto, true);
+    }
+
+    /*
+      Constructor - inicializa un tablero rectangular con todas las celdas muertas
+      @param ancho el numero de columnas
+      @param alto el numero de filas
+      @param registrarEdades false para no reservar memoria para las edades
+    */
+    public Board(int ancho, int alto, boolean registrarEdades) {
+        this(ancho, alto, registrarEdades, false);
+    }
+
+    /*
+      Constructor - inicializa un tablero rectangular con todas las celdas muertas
+      Fuera del heap las dos cuadriculas son OffHeapGrid: el tablero puede ser mayor que -Xmx,
+      pero cabe en -XX:MaxDirectMemorySize y hay que liberarlo con liberar al descartarlo
+      @param ancho el numero de columnas
+      @param alto el numero de filas
+      @param registrarEdades false para no reservar memoria para las edades
+      @param fueraDelHeap true para guardar las celdas en memoria directa
+      @throws IllegalStateException si no queda memoria directa
+    */
+    public Board(int ancho, int alto, boolean registrarEdades, boolean fueraDelHeap) {
+        this.ancho = ancho;
+        this.alto = alto;
+        if (fueraDelHeap) {
+            this.cuadricula = new OffHeapGrid(ancho, alto, registrarEdades);
+            try {
+                this.siguiente = new OffHeapGrid(ancho, alto, registrarEdades);
+            } catch (RuntimeException e) {
+                cuadricula.liberar();
+                throw e;
+            }
+        } else {
+            this.cuadricula = new BitGrid(ancho, alto, registrarEdades);
+            this.siguiente = new BitGrid(ancho, alto, registrarEdades);
+        }
+        this.hilos = 1;
+        this.motor = new SwarEngine();
+        this.contexto = new StepContext();
+        this.fuente = RandomSource.sinSemilla();
+        this.probabilidadVolteo = new Probability(PROBABILIDAD_VOLTEO);
+        this.regla = Rule.POR_DEFECTO;
+        this.estadisticas = new BoardStats();
+        this.bloqueTemporal = 1;
+        this.contarCambios = true;
+        prepararBandas();
+    }
+
+    /*
+      Establece cuantos hilos calculan cada generacion
+      @param hilos el numero de hilos (1 = secuencial)
+    */
+    public void establecerHilos(int hilos) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("El numero de hilos debe ser al menos 1: " + hilos);
+        }
+        this.hilos = hilos;
+        prepararBandas();
+    }
+
+    /*
+      Establece cuantas generaciones avanza cada franja del tablero de una vez en avanzar
+      (ver TemporalBlockStepper); con 1 avanzar calcula generacion a generacion
+      @param generaciones las generaciones por bloque (1-64)
+    */
+    public void establecerBloqueTemporal(int generaciones) {
+        if (generaciones < 1 || generaciones > BLOQUE_TEMPORAL_MAXIMO) {
+            throw new IllegalArgumentException("El bloque temporal debe estar entre 1 y " + BLOQUE_TEMPORAL_MAXIMO
+                    + ": " + generaciones);
+        }
+        this.bloqueTemporal = generaciones;
+    }
+
+    /*
+      Obtiene cuantas generaciones avanza cada franja de una vez en avanzar
+      @return las generaciones por bloque (1 = sin bloqueo temporal)
+    */
+    public int obtenerBloqueTemporal() {
+        return bloqueTemporal;
+    }
+
+    /*
+      Obtiene el numero de hilos usados para calcular cada generacion
+      @return el numero de hilos
+    */
+    public int obtenerHilos() {
+        return hilos;
+    }
+
+    /*
+      Fija la semilla de los cambios espontaneos y del relleno aleatorio
+      Usa el modo contador: que una celda cambie depende solo de (semilla, generacion, fila, columna),
+      asi que el resultado es el mismo con cualquier numero de hilos
+      @param semilla la semilla a usar
+    */
+    public void establecerSemilla(long semilla) {
+        establecerFuenteAleatoria(RandomSource.contador(semilla));
+    }
+
+    /*
+      Cambia la fuente de bits aleatorios del tablero
+      Cada banda de filas recibe su propia fuente obtenida con dividir()
+      @param fuente la nueva fuente
+    */
+    public void establecerFuenteAleatoria(RandomSource fuente) {
+        this.fuente = fuente;
+        prepararBandas();
+    }
+
+    /*
+      Obtiene la fuente de bits aleatorios del tablero
+      @return la fuente actual
+    */
+    public RandomSource obtenerFuenteAleatoria() {
+        return fuente;
+    }
+
+    /*
+      Cambia la probabilidad de que una celda cambie de estado espontaneamente
+      @param probabilidad un valor entre 0 y 1 (0.1 por defecto, 0 desactiva la regla)
+    */
+    public void establecerProbabilidadVolteo(double probabilidad) {
+        this.probabilidadVolteo = new Probability(probabilidad);
+    }
+
+    /*
+      Obtiene la probabilidad de cambio espontaneo
+      @return un valor entre 0 y 1
+    */
+    public double obtenerProbabilidadVolteo() {
+        return probabilidadVolteo.obtenerValor();
+    }
+
+    /*
+      Cambia la regla de nacimiento y supervivencia (B3/S234 por defecto)
+      Los motores con estado se invalidan, porque lo que era estable puede dejar de serlo
+      @param regla la nueva regla
+      @throws IllegalStateException si es una regla Generations y el tablero no registra edades
+    */
+    public void establecerRegla(Rule regla) {
+        if (regla.estados() > 2 && !cuadricula.registraEdades()) {
+            throw new IllegalStateException("La regla " + regla + " necesita un tablero con registro de edades");
+        }
+        this.regla = regla;
+        cuadricula.establecerEstados(regla.estados());
+        siguiente.establecerEstados(regla.estados());
+        motor.invalidar();
+    }
+
+    /*
+      Obtiene la regla de nacimiento y supervivencia
+      @return la regla actual
+    */
+    public Rule obtenerRegla() {
+        return regla;
+    }
+
+    /*
+      Cambia el motor que calcula cada generacion
+      Todos los motores dan el mismo resultado; solo cambia la velocidad
+      @param motor el nuevo motor
+    */
+    public void establecerMotor(SteppingEngine motor) {
+        this.motor = motor;
+        motor.invalidar();
     }
 
     /*
-      Inicializa todas las celdas como muertas
+      Obtiene el motor que calcula cada generacion
+      @return el motor actual
     */
-    private void inicializarTablero() {
-        for (int fila = 0; fila < TAMAÑO; fila++) {
-            for (int columna = 0; columna < TAMAÑO; columna++) {
-                cuadricula[fila][columna] = new Cell(false);
+    public SteppingEngine obtenerMotor() {
+        return motor;
+    }
+
+    /*
+      Reparte las filas en bandas fijas y da a cada una su propia fuente aleatoria
+      Las bandas no cambian entre generaciones para que el modo flujo sea reproducible
+    */
+    private void prepararBandas() {
+        int cantidad = hilos == 1 ? 1 : Math.min(alto, hilos * BANDAS_POR_HILO);
+        bandas = new RowBand[cantidad];
+        for (int b = 0; b < cantidad; b++) {
+            int desde = (int) ((long) b * alto / cantidad);
+            int hasta = (int) ((long) (b + 1) * alto / cantidad);
+            bandas[b] = new RowBand(desde, hasta, fuente.dividir());
+        }
+    }
+
+    /*
+      Llena el tablero al azar, sustituyendo su contenido
+      Las celdas vivas quedan con edad 0, igual que con establecerViva
+      @param densidad la probabilidad de que cada celda quede viva
+    */
+    public void rellenarAleatorio(double densidad) {
+        Probability probabilidad = new Probability(densidad);
+        int palabrasPorFila = cuadricula.palabrasPorFila();
+        long mascaraUltima = cuadricula.mascaraUltima();
+
+        cuadricula.limpiar();
+        for (int fila = 0; fila < alto; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                // Las claves del relleno usan generaciones negativas para no repetir las del paso
+                long bits = probabilidad.mascara(bandas[0].fuente, ~generacion, fila, palabra);
+                if (palabra == palabrasPorFila - 1) {
+                    bits &= mascaraUltima;
+                }
+                cuadricula.escribirPalabra(fila, palabra, bits);
             }
         }
+        motor.invalidar();
+        recalcularDatos();
+    }
+
+    /*
+      Obtiene el numero de generaciones calculadas desde que se creo el tablero
+      @return la generacion actual
+    */
+    public long obtenerGeneracion() {
+        return generacion;
+    }
+
+    /*
+      Cambia el numero de generacion, por ejemplo tras avanzar el contenido con HashLife
+      La generacion forma parte de la clave de los cambios espontaneos en modo contador
+      @param generacion la nueva generacion (no negativa)
+    */
+    public void establecerGeneracion(long generacion) {
+        if (generacion < 0) {
+            throw new IllegalArgumentException("La generacion no puede ser negativa: " + generacion);
+        }
+        this.generacion = generacion;
+    }
+
+    /*
+      Deja todas las celdas muertas y con edad 0
+    */
+    public void limpiar() {
+        cuadricula.limpiar();
+        motor.invalidar();
+        recalcularDatos();
+    }
+
+    /*
+      Obtiene la cuadricula de la generacion actual para leerla o escribirla por palabras
+      (instantaneas e importadores); tras escribir hay que llamar a cuadriculaModificada
+      @return la cuadricula actual
+    */
+    BitGrid obtenerCuadricula() {
+        return cuadricula;
+    }
+
+    /*
+      Avisa de que el contenido de la cuadricula se ha cambiado desde fuera del tablero
+      Recorre la cuadricula una vez para poner al dia las estadisticas
+    */
+    void cuadriculaModificada() {
+        if (regla.estados() > 2) {
+            cuadricula.recalcularMuriendo();
+        }
+        motor.invalidar();
+        recalcularDatos();
+    }
+
+    /*
+      Pone al dia las estadisticas y, si se lleva, el hash tras un cambio masivo
+    */
+    private void recalcularDatos() {
+        estadisticas.recalcular(cuadricula);
+        if (conHash) {
+            hash = cuadricula.calcularHash();
+        }
+    }
+
+    /*
+      Activa o desactiva el hash del plano de celdas vivas (lo usa CycleDetector)
+      Activo, cada generacion suma a el lo que aportan las palabras que cambian, sin volver a
+      recorrer el tablero; desactivado no cuesta nada
+      @param activo true para llevar el hash
+    */
+    public void establecerHashActivo(boolean activo) {
+        if (activo && !conHash) {
+            hash = cuadricula.calcularHash();
+        }
+        conHash = activo;
+    }
+
+    /*
+      Activa o desactiva el conteo de nacimientos y muertes en cada generacion
+      Contarlos cuesta dos cuentas de bits por palabra, que en los motores SWAR y vectorial
+      es una parte apreciable del paso; sin conteo las celdas vivas y el histograma se
+      recuentan recorriendo el tablero cuando se leen (obtenerCantidadVivas, obtenerEstadisticas)
+      y los nacimientos y muertes de esas generaciones no se suman a los acumulados
+      Los cambios espontaneos se siguen contando
+      @param activo true para contar los cambios (por defecto)
+    */
+    public void establecerConteoCambios(boolean activo) {
+        if (activo) {
+            estadisticas.ponerAlDia(cuadricula);
+        }
+        contarCambios = activo;
+    }
+
+    /*
+      Obtiene el hash del plano de celdas vivas de la generacion actual
+      Dos tableros iguales tienen el mismo hash; el reciproco casi siempre es cierto,
+      pero no siempre, asi que un hash igual hay que confirmarlo comparando las celdas
+      @return el hash
+      @throws IllegalStateException si el hash no esta activo
+    */
+    public long obtenerHash() {
+        if (!conHash) {
+            throw new IllegalStateException("El hash del tablero no esta activo");
+        }
+        return hash;
+    }
+
+    /*
+      Compara el plano de celdas vivas actual con una copia
+      @param copia las palabras copiadas con copiarCeldas
+      @return true si todas las celdas coinciden
+    */
+    boolean mismasCeldas(long[] copia) {
+        return cuadricula.mismasPalabras(copia);
+    }
+
+    /*
+      Copia el plano de celdas vivas actual
+      @param copia un arreglo del tamaño del plano, o null para crear uno
+      @return la copia
+    */
+    long[] copiarCeldas(long[] copia) {
+        return cuadricula.copiarPalabras(copia);
+    }
+
+    /*
+      Lee una palabra de 64 celdas de la generacion actual
+      @param fila el indice de la fila
+      @param palabra el indice de la palabra dentro de la fila
+      @return los bits de esas celdas
+    */
+    long leerPalabra(int fila, int palabra) {
+        return cuadricula.leerPalabra(fila, palabra);
     }
 
     /*
       Obtiene una celula en la posicion especificada
+      La celula devuelta es una copia del estado actual, no una referencia al tablero
       @param fila el indice de la fila
       @param columna el indice de la columna
       @return la Celula en esa posicion
     */
     public Cell obtenerCelula(int fila, int columna) {
-        return cuadricula[fila][columna];
+        return new Cell(cuadricula.estaViva(fila, columna), cuadricula.edad(fila, columna));
     }
 
     /*
@@ -41,7 +423,11 @@ public class Board {
       @param columna el indice de la columna
     */
     public void establecerViva(int fila, int columna) {
-        cuadricula[fila][columna].setViva(true);
+        if (!cuadricula.estaViva(fila, columna)) {
+            cambiarCelda(fila, columna, true);
+            estadisticas.celdaCambiada(true, cuadricula.edad(fila, columna));
+        }
+        motor.invalidar();
     }
 
     /*
@@ -50,7 +436,21 @@ public class Board {
       @param columna el indice de la columna
     */
     public void establecerMuerta(int fila, int columna) {
-        cuadricula[fila][columna].setViva(false);
+        if (cuadricula.estaViva(fila, columna)) {
+            estadisticas.celdaCambiada(false, cuadricula.edad(fila, columna));
+            cambiarCelda(fila, columna, false);
+        }
+        motor.invalidar();
+    }
+
+    private void cambiarCelda(int fila, int columna, boolean viva) {
+        int palabra = columna >>> 6;
+        long antes = cuadricula.leerPalabra(fila, palabra);
+        cuadricula.establecer(fila, columna, viva);
+        if (conHash) {
+            hash += BitGrid.claveHash(fila * cuadricula.palabrasPorFila() + palabra)
+                    * (cuadricula.leerPalabra(fila, palabra) - antes);
+        }
     }
 
     /*
@@ -61,108 +461,172 @@ public class Board {
       @return el numero de vecinos vivos (0-8)
     */
     public int contarVecinos(int fila, int columna) {
-        int cantidad = 0;
-
-        // Verifica los 8 vecinos usando desplazamientos
-        // Desplazamientos: (-1,-1), (-1,0), (-1,1), (0,-1), (0,1), (1,-1), (1,0), (1,1)
-        for (int n = -1; n <= 1; n++) {
-            for (int y = -1; y <= 1; y++) {
-                // Salta la celula central (la celula misma)
-                if (n == 0 && y == 0) {
-                    continue;
-                }
-
-                // Calcula la posicion del vecino con envoltura (topologia esferica)
-                int filaVecino = (fila + n + TAMAÑO) % TAMAÑO;
-                int columnaVecino = (columna + y + TAMAÑO) % TAMAÑO;
-
-                // Cuenta si el vecino esta vivo
-                if (cuadricula[filaVecino][columnaVecino].estaViva()) {
-                    cantidad++;
-                }
-            }
-        }
-
-        return cantidad;
+        return ScalarEngine.contarVecinos(cuadricula, fila, columna);
     }
 
     /*
       Evoluciona el tablero una generacion aplicando todas las reglas del Juego de la Vida
-      Reglas:
+      Reglas (con la regla por defecto, B3/S234; ver establecerRegla):
       - Nacimiento: Una celula muerta con exactamente 3 vecinos cobra vida
       - Supervivencia: Una celula viva con 2, 3 o 4 vecinos sobrevive
       - Muerte: Una celula viva con < 2 o > 4 vecinos muere
-      - Espontaneo: 10% de probabilidad para que cualquier celula cambie de estado
+      - Espontaneo: 10% de probabilidad (configurable) para que cualquier celula cambie de estado
+      Usa doble buffer: escribe la nueva generacion en la cuadricula de reserva y
+      luego intercambia ambas, asi que no reserva memoria en cada generacion
+      Con mas de un hilo reparte las filas en bandas que se calculan en paralelo
+      El calculo de cada banda lo hace el motor configurado (SWAR por defecto)
+      Cada banda cuenta sus nacimientos, muertes, cambios espontaneos y edades mientras
+      calcula, y al final se suman en las estadisticas sin volver a recorrer el tablero;
+      igual con lo que cambia el hash, si esta activo
     */
     public void proximaGeneracion() {
-        // Crea un tablero temporal para almacenar los nuevos estados
-        Cell[][] nuevaCuadricula = new Cell[TAMAÑO][TAMAÑO];
-
-        // Primera pasada: Calcula los nuevos estados basados en el estado actual
-        for (int fila = 0; fila < TAMAÑO; fila++) {
-            for (int columna = 0; columna < TAMAÑO; columna++) {
-                int vecinos = contarVecinos(fila, columna);
-                boolean estadoActual = cuadricula[fila][columna].estaViva();
-                int edadActual = cuadricula[fila][columna].getEdad();
-                boolean nuevoEstado = estadoActual;
-
-                // Aplica la regla de nacimiento
-                if (!estadoActual && vecinos == 3) {
-                    nuevoEstado = true;
-                }
-                // Aplica las reglas de supervivencia y muerte
-                else if (estadoActual) {
-                    if (vecinos < 2 || vecinos > 4) {
-                        nuevoEstado = false; // Muerte
-                    }
-                    // si no: supervivencia (nuevoEstado permanece true)
-                }
+        contexto.preparar(cuadricula, siguiente, generacion, probabilidadVolteo, regla, conHash, contarCambios);
+        motor.prepararGeneracion(contexto);
+        if (bandas.length == 1) {
+            motor.evolucionar(contexto, bandas[0]);
+        } else {
+            obtenerPool(hilos).invoke(new PasoBandas(0, bandas.length));
+        }
 
-                // Aplica generacion/muerte espontanea (10% de probabilidad)
-                if (Math.random() < 0.1) {
-                    nuevoEstado = !nuevoEstado;
-                }
+        // Intercambia los buffers: la reserva pasa a ser el estado actual
+        BitGrid anterior = cuadricula;
+        cuadricula = siguiente;
+        siguiente = anterior;
+        generacion++;
+        for (RowBand banda : bandas) {
+            hash += banda.cambioHash;
+        }
+        estadisticas.acumular(bandas, cuadricula.registraEdades(), contarCambios);
+    }
 
-                // Crear nueva celula con estado actualizado
-                Cell nuevaCelula = new Cell(nuevoEstado);
-
-                // Mantener y actualizar edad
-                if (nuevoEstado && estadoActual) {
-                    // Supervivencia: incrementa edad
-                    nuevaCelula.setViva(true);
-                    for (int i = 0; i < edadActual + 1; i++) {
-                        nuevaCelula.incrementarEdad();
-                    }
-                } else if (nuevoEstado && !estadoActual) {
-                    // Nacimiento: edad es 1
-                    nuevaCelula.setViva(true);
-                } else {
-                    // Muerta: edad es 0
-                    nuevaCelula.setViva(false);
-                }
+    /*
+      Avanza varias generaciones; el resultado, las estadisticas y el hash quedan igual que con
+      otras tantas llamadas a proximaGeneracion
+      Con un bloque temporal mayor que 1 (establecerBloqueTemporal) avanza cada franja de filas
+      varias generaciones seguidas mientras esta en cache, asi que el tablero se recorre una vez
+      por bloque en lugar de una vez por generacion. Solo se puede con reglas de dos estados, sin
+      registro de edades y con cambios espontaneos que no dependan del hilo (modo contador o
+      probabilidad 0); si no, y para la ultima generacion suelta, calcula generacion a generacion
+      Las estadisticas de la ultima generacion son las de la ultima del bloque
+      @param generaciones las generaciones a avanzar
+    */
+    public void avanzar(long generaciones) {
+        long hechas = 0;
+        if (bloqueTemporal > 1 && admiteBloqueTemporal()) {
+            while (generaciones - hechas >= 2) {
+                int pasos = (int) Math.min(bloqueTemporal, generaciones - hechas);
+                avanzarBloque(pasos);
+                hechas += pasos;
+            }
+        }
+        for (; hechas < generaciones; hechas++) {
+            proximaGeneracion();
+        }
+    }
+
+    private boolean admiteBloqueTemporal() {
+        return !cuadricula.registraEdades() && regla.estados() == 2
+                && (probabilidadVolteo.esCero() || fuente.independienteDeHilos());
+    }
 
-                nuevaCuadricula[fila][columna] = nuevaCelula;
+    /*
+      Avanza un bloque de generaciones con TemporalBlockStepper, repartiendo las bandas igual que
+      proximaGeneracion, y suma las cuentas de cada paso como si fueran generaciones sueltas
+    */
+    private void avanzarBloque(int pasos) {
+        int palabrasPorFila = cuadricula.palabrasPorFila();
+        if (pasoTemporal == null || !pasoTemporal.sirve(bloqueTemporal, palabrasPorFila, bandas.length)) {
+            pasoTemporal = new TemporalBlockStepper(bloqueTemporal, palabrasPorFila, bandas.length);
+        }
+        contexto.preparar(cuadricula, siguiente, generacion, probabilidadVolteo, regla, conHash, contarCambios);
+        pasosBloque = pasos;
+        try {
+            if (bandas.length == 1) {
+                pasoTemporal.avanzarBanda(contexto, bandas[0], 0, pasos);
+            } else {
+                obtenerPool(hilos).invoke(new PasoBandas(0, bandas.length));
             }
+        } finally {
+            pasosBloque = 0;
         }
 
-        // Actualiza el tablero con los nuevos estados
-        this.cuadricula = nuevaCuadricula;
+        BitGrid anterior = cuadricula;
+        cuadricula = siguiente;
+        siguiente = anterior;
+        generacion += pasos;
+        for (int paso = 0; paso < pasos; paso++) {
+            for (int b = 0; b < bandas.length; b++) {
+                bandas[b].sumar(pasoTemporal.nacimientos[b][paso], pasoTemporal.muertes[b][paso],
+                        pasoTemporal.volteos[b][paso], 0L);
+            }
+            estadisticas.acumular(bandas, false, contarCambios);
+        }
+        for (int b = 0; b < bandas.length; b++) {
+            hash += pasoTemporal.cambioHash[b];
+        }
+        // Las copias que guardan los motores se quedaron en la generacion anterior al bloque
+        motor.invalidar();
     }
 
     /*
-      Obtiene el numero total de celdas vivas en el tablero
-      @return cantidad de celdas vivas
+      Obtiene el pool de hilos compartido con el paralelismo pedido
+      @param hilos el numero de hilos
+      @return el pool a usar
+    */
+    private static ForkJoinPool obtenerPool(int hilos) {
+        return POOLS.computeIfAbsent(hilos, ForkJoinPool::new);
+    }
+
+    /*
+      Tarea que divide un rango de bandas en dos mitades hasta llegar a una sola banda
+      Cada banda la calcula el motor, o TemporalBlockStepper dentro de avanzar
     */
-    public int obtenerCantidadVivas() {
-        int cantidad = 0;
-        for (int fila = 0; fila < TAMAÑO; fila++) {
-            for (int columna = 0; columna < TAMAÑO; columna++) {
-                if (cuadricula[fila][columna].estaViva()) {
-                    cantidad++;
+    private final class PasoBandas extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int desde;
+        private final int hasta;
+
+        PasoBandas(int desde, int hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde == 1) {
+                if (pasosBloque > 0) {
+                    pasoTemporal.avanzarBanda(contexto, bandas[desde], desde, pasosBloque);
+                } else {
+                    motor.evolucionar(contexto, bandas[desde]);
                 }
+                return;
             }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new PasoBandas(desde, medio), new PasoBandas(medio, hasta));
         }
-        return cantidad;
+    }
+
+    /*
+      Obtiene el numero total de celdas vivas en el tablero
+      Se mantiene al dia en cada generacion (ver BoardStats), asi que no recorre el tablero,
+      salvo si se han calculado generaciones sin conteo de cambios (establecerConteoCambios)
+      @return cantidad de celdas vivas
+    */
+    public long obtenerCantidadVivas() {
+        estadisticas.ponerAlDia(cuadricula);
+        return estadisticas.obtenerVivas();
+    }
+
+    /*
+      Obtiene las estadisticas de poblacion del tablero
+      Es una vista que se actualiza sola en cada generacion; leerla no recorre el tablero
+      Sin conteo de cambios la poblacion y el histograma solo se ponen al dia al llamar aqui
+      @return las estadisticas
+    */
+    public BoardStats obtenerEstadisticas() {
+        estadisticas.ponerAlDia(cuadricula);
+        return estadisticas;
     }
 
     /*
@@ -171,41 +635,109 @@ public class Board {
       Las celdas estan separadas por espacios para mejor legibilidad
     */
     public void mostrar() {
-        for (int fila = 0; fila < TAMAÑO; fila++) {
-            for (int columna = 0; columna < TAMAÑO; columna++) {
-                System.out.print(cuadricula[fila][columna].aCaracter() + " ");
+        // Todo el tablero se compone en memoria y se escribe con una sola llamada
+        StringBuilder texto = new StringBuilder(alto * (ancho * 2 + 1));
+        for (int fila = 0; fila < alto; fila++) {
+            for (int columna = 0; columna < ancho; columna++) {
+                texto.append(cuadricula.estaViva(fila, columna) ? '1' : '0').append(' ');
             }
-            System.out.println();
+            texto.append('\n');
         }
+        System.out.print(texto);
     }
 
     /*
       Obtiene el tamaño del tablero
-      @return el tamaño de la cuadricula cuadrada
+      Se mantiene por compatibilidad con tableros cuadrados
+      @return el ancho de la cuadricula
     */
     public int obtenerTamaño() {
-        return TAMAÑO;
+        return ancho;
+    }
+
+    /*
+      Obtiene el numero de columnas del tablero
+      @return el ancho de la cuadricula
+    */
+    public int obtenerAncho() {
+        return ancho;
+    }
+
+    /*
+      Obtiene el numero de filas del tablero
+      @return el alto de la cuadricula
+    */
+    public int obtenerAlto() {
+        return alto;
+    }
+
+    /*
+      Obtiene el numero total de celdas del tablero
+      @return ancho * alto
+    */
+    public long obtenerTotalCeldas() {
+        return (long) ancho * alto;
+    }
+
+    /*
+      Indica si el tablero guarda la edad de cada celda
+      @return true si se registran edades
+    */
+    public boolean registraEdades() {
+        return cuadricula.registraEdades();
+    }
+
+    /*
+      Indica si las celdas del tablero estan en memoria directa (ver OffHeapGrid)
+      @return true si las cuadriculas estan fuera del heap
+    */
+    public boolean fueraDelHeap() {
+        return cuadricula.fueraDelHeap();
+    }
+
+    /*
+      Devuelve al sistema la memoria directa de las dos cuadriculas sin esperar al recolector
+      Despues el tablero no se puede usar; en el heap no hace nada
+    */
+    public void liberar() {
+        motor.invalidar();
+        cuadricula.liberar();
+        siguiente.liberar();
+    }
+
+    /*
+      Obtiene la memoria que ocupa el almacenamiento de las celdas
+      @return bytes usados por los bits y las edades
+    */
+    public long obtenerMemoriaBytes() {
+        return cuadricula.bytesUsados();
     }
 
     /*
       Muestra un registro detallado de cada celula en el tablero
-      Incluye posicion, estado (viva/muerta), y edad
+      Incluye posicion, estado (viva/muerta, o muriendo con una regla Generations), y edad
     */
     public void mostrarRegistroCeldas() {
-        System.out.println("\n--- REGISTRO DETALLADO DE CELDAS ---");
-        System.out.println("Formato: Posicion(fila,columna) | Estado | Edad");
-        System.out.println("-----------------------------------");
-
-        for (int fila = 0; fila < TAMAÑO; fila++) {
-            for (int columna = 0; columna < TAMAÑO; columna++) {
-                Cell celula = cuadricula[fila][columna];
-                String estado = celula.estaViva() ? "VIVA" : "MUERTA";
-                String posicion = "(" + fila + "," + columna + ")";
-                String edad = String.valueOf(celula.getEdad());
-
-                System.out.println(posicion + " | " + estado + " | " + edad);
+        StringBuilder texto = new StringBuilder();
+        texto.append("\n--- REGISTRO DETALLADO DE CELDAS ---\n");
+        texto.append("Formato: Posicion(fila,columna) | Estado | Edad\n");
+        texto.append("-----------------------------------\n");
+
+        for (int fila = 0; fila < alto; fila++) {
+            for (int columna = 0; columna < ancho; columna++) {
+                texto.append('(').append(fila).append(',').append(columna).append(") | ")
+                        .append(estado(fila, columna)).append(" | ")
+                        .append(cuadricula.edad(fila, columna)).append('\n');
             }
         }
-        System.out.println("-----------------------------------\n");
+        texto.append("-----------------------------------\n");
+        System.out.println(texto);
+    }
+
+    private String estado(int fila, int columna) {
+        if (cuadricula.estaViva(fila, columna)) {
+            return "VIVA";
+        }
+        return regla.estados() > 2 && cuadricula.edad(fila, columna) > 0 ? "MURIENDO" : "MUERTA";
     }
 }
@@ -0,0 +1,208 @@
+/*
+  Clase EstadisticasTablero - datos de poblacion de un tablero que se mantienen al dia
+  mientras se calcula cada generacion, asi que leerlos no recorre el tablero
+  - celdas vivas
+  - nacimientos, muertes y cambios espontaneos de la ultima generacion y acumulados
+  - histograma de edades de las celdas vivas en cubos potencia de 2
+  Cada banda de filas cuenta lo suyo (RowBand) y Board suma las bandas al final del paso;
+  la poblacion se actualiza con nacimientos - muertes, sin contar las celdas vivas
+  Un nacimiento o una muerte es cualquier cambio de estado de una celda en la generacion,
+  lo cause la regla o un cambio espontaneo
+  Si Board no cuenta los cambios (establecerConteoCambios) las celdas vivas quedan pendientes
+  y Board las recuenta con ponerAlDia la proxima vez que alguien las lea
+*/
+
+import java.util.Arrays;
+
+public final class BoardStats {
+    // Cubo i = celdas vivas con edad en [2^i, 2^(i+1)); las edades llegan a 32767 (cubo 14)
+    public static final int CUBOS_EDAD = 15;
+
+    private long vivas;
+    private long nacimientos;
+    private long muertes;
+    private long volteos;
+    private long nacimientosTotales;
+    private long muertesTotales;
+    private long volteosTotales;
+    private final long[] histogramaEdades;
+    // true si ha habido generaciones sin contar nacimientos ni muertes desde el ultimo recuento
+    private boolean pendiente;
+
+    BoardStats() {
+        this.histogramaEdades = new long[CUBOS_EDAD];
+    }
+
+    /*
+      Obtiene el cubo del histograma de una edad
+      Una celda viva con edad 0 (puesta a mano) cuenta en el cubo 0
+      @param edad la edad de una celda viva
+      @return el indice del cubo
+    */
+    static int cubo(int edad) {
+        return edad <= 1 ? 0 : 31 - Integer.numberOfLeadingZeros(edad);
+    }
+
+    /*
+      Recalcula todo recorriendo la cuadricula; se usa despues de cambios masivos hechos
+      fuera de proximaGeneracion (relleno, carga, importacion). No toca los acumulados
+      @param cuadricula la cuadricula actual
+    */
+    void recalcular(BitGrid cuadricula) {
+        pendiente = false;
+        vivas = cuadricula.contarVivas();
+        Arrays.fill(histogramaEdades, 0L);
+        if (cuadricula.registraEdades()) {
+            cuadricula.histogramaEdades(histogramaEdades);
+        } else {
+            histogramaEdades[0] = vivas;
+        }
+    }
+
+    /*
+      Recuenta las celdas vivas si alguna generacion se calculo sin contar los cambios
+      @param cuadricula la cuadricula actual
+    */
+    void ponerAlDia(BitGrid cuadricula) {
+        if (pendiente) {
+            recalcular(cuadricula);
+        }
+    }
+
+    /*
+      Registra el cambio de una celda hecho a mano
+      @param viva el nuevo estado
+      @param edad la edad que tiene la celda
+    */
+    void celdaCambiada(boolean viva, int edad) {
+        int cubo = cubo(edad);
+        if (viva) {
+            vivas++;
+            histogramaEdades[cubo]++;
+        } else {
+            vivas--;
+            histogramaEdades[cubo]--;
+        }
+    }
+
+    /*
+      Suma lo que han contado las bandas en la generacion recien calculada y las deja a cero
+      @param bandas las bandas del paso
+      @param conEdades true si las bandas han rellenado el histograma de edades
+      @param conCambios true si las bandas han contado nacimientos y muertes; si no, las celdas
+      vivas quedan pendientes de recuento
+    */
+    void acumular(RowBand[] bandas, boolean conEdades, boolean conCambios) {
+        nacimientos = 0;
+        muertes = 0;
+        volteos = 0;
+        if (conEdades) {
+            Arrays.fill(histogramaEdades, 0L);
+        }
+        for (RowBand banda : bandas) {
+            nacimientos += banda.nacimientos;
+            muertes += banda.muertes;
+            volteos += banda.volteos;
+            if (conEdades) {
+                for (int i = 0; i < CUBOS_EDAD; i++) {
+                    histogramaEdades[i] += banda.histogramaEdades[i];
+                }
+            }
+            banda.reiniciarCuentas();
+        }
+
+        pendiente |= !conCambios;
+        vivas += nacimientos - muertes;
+        nacimientosTotales += nacimientos;
+        muertesTotales += muertes;
+        volteosTotales += volteos;
+        if (!conEdades) {
+            // Sin registro de edades toda celda viva tiene edad 1
+            histogramaEdades[0] = vivas;
+        }
+    }
+
+    /*
+      Obtiene el numero de celdas vivas
+      @return las celdas vivas
+    */
+    public long obtenerVivas() {
+        return vivas;
+    }
+
+    /*
+      Obtiene las celdas que nacieron en la ultima generacion
+      @return las celdas que pasaron de muertas a vivas
+    */
+    public long obtenerNacimientos() {
+        return nacimientos;
+    }
+
+    /*
+      Obtiene las celdas que murieron en la ultima generacion
+      @return las celdas que pasaron de vivas a muertas
+    */
+    public long obtenerMuertes() {
+        return muertes;
+    }
+
+    /*
+      Obtiene los cambios espontaneos de la ultima generacion
+      @return las celdas cuyo estado invirtio la regla espontanea
+    */
+    public long obtenerVolteos() {
+        return volteos;
+    }
+
+    /*
+      Obtiene los nacimientos de todas las generaciones calculadas por este tablero
+      @return el total de nacimientos
+    */
+    public long obtenerNacimientosTotales() {
+        return nacimientosTotales;
+    }
+
+    /*
+      Obtiene las muertes de todas las generaciones calculadas por este tablero
+      @return el total de muertes
+    */
+    public long obtenerMuertesTotales() {
+        return muertesTotales;
+    }
+
+    /*
+      Obtiene los cambios espontaneos de todas las generaciones calculadas por este tablero
+      @return el total de cambios espontaneos
+    */
+    public long obtenerVolteosTotales() {
+        return volteosTotales;
+    }
+
+    /*
+      Obtiene el histograma de edades de las celdas vivas
+      @return una copia: la posicion i tiene las celdas vivas con edad en [2^i, 2^(i+1))
+    */
+    public long[] obtenerHistogramaEdades() {
+        return histogramaEdades.clone();
+    }
+
+    /*
+      Describe el histograma en una linea, sin los cubos vacios
+      @return por ejemplo "1: 120 | 2-3: 40 | 4-7: 3"
+    */
+    public String describirHistograma() {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < CUBOS_EDAD; i++) {
+            if (histogramaEdades[i] == 0) {
+                continue;
+            }
+            if (texto.length() > 0) {
+                texto.append(" | ");
+            }
+            int desde = 1 << i;
+            int hasta = Math.min((1 << (i + 1)) - 1, BitGrid.EDAD_MAXIMA);
+            texto.append(desde == hasta ? String.valueOf(desde) : desde + "-" + hasta).append(": ").append(histogramaEdades[i]);
+        }
+        return texto.length() == 0 ? "sin celdas vivas" : texto.toString();
+    }
+}
@@ -23,6 +23,17 @@ public class Cell {
         this.edad = viva ? 1 : 0;
     }
 
+    /*
+      Constructor - inicializa una celula con estado y edad especificos
+      Se usa para reconstruir una celula a partir del almacenamiento del tablero
+      @param viva el estado de la celula
+      @param edad la edad en generaciones
+    */
+    public Cell(boolean viva, int edad) {
+        this.viva = viva;
+        this.edad = edad;
+    }
+
     /*
       Verifica si la celula esta viva
       @return true si esta viva, false si esta muerta
@@ -0,0 +1,143 @@
+/*
+  Clase OpcionesLinea - interpreta los argumentos de la linea de comandos
+  Acepta opciones con la forma --clave valor o --clave=valor
+  Una opcion sin valor (seguida de otra opcion o al final) vale "true"
+*/
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CommandLineOptions {
+    private final Map<String, String> valores;
+
+    /*
+      Constructor - crea un conjunto de opciones vacio
+    */
+    private CommandLineOptions() {
+        this.valores = new HashMap<>();
+    }
+
+    /*
+      Interpreta los argumentos recibidos en main
+      @param args los argumentos de la linea de comandos
+      @return las opciones leidas
+      @throws IllegalArgumentException si algun argumento no empieza por --
+    */
+    public static CommandLineOptions parsear(String[] args) {
+        CommandLineOptions opciones = new CommandLineOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            String argumento = args[i];
+            if (!argumento.startsWith("--") || argumento.length() == 2) {
+                throw new IllegalArgumentException("Argumento no reconocido: " + argumento);
+            }
+
+            String clave = argumento.substring(2);
+            String valor = "true";
+            int igual = clave.indexOf('=');
+            if (igual >= 0) {
+                valor = clave.substring(igual + 1);
+                clave = clave.substring(0, igual);
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                valor = args[++i];
+            }
+
+            opciones.valores.put(clave.toLowerCase(), valor);
+        }
+
+        return opciones;
+    }
+
+    /*
+      Indica si la opcion aparece en la linea de comandos
+      @param clave el nombre de la opcion sin los guiones
+      @return true si se ha indicado
+    */
+    public boolean tiene(String clave) {
+        return valores.containsKey(clave);
+    }
+
+    /*
+      Obtiene el valor de texto de una opcion
+      @param clave el nombre de la opcion sin los guiones
+      @param porDefecto el valor si no se ha indicado
+      @return el valor de la opcion
+    */
+    public String obtener(String clave, String porDefecto) {
+        return valores.getOrDefault(clave, porDefecto);
+    }
+
+    /*
+      Obtiene el valor entero de una opcion dentro de un rango
+      @param clave el nombre de la opcion sin los guiones
+      @param porDefecto el valor si no se ha indicado
+      @param min el valor minimo permitido
+      @param max el valor maximo permitido
+      @return el valor de la opcion
+      @throws IllegalArgumentException si no es un numero o esta fuera de rango
+    */
+    public int obtenerEntero(String clave, int porDefecto, int min, int max) {
+        String valor = valores.get(clave);
+        if (valor == null) {
+            return porDefecto;
+        }
+
+        int numero;
+        try {
+            numero = Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + clave + " debe ser un numero entero: " + valor);
+        }
+        if (numero < min || numero > max) {
+            throw new IllegalArgumentException("--" + clave + " debe estar entre " + min + " y " + max);
+        }
+        return numero;
+    }
+
+    /*
+      Obtiene el valor entero largo de una opcion
+      @param clave el nombre de la opcion sin los guiones
+      @param porDefecto el valor si no se ha indicado
+      @return el valor de la opcion
+      @throws IllegalArgumentException si no es un numero
+    */
+    public long obtenerLong(String clave, long porDefecto) {
+        String valor = valores.get(clave);
+        if (valor == null) {
+            return porDefecto;
+        }
+
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + clave + " debe ser un numero entero: " + valor);
+        }
+    }
+
+    /*
+      Obtiene el valor decimal de una opcion dentro de un rango
+      @param clave el nombre de la opcion sin los guiones
+      @param porDefecto el valor si no se ha indicado
+      @param min el valor minimo permitido
+      @param max el valor maximo permitido
+      @return el valor de la opcion
+      @throws IllegalArgumentException si no es un numero o esta fuera de rango
+    */
+    public double obtenerDecimal(String clave, double porDefecto, double min, double max) {
+        String valor = valores.get(clave);
+        if (valor == null) {
+            return porDefecto;
+        }
+
+        double numero;
+        try {
+            numero = Double.parseDouble(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + clave + " debe ser un numero: " + valor);
+        }
+        if (!(numero >= min && numero <= max)) {
+            throw new IllegalArgumentException("--" + clave + " debe estar entre " + min + " y " + max);
+        }
+        return numero;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+  Clase DetectorCiclos - descubre cuando un tablero determinista vuelve a un estado anterior
+  (vida estatica, oscilador o tablero vacio), para poder parar o saltar las generaciones que faltan
+  Usa el hash del plano de celdas vivas que Board mantiene al calcular cada generacion
+  (ver BitGrid.claveHash) y guarda los hashes de las ultimas generaciones en un anillo:
+  - si el hash actual coincide con el de hace p generaciones hay un candidato de periodo p;
+    se copian las celdas actuales y se sigue calculando
+  - p generaciones despues se comparan las celdas de verdad con la copia; solo si son iguales
+    se confirma el ciclo, asi que una colision del hash nunca para la simulacion por error
+  Solo sirve sin cambios espontaneos: con ellos el tablero no es una funcion de su estado anterior
+  Tampoco con reglas Generations, cuyo estado incluye las celdas que se estan muriendo
+  Las edades no forman parte del estado comparado; al saltar periodos no se envejecen las celdas
+*/
+
+public final class CycleDetector {
+    public static final String SEGUIR = "seguir";
+    public static final String PARAR = "parar";
+    public static final String SALTAR = "saltar";
+    // Periodo mas largo que se puede detectar
+    public static final int HISTORIA_POR_DEFECTO = 1024;
+
+    private final Board board;
+    private final long[] hashes;
+    private int siguiente;
+    private int guardados;
+
+    private long[] copia;
+    private boolean hayCandidato;
+    private int periodoCandidato;
+    private long generacionCandidata;
+    private long hashCandidato;
+    private long falsasAlarmas;
+
+    private int periodo;
+    private long generacionConfirmada;
+    private long saltadas;
+
+    /*
+      Constructor - empieza a vigilar un tablero desde su generacion actual
+      Activa el hash del tablero, que se desactiva al confirmar un ciclo o con terminar
+      @param board el tablero
+      @param historia cuantas generaciones recientes se recuerdan (el periodo maximo detectable)
+      @throws IllegalArgumentException si el tablero tiene cambios espontaneos o una regla Generations,
+              o la historia no es positiva
+    */
+    public CycleDetector(Board board, int historia) {
+        if (historia < 1) {
+            throw new IllegalArgumentException("La historia de ciclos debe ser al menos 1: " + historia);
+        }
+        validar(board);
+        this.board = board;
+        this.hashes = new long[historia];
+        board.establecerHashActivo(true);
+        recordar(board.obtenerHash());
+    }
+
+    private static void validar(Board board) {
+        if (board.obtenerProbabilidadVolteo() != 0.0) {
+            throw new IllegalArgumentException("La deteccion de ciclos necesita probabilidad de cambio espontaneo 0");
+        }
+        if (board.obtenerRegla().estados() > 2) {
+            throw new IllegalArgumentException("La deteccion de ciclos no admite reglas Generations: " + board.obtenerRegla());
+        }
+    }
+
+    /*
+      Vuelve a vigilar el tablero desde su generacion actual, olvidando lo visto hasta ahora
+      Reutiliza el anillo de hashes, para tableros que se rellenan de nuevo en cada corrida
+      @throws IllegalArgumentException si el tablero ya tiene cambios espontaneos o una regla Generations
+    */
+    public void reiniciar() {
+        validar(board);
+        siguiente = 0;
+        guardados = 0;
+        hayCandidato = false;
+        falsasAlarmas = 0;
+        periodo = 0;
+        generacionConfirmada = 0;
+        saltadas = 0;
+        board.establecerHashActivo(true);
+        recordar(board.obtenerHash());
+    }
+
+    /*
+      Comprueba si un modo de deteccion es valido
+      @param modo el modo pedido
+      @return el mismo modo
+      @throws IllegalArgumentException si no es seguir, parar ni saltar
+    */
+    public static String validarModo(String modo) {
+        if (!modo.equals(SEGUIR) && !modo.equals(PARAR) && !modo.equals(SALTAR)) {
+            throw new IllegalArgumentException("El modo de ciclos debe ser '" + SEGUIR + "', '" + PARAR + "' o '"
+                    + SALTAR + "': " + modo);
+        }
+        return modo;
+    }
+
+    /*
+      Registra la generacion recien calculada; se llama despues de cada proximaGeneracion
+      Cuesta una lectura del hash y un recorrido del anillo de hashes; solo copia o compara
+      las celdas cuando hay un candidato
+      @return true si con esta generacion se confirma un ciclo
+    */
+    public boolean observar() {
+        if (periodo != 0) {
+            return true;
+        }
+        long hash = board.obtenerHash();
+        long generacion = board.obtenerGeneracion();
+
+        if (hayCandidato && generacion - generacionCandidata == periodoCandidato) {
+            hayCandidato = false;
+            if (hash == hashCandidato && board.mismasCeldas(copia)) {
+                periodo = periodoCandidato;
+                generacionConfirmada = generacion;
+                copia = null;
+                board.establecerHashActivo(false);
+                return true;
+            }
+            falsasAlarmas++;
+        }
+
+        if (!hayCandidato) {
+            int distancia = buscar(hash);
+            if (distancia > 0) {
+                hayCandidato = true;
+                periodoCandidato = distancia;
+                generacionCandidata = generacion;
+                hashCandidato = hash;
+                copia = board.copiarCeldas(copia);
+            }
+        }
+        recordar(hash);
+        return false;
+    }
+
+    /*
+      Salta todos los periodos completos que caben en las generaciones que faltan
+      Como el tablero repite su estado cada periodo, solo cambia el numero de generacion
+      @param restantes las generaciones que faltaban por calcular
+      @return las generaciones saltadas (multiplo del periodo, menor o igual que restantes)
+      @throws IllegalStateException si aun no se ha confirmado un ciclo
+    */
+    public long saltar(long restantes) {
+        if (periodo == 0) {
+            throw new IllegalStateException("No se ha confirmado ningun ciclo");
+        }
+        long salto = restantes / periodo * periodo;
+        board.establecerGeneracion(board.obtenerGeneracion() + salto);
+        saltadas += salto;
+        return salto;
+    }
+
+    /*
+      Deja de vigilar el tablero y desactiva su hash
+    */
+    public void terminar() {
+        copia = null;
+        board.establecerHashActivo(false);
+    }
+
+    /*
+      Obtiene el periodo del ciclo confirmado
+      @return 1 para una vida estatica (o un tablero vacio), p para un oscilador de periodo p, 0 si no hay ciclo
+    */
+    public int obtenerPeriodo() {
+        return periodo;
+    }
+
+    /*
+      Obtiene la generacion en la que se confirmo el ciclo
+      @return la generacion, o -1 si no hay ciclo
+    */
+    public long obtenerGeneracionConfirmada() {
+        return periodo == 0 ? -1 : generacionConfirmada;
+    }
+
+    /*
+      Obtiene las generaciones saltadas con saltar
+      @return el total de generaciones saltadas
+    */
+    public long obtenerSaltadas() {
+        return saltadas;
+    }
+
+    /*
+      Obtiene cuantas coincidencias del hash resultaron no ser el mismo tablero
+      @return las falsas alarmas descartadas al comparar las celdas
+    */
+    public long obtenerFalsasAlarmas() {
+        return falsasAlarmas;
+    }
+
+    /*
+      Describe el ciclo confirmado en una linea
+      @return por ejemplo "Vida estatica detectada en la generacion 12"
+    */
+    public String describir() {
+        if (periodo == 0) {
+            return "No se ha detectado ningun ciclo";
+        }
+        if (periodo == 1 && board.obtenerCantidadVivas() == 0) {
+            // El vacio se repite en la generacion siguiente y se confirma en la otra
+            return "Tablero vacio desde la generacion " + (generacionConfirmada - 2);
+        }
+        if (periodo == 1) {
+            return "Vida estatica detectada en la generacion " + generacionConfirmada;
+        }
+        return "Ciclo de periodo " + periodo + " detectado en la generacion " + generacionConfirmada;
+    }
+
+    /*
+      Busca el hash en el anillo, del mas reciente al mas antiguo
+      @return cuantas generaciones atras se vio, o 0 si no esta
+    */
+    private int buscar(long hash) {
+        int posicion = siguiente;
+        for (int distancia = 1; distancia <= guardados; distancia++) {
+            posicion = posicion == 0 ? hashes.length - 1 : posicion - 1;
+            if (hashes[posicion] == hash) {
+                return distancia;
+            }
+        }
+        return 0;
+    }
+
+    private void recordar(long hash) {
+        hashes[siguiente] = hash;
+        siguiente = siguiente + 1 == hashes.length ? 0 : siguiente + 1;
+        if (guardados < hashes.length) {
+            guardados++;
+        }
+    }
+}
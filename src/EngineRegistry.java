@@ -0,0 +1,144 @@
+/*
+  Clase RegistroMotores - crea los motores de evolucion por nombre y elige el mas rapido
+  El motor vectorial se carga por reflexion para que el programa funcione aunque
+  el modulo jdk.incubator.vector no se haya añadido al arrancar la JVM
+*/
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class EngineRegistry {
+    // Tamaño del tablero de calibracion y tiempo dedicado a medir cada motor
+    private static final int TAMAÑO_CALIBRACION = 512;
+    private static final long NANOS_CALIBRACION = 150_000_000L;
+
+    private static final boolean VECTORIAL_DISPONIBLE = crearVectorial() != null;
+    // Resultado de la calibracion: la CPU no cambia mientras dura el proceso
+    private static volatile String masRapido;
+
+    private EngineRegistry() {
+    }
+
+    /*
+      Obtiene los nombres de los motores que se pueden usar en esta JVM
+      @return los nombres, del mas sencillo al mas especializado
+    */
+    public static List<String> disponibles() {
+        List<String> nombres = new ArrayList<>();
+        nombres.add("escalar");
+        nombres.add("swar");
+        nombres.add("disperso");
+        nombres.add("teselas");
+        if (VECTORIAL_DISPONIBLE) {
+            nombres.add("vector");
+        }
+        return nombres;
+    }
+
+    /*
+      Crea un motor por su nombre
+      @param nombre el nombre del motor (escalar, swar, disperso, teselas, vector)
+      @return un motor nuevo
+      @throws IllegalArgumentException si el motor no existe o no esta disponible
+    */
+    public static SteppingEngine crear(String nombre) {
+        switch (nombre) {
+            case "escalar":
+                return new ScalarEngine();
+            case "swar":
+                return new SwarEngine();
+            case "disperso":
+                return new SparseEngine();
+            case "teselas":
+                return new TiledEngine();
+            case "vector":
+                if (!VECTORIAL_DISPONIBLE) {
+                    throw new IllegalArgumentException(
+                            "El motor 'vector' necesita arrancar la JVM con --add-modules jdk.incubator.vector");
+                }
+                return crearVectorial();
+            default:
+                throw new IllegalArgumentException("Motor desconocido: " + nombre + " (disponibles: " + disponibles() + ")");
+        }
+    }
+
+    /*
+      Mide cada motor disponible en un tablero aleatorio y devuelve el mas rapido
+      No mide el escalar (siempre es el mas lento) ni el disperso (depende de la actividad del tablero)
+      Solo mide la primera vez; despues devuelve el mismo motor
+      @return el nombre del motor mas rapido en esta CPU
+    */
+    public static String seleccionarMasRapido() {
+        String elegido = masRapido;
+        if (elegido == null) {
+            elegido = medirMasRapido();
+            masRapido = elegido;
+        }
+        return elegido;
+    }
+
+    private static String medirMasRapido() {
+        String mejor = "swar";
+        double mejorVelocidad = -1;
+
+        for (String nombre : disponibles()) {
+            if (nombre.equals("escalar") || nombre.equals("disperso")) {
+                continue;
+            }
+            double velocidad = medir(crear(nombre));
+            if (velocidad > mejorVelocidad) {
+                mejorVelocidad = velocidad;
+                mejor = nombre;
+            }
+        }
+        return mejor;
+    }
+
+    /*
+      Mide las generaciones por segundo de un motor en un tablero de calibracion
+      Sin cambios espontaneos ni edades: con ellos la medida seria sobre todo la del generador
+      aleatorio y la de las edades, que cuestan lo mismo con cualquier motor
+      @param motor el motor a medir
+      @return generaciones por segundo (tras un calentamiento)
+    */
+    private static double medir(SteppingEngine motor) {
+        Board tablero = new Board(TAMAÑO_CALIBRACION, TAMAÑO_CALIBRACION, false);
+        tablero.establecerSemilla(1L);
+        tablero.establecerProbabilidadVolteo(0.0);
+        tablero.rellenarAleatorio(0.3);
+        tablero.establecerMotor(motor);
+
+        // Calentamiento para que el JIT compile el bucle interior
+        long fin = System.nanoTime() + NANOS_CALIBRACION;
+        while (System.nanoTime() < fin) {
+            tablero.proximaGeneracion();
+        }
+
+        int generaciones = 0;
+        long inicio = System.nanoTime();
+        fin = inicio + NANOS_CALIBRACION;
+        while (System.nanoTime() < fin) {
+            tablero.proximaGeneracion();
+            generaciones++;
+        }
+        return generaciones / ((System.nanoTime() - inicio) / 1e9);
+    }
+
+    /*
+      Intenta crear el motor vectorial
+      @return el motor, o null si la Vector API no esta disponible
+    */
+    private static SteppingEngine crearVectorial() {
+        try {
+            SteppingEngine motor = (SteppingEngine) Class.forName("VectorEngine").getDeclaredConstructor().newInstance();
+
+            // Un paso de prueba fuerza la carga de las clases del modulo incubator
+            Board prueba = new Board(256, 3, false);
+            prueba.establecerMotor(motor);
+            prueba.proximaGeneracion();
+            return motor;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+  Clase EjecutorConjunto - simula muchos tableros independientes (estudios Monte Carlo) y
+  resume sus resultados en histogramas, sin guardar ningun tablero ni ningun resultado suelto
+  Cada corrida i empieza con un relleno aleatorio y cambios espontaneos de la fuente contador
+  con semilla semillaDeCorrida(i), asi que su resultado solo depende de i y de la semilla base,
+  no del reparto entre hilos, y se puede repetir sola con --headless --semilla
+  Se lanzan tantos trabajadores como hilos; cada uno crea un tablero y lo reutiliza en todas
+  las corridas que toma de un contador compartido, asi que la memoria no crece con el numero
+  de corridas. Los trabajadores corren en un ForkJoinPool (robo de trabajo) o, desde Java 21,
+  en hilos virtuales; el programa se compila para Java 17, asi que estos se buscan por reflexion
+  Cada corrida termina al llegar a las generaciones pedidas o al extinguirse (0 celdas vivas,
+  salvo con reglas B0, en las que el vacio no es estable)
+*/
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class EnsembleRunner {
+    public static final String POOL = "pool";
+    public static final String VIRTUALES = "virtuales";
+    // Incremento de Weyl de SplitMix64: separa las semillas de corridas consecutivas
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final int ancho;
+    private final int alto;
+    private final int generaciones;
+    private double densidad;
+    private double probabilidadVolteo;
+    private Rule regla;
+    private long semilla;
+    private String motor;
+    private int hilos;
+    private String modoHilos;
+
+    /*
+      Constructor - prepara un conjunto de corridas con los parametros por defecto del juego
+      (densidad 0.3, cambio espontaneo 0.1, regla por defecto, motor swar, un hilo por nucleo)
+      @param ancho las columnas de cada tablero
+      @param alto las filas de cada tablero
+      @param generaciones las generaciones de cada corrida como mucho
+    */
+    public EnsembleRunner(int ancho, int alto, int generaciones) {
+        if (generaciones < 0) {
+            throw new IllegalArgumentException("Las generaciones no pueden ser negativas: " + generaciones);
+        }
+        this.ancho = ancho;
+        this.alto = alto;
+        this.generaciones = generaciones;
+        this.densidad = 0.3;
+        this.probabilidadVolteo = 0.1;
+        this.regla = Rule.POR_DEFECTO;
+        this.motor = "swar";
+        this.hilos = Runtime.getRuntime().availableProcessors();
+        this.modoHilos = POOL;
+    }
+
+    /*
+      Establece la densidad del relleno aleatorio inicial
+      @param densidad la probabilidad de que cada celda empiece viva (0-1)
+    */
+    public void establecerDensidad(double densidad) {
+        this.densidad = densidad;
+    }
+
+    /*
+      Establece la probabilidad de cambio espontaneo de cada celda
+      @param probabilidadVolteo un valor entre 0 y 1
+    */
+    public void establecerProbabilidadVolteo(double probabilidadVolteo) {
+        this.probabilidadVolteo = probabilidadVolteo;
+    }
+
+    /*
+      Establece la regla de todas las corridas
+      @param regla una regla de dos estados (los tableros no registran edades)
+      @throws IllegalArgumentException si es una regla Generations
+    */
+    public void establecerRegla(Rule regla) {
+        if (regla.estados() > 2) {
+            throw new IllegalArgumentException("El conjunto no admite reglas Generations: " + regla);
+        }
+        this.regla = regla;
+    }
+
+    /*
+      Establece la semilla base de la que sale la de cada corrida
+      @param semilla la semilla base
+    */
+    public void establecerSemilla(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /*
+      Establece el motor de calculo de los tableros
+      @param motor el nombre del motor (ver EngineRegistry)
+    */
+    public void establecerMotor(String motor) {
+        EngineRegistry.crear(motor);
+        this.motor = motor;
+    }
+
+    /*
+      Establece cuantas corridas se calculan a la vez y en que hilos
+      @param hilos el numero de trabajadores (cada uno con su tablero)
+      @param modoHilos POOL para un ForkJoinPool, VIRTUALES para hilos virtuales si la JVM los tiene
+    */
+    public void establecerHilos(int hilos, String modoHilos) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("El numero de hilos debe ser al menos 1: " + hilos);
+        }
+        if (!modoHilos.equals(POOL) && !modoHilos.equals(VIRTUALES)) {
+            throw new IllegalArgumentException("Los hilos deben ser '" + POOL + "' o '" + VIRTUALES + "': " + modoHilos);
+        }
+        this.hilos = hilos;
+        this.modoHilos = modoHilos;
+    }
+
+    /*
+      Obtiene la semilla de la fuente contador de una corrida
+      @param corrida el indice de la corrida
+      @return la semilla que usa esa corrida
+    */
+    public long semillaDeCorrida(long corrida) {
+        return RandomSource.mezclar(semilla + (corrida + 1) * GAMMA);
+    }
+
+    /*
+      Ejecuta las corridas y espera a que terminen todas
+      @param corridas el numero de tableros a simular
+      @return los histogramas de todas las corridas
+      @throws InterruptedException si se interrumpe la espera
+    */
+    public Result ejecutar(long corridas) throws InterruptedException {
+        AtomicLong siguiente = new AtomicLong();
+        ExecutorService ejecutor = crearEjecutor();
+        boolean virtuales = !(ejecutor instanceof ForkJoinPool);
+        long inicio = System.nanoTime();
+        try {
+            List<Callable<Result>> trabajadores = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                trabajadores.add(() -> trabajar(siguiente, corridas));
+            }
+            Result total = new Result(virtuales);
+            for (Future<Result> parcial : ejecutor.invokeAll(trabajadores)) {
+                total.sumar(parcial.get());
+            }
+            total.segundos = (System.nanoTime() - inicio) / 1e9;
+            return total;
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            throw new IllegalStateException("Fallo una corrida del conjunto", causa);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /*
+      Bucle de un trabajador: toma corridas del contador compartido hasta que se acaban
+    */
+    private Result trabajar(AtomicLong siguiente, long corridas) {
+        Result parcial = new Result(false);
+        Board tablero = new Board(ancho, alto, false);
+        tablero.establecerRegla(regla);
+        tablero.establecerMotor(EngineRegistry.crear(motor));
+        tablero.establecerProbabilidadVolteo(probabilidadVolteo);
+        for (long corrida = siguiente.getAndIncrement(); corrida < corridas; corrida = siguiente.getAndIncrement()) {
+            correr(tablero, corrida, parcial);
+        }
+        return parcial;
+    }
+
+    /*
+      Simula una corrida sobre un tablero reutilizado y cuenta su resultado
+      @param tablero el tablero del trabajador (se sobrescribe entero)
+      @param corrida el indice de la corrida
+      @param parcial los histogramas del trabajador
+    */
+    private void correr(Board tablero, long corrida, Result parcial) {
+        // El relleno usa la generacion como clave: se vuelve a la 0 antes de rellenar
+        tablero.establecerGeneracion(0);
+        tablero.establecerFuenteAleatoria(RandomSource.contador(semillaDeCorrida(corrida)));
+        tablero.rellenarAleatorio(densidad);
+
+        long vivas = tablero.obtenerCantidadVivas();
+        long maxima = vivas;
+        // Con B0 el vacio no es estable: un tablero vacio vuelve a llenarse
+        boolean vacioEstable = !regla.naceSinVecinos();
+        long extincion = vivas == 0 && vacioEstable ? 0 : -1;
+        for (int g = 0; g < generaciones && extincion < 0; g++) {
+            tablero.proximaGeneracion();
+            vivas = tablero.obtenerCantidadVivas();
+            maxima = Math.max(maxima, vivas);
+            if (vivas == 0 && vacioEstable) {
+                extincion = tablero.obtenerGeneracion();
+            }
+        }
+
+        parcial.corridas++;
+        parcial.poblacionFinal.añadir(vivas);
+        parcial.poblacionMaxima.añadir(maxima);
+        if (extincion >= 0) {
+            parcial.extinciones++;
+            parcial.generacionExtincion.añadir(extincion);
+        }
+    }
+
+    /*
+      Crea el ejecutor de los trabajadores
+      Executors.newVirtualThreadPerTaskExecutor solo existe desde Java 21; si no esta se usa el pool
+    */
+    private ExecutorService crearEjecutor() {
+        if (modoHilos.equals(VIRTUALES)) {
+            try {
+                Method crear = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) crear.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // JVM anterior a Java 21: se sigue con el pool
+            }
+        }
+        return Executors.newWorkStealingPool(hilos);
+    }
+
+    /*
+      Clase ResultadoConjunto - histogramas de un conjunto de corridas
+    */
+    public static final class Result {
+        private final boolean virtuales;
+        private long corridas;
+        private long extinciones;
+        private double segundos;
+        private final Histogram poblacionFinal = new Histogram();
+        private final Histogram poblacionMaxima = new Histogram();
+        private final Histogram generacionExtincion = new Histogram();
+
+        private Result(boolean virtuales) {
+            this.virtuales = virtuales;
+        }
+
+        private void sumar(Result otro) {
+            corridas += otro.corridas;
+            extinciones += otro.extinciones;
+            poblacionFinal.sumar(otro.poblacionFinal);
+            poblacionMaxima.sumar(otro.poblacionMaxima);
+            generacionExtincion.sumar(otro.generacionExtincion);
+        }
+
+        /*
+          Indica si las corridas se calcularon en hilos virtuales
+          @return false si se uso el ForkJoinPool
+        */
+        public boolean usoHilosVirtuales() {
+            return virtuales;
+        }
+
+        /*
+          Obtiene el numero de corridas terminadas
+          @return las corridas
+        */
+        public long obtenerCorridas() {
+            return corridas;
+        }
+
+        /*
+          Obtiene cuantas corridas se extinguieron antes de terminar sus generaciones
+          @return las corridas extinguidas
+        */
+        public long obtenerExtinciones() {
+            return extinciones;
+        }
+
+        /*
+          Obtiene el tiempo total del conjunto
+          @return los segundos desde que empezo la primera corrida hasta que acabo la ultima
+        */
+        public double obtenerSegundos() {
+            return segundos;
+        }
+
+        /*
+          Obtiene el histograma de celdas vivas al terminar cada corrida
+          @return el histograma (0 = extinguida)
+        */
+        public Histogram obtenerPoblacionFinal() {
+            return poblacionFinal;
+        }
+
+        /*
+          Obtiene el histograma de la mayor poblacion de cada corrida, contando la inicial
+          @return el histograma
+        */
+        public Histogram obtenerPoblacionMaxima() {
+            return poblacionMaxima;
+        }
+
+        /*
+          Obtiene el histograma de la generacion en que se extinguio cada corrida extinguida
+          @return el histograma (solo las corridas extinguidas)
+        */
+        public Histogram obtenerGeneracionExtincion() {
+            return generacionExtincion;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+  Clase Fotograma - lo que se ve de un tablero en un instante: un caracter por celda
+  visible (o por bloque de celdas en la vista reducida) y los datos de la cabecera
+  TerminalRenderer lo rellena a partir del tablero y luego lo dibuja; separar la captura
+  del dibujo permite reutilizar el mismo fotograma en cada generacion sin reservar memoria
+*/
+
+import java.nio.charset.StandardCharsets;
+
+public final class Frame {
+    final int filas;
+    final int columnas;
+    final int escala;
+    final byte[] glifos;
+    // Texto fijo que acompaña a la cabecera (ventana o escala), ya codificado
+    final byte[] descripcion;
+    long generacion;
+    long vivas;
+    long total;
+    long nacimientos;
+    long muertes;
+
+    /*
+      Constructor - crea un fotograma vacio
+      @param filas las filas de caracteres
+      @param columnas las columnas de caracteres (celdas o bloques, no columnas de terminal)
+      @param escala el lado en celdas del bloque que representa cada caracter (1 = sin reducir)
+      @param descripcion el texto extra de la cabecera
+    */
+    Frame(int filas, int columnas, int escala, String descripcion) {
+        this.filas = filas;
+        this.columnas = columnas;
+        this.escala = escala;
+        this.glifos = new byte[filas * columnas];
+        this.descripcion = descripcion.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /*
+      Obtiene la generacion capturada
+      @return la generacion del tablero cuando se capturo
+    */
+    public long obtenerGeneracion() {
+        return generacion;
+    }
+}
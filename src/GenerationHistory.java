@@ -0,0 +1,563 @@
+/*
+  Clase HistorialGeneraciones - guarda las generaciones de una simulacion en poco espacio
+  para poder volver a cualquiera de ellas sin guardar N tableros ni recalcular desde el principio
+  Cada generacion se guarda como las celdas que cambiaron respecto a la anterior (el XOR de los
+  dos planos de celdas vivas) y cada INTERVALO generaciones como un fotograma clave completo (el
+  XOR respecto a un plano vacio). Los dos se codifican igual:
+  - HUECOS: las posiciones de los bits a 1, como distancias entre uno y el siguiente en varint
+    (7 bits por byte, el bit alto indica que sigue otro byte); las rachas de celdas sin cambios
+    cuestan un solo numero, asi que un cambio aislado ocupa uno o dos bytes
+  - PALABRAS: las palabras del plano tal cual, cuando los huecos ocuparian mas
+  Los registros van en un anillo en memoria limitado en bytes; al pasarse se descarta el tramo
+  mas antiguo entero (su fotograma clave y las diferencias que lo siguen), asi que el anillo
+  siempre empieza en un fotograma clave. Con fichero, ademas cada registro se añade al final y
+  los tramos descartados de la memoria se leen de ahi
+  Volver a la generacion g cuesta restaurar su fotograma clave y aplicar hasta INTERVALO - 1
+  diferencias; dentro del mismo tramo se parte de la ultima generacion restaurada, hacia delante
+  o hacia atras (el XOR se deshace aplicandolo otra vez)
+  Solo se guarda el plano de celdas vivas: las edades (y el estado de muerte de Generations)
+  no se restauran
+  Fichero (enteros en little-endian):
+    0  8 bytes  firma "JDLVHIST"
+    8  int      version
+   12  int      ancho
+   16  int      alto
+   20  int      palabras por fila
+   24  int      intervalo entre fotogramas clave
+   28  registros: long generacion, byte tipo (bit 0: fotograma clave), int longitud, datos
+*/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public final class GenerationHistory {
+    public static final int VERSION = 1;
+    public static final int INTERVALO_POR_DEFECTO = 64;
+
+    private static final byte[] FIRMA = "JDLVHIST".getBytes(StandardCharsets.US_ASCII);
+    private static final int TAMAÑO_CABECERA = 28;
+    private static final int TAMAÑO_CABECERA_REGISTRO = 13;
+    private static final int TAMAÑO_BUFFER = 1 << 16;
+    private static final byte HUECOS = 0;
+    private static final byte PALABRAS = 1;
+    private static final byte CLAVE = 1;
+    // Un varint de 64 bits ocupa como mucho 10 bytes
+    private static final int VARINT_MAXIMO = 10;
+
+    private final int ancho;
+    private final int alto;
+    private final int palabrasPorFila;
+    private final int intervalo;
+    private final long memoriaMaxima;
+
+    // Plano de la ultima generacion registrada; al registrar guarda un momento el XOR
+    private final long[] anterior;
+    private final byte[] codigo;
+    private long ultimaGeneracion;
+    private long ultimaClave;
+
+    // Anillo de registros en memoria
+    private Registro[] anillo;
+    private int cabeza;
+    private int cantidad;
+    private int clavesEnMemoria;
+    private long bytesEnMemoria;
+
+    // Fichero opcional e indice de sus fotogramas clave
+    private FileChannel fichero;
+    private ByteBuffer salida;
+    private long bytesEnFichero;
+    private long[] generacionesClave;
+    private long[] posicionesClave;
+    // Ultima generacion de cada tramo; la del tramo actual es ultimaGeneracion
+    private long[] finesTramo;
+    private int clavesEnFichero;
+
+    // Ultima generacion restaurada y el fotograma clave de su tramo
+    private long[] plano;
+    private long posicion;
+    private long clavePosicion;
+
+    /*
+      Constructor - prepara un historial vacio para los tableros de un tamaño
+      @param ancho las columnas del tablero
+      @param alto las filas del tablero
+      @param intervalo las generaciones entre fotogramas clave (1 = todas son clave)
+      @param memoriaMaxima los bytes de registros que se guardan en memoria; se guarda siempre al
+             menos el tramo actual
+      @param ruta el fichero donde se añaden todos los registros, o null para no usar fichero
+      @throws IllegalArgumentException si el tablero es demasiado grande o el intervalo no es valido
+      @throws IOException si no se puede crear el fichero
+    */
+    public GenerationHistory(int ancho, int alto, int intervalo, long memoriaMaxima, Path ruta) throws IOException {
+        if (intervalo < 1) {
+            throw new IllegalArgumentException("El intervalo entre fotogramas clave debe ser al menos 1: " + intervalo);
+        }
+        this.ancho = ancho;
+        this.alto = alto;
+        this.palabrasPorFila = (ancho + 63) >>> 6;
+        long palabras = (long) alto * palabrasPorFila;
+        if (palabras > (Integer.MAX_VALUE - 1 - VARINT_MAXIMO) / Long.BYTES) {
+            throw new IllegalArgumentException("El tablero es demasiado grande para el historial: " + ancho + "x" + alto);
+        }
+        this.intervalo = intervalo;
+        this.memoriaMaxima = memoriaMaxima;
+        this.anterior = new long[(int) palabras];
+        this.codigo = new byte[1 + (int) palabras * Long.BYTES + VARINT_MAXIMO];
+        this.ultimaGeneracion = -1;
+        this.anillo = new Registro[16];
+        this.posicion = -1;
+        if (ruta != null) {
+            abrirFichero(ruta);
+        }
+    }
+
+    /*
+      Crea el fichero, sustituyendo su contenido, y escribe la cabecera
+    */
+    private void abrirFichero(Path ruta) throws IOException {
+        fichero = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        salida = ByteBuffer.allocate(TAMAÑO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        salida.put(FIRMA);
+        salida.putInt(VERSION);
+        salida.putInt(ancho);
+        salida.putInt(alto);
+        salida.putInt(palabrasPorFila);
+        salida.putInt(intervalo);
+        bytesEnFichero = TAMAÑO_CABECERA;
+        generacionesClave = new long[16];
+        posicionesClave = new long[16];
+        finesTramo = new long[16];
+    }
+
+    /*
+      Registra la generacion actual del tablero
+      Las generaciones deben crecer; si no siguen a la anterior (por ejemplo tras saltar los
+      periodos de un ciclo) se guarda un fotograma clave
+      @param tablero el tablero, del tamaño del historial
+      @throws IllegalArgumentException si el tablero no tiene el tamaño del historial o su
+              generacion no es mayor que la ultima registrada
+      @throws IOException si no se puede escribir en el fichero
+    */
+    public void registrar(Board tablero) throws IOException {
+        if (tablero.obtenerAncho() != ancho || tablero.obtenerAlto() != alto) {
+            throw new IllegalArgumentException("El tablero debe medir " + ancho + "x" + alto);
+        }
+        long generacion = tablero.obtenerGeneracion();
+        if (generacion <= ultimaGeneracion) {
+            throw new IllegalArgumentException("La generacion " + generacion + " ya esta registrada (ultima "
+                    + ultimaGeneracion + ")");
+        }
+        boolean clave = ultimaGeneracion < 0 || generacion != ultimaGeneracion + 1 || generacion - ultimaClave >= intervalo;
+
+        // anterior pasa a ser el XOR con el plano nuevo (o el plano nuevo si es clave)
+        for (int fila = 0, i = 0; fila < alto; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++, i++) {
+                long bits = tablero.leerPalabra(fila, palabra);
+                anterior[i] = clave ? bits : anterior[i] ^ bits;
+            }
+        }
+        byte[] datos = Arrays.copyOf(codigo, codificar(anterior));
+        for (int fila = 0, i = 0; fila < alto; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++, i++) {
+                anterior[i] = tablero.leerPalabra(fila, palabra);
+            }
+        }
+
+        if (fichero != null) {
+            escribirRegistro(generacion, clave, datos);
+        }
+        if (clave) {
+            ultimaClave = generacion;
+        }
+        ultimaGeneracion = generacion;
+        añadirEnMemoria(new Registro(generacion, clave, datos));
+    }
+
+    /*
+      Codifica un plano en el buffer codigo con HUECOS o, si ocuparian mas, con PALABRAS
+      @param bits el plano (o el XOR de dos planos)
+      @return los bytes usados de codigo
+    */
+    private int codificar(long[] bits) {
+        int limite = 1 + bits.length * Long.BYTES;
+        int n = 1;
+        long ultimo = -1;
+        for (int i = 0; i < bits.length && n < limite; i++) {
+            long palabra = bits[i];
+            while (palabra != 0 && n < limite) {
+                long indice = ((long) i << 6) + Long.numberOfTrailingZeros(palabra);
+                n = escribirVarint(codigo, n, indice - ultimo - 1);
+                ultimo = indice;
+                palabra &= palabra - 1;
+            }
+        }
+        if (n < limite) {
+            codigo[0] = HUECOS;
+            return n;
+        }
+        codigo[0] = PALABRAS;
+        for (int i = 0, j = 1; i < bits.length; i++, j += Long.BYTES) {
+            long palabra = bits[i];
+            for (int b = 0; b < Long.BYTES; b++) {
+                codigo[j + b] = (byte) (palabra >>> (b * 8));
+            }
+        }
+        return limite;
+    }
+
+    private static int escribirVarint(byte[] destino, int n, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            destino[n++] = (byte) (valor & 0x7F | 0x80);
+            valor >>>= 7;
+        }
+        destino[n++] = (byte) valor;
+        return n;
+    }
+
+    /*
+      Aplica un registro a un plano: XOR con las celdas que guarda
+      @param datos el registro codificado
+      @param destino el plano (vaciado antes si el registro es un fotograma clave)
+    */
+    private static void aplicar(byte[] datos, long[] destino) {
+        if (datos[0] == PALABRAS) {
+            for (int i = 0, j = 1; i < destino.length; i++, j += Long.BYTES) {
+                long palabra = 0;
+                for (int b = 0; b < Long.BYTES; b++) {
+                    palabra |= (datos[j + b] & 0xFFL) << (b * 8);
+                }
+                destino[i] ^= palabra;
+            }
+            return;
+        }
+        long indice = -1;
+        int n = 1;
+        while (n < datos.length) {
+            long hueco = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = datos[n++];
+                hueco |= (b & 0x7FL) << desplazamiento;
+                desplazamiento += 7;
+            } while (b < 0);
+            indice += hueco + 1;
+            destino[(int) (indice >>> 6)] ^= 1L << indice;
+        }
+    }
+
+    /*
+      Añade un registro al anillo y descarta los tramos mas antiguos si se pasa de memoria
+    */
+    private void añadirEnMemoria(Registro registro) {
+        if (cantidad == anillo.length) {
+            Registro[] mayor = new Registro[anillo.length * 2];
+            for (int i = 0; i < cantidad; i++) {
+                mayor[i] = registroEnMemoria(i);
+            }
+            anillo = mayor;
+            cabeza = 0;
+        }
+        anillo[(cabeza + cantidad) % anillo.length] = registro;
+        cantidad++;
+        bytesEnMemoria += registro.datos.length;
+        if (registro.clave) {
+            clavesEnMemoria++;
+        }
+
+        // Se descarta de tramo en tramo, sin tocar el tramo actual
+        while (bytesEnMemoria > memoriaMaxima && clavesEnMemoria > 1) {
+            do {
+                Registro viejo = anillo[cabeza];
+                anillo[cabeza] = null;
+                cabeza = (cabeza + 1) % anillo.length;
+                cantidad--;
+                bytesEnMemoria -= viejo.datos.length;
+                if (viejo.clave) {
+                    clavesEnMemoria--;
+                }
+            } while (!anillo[cabeza].clave);
+        }
+    }
+
+    private Registro registroEnMemoria(int i) {
+        return anillo[(cabeza + i) % anillo.length];
+    }
+
+    /*
+      Busca un registro en el anillo
+      @return su posicion en el anillo, o -1 si no esta
+    */
+    private int buscarEnMemoria(long generacion) {
+        int desde = 0;
+        int hasta = cantidad - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            long actual = registroEnMemoria(medio).generacion;
+            if (actual < generacion) {
+                desde = medio + 1;
+            } else if (actual > generacion) {
+                hasta = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    /*
+      Añade un registro al fichero (pasa por el buffer de salida)
+    */
+    private void escribirRegistro(long generacion, boolean clave, byte[] datos) throws IOException {
+        if (clave) {
+            if (clavesEnFichero == generacionesClave.length) {
+                generacionesClave = Arrays.copyOf(generacionesClave, clavesEnFichero * 2);
+                posicionesClave = Arrays.copyOf(posicionesClave, clavesEnFichero * 2);
+                finesTramo = Arrays.copyOf(finesTramo, clavesEnFichero * 2);
+            }
+            if (clavesEnFichero > 0) {
+                finesTramo[clavesEnFichero - 1] = ultimaGeneracion;
+            }
+            generacionesClave[clavesEnFichero] = generacion;
+            posicionesClave[clavesEnFichero] = bytesEnFichero;
+            clavesEnFichero++;
+        }
+        if (salida.remaining() < TAMAÑO_CABECERA_REGISTRO) {
+            vaciarSalida();
+        }
+        salida.putLong(generacion);
+        salida.put(clave ? CLAVE : 0);
+        salida.putInt(datos.length);
+        if (salida.remaining() >= datos.length) {
+            salida.put(datos);
+        } else {
+            vaciarSalida();
+            ByteBuffer directo = ByteBuffer.wrap(datos);
+            while (directo.hasRemaining()) {
+                fichero.write(directo);
+            }
+        }
+        bytesEnFichero += TAMAÑO_CABECERA_REGISTRO + datos.length;
+    }
+
+    private void vaciarSalida() throws IOException {
+        salida.flip();
+        while (salida.hasRemaining()) {
+            fichero.write(salida);
+        }
+        salida.clear();
+    }
+
+    /*
+      Busca en el fichero el tramo que contiene una generacion
+      @return el indice de su fotograma clave, o -1 si no esta en el fichero
+    */
+    private int buscarEnFichero(long generacion) {
+        if (fichero == null || clavesEnFichero == 0) {
+            return -1;
+        }
+        int i = Arrays.binarySearch(generacionesClave, 0, clavesEnFichero, generacion);
+        int tramo = i >= 0 ? i : -i - 2;
+        if (tramo < 0) {
+            return -1;
+        }
+        long fin = tramo + 1 < clavesEnFichero ? finesTramo[tramo] : ultimaGeneracion;
+        return generacion <= fin ? tramo : -1;
+    }
+
+    /*
+      Lee del fichero el tramo que contiene una generacion y lo aplica al plano hasta ella
+      @return true si la generacion esta en el fichero
+    */
+    private boolean restaurarDeFichero(long generacion) throws IOException {
+        int tramo = buscarEnFichero(generacion);
+        if (tramo < 0) {
+            return false;
+        }
+        long clave = generacionesClave[tramo];
+        posicion = -1;
+        vaciarSalida();
+
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMAÑO_CABECERA_REGISTRO).order(ByteOrder.LITTLE_ENDIAN);
+        long desplazamiento = posicionesClave[tramo];
+        for (long actual = clave; actual <= generacion; actual++) {
+            cabecera.clear();
+            leer(cabecera, desplazamiento);
+            cabecera.flip();
+            long registro = cabecera.getLong();
+            cabecera.get();
+            byte[] datos = new byte[cabecera.getInt()];
+            if (registro != actual) {
+                throw new IOException("El fichero de historial no tiene la generacion " + actual + " donde se esperaba");
+            }
+            leer(ByteBuffer.wrap(datos), desplazamiento + TAMAÑO_CABECERA_REGISTRO);
+            desplazamiento += TAMAÑO_CABECERA_REGISTRO + datos.length;
+            if (actual == clave) {
+                Arrays.fill(plano, 0L);
+            }
+            aplicar(datos, plano);
+        }
+        posicion = generacion;
+        clavePosicion = clave;
+        return true;
+    }
+
+    private void leer(ByteBuffer destino, long desplazamiento) throws IOException {
+        while (destino.hasRemaining()) {
+            if (fichero.read(destino, desplazamiento + destino.position()) < 0) {
+                throw new IOException("El fichero de historial esta truncado");
+            }
+        }
+    }
+
+    /*
+      Indica si una generacion se puede restaurar
+      @param generacion la generacion
+      @return true si esta en memoria o en el fichero
+    */
+    public boolean contiene(long generacion) {
+        return buscarEnMemoria(generacion) >= 0 || buscarEnFichero(generacion) >= 0;
+    }
+
+    /*
+      Copia a un tablero las celdas vivas de una generacion registrada
+      @param generacion la generacion
+      @param destino el tablero, del tamaño del historial (sus edades quedan a 0)
+      @return false si la generacion no esta en el historial (el tablero no cambia)
+      @throws IOException si no se puede leer el fichero
+    */
+    public boolean restaurar(long generacion, Board destino) throws IOException {
+        if (destino.obtenerAncho() != ancho || destino.obtenerAlto() != alto) {
+            throw new IllegalArgumentException("El tablero debe medir " + ancho + "x" + alto);
+        }
+        if (plano == null) {
+            plano = new long[anterior.length];
+        }
+        int indice = buscarEnMemoria(generacion);
+        if (indice >= 0) {
+            restaurarDeMemoria(indice);
+        } else if (fichero == null || !restaurarDeFichero(generacion)) {
+            return false;
+        }
+
+        BitGrid cuadricula = destino.obtenerCuadricula();
+        for (int fila = 0, i = 0; fila < alto; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++, i++) {
+                cuadricula.escribirPalabra(fila, palabra, plano[i]);
+            }
+        }
+        destino.establecerGeneracion(generacion);
+        destino.cuadriculaModificada();
+        return true;
+    }
+
+    /*
+      Lleva el plano a un registro del anillo: desde la ultima generacion restaurada si es del
+      mismo tramo, y si no desde el fotograma clave del tramo
+    */
+    private void restaurarDeMemoria(int indice) {
+        int clave = indice;
+        while (!registroEnMemoria(clave).clave) {
+            clave--;
+        }
+        long generacionClave = registroEnMemoria(clave).generacion;
+        long generacion = registroEnMemoria(indice).generacion;
+        int desde = posicion >= 0 && clavePosicion == generacionClave ? buscarEnMemoria(posicion) : -1;
+        if (desde < 0) {
+            Arrays.fill(plano, 0L);
+            desde = clave - 1;
+        }
+        // Hacia delante se aplican los registros siguientes; hacia atras, el XOR de los que se dejan
+        for (int i = desde + 1; i <= indice; i++) {
+            aplicar(registroEnMemoria(i).datos, plano);
+        }
+        for (int i = desde; i > indice; i--) {
+            aplicar(registroEnMemoria(i).datos, plano);
+        }
+        posicion = generacion;
+        clavePosicion = generacionClave;
+    }
+
+    /*
+      Obtiene la generacion mas antigua que se puede restaurar
+      @return la primera generacion del fichero o, sin fichero, del anillo; -1 si no hay ninguna
+    */
+    public long obtenerPrimeraGeneracion() {
+        if (fichero != null && clavesEnFichero > 0) {
+            return generacionesClave[0];
+        }
+        return cantidad == 0 ? -1 : registroEnMemoria(0).generacion;
+    }
+
+    /*
+      Obtiene la ultima generacion registrada
+      @return la generacion, o -1 si no hay ninguna
+    */
+    public long obtenerUltimaGeneracion() {
+        return ultimaGeneracion;
+    }
+
+    /*
+      Obtiene la generacion mas antigua que sigue en memoria
+      @return la generacion, o -1 si no hay ninguna
+    */
+    public long obtenerPrimeraEnMemoria() {
+        return cantidad == 0 ? -1 : registroEnMemoria(0).generacion;
+    }
+
+    /*
+      Obtiene los bytes de registros guardados en memoria
+      @return los bytes codificados del anillo (sin los planos de trabajo)
+    */
+    public long obtenerBytesEnMemoria() {
+        return bytesEnMemoria;
+    }
+
+    /*
+      Obtiene los bytes escritos en el fichero
+      @return el tamaño del fichero, o 0 si no se usa
+    */
+    public long obtenerBytesEnFichero() {
+        return fichero == null ? 0 : bytesEnFichero;
+    }
+
+    /*
+      Escribe lo que queda en el buffer y cierra el fichero, si lo hay
+      El historial en memoria sigue disponible
+      @throws IOException si no se puede escribir
+    */
+    public void cerrar() throws IOException {
+        if (fichero == null) {
+            return;
+        }
+        try {
+            vaciarSalida();
+        } finally {
+            fichero.close();
+            fichero = null;
+        }
+    }
+
+    /*
+      Clase Registro - una generacion codificada
+    */
+    private static final class Registro {
+        final long generacion;
+        final boolean clave;
+        final byte[] datos;
+
+        Registro(long generacion, boolean clave, byte[] datos) {
+            this.generacion = generacion;
+            this.clave = clave;
+            this.datos = datos;
+        }
+    }
+}
@@ -0,0 +1,660 @@
+/*
+  Clase HashLife - motor HashLife para ejecuciones deterministas (sin cambios espontaneos)
+  El mundo se guarda como un quadtree canonico: cada nodo de nivel k es un cuadrado de 2^k x 2^k
+  formado por cuatro nodos de nivel k-1, y dos nodos con el mismo contenido son el mismo objeto
+  (se buscan en una tabla hash antes de crearlos)
+  Cada nodo memoriza su resultado: el centro de nivel k-1 tras 2^j generaciones, asi que los
+  patrones repetidos (en el espacio o en el tiempo) se calculan una sola vez y se pueden
+  avanzar 2^k generaciones en una sola llamada
+  Reglas: la del tablero cargado (ver Rule), salvo Generations y las reglas con B0, en las
+  que el vacio no es estable; al cargar un tablero con otra regla se descarta lo memorizado
+  Topologia:
+  - toroidal: igual que Board; necesita ancho y alto potencias de 2
+  - plana: el tablero se coloca en un plano infinito vacio y al volcarlo se recorta
+  La tabla de nodos tiene un tamaño maximo; al superarlo se reconstruye solo con los nodos
+  alcanzables desde el mundo actual y se descartan todos los resultados memorizados
+  Las edades no se siguen: al volcar, las celdas vivas quedan con edad 0
+*/
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HashLife {
+    public static final int CAPACIDAD_POR_DEFECTO = 2_000_000;
+
+    // Limite de estados recordados al buscar ciclos en modo toroidal
+    private static final int MAX_HISTORIAL_CICLO = 100_000;
+    // Nivel de los cuadrados de 64x64: cada fila cabe en una palabra del tablero
+    private static final int NIVEL_PALABRA = 6;
+
+    private final int capacidadMaxima;
+    private Nodo[] tabla;
+    private int cantidad;
+    private int umbralRecoleccion;
+    private long recolecciones;
+    private boolean recolectando;
+
+    private final Nodo muerta;
+    private final Nodo viva;
+    private Nodo[] vacios;
+    private Rule regla;
+
+    private Nodo raiz;
+    private Nodo trabajo;
+    // Filas de un cuadrado de hasta 64x64 al construir o volcar, una palabra por fila
+    private final long[] filasBloque = new long[1 << NIVEL_PALABRA];
+    private boolean toroidal;
+    private int ancho;
+    private int alto;
+    private long origenX;
+    private long origenY;
+    private long generacion;
+
+    /*
+      Constructor - crea un motor HashLife con la capacidad por defecto
+    */
+    public HashLife() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /*
+      Constructor - crea un motor HashLife
+      @param capacidadMaxima numero maximo de nodos en la tabla antes de recolectar
+    */
+    public HashLife(int capacidadMaxima) {
+        if (capacidadMaxima < 1024) {
+            throw new IllegalArgumentException("La capacidad minima es 1024 nodos: " + capacidadMaxima);
+        }
+        this.capacidadMaxima = capacidadMaxima;
+        this.umbralRecoleccion = capacidadMaxima;
+        this.tabla = new Nodo[1 << 16];
+        this.muerta = new Nodo(0);
+        this.viva = new Nodo(1);
+        this.vacios = new Nodo[64];
+        this.vacios[0] = muerta;
+    }
+
+    /*
+      Carga el contenido de un tablero
+      @param tablero el tablero a copiar (debe tener probabilidad de cambio espontaneo 0)
+      @param toroidal true para envolver los bordes como Board
+      @throws IllegalStateException si el tablero tiene cambios espontaneos
+      @throws IllegalArgumentException si es toroidal y las dimensiones no son potencias de 2,
+              o si la regla del tablero es Generations o incluye B0
+    */
+    public void cargar(Board tablero, boolean toroidal) {
+        if (tablero.obtenerProbabilidadVolteo() != 0.0) {
+            throw new IllegalStateException("HashLife solo funciona sin cambios espontaneos (probabilidad 0)");
+        }
+        Rule nueva = tablero.obtenerRegla();
+        if (nueva.estados() > 2 || nueva.naceSinVecinos()) {
+            throw new IllegalArgumentException("HashLife no admite reglas Generations ni con B0: " + nueva);
+        }
+        int w = tablero.obtenerAncho();
+        int h = tablero.obtenerAlto();
+        if (toroidal && (Integer.bitCount(w) != 1 || Integer.bitCount(h) != 1)) {
+            throw new IllegalArgumentException("El modo toroidal necesita ancho y alto potencias de 2: " + w + "x" + h);
+        }
+
+        this.toroidal = toroidal;
+        this.ancho = w;
+        this.alto = h;
+        this.generacion = tablero.obtenerGeneracion();
+        this.raiz = null;
+        if (!nueva.equals(regla)) {
+            // Los resultados memorizados solo valen para la regla con la que se calcularon
+            regla = nueva;
+            tabla = new Nodo[tabla.length];
+            cantidad = 0;
+            for (int i = 1; i < vacios.length; i++) {
+                vacios[i] = null;
+            }
+        }
+
+        int nivel = Math.max(3, 32 - Integer.numberOfLeadingZeros(Math.max(w, h) - 1));
+        raiz = construir(tablero, nivel, 0, 0);
+        origenX = 0;
+        origenY = 0;
+    }
+
+    /*
+      Avanza 2^k generaciones
+      @param k el exponente del salto (0-62)
+    */
+    public void avanzar(int k) {
+        if (k < 0 || k > 62) {
+            throw new IllegalArgumentException("El exponente debe estar entre 0 y 62: " + k);
+        }
+        if (raiz == null) {
+            throw new IllegalStateException("No hay ningun tablero cargado");
+        }
+
+        if (toroidal) {
+            avanzarToroidal(k);
+        } else {
+            avanzarPlano(k);
+        }
+        generacion += 1L << k;
+    }
+
+    /*
+      Avanza un numero cualquiera de generaciones descomponiendolo en saltos de 2^k
+      @param generaciones cuantas generaciones avanzar
+    */
+    public void avanzarGeneraciones(long generaciones) {
+        if (generaciones < 0) {
+            throw new IllegalArgumentException("El numero de generaciones no puede ser negativo: " + generaciones);
+        }
+        for (int k = 62; k >= 0; k--) {
+            if ((generaciones & (1L << k)) != 0) {
+                avanzar(k);
+            }
+        }
+    }
+
+    /*
+      Copia el mundo actual al tablero, que debe tener las mismas dimensiones que el cargado
+      En modo plano las celdas que han salido del rectangulo del tablero se pierden
+      @param tablero el tablero destino
+    */
+    public void volcarEn(Board tablero) {
+        if (tablero.obtenerAncho() != ancho || tablero.obtenerAlto() != alto) {
+            throw new IllegalArgumentException("El tablero destino debe medir " + ancho + "x" + alto);
+        }
+        BitGrid cuadricula = tablero.obtenerCuadricula();
+        cuadricula.limpiar();
+        volcar(cuadricula, raiz, origenX, origenY);
+        tablero.establecerGeneracion(generacion);
+        tablero.cuadriculaModificada();
+    }
+
+    /*
+      Obtiene la generacion del mundo actual
+      @return la generacion (la del tablero cargado mas las avanzadas)
+    */
+    public long obtenerGeneracion() {
+        return generacion;
+    }
+
+    /*
+      Obtiene la poblacion del mundo actual
+      En modo plano incluye las celdas que han salido del rectangulo del tablero
+      @return el numero de celdas vivas
+    */
+    public long obtenerPoblacion() {
+        if (toroidal) {
+            // La raiz toroidal repite el tablero para completar un cuadrado
+            long repeticiones = (1L << raiz.nivel) * (1L << raiz.nivel) / ((long) ancho * alto);
+            return raiz.poblacion / repeticiones;
+        }
+        return raiz.poblacion;
+    }
+
+    /*
+      Obtiene el numero de nodos canonicos guardados en la tabla
+      @return los nodos actuales
+    */
+    public int obtenerNodos() {
+        return cantidad;
+    }
+
+    /*
+      Obtiene cuantas veces se ha vaciado la tabla por superar la capacidad
+      @return el numero de recolecciones
+    */
+    public long obtenerRecolecciones() {
+        return recolecciones;
+    }
+
+    /*
+      Avanza 2^k generaciones en un toro de N x N (N = 2^n)
+      Un nodo de nivel n+1 formado por cuatro copias del toro, avanzado 2^j con j <= n-1,
+      devuelve el toro desplazado N/2 en ambos ejes; se deshace el desplazamiento
+      intercambiando sus cuadrantes en diagonal
+      Si el salto es mayor que N/2 se repite el paso maximo, saltando ciclos ya vistos
+    */
+    private void avanzarToroidal(int k) {
+        int n = raiz.nivel;
+        int j = Math.min(k, n - 1);
+        long pasos = 1L << (k - j);
+        Map<Nodo, Long> vistos = new HashMap<>();
+
+        for (long paso = 0; paso < pasos; paso++) {
+            if (pasos > 1) {
+                Long anterior = vistos.get(raiz);
+                if (anterior != null) {
+                    // El toro ha vuelto a un estado anterior: se salta el resto de ciclos completos
+                    long periodo = paso - anterior;
+                    paso += (pasos - paso) / periodo * periodo;
+                    vistos.clear();
+                    if (paso >= pasos) {
+                        break;
+                    }
+                } else if (vistos.size() < MAX_HISTORIAL_CICLO) {
+                    vistos.put(raiz, paso);
+                }
+            }
+
+            trabajo = unir(raiz, raiz, raiz, raiz);
+            Nodo desplazado = avanzar(trabajo, j);
+            raiz = unir(desplazado.se, desplazado.sw, desplazado.ne, desplazado.nw);
+            trabajo = null;
+        }
+    }
+
+    /*
+      Avanza 2^k generaciones en el plano infinito
+      Antes se amplia la raiz con bordes vacios hasta que el patron cabe en su cuarto central
+      y el nivel es al menos k + 3, para que nada salga de la mitad central que devuelve el paso
+    */
+    private void avanzarPlano(int k) {
+        while (raiz.nivel < k + 3 || centro(centro(raiz)).poblacion != raiz.poblacion) {
+            ampliar();
+        }
+
+        trabajo = raiz;
+        Nodo resultado = avanzar(raiz, k);
+        long cuarto = 1L << (raiz.nivel - 2);
+        origenX += cuarto;
+        origenY += cuarto;
+        raiz = resultado;
+        trabajo = null;
+    }
+
+    /*
+      Rodea la raiz de celdas vacias duplicando su lado y manteniendola en el centro
+    */
+    private void ampliar() {
+        Nodo vacio = vacio(raiz.nivel - 1);
+        Nodo nw = unir(vacio, vacio, vacio, raiz.nw);
+        Nodo ne = unir(vacio, vacio, raiz.ne, vacio);
+        Nodo sw = unir(vacio, raiz.sw, vacio, vacio);
+        Nodo se = unir(raiz.se, vacio, vacio, vacio);
+        long mitad = 1L << (raiz.nivel - 1);
+        origenX -= mitad;
+        origenY -= mitad;
+        raiz = unir(nw, ne, sw, se);
+    }
+
+    /*
+      Calcula el centro de un nodo (nivel - 1) tras 2^j generaciones
+      @param n un nodo de nivel >= 2
+      @param j el exponente del paso, entre 0 y n.nivel - 2
+      @return el cuadrado central de lado 2^(nivel-1) avanzado 2^j generaciones
+    */
+    private Nodo avanzar(Nodo n, int j) {
+        if (n.poblacion == 0) {
+            return vacio(n.nivel - 1);
+        }
+        if (n.resultado != null && n.pasoResultado == j) {
+            return n.resultado;
+        }
+
+        Nodo resultado;
+        if (n.nivel == 2) {
+            resultado = base(n);
+        } else {
+            // Los 9 subcuadrados solapados de nivel - 1
+            Nodo n00 = n.nw;
+            Nodo n01 = unir(n.nw.ne, n.ne.nw, n.nw.se, n.ne.sw);
+            Nodo n02 = n.ne;
+            Nodo n10 = unir(n.nw.sw, n.nw.se, n.sw.nw, n.sw.ne);
+            Nodo n11 = unir(n.nw.se, n.ne.sw, n.sw.ne, n.se.nw);
+            Nodo n12 = unir(n.ne.sw, n.ne.se, n.se.nw, n.se.ne);
+            Nodo n20 = n.sw;
+            Nodo n21 = unir(n.sw.ne, n.se.nw, n.sw.se, n.se.sw);
+            Nodo n22 = n.se;
+
+            boolean completo = j == n.nivel - 2;
+            int jInterior = completo ? j - 1 : j;
+
+            // Primera mitad del salto (o solo el centro si el salto es corto)
+            Nodo a00 = completo ? avanzar(n00, jInterior) : centro(n00);
+            Nodo a01 = completo ? avanzar(n01, jInterior) : centro(n01);
+            Nodo a02 = completo ? avanzar(n02, jInterior) : centro(n02);
+            Nodo a10 = completo ? avanzar(n10, jInterior) : centro(n10);
+            Nodo a11 = completo ? avanzar(n11, jInterior) : centro(n11);
+            Nodo a12 = completo ? avanzar(n12, jInterior) : centro(n12);
+            Nodo a20 = completo ? avanzar(n20, jInterior) : centro(n20);
+            Nodo a21 = completo ? avanzar(n21, jInterior) : centro(n21);
+            Nodo a22 = completo ? avanzar(n22, jInterior) : centro(n22);
+
+            // Segunda mitad del salto sobre los 4 cuadrantes
+            resultado = unir(
+                    avanzar(unir(a00, a01, a10, a11), jInterior),
+                    avanzar(unir(a01, a02, a11, a12), jInterior),
+                    avanzar(unir(a10, a11, a20, a21), jInterior),
+                    avanzar(unir(a11, a12, a21, a22), jInterior));
+        }
+
+        n.resultado = resultado;
+        n.pasoResultado = j;
+        return resultado;
+    }
+
+    /*
+      Caso base: un nodo de 4x4 avanzado una generacion da su centro de 2x2
+    */
+    private Nodo base(Nodo n) {
+        // Bit (fila * 4 + columna) del cuadrado de 4x4
+        int bits = 0;
+        Nodo[] cuadrantes = {n.nw, n.ne, n.sw, n.se};
+        for (int q = 0; q < 4; q++) {
+            Nodo c = cuadrantes[q];
+            int fila = (q >> 1) * 2;
+            int columna = (q & 1) * 2;
+            bits |= c.nw.poblacion == 1 ? 1 << (fila * 4 + columna) : 0;
+            bits |= c.ne.poblacion == 1 ? 1 << (fila * 4 + columna + 1) : 0;
+            bits |= c.sw.poblacion == 1 ? 1 << ((fila + 1) * 4 + columna) : 0;
+            bits |= c.se.poblacion == 1 ? 1 << ((fila + 1) * 4 + columna + 1) : 0;
+        }
+
+        return unir(
+                celula(bits, 1, 1) ? viva : muerta,
+                celula(bits, 1, 2) ? viva : muerta,
+                celula(bits, 2, 1) ? viva : muerta,
+                celula(bits, 2, 2) ? viva : muerta);
+    }
+
+    /*
+      Aplica la regla a una celda interior del cuadrado de 4x4
+    */
+    private boolean celula(int bits, int fila, int columna) {
+        int vecinos = 0;
+        for (int df = -1; df <= 1; df++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if ((df != 0 || dc != 0) && (bits >>> ((fila + df) * 4 + columna + dc) & 1) != 0) {
+                    vecinos++;
+                }
+            }
+        }
+        boolean estaViva = (bits >>> (fila * 4 + columna) & 1) != 0;
+        return regla.siguiente(estaViva, vecinos);
+    }
+
+    /*
+      Obtiene el cuadrado central (nivel - 1) de un nodo sin avanzar generaciones
+    */
+    private Nodo centro(Nodo n) {
+        return unir(n.nw.se, n.ne.sw, n.sw.ne, n.se.nw);
+    }
+
+    /*
+      Obtiene el nodo vacio canonico de un nivel
+    */
+    private Nodo vacio(int nivel) {
+        if (nivel >= vacios.length) {
+            Nodo[] mayor = new Nodo[nivel * 2];
+            System.arraycopy(vacios, 0, mayor, 0, vacios.length);
+            vacios = mayor;
+        }
+        if (vacios[nivel] == null) {
+            Nodo hijo = vacio(nivel - 1);
+            vacios[nivel] = unir(hijo, hijo, hijo, hijo);
+        }
+        return vacios[nivel];
+    }
+
+    /*
+      Construye el nodo de nivel 'nivel' cuya esquina superior izquierda es (x, y)
+      En modo toroidal el tablero se repite para llenar el cuadrado; en modo plano
+      lo que queda fuera del tablero esta vacio
+      Los cuadrados de hasta 64x64 se leen de una vez, una palabra del tablero por fila
+    */
+    private Nodo construir(Board tablero, int nivel, int x, int y) {
+        if (!toroidal && (x >= ancho || y >= alto)) {
+            return vacio(nivel);
+        }
+        if (nivel <= NIVEL_PALABRA) {
+            int lado = 1 << nivel;
+            for (int i = 0; i < lado; i++) {
+                filasBloque[i] = leerFila(tablero, x, y + i, lado);
+            }
+            return desdeFilas(nivel, 0, 0);
+        }
+
+        int mitad = 1 << (nivel - 1);
+        return unir(
+                construir(tablero, nivel - 1, x, y),
+                construir(tablero, nivel - 1, x + mitad, y),
+                construir(tablero, nivel - 1, x, y + mitad),
+                construir(tablero, nivel - 1, x + mitad, y + mitad));
+    }
+
+    /*
+      Lee 'lado' celdas (hasta 64) de una fila desde la columna x, que es multiplo de 'lado'
+      En modo toroidal un tablero mas estrecho que el cuadrado se repite a lo ancho
+    */
+    private long leerFila(Board tablero, int x, int y, int lado) {
+        if (!toroidal && y >= alto) {
+            return 0L;
+        }
+        int columna = x % ancho;
+        long bits = tablero.leerPalabra(y % alto, columna >>> 6) >>> (columna & 63);
+        if (toroidal && ancho < lado) {
+            bits &= (1L << ancho) - 1;
+            for (int repetido = ancho; repetido < lado; repetido <<= 1) {
+                bits |= bits << repetido;
+            }
+        }
+        return lado == 64 ? bits : bits & ((1L << lado) - 1);
+    }
+
+    /*
+      Construye el nodo de un cuadrado de filasBloque con esquina superior izquierda (x, y)
+    */
+    private Nodo desdeFilas(int nivel, int x, int y) {
+        if (nivel == 0) {
+            return (filasBloque[y] >>> x & 1L) != 0L ? viva : muerta;
+        }
+        int lado = 1 << nivel;
+        long mascara = (lado == 64 ? -1L : (1L << lado) - 1) << x;
+        long ocupadas = 0L;
+        for (int i = y; i < y + lado; i++) {
+            ocupadas |= filasBloque[i] & mascara;
+        }
+        if (ocupadas == 0L) {
+            return vacio(nivel);
+        }
+
+        int mitad = lado >>> 1;
+        return unir(
+                desdeFilas(nivel - 1, x, y),
+                desdeFilas(nivel - 1, x + mitad, y),
+                desdeFilas(nivel - 1, x, y + mitad),
+                desdeFilas(nivel - 1, x + mitad, y + mitad));
+    }
+
+    /*
+      Escribe las celdas vivas de un nodo en la cuadricula, recortando al rectangulo del tablero
+      Los cuadrados de hasta 64x64 se pasan a filasBloque y se escriben por palabras
+    */
+    private void volcar(BitGrid cuadricula, Nodo n, long x, long y) {
+        long lado = 1L << n.nivel;
+        if (n.poblacion == 0 || x >= ancho || y >= alto || x + lado <= 0 || y + lado <= 0) {
+            return;
+        }
+        if (n.nivel <= NIVEL_PALABRA) {
+            Arrays.fill(filasBloque, 0, (int) lado, 0L);
+            aFilas(n, 0, 0);
+            for (int i = 0; i < lado; i++) {
+                long fila = y + i;
+                if (fila >= 0 && fila < alto && filasBloque[i] != 0L) {
+                    // x puede no estar alineado a 64: la fila cae en dos palabras
+                    int desplazamiento = (int) (x & 63);
+                    long palabra = x >> 6;
+                    añadirBits(cuadricula, (int) fila, palabra, filasBloque[i] << desplazamiento);
+                    if (desplazamiento != 0) {
+                        añadirBits(cuadricula, (int) fila, palabra + 1, filasBloque[i] >>> (64 - desplazamiento));
+                    }
+                }
+            }
+            return;
+        }
+
+        long mitad = lado >>> 1;
+        volcar(cuadricula, n.nw, x, y);
+        volcar(cuadricula, n.ne, x + mitad, y);
+        volcar(cuadricula, n.sw, x, y + mitad);
+        volcar(cuadricula, n.se, x + mitad, y + mitad);
+    }
+
+    /*
+      Pasa las celdas vivas de un nodo de nivel 6 o menos a filasBloque desde (x, y)
+    */
+    private void aFilas(Nodo n, int x, int y) {
+        if (n.poblacion == 0) {
+            return;
+        }
+        if (n.nivel == 0) {
+            filasBloque[y] |= 1L << x;
+            return;
+        }
+        int mitad = 1 << (n.nivel - 1);
+        aFilas(n.nw, x, y);
+        aFilas(n.ne, x + mitad, y);
+        aFilas(n.sw, x, y + mitad);
+        aFilas(n.se, x + mitad, y + mitad);
+    }
+
+    /*
+      Activa bits en una palabra de la cuadricula; los que caen fuera del tablero se descartan
+    */
+    private static void añadirBits(BitGrid cuadricula, int fila, long palabra, long bits) {
+        int palabras = cuadricula.palabrasPorFila();
+        if (bits == 0L || palabra < 0 || palabra >= palabras) {
+            return;
+        }
+        if (palabra == palabras - 1) {
+            bits &= cuadricula.mascaraUltima();
+        }
+        cuadricula.escribirPalabra(fila, (int) palabra, cuadricula.leerPalabra(fila, (int) palabra) | bits);
+    }
+
+    /*
+      Obtiene el nodo canonico con esos cuatro hijos, creandolo si no existe
+    */
+    private Nodo unir(Nodo nw, Nodo ne, Nodo sw, Nodo se) {
+        int hash = mezclar(nw, ne, sw, se);
+        int indice = hash & (tabla.length - 1);
+        for (Nodo n = tabla[indice]; n != null; n = n.siguiente) {
+            if (n.nw == nw && n.ne == ne && n.sw == sw && n.se == se) {
+                return n;
+            }
+        }
+
+        Nodo nuevo = new Nodo(nw, ne, sw, se, hash);
+        nuevo.siguiente = tabla[indice];
+        tabla[indice] = nuevo;
+        cantidad++;
+        if (cantidad > tabla.length * 3 / 4) {
+            redimensionar(tabla.length * 2);
+        }
+        if (cantidad > umbralRecoleccion && !recolectando) {
+            recolectar();
+        }
+        return nuevo;
+    }
+
+    private static int mezclar(Nodo nw, Nodo ne, Nodo sw, Nodo se) {
+        int h = nw.hash;
+        h = h * 0x9E3779B1 + ne.hash;
+        h = h * 0x9E3779B1 + sw.hash;
+        h = h * 0x9E3779B1 + se.hash;
+        return h ^ (h >>> 16);
+    }
+
+    private void redimensionar(int capacidad) {
+        Nodo[] nueva = new Nodo[capacidad];
+        for (Nodo cabeza : tabla) {
+            for (Nodo n = cabeza; n != null; ) {
+                Nodo siguiente = n.siguiente;
+                int indice = n.hash & (capacidad - 1);
+                n.siguiente = nueva[indice];
+                nueva[indice] = n;
+                n = siguiente;
+            }
+        }
+        tabla = nueva;
+    }
+
+    /*
+      Politica de expulsion: cuando la tabla supera la capacidad maxima se vacia y se vuelven a
+      insertar solo los nodos alcanzables desde la raiz (y desde el nodo que se esta avanzando),
+      sin sus resultados memorizados
+      Puede ocurrir en mitad de un paso: los nodos que la recursion aun tiene en la pila dejan
+      de ser canonicos, lo que solo cuesta aciertos de cache, nunca resultados distintos
+      Si el propio mundo ocupa mas de la mitad de la capacidad, el umbral se duplica
+      para no recolectar continuamente
+    */
+    private void recolectar() {
+        recolectando = true;
+        recolecciones++;
+        tabla = new Nodo[tabla.length];
+        cantidad = 0;
+        for (int i = 1; i < vacios.length; i++) {
+            vacios[i] = null;
+        }
+
+        Map<Nodo, Nodo> copiados = new HashMap<>();
+        if (raiz != null) {
+            raiz = reinsertar(raiz, copiados);
+        }
+        if (trabajo != null) {
+            trabajo = reinsertar(trabajo, copiados);
+        }
+
+        umbralRecoleccion = Math.max(capacidadMaxima, cantidad * 2);
+        recolectando = false;
+    }
+
+    private Nodo reinsertar(Nodo n, Map<Nodo, Nodo> copiados) {
+        if (n.nivel == 0) {
+            return n;
+        }
+        Nodo copia = copiados.get(n);
+        if (copia == null) {
+            copia = unir(reinsertar(n.nw, copiados), reinsertar(n.ne, copiados),
+                    reinsertar(n.sw, copiados), reinsertar(n.se, copiados));
+            copiados.put(n, copia);
+        }
+        return copia;
+    }
+
+    /*
+      Nodo del quadtree; las hojas (nivel 0) son las dos celdas viva y muerta
+    */
+    private static final class Nodo {
+        final Nodo nw;
+        final Nodo ne;
+        final Nodo sw;
+        final Nodo se;
+        final int nivel;
+        final long poblacion;
+        final int hash;
+        Nodo resultado;
+        int pasoResultado;
+        Nodo siguiente;
+
+        Nodo(int estado) {
+            this.nw = null;
+            this.ne = null;
+            this.sw = null;
+            this.se = null;
+            this.nivel = 0;
+            this.poblacion = estado;
+            this.hash = estado * 0x61C88647 + 1;
+        }
+
+        Nodo(Nodo nw, Nodo ne, Nodo sw, Nodo se, int hash) {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.nivel = nw.nivel + 1;
+            this.poblacion = nw.poblacion + ne.poblacion + sw.poblacion + se.poblacion;
+            this.hash = hash;
+        }
+    }
+}
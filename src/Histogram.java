@@ -0,0 +1,124 @@
+/*
+  Clase Histograma - reparte valores no negativos en cubos potencia de 2 y guarda el minimo,
+  el maximo y la media, sin guardar los valores
+  Cubo 0 = el valor 0, cubo i = valores en [2^(i-1), 2^i)
+  Cada hilo llena el suyo y al terminar se suman con sumar, asi que no se comparte memoria
+  mientras se llenan (igual que las bandas con BoardStats)
+*/
+public final class Histogram {
+    private static final int CUBOS = 64;
+
+    private final long[] cubos;
+    private long cantidad;
+    private long minimo;
+    private long maximo;
+    private double suma;
+
+    /*
+      Constructor - crea un histograma vacio
+    */
+    public Histogram() {
+        this.cubos = new long[CUBOS];
+        this.minimo = Long.MAX_VALUE;
+        this.maximo = Long.MIN_VALUE;
+    }
+
+    /*
+      Obtiene el cubo de un valor
+      @param valor un valor no negativo
+      @return 0 para el 0, 1 para el 1, 2 para 2-3, 3 para 4-7...
+    */
+    static int cubo(long valor) {
+        return 64 - Long.numberOfLeadingZeros(valor);
+    }
+
+    /*
+      Cuenta un valor
+      @param valor el valor (no negativo)
+    */
+    public void añadir(long valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("El histograma solo admite valores no negativos: " + valor);
+        }
+        cubos[cubo(valor)]++;
+        cantidad++;
+        minimo = Math.min(minimo, valor);
+        maximo = Math.max(maximo, valor);
+        suma += valor;
+    }
+
+    /*
+      Suma a este histograma los valores de otro
+      @param otro el histograma a sumar (no cambia)
+    */
+    public void sumar(Histogram otro) {
+        for (int i = 0; i < CUBOS; i++) {
+            cubos[i] += otro.cubos[i];
+        }
+        cantidad += otro.cantidad;
+        minimo = Math.min(minimo, otro.minimo);
+        maximo = Math.max(maximo, otro.maximo);
+        suma += otro.suma;
+    }
+
+    /*
+      Obtiene cuantos valores se han contado
+      @return la cantidad de valores
+    */
+    public long obtenerCantidad() {
+        return cantidad;
+    }
+
+    /*
+      Obtiene el menor valor contado
+      @return el minimo, o 0 si esta vacio
+    */
+    public long obtenerMinimo() {
+        return cantidad == 0 ? 0 : minimo;
+    }
+
+    /*
+      Obtiene el mayor valor contado
+      @return el maximo, o 0 si esta vacio
+    */
+    public long obtenerMaximo() {
+        return cantidad == 0 ? 0 : maximo;
+    }
+
+    /*
+      Obtiene la media de los valores contados
+      @return la media, o 0 si esta vacio
+    */
+    public double obtenerMedia() {
+        return cantidad == 0 ? 0.0 : suma / cantidad;
+    }
+
+    /*
+      Obtiene los valores de un cubo
+      @param cubo el indice del cubo (0-63)
+      @return cuantos valores cayeron en el
+    */
+    public long obtenerCubo(int cubo) {
+        return cubos[cubo];
+    }
+
+    /*
+      Describe el histograma en una linea, sin los cubos vacios
+      @return por ejemplo "0: 12 | 1: 3 | 512-1023: 85"
+    */
+    public String describir() {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < CUBOS; i++) {
+            if (cubos[i] == 0) {
+                continue;
+            }
+            if (texto.length() > 0) {
+                texto.append(" | ");
+            }
+            long desde = i == 0 ? 0 : 1L << (i - 1);
+            long hasta = i == 0 ? 0 : (i == CUBOS - 1 ? Long.MAX_VALUE : (1L << i) - 1);
+            texto.append(desde == hasta ? String.valueOf(desde) : desde + "-" + hasta).append(": ").append(cubos[i]);
+        }
+        return texto.length() == 0 ? "sin valores" : texto.toString();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+  Clase ConjuntoDeLongs - conjunto de valores long con direccionamiento abierto, sin objetos Long
+  Las claves van en un unico arreglo long cuya capacidad es potencia de 2; la posicion inicial
+  sale de mezclar la clave con la semilla de la tabla (RandomSource.mezclar) y las colisiones
+  se resuelven con sondeo lineal. La tabla crece al llenarse a la mitad
+  Cada tabla tiene su propia semilla: al recorrer una tabla y llenar otra con sus claves, con
+  la misma mezcla las claves llegarian ordenadas por posicion y el sondeo lineal formaria un
+  solo bloque enorme al crecer la tabla destino (tiempo cuadratico)
+  Un hueco libre se marca con VACIA, asi que esa clave no se puede guardar (ver SparseWorld,
+  que la deja fuera de sus coordenadas)
+  Sin borrados: el conjunto se vacia entero con limpiar, que lo encoge si ha quedado muy grande
+  Coste: entre 16 y 32 bytes por clave
+*/
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class LongHashSet {
+    static final long VACIA = Long.MIN_VALUE;
+    private static final int BITS_MINIMOS = 4;
+    // Los arreglos Java no pasan de 2^31 - 1 posiciones
+    static final int BITS_MAXIMOS = 30;
+    // Incremento de Weyl de SplitMix64: separa las semillas de tablas consecutivas
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+    private static final AtomicLong SEMILLAS = new AtomicLong();
+
+    private final long semilla;
+    private long[] claves;
+    private int desplazamiento;
+    private int cantidad;
+    private int umbral;
+
+    /*
+      Constructor - crea un conjunto vacio con la capacidad minima
+    */
+    LongHashSet() {
+        this.semilla = nuevaSemilla();
+        reservar(BITS_MINIMOS);
+    }
+
+    /*
+      Obtiene una semilla distinta para cada tabla que se crea
+      @return la semilla que se suma a las claves antes de mezclarlas
+    */
+    static long nuevaSemilla() {
+        return RandomSource.mezclar(SEMILLAS.addAndGet(GAMMA));
+    }
+
+    /*
+      Añade una clave
+      @param clave la clave (distinta de VACIA)
+      @return true si no estaba
+    */
+    boolean añadir(long clave) {
+        int mascara = claves.length - 1;
+        int i = posicion(clave);
+        long actual;
+        while ((actual = claves[i]) != VACIA) {
+            if (actual == clave) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        if (++cantidad > umbral) {
+            crecer();
+        }
+        return true;
+    }
+
+    /*
+      Comprueba si una clave esta en el conjunto
+      @param clave la clave
+      @return true si esta
+    */
+    boolean contiene(long clave) {
+        int mascara = claves.length - 1;
+        int i = posicion(clave);
+        long actual;
+        while ((actual = claves[i]) != VACIA) {
+            if (actual == clave) {
+                return true;
+            }
+            i = (i + 1) & mascara;
+        }
+        return false;
+    }
+
+    /*
+      Vacia el conjunto y lo prepara para un numero de claves, para no crecer mientras se llena
+      Si la tabla es mucho mayor de lo que hizo falta y de lo que se espera, se encoge
+      @param esperadas las claves que se esperan
+    */
+    void limpiar(int esperadas) {
+        int bits = bitsPara(Math.max(cantidad, esperadas));
+        int actuales = Integer.numberOfTrailingZeros(claves.length);
+        if (bits > actuales || bits + 2 < actuales) {
+            reservar(bits);
+        } else {
+            Arrays.fill(claves, VACIA);
+        }
+        cantidad = 0;
+    }
+
+    /*
+      Obtiene el numero de claves guardadas
+      @return las claves
+    */
+    int tamaño() {
+        return cantidad;
+    }
+
+    /*
+      Obtiene el tamaño de la tabla, para recorrerla con clave(i)
+      @return las posiciones de la tabla
+    */
+    int capacidad() {
+        return claves.length;
+    }
+
+    /*
+      Obtiene la clave de una posicion de la tabla
+      @param i la posicion (0 a capacidad() - 1)
+      @return la clave, o VACIA si la posicion esta libre
+    */
+    long clave(int i) {
+        return claves[i];
+    }
+
+    /*
+      Obtiene la memoria que ocupa la tabla
+      @return los bytes del arreglo de claves
+    */
+    long bytesUsados() {
+        return (long) claves.length * Long.BYTES;
+    }
+
+    /*
+      Posicion inicial de una clave: los bits altos de la clave mas la semilla, mezcladas
+    */
+    private int posicion(long clave) {
+        return (int) (RandomSource.mezclar(clave + semilla) >>> desplazamiento);
+    }
+
+    /*
+      Bits de capacidad para guardar un numero de claves sin pasar de la mitad
+    */
+    static int bitsPara(int cantidad) {
+        return Math.max(BITS_MINIMOS, 64 - Long.numberOfLeadingZeros(2L * cantidad));
+    }
+
+    /*
+      Comprueba que una tabla de 2^bits posiciones se puede crear
+      @throws IllegalStateException si no cabe en un arreglo
+    */
+    static void comprobarBits(int bits) {
+        if (bits > BITS_MAXIMOS) {
+            throw new IllegalStateException("Demasiadas claves para una tabla: mas de " + (1 << (BITS_MAXIMOS - 1)));
+        }
+    }
+
+    private void reservar(int bits) {
+        comprobarBits(bits);
+        claves = new long[1 << bits];
+        Arrays.fill(claves, VACIA);
+        desplazamiento = 64 - bits;
+        umbral = 1 << (bits - 1);
+    }
+
+    private void crecer() {
+        long[] anteriores = claves;
+        reservar(Integer.numberOfTrailingZeros(anteriores.length) + 1);
+        int mascara = claves.length - 1;
+        for (long clave : anteriores) {
+            if (clave != VACIA) {
+                int i = posicion(clave);
+                while (claves[i] != VACIA) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clave;
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+  Clase MapaDeLongAEntero - mapa de claves long a valores int con direccionamiento abierto,
+  sin objetos Long ni Integer
+  Misma tabla que LongHashSet (capacidad potencia de 2, clave mezclada con una semilla propia,
+  sondeo lineal, VACIA como hueco libre) con los valores en un arreglo int paralelo
+  Pensado para contar: sumar crea la clave con valor 0 si no estaba
+  Coste: entre 24 y 48 bytes por clave
+*/
+
+import java.util.Arrays;
+
+final class LongIntMap {
+    private static final int BITS_MINIMOS = 4;
+
+    private final long semilla;
+    private long[] claves;
+    private int[] valores;
+    private int desplazamiento;
+    private int cantidad;
+    private int umbral;
+
+    /*
+      Constructor - crea un mapa vacio con la capacidad minima
+    */
+    LongIntMap() {
+        this.semilla = LongHashSet.nuevaSemilla();
+        reservar(BITS_MINIMOS);
+    }
+
+    /*
+      Suma una cantidad al valor de una clave
+      @param clave la clave (distinta de LongHashSet.VACIA)
+      @param cantidad lo que se suma (una clave nueva empieza en 0)
+    */
+    void sumar(long clave, int cantidad) {
+        int mascara = claves.length - 1;
+        int i = posicion(clave);
+        long actual;
+        while ((actual = claves[i]) != LongHashSet.VACIA) {
+            if (actual == clave) {
+                valores[i] += cantidad;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        valores[i] = cantidad;
+        if (++this.cantidad > umbral) {
+            crecer();
+        }
+    }
+
+    /*
+      Obtiene el valor de una clave
+      @param clave la clave
+      @return el valor, o 0 si no esta
+    */
+    int obtener(long clave) {
+        int mascara = claves.length - 1;
+        int i = posicion(clave);
+        long actual;
+        while ((actual = claves[i]) != LongHashSet.VACIA) {
+            if (actual == clave) {
+                return valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return 0;
+    }
+
+    /*
+      Vacia el mapa y lo prepara para un numero de claves, para no crecer mientras se llena
+      Si la tabla es mucho mayor de lo que hizo falta y de lo que se espera, se encoge
+      @param esperadas las claves que se esperan
+    */
+    void limpiar(int esperadas) {
+        int bits = LongHashSet.bitsPara(Math.max(cantidad, esperadas));
+        int actuales = Integer.numberOfTrailingZeros(claves.length);
+        if (bits > actuales || bits + 2 < actuales) {
+            reservar(bits);
+        } else {
+            Arrays.fill(claves, LongHashSet.VACIA);
+        }
+        cantidad = 0;
+    }
+
+    /*
+      Obtiene el numero de claves guardadas
+      @return las claves
+    */
+    int tamaño() {
+        return cantidad;
+    }
+
+    /*
+      Obtiene el tamaño de la tabla, para recorrerla con clave(i) y valor(i)
+      @return las posiciones de la tabla
+    */
+    int capacidad() {
+        return claves.length;
+    }
+
+    /*
+      Obtiene la clave de una posicion de la tabla
+      @param i la posicion (0 a capacidad() - 1)
+      @return la clave, o LongHashSet.VACIA si la posicion esta libre
+    */
+    long clave(int i) {
+        return claves[i];
+    }
+
+    /*
+      Obtiene el valor de una posicion de la tabla
+      @param i una posicion ocupada
+      @return el valor de su clave
+    */
+    int valor(int i) {
+        return valores[i];
+    }
+
+    /*
+      Obtiene la memoria que ocupa la tabla
+      @return los bytes de los arreglos de claves y valores
+    */
+    long bytesUsados() {
+        return (long) claves.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    private int posicion(long clave) {
+        return (int) (RandomSource.mezclar(clave + semilla) >>> desplazamiento);
+    }
+
+    private void reservar(int bits) {
+        LongHashSet.comprobarBits(bits);
+        claves = new long[1 << bits];
+        valores = new int[1 << bits];
+        Arrays.fill(claves, LongHashSet.VACIA);
+        desplazamiento = 64 - bits;
+        umbral = 1 << (bits - 1);
+    }
+
+    private void crecer() {
+        long[] clavesAnteriores = claves;
+        int[] valoresAnteriores = valores;
+        reservar(Integer.numberOfTrailingZeros(clavesAnteriores.length) + 1);
+        int mascara = claves.length - 1;
+        for (int j = 0; j < clavesAnteriores.length; j++) {
+            long clave = clavesAnteriores[j];
+            if (clave != LongHashSet.VACIA) {
+                int i = posicion(clave);
+                while (claves[i] != LongHashSet.VACIA) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clave;
+                valores[i] = valoresAnteriores[j];
+            }
+        }
+    }
+}
@@ -2,10 +2,79 @@
   Clase JuegoDelVida - Punto de entrada para la simulacion del Juego de la Vida
   Gestiona el menu principal y controla el flujo del programa
 */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public class MainGame {
+    // Lado maximo en modo sin pantalla; BitGrid y OffHeapGrid comprueban ademas que el total quepa
+    private static final int LADO_MAXIMO_SIN_PANTALLA = 1 << 22;
 
     public static void main(String[] args) {
         Menu menu = new Menu();
+        try {
+            CommandLineOptions opciones = CommandLineOptions.parsear(args);
+            if (opciones.tiene("headless")) {
+                ejecutarSinPantalla(opciones);
+                return;
+            }
+            if (opciones.tiene("conjunto")) {
+                ejecutarConjunto(opciones);
+                return;
+            }
+            if (opciones.tiene("barrido")) {
+                ejecutarBarrido(opciones);
+                return;
+            }
+            if (opciones.tiene("infinito")) {
+                ejecutarInfinito(opciones);
+                return;
+            }
+            menu.establecerHilos(opciones.obtenerEntero("hilos", 1, 1, Menu.HILOS_MAXIMOS));
+            menu.establecerProbabilidadVolteo(opciones.obtenerDecimal("prob-volteo", 0.1, 0.0, 1.0));
+            menu.establecerFuenteAleatoria(crearFuenteAleatoria(opciones));
+            menu.establecerMotor(elegirMotor(opciones, "swar"));
+            menu.establecerFotogramasPorSegundo(opciones.obtenerEntero("fps", 2, 1, Menu.FOTOGRAMAS_MAXIMOS));
+            menu.establecerSaltarFotogramas(!opciones.tiene("cada-generacion"));
+            menu.establecerRegistroDetallado(opciones.tiene("registro"));
+            menu.establecerVistaReducida(elegirVista(opciones));
+            if (opciones.tiene("columnas") || opciones.tiene("filas")) {
+                menu.establecerTerminal(opciones.obtenerEntero("columnas", 80, 8, 10_000),
+                        opciones.obtenerEntero("filas", 24, 5, 10_000));
+            }
+            menu.establecerCiclos(opciones.obtener("ciclos", CycleDetector.SEGUIR));
+            menu.establecerHistoriaCiclos(opciones.obtenerEntero("historia-ciclos", CycleDetector.HISTORIA_POR_DEFECTO,
+                    1, 1 << 20));
+            menu.establecerNodosHashLife(opciones.obtenerEntero("hashlife-nodos", HashLife.CAPACIDAD_POR_DEFECTO,
+                    1024, Integer.MAX_VALUE));
+            if (opciones.tiene("fuera-heap")) {
+                menu.establecerFueraDelHeap(true);
+            }
+            if (opciones.tiene("historial") || opciones.tiene("historial-fichero")) {
+                menu.establecerHistorial((long) opciones.obtenerEntero("historial", 64, 0, 1 << 20) << 20,
+                        opciones.obtenerEntero("historial-intervalo", GenerationHistory.INTERVALO_POR_DEFECTO, 1, 1 << 20),
+                        opciones.tiene("historial-fichero") ? Path.of(opciones.obtener("historial-fichero", "")) : null);
+            }
+            if (opciones.tiene("cargar")) {
+                menu.cargarTablero(Path.of(opciones.obtener("cargar", "")));
+            }
+            // Despues de cargar: --regla sustituye a la regla guardada en la instantanea
+            if (opciones.tiene("regla")) {
+                menu.establecerRegla(Rule.parsear(opciones.obtener("regla", "")));
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            mostrarUso();
+            return;
+        } catch (IOException | IllegalStateException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
         boolean salir = false;
 
         while (!salir) {
@@ -47,6 +116,16 @@ public class MainGame {
                     break;
 
                 case 6:
+                    // Saltar Generaciones (HashLife)
+                    menu.saltarGeneraciones();
+                    break;
+
+                case 7:
+                    // Guardar / Cargar Tablero
+                    menu.guardarOCargarTablero();
+                    break;
+
+                case 8:
                     // Salir
                     System.out.println("\n¡Gracias por jugar el Juego de la Vida!");
                     salir = true;
@@ -55,6 +134,454 @@ public class MainGame {
         }
     }
 
+    /*
+      Modo sin pantalla (--headless): ejecuta las generaciones pedidas sin dibujar ni esperar
+      y muestra al final las generaciones y actualizaciones de celda por segundo
+      Pensado para medir capacidad; no usa el menu ni lee de la entrada estandar
+      Con --cargar empieza desde una instantanea (su fuente aleatoria y probabilidad de cambio
+      se conservan salvo que se indiquen otras) y con --guardar guarda el tablero final
+      La regla es la de --regla; si no se indica, la de la instantanea o la declarada por el patron
+      importado, y si no, la regla por defecto
+      Con --ciclos parar o saltar, si el tablero se repite se para o se saltan los periodos que faltan
+      Con --bloque-temporal K y sin --ciclos las generaciones se avanzan en bloques de K (ver Board.avanzar)
+      Con --fuera-heap las celdas van en memoria directa (ver OffHeapGrid), para tableros mayores que el heap
+      Con --sin-conteo no se cuentan nacimientos ni muertes en cada generacion (ver Board.establecerConteoCambios)
+      @param opciones las opciones de la linea de comandos
+      @throws IllegalArgumentException si alguna opcion no es valida
+      @throws IOException si no se puede leer o guardar una instantanea
+    */
+    static void ejecutarSinPantalla(CommandLineOptions opciones) throws IOException {
+        int generaciones = opciones.obtenerEntero("generaciones", 1000, 0, Integer.MAX_VALUE);
+        int calentamiento = opciones.obtenerEntero("calentamiento", 0, 0, Integer.MAX_VALUE);
+        String patron = opciones.tiene("cargar") ? opciones.obtener("cargar", "") : opciones.obtener("patron", "aleatorio");
+        double densidad = opciones.obtenerDecimal("densidad", 0.3, 0.0, 1.0);
+        if (!opciones.tiene("cargar") && !patron.equals("aleatorio") && !Patterns.nombres().contains(patron)) {
+            throw new IllegalArgumentException("Patron desconocido: " + patron + " (disponibles: aleatorio, "
+                    + String.join(", ", Patterns.nombres()) + ")");
+        }
+
+        Rule regla = opciones.tiene("regla") ? Rule.parsear(opciones.obtener("regla", "")) : null;
+        boolean fueraDelHeap = opciones.tiene("fuera-heap");
+
+        Board tablero;
+        if (opciones.tiene("cargar")) {
+            tablero = Snapshot.cargar(Path.of(patron), fueraDelHeap);
+            if (opciones.tiene("prob-volteo")) {
+                tablero.establecerProbabilidadVolteo(opciones.obtenerDecimal("prob-volteo", 0.1, 0.0, 1.0));
+            }
+            if (opciones.tiene("semilla")) {
+                tablero.establecerFuenteAleatoria(crearFuenteAleatoria(opciones));
+            }
+        } else {
+            int ancho = opciones.obtenerEntero("ancho", 1024, 6, LADO_MAXIMO_SIN_PANTALLA);
+            int alto = opciones.obtenerEntero("alto", ancho, 6, LADO_MAXIMO_SIN_PANTALLA);
+            // Las reglas Generations guardan el estado de muerte en las edades
+            tablero = new Board(ancho, alto, opciones.tiene("edades") || (regla != null && regla.estados() > 2), fueraDelHeap);
+            tablero.establecerProbabilidadVolteo(opciones.obtenerDecimal("prob-volteo", 0.1, 0.0, 1.0));
+            tablero.establecerFuenteAleatoria(crearFuenteAleatoria(opciones));
+            if (opciones.tiene("importar")) {
+                patron = opciones.obtener("importar", "");
+                String declarada = importarPatron(opciones, tablero);
+                if (regla == null && declarada != null) {
+                    regla = reglaDelPatron(declarada);
+                }
+            } else if (patron.equals("aleatorio")) {
+                tablero.rellenarAleatorio(densidad);
+            } else {
+                Patterns.colocar(patron, tablero);
+            }
+        }
+        if (regla != null) {
+            try {
+                tablero.establecerRegla(regla);
+            } catch (IllegalStateException e) {
+                throw new IllegalArgumentException(e.getMessage() + " (usa --edades)");
+            }
+        }
+        tablero.establecerHilos(opciones.obtenerEntero("hilos", 1, 1, Menu.HILOS_MAXIMOS));
+        tablero.establecerMotor(EngineRegistry.crear(elegirMotor(opciones, "auto")));
+        tablero.establecerBloqueTemporal(opciones.obtenerEntero("bloque-temporal", 1, 1, Board.BLOQUE_TEMPORAL_MAXIMO));
+        boolean conConteo = !opciones.tiene("sin-conteo");
+        tablero.establecerConteoCambios(conConteo);
+        String ciclos = CycleDetector.validarModo(opciones.obtener("ciclos", CycleDetector.SEGUIR));
+        if (!ciclos.equals(CycleDetector.SEGUIR) && tablero.obtenerProbabilidadVolteo() != 0.0) {
+            throw new IllegalArgumentException("--ciclos necesita --prob-volteo 0");
+        }
+        if (!ciclos.equals(CycleDetector.SEGUIR) && tablero.obtenerRegla().estados() > 2) {
+            throw new IllegalArgumentException("--ciclos no admite reglas Generations");
+        }
+        int historia = opciones.obtenerEntero("historia-ciclos", CycleDetector.HISTORIA_POR_DEFECTO, 1, 1 << 20);
+
+        System.out.println("Tablero " + tablero.obtenerAncho() + "x" + tablero.obtenerAlto() + ", patron " + patron + ", motor "
+                + tablero.obtenerMotor().nombre() + ", regla " + tablero.obtenerRegla() + ", " + tablero.obtenerHilos() + " hilos, "
+                + tablero.obtenerCantidadVivas() + " celdas vivas" + (tablero.fueraDelHeap() ? ", fuera del heap" : ""));
+
+        // Las generaciones de calentamiento dan tiempo al JIT y no cuentan en la medida
+        tablero.avanzar(calentamiento);
+
+        CycleDetector detector = ciclos.equals(CycleDetector.SEGUIR) ? null : new CycleDetector(tablero, historia);
+        long ultima = tablero.obtenerGeneracion() + generaciones;
+        long calculadas = 0;
+        long inicio = System.nanoTime();
+        if (detector == null) {
+            // Sin detector no hace falta mirar cada generacion: avanzar puede usar el bloqueo temporal
+            tablero.avanzar(generaciones);
+            calculadas = generaciones;
+        }
+        while (tablero.obtenerGeneracion() < ultima) {
+            tablero.proximaGeneracion();
+            calculadas++;
+            if (detector != null && detector.obtenerPeriodo() == 0 && detector.observar()) {
+                if (ciclos.equals(CycleDetector.PARAR)) {
+                    break;
+                }
+                detector.saltar(ultima - tablero.obtenerGeneracion());
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        if (detector != null) {
+            detector.terminar();
+            if (detector.obtenerPeriodo() != 0) {
+                System.out.println(detector.describir() + (ciclos.equals(CycleDetector.PARAR) ? ": simulacion detenida"
+                        : ": se saltaron " + detector.obtenerSaltadas() + " generaciones"));
+            }
+        }
+
+        // Las generaciones saltadas no cuentan en la medida
+        double generacionesPorSegundo = calculadas / segundos;
+        System.out.printf("Generaciones: %d en %.3f s%n", calculadas, segundos);
+        System.out.printf("Generaciones/s: %.1f%n", generacionesPorSegundo);
+        System.out.printf("Celdas actualizadas/s: %.4g%n", generacionesPorSegundo * tablero.obtenerTotalCeldas());
+        BoardStats estadisticas = tablero.obtenerEstadisticas();
+        System.out.println("Celdas vivas al final: " + estadisticas.obtenerVivas());
+        if (conConteo) {
+            System.out.println("Nacimientos: " + estadisticas.obtenerNacimientosTotales() + " | Muertes: "
+                    + estadisticas.obtenerMuertesTotales() + " | Cambios espontaneos: " + estadisticas.obtenerVolteosTotales());
+        } else {
+            System.out.println("Cambios espontaneos: " + estadisticas.obtenerVolteosTotales());
+        }
+        if (tablero.registraEdades()) {
+            System.out.println("Edades de las celdas vivas: " + estadisticas.describirHistograma());
+        }
+
+        if (opciones.tiene("guardar")) {
+            Snapshot.guardar(tablero, Path.of(opciones.obtener("guardar", "")));
+            System.out.println("Tablero guardado en " + opciones.obtener("guardar", "") + " (generacion "
+                    + tablero.obtenerGeneracion() + ")");
+        }
+        tablero.liberar();
+    }
+
+    /*
+      Modo conjunto (--conjunto N): simula N tableros independientes con semillas distintas
+      (ver EnsembleRunner) y muestra histogramas de la poblacion final, la poblacion maxima
+      y la generacion de extincion, ademas de las corridas por minuto
+      @param opciones las opciones de la linea de comandos
+      @throws IllegalArgumentException si alguna opcion no es valida
+      @throws InterruptedException si se interrumpe la espera
+    */
+    static void ejecutarConjunto(CommandLineOptions opciones) throws InterruptedException {
+        long corridas = opciones.obtenerLong("conjunto", 1000);
+        if (corridas < 1) {
+            throw new IllegalArgumentException("--conjunto debe ser al menos 1: " + corridas);
+        }
+        int ancho = opciones.obtenerEntero("ancho", 64, 6, Menu.TAMAÑO_MAXIMO);
+        int alto = opciones.obtenerEntero("alto", ancho, 6, Menu.TAMAÑO_MAXIMO);
+        int generaciones = opciones.obtenerEntero("generaciones", 1000, 0, Integer.MAX_VALUE);
+
+        EnsembleRunner conjunto = new EnsembleRunner(ancho, alto, generaciones);
+        conjunto.establecerDensidad(opciones.obtenerDecimal("densidad", 0.3, 0.0, 1.0));
+        conjunto.establecerProbabilidadVolteo(opciones.obtenerDecimal("prob-volteo", 0.1, 0.0, 1.0));
+        if (opciones.tiene("regla")) {
+            conjunto.establecerRegla(Rule.parsear(opciones.obtener("regla", "")));
+        }
+        conjunto.establecerSemilla(opciones.obtenerLong("semilla", 0L));
+        conjunto.establecerMotor(opciones.obtener("motor", "swar"));
+        conjunto.establecerHilos(opciones.obtenerEntero("hilos", Runtime.getRuntime().availableProcessors(), 1, 4096),
+                opciones.obtener("hilos-conjunto", EnsembleRunner.POOL));
+
+        EnsembleRunner.Result resultado = conjunto.ejecutar(corridas);
+        System.out.printf("Corridas: %d de %dx%d, %d generaciones como mucho, en %.3f s (%s)%n", resultado.obtenerCorridas(),
+                ancho, alto, generaciones, resultado.obtenerSegundos(), resultado.usoHilosVirtuales() ? "hilos virtuales" : "ForkJoinPool");
+        System.out.printf("Corridas/minuto: %.0f%n", resultado.obtenerCorridas() * 60.0 / resultado.obtenerSegundos());
+        System.out.println("Extinguidas: " + resultado.obtenerExtinciones());
+        describirHistograma("Poblacion final", resultado.obtenerPoblacionFinal());
+        describirHistograma("Poblacion maxima", resultado.obtenerPoblacionMaxima());
+        describirHistograma("Generacion de extincion", resultado.obtenerGeneracionExtincion());
+    }
+
+    /*
+      Modo barrido (--barrido FICHERO): simula todas las combinaciones de las listas o rangos de
+      --probabilidades, --densidades, --tableros y --reglas, --repeticiones veces cada una
+      (ver ParameterSweep), y escribe una linea CSV por corrida
+      @param opciones las opciones de la linea de comandos
+      @throws IllegalArgumentException si alguna opcion no es valida
+      @throws IOException si no se puede escribir el CSV
+      @throws InterruptedException si se interrumpe la espera
+    */
+    static void ejecutarBarrido(CommandLineOptions opciones) throws IOException, InterruptedException {
+        Path ruta = Path.of(opciones.obtener("barrido", ""));
+        ParameterSweep barrido = new ParameterSweep(
+                ParameterSweep.parsearValores(opciones.obtener("probabilidades", "0.1"), 0.0, 1.0),
+                ParameterSweep.parsearValores(opciones.obtener("densidades", "0.3"), 0.0, 1.0),
+                ParameterSweep.parsearTamaños(opciones.obtener("tableros", "64"), 6, Menu.TAMAÑO_MAXIMO),
+                ParameterSweep.parsearReglas(opciones.obtener("reglas", Rule.POR_DEFECTO.toString())),
+                opciones.obtenerEntero("repeticiones", 10, 1, Integer.MAX_VALUE),
+                opciones.obtenerEntero("generaciones", 1000, 0, Integer.MAX_VALUE));
+        barrido.establecerSemilla(opciones.obtenerLong("semilla", 0L));
+        barrido.establecerMotor(opciones.obtener("motor", "swar"));
+        barrido.establecerHilos(opciones.obtenerEntero("hilos", Runtime.getRuntime().availableProcessors(), 1, 4096));
+        barrido.establecerHistoriaCiclos(opciones.obtenerEntero("historia-ciclos", 64, 1, 1 << 20));
+
+        System.out.println("Barrido de " + barrido.totalCorridas() + " corridas en " + ruta);
+        long inicio = System.nanoTime();
+        long corridas;
+        try (Writer salida = Files.newBufferedWriter(ruta)) {
+            corridas = barrido.ejecutar(salida);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Corridas: %d en %.3f s (%.0f corridas/minuto)%n", corridas, segundos, corridas * 60.0 / segundos);
+    }
+
+    /*
+      Modo infinito (--infinito): simula el patron en un plano sin bordes que solo guarda las
+      celdas vivas (ver SparseWorld), de modo que un planeador se aleja en lugar de dar la vuelta
+      El patron se prepara en un tablero de --ancho x --alto igual que en --headless y se copia
+      al plano con su esquina en la fila 0 y la columna 0
+      @param opciones las opciones de la linea de comandos
+      @throws IllegalArgumentException si alguna opcion no es valida
+      @throws IOException si no se puede leer el patron importado
+    */
+    static void ejecutarInfinito(CommandLineOptions opciones) throws IOException {
+        int generaciones = opciones.obtenerEntero("generaciones", 1000, 0, Integer.MAX_VALUE);
+        String patron = opciones.obtener("patron", "vela");
+        if (!patron.equals("aleatorio") && !Patterns.nombres().contains(patron)) {
+            throw new IllegalArgumentException("Patron desconocido: " + patron + " (disponibles: aleatorio, "
+                    + String.join(", ", Patterns.nombres()) + ")");
+        }
+        if (opciones.obtenerDecimal("prob-volteo", 0.0, 0.0, 1.0) != 0.0) {
+            throw new IllegalArgumentException("--infinito no admite cambios espontaneos (--prob-volteo 0)");
+        }
+        Rule regla = opciones.tiene("regla") ? Rule.parsear(opciones.obtener("regla", "")) : null;
+
+        int ancho = opciones.obtenerEntero("ancho", 64, 6, LADO_MAXIMO_SIN_PANTALLA);
+        int alto = opciones.obtenerEntero("alto", ancho, 6, LADO_MAXIMO_SIN_PANTALLA);
+        Board inicial = new Board(ancho, alto, false);
+        inicial.establecerFuenteAleatoria(crearFuenteAleatoria(opciones));
+        if (opciones.tiene("importar")) {
+            patron = opciones.obtener("importar", "");
+            String declarada = importarPatron(opciones, inicial);
+            if (regla == null && declarada != null) {
+                regla = reglaDelPatron(declarada);
+            }
+        } else if (patron.equals("aleatorio")) {
+            inicial.rellenarAleatorio(opciones.obtenerDecimal("densidad", 0.3, 0.0, 1.0));
+        } else {
+            Patterns.colocar(patron, inicial);
+        }
+        SparseWorld mundo = new SparseWorld(regla == null ? Rule.POR_DEFECTO : regla);
+        mundo.colocarTablero(inicial, 0, 0);
+        inicial.liberar();
+
+        System.out.println("Plano infinito, patron " + patron + " (" + ancho + "x" + alto + "), regla "
+                + (regla == null ? Rule.POR_DEFECTO : regla) + ", " + mundo.obtenerCantidadVivas() + " celdas vivas");
+        long inicio = System.nanoTime();
+        mundo.avanzar(generaciones);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf("Generaciones: %d en %.3f s (%.1f generaciones/s)%n", generaciones, segundos, generaciones / segundos);
+        System.out.println("Celdas vivas al final: " + mundo.obtenerCantidadVivas());
+        int[] limites = mundo.obtenerLimites();
+        if (limites != null) {
+            System.out.println("Filas " + limites[0] + " a " + limites[2] + ", columnas " + limites[1] + " a " + limites[3]
+                    + " (" + ((long) limites[2] - limites[0] + 1) + "x" + ((long) limites[3] - limites[1] + 1) + ")");
+        }
+        System.out.printf("Memoria de las tablas: %.1f KiB%n", mundo.obtenerMemoriaBytes() / 1024.0);
+        if (mundo.obtenerPerdidas() > 0) {
+            System.out.println("Celdas perdidas por salir del plano: " + mundo.obtenerPerdidas());
+        }
+    }
+
+    private static void describirHistograma(String nombre, Histogram histograma) {
+        if (histograma.obtenerCantidad() == 0) {
+            System.out.println(nombre + ": sin valores");
+            return;
+        }
+        System.out.printf("%s: min %d, media %.1f, max %d%n  %s%n", nombre, histograma.obtenerMinimo(),
+                histograma.obtenerMedia(), histograma.obtenerMaximo(), histograma.describir());
+    }
+
+    /*
+      Importa sobre el tablero el fichero de --importar en la posicion de --fila-origen y --columna-origen
+      @param opciones las opciones de la linea de comandos
+      @param tablero el tablero destino
+      @return la regla declarada en el fichero, o null si no declara ninguna
+      @throws IOException si no se puede leer el fichero o no es un patron valido
+    */
+    static String importarPatron(CommandLineOptions opciones, Board tablero) throws IOException {
+        int fila = opciones.obtenerEntero("fila-origen", 0, 0, tablero.obtenerAlto() - 1);
+        int columna = opciones.obtenerEntero("columna-origen", 0, 0, tablero.obtenerAncho() - 1);
+        PatternImporter importador = new PatternImporter(tablero, fila, columna);
+        long inicio = System.nanoTime();
+        importador.importar(Path.of(opciones.obtener("importar", "")));
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Patron importado (%s): %d celdas vivas en %.3f s, %d fuera del tablero%n",
+                importador.obtenerFormato(), importador.obtenerCeldas(), segundos, importador.obtenerRecortadas());
+        return importador.obtenerRegla();
+    }
+
+    /*
+      Interpreta la regla declarada por un patron importado
+      @param texto la regla tal como aparece en el fichero
+      @return la regla, o null si no se puede simular (se usa la regla por defecto)
+    */
+    static Rule reglaDelPatron(String texto) {
+        try {
+            return Rule.parsear(texto);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Aviso: el patron es para la regla " + texto + ", que no se puede simular; se usara "
+                    + Rule.POR_DEFECTO);
+            return null;
+        }
+    }
+
+    /*
+      Crea la fuente aleatoria pedida con --semilla y --aleatorio
+      @param opciones las opciones de la linea de comandos
+      @return la fuente aleatoria
+    */
+    static RandomSource crearFuenteAleatoria(CommandLineOptions opciones) {
+        String modo = opciones.obtener("aleatorio", "contador");
+        if (!opciones.tiene("semilla")) {
+            return RandomSource.sinSemilla();
+        }
+
+        long semilla = opciones.obtenerLong("semilla", 0L);
+        switch (modo) {
+            case "contador":
+                return RandomSource.contador(semilla);
+            case "flujo":
+                return RandomSource.flujo(semilla);
+            default:
+                throw new IllegalArgumentException("--aleatorio debe ser 'contador' o 'flujo': " + modo);
+        }
+    }
+
+    /*
+      Elige el motor pedido con --motor; con 'auto' mide los disponibles y usa el mas rapido
+      La medida tarda casi un segundo, asi que en modo interactivo solo se hace si se pide
+      @param opciones las opciones de la linea de comandos
+      @param porDefecto el motor si no se indica --motor ('auto' para medir)
+      @return el nombre del motor
+    */
+    static String elegirMotor(CommandLineOptions opciones, String porDefecto) {
+        String motor = opciones.obtener("motor", porDefecto);
+        if (motor.equals("auto")) {
+            motor = EngineRegistry.seleccionarMasRapido();
+            System.out.println("Motor seleccionado para esta CPU: " + motor + " (disponibles: " + EngineRegistry.disponibles() + ")");
+        } else {
+            EngineRegistry.crear(motor);
+        }
+        return motor;
+    }
+
+    /*
+      Lee la vista pedida con --vista para los tableros que no caben en la terminal
+      @param opciones las opciones de la linea de comandos
+      @return true para la vista reducida (por defecto), false para la ventana
+    */
+    static boolean elegirVista(CommandLineOptions opciones) {
+        String vista = opciones.obtener("vista", "reducida");
+        switch (vista) {
+            case "reducida":
+                return true;
+            case "ventana":
+                return false;
+            default:
+                throw new IllegalArgumentException("--vista debe ser 'reducida' o 'ventana': " + vista);
+        }
+    }
+
+    /*
+      Muestra las opciones de linea de comandos disponibles
+    */
+    private static void mostrarUso() {
+        System.out.println("Uso: java MainGame [opciones]");
+        System.out.println("  --hilos N              hilos para calcular cada generacion (1-" + Menu.HILOS_MAXIMOS + ")");
+        System.out.println("  --semilla N            semilla de los cambios espontaneos y del relleno aleatorio");
+        System.out.println("  --aleatorio MODO       contador (igual con cualquier numero de hilos) o flujo (SplittableRandom por banda)");
+        System.out.println("  --motor NOMBRE         escalar, swar, disperso, teselas, vector o auto (mide y elige el mas rapido;");
+        System.out.println("                         por defecto swar en modo interactivo y auto con --headless)");
+        System.out.println("  --prob-volteo P        probabilidad de cambio espontaneo (0-1, por defecto 0.1)");
+        System.out.println("  --regla TEXTO          regla B/S, por ejemplo B36/S23, 23/3 o Generations B2/S/C3 (por defecto "
+                + Rule.POR_DEFECTO + ")");
+        System.out.println("  --fps N                fotogramas por segundo al dibujar (1-" + Menu.FOTOGRAMAS_MAXIMOS + ", por defecto 2)");
+        System.out.println("  --cada-generacion      espera a que se dibuje cada generacion (por defecto calcula sin esperar");
+        System.out.println("                         al dibujo y solo se ve la generacion mas reciente)");
+        System.out.println("  --registro             imprime el registro detallado de cada celda en cada generacion");
+        System.out.println("  --vista MODO           tableros mayores que la terminal: reducida (por defecto) o ventana");
+        System.out.println("  --columnas N, --filas N  tamaño de la terminal (por defecto COLUMNS/LINES o 80x24)");
+        System.out.println("  --hashlife-nodos N     nodos que HashLife guarda antes de vaciar su memoria (por defecto "
+                + HashLife.CAPACIDAD_POR_DEFECTO + ")");
+        System.out.println("  --cargar FICHERO       empieza con el tablero de una instantanea (tambien con --headless)");
+        System.out.println("  --fuera-heap           guarda las celdas en memoria directa, fuera del heap; el limite es");
+        System.out.println("                         -XX:MaxDirectMemorySize (tambien con --headless)");
+        System.out.println("  --historial N          guarda cada generacion como diferencias (N MiB en memoria, por defecto 64)");
+        System.out.println("                         y al terminar la simulacion permite volver a cualquiera de ellas");
+        System.out.println("  --historial-intervalo K  generaciones entre fotogramas completos (por defecto "
+                + GenerationHistory.INTERVALO_POR_DEFECTO + ")");
+        System.out.println("  --historial-fichero FICHERO  añade ademas todo el historial a FICHERO (lo que no cabe en memoria");
+        System.out.println("                         se lee de ahi)");
+        System.out.println();
+        System.out.println("Modo sin pantalla (sin dibujar ni esperar entre generaciones):");
+        System.out.println("  --headless             ejecuta y muestra generaciones/s y celdas actualizadas/s");
+        System.out.println("  --ancho N, --alto N    tamaño del tablero (por defecto 1024, alto = ancho; hasta "
+                + LADO_MAXIMO_SIN_PANTALLA + " si el total cabe)");
+        System.out.println("  --patron NOMBRE        aleatorio (por defecto) o " + String.join(", ", Patterns.nombres()));
+        System.out.println("  --densidad D           celdas vivas del patron aleatorio (0-1, por defecto 0.3)");
+        System.out.println("  --importar FICHERO     empieza con un patron RLE, Life 1.06 o de texto en vez de --patron");
+        System.out.println("  --fila-origen N, --columna-origen N  donde cae la esquina del patron importado (por defecto 0)");
+        System.out.println("  --generaciones N       generaciones medidas (por defecto 1000)");
+        System.out.println("  --calentamiento N      generaciones previas que no se miden (por defecto 0)");
+        System.out.println("  --bloque-temporal K    avanza cada franja de filas K generaciones seguidas mientras esta en cache");
+        System.out.println("                         (sin edades, reglas de dos estados, --aleatorio contador o --prob-volteo 0)");
+        System.out.println("  --edades               registra la edad de cada celda (desactivado por defecto; siempre con Generations)");
+        System.out.println("  --sin-conteo           no cuenta nacimientos ni muertes en cada generacion; las celdas vivas se");
+        System.out.println("                         cuentan al final");
+        System.out.println("  --guardar FICHERO      guarda el tablero final en una instantanea");
+        System.out.println("  --ciclos MODO          si el tablero se repite: seguir (por defecto), parar o saltar los periodos");
+        System.out.println("                         que faltan; necesita --prob-volteo 0 (tambien sin --headless)");
+        System.out.println("  --historia-ciclos N    periodo mas largo que se detecta (por defecto "
+                + CycleDetector.HISTORIA_POR_DEFECTO + ")");
+        System.out.println();
+        System.out.println("Modo conjunto (muchos tableros independientes, resumen en histogramas):");
+        System.out.println("  --conjunto N           simula N tableros, cada uno con su semilla derivada de --semilla");
+        System.out.println("  --ancho N, --alto N    tamaño de cada tablero (por defecto 64, alto = ancho)");
+        System.out.println("  --generaciones N       generaciones de cada tablero; para antes si se extingue (por defecto 1000)");
+        System.out.println("  --densidad, --prob-volteo, --regla, --motor  como en --headless (motor por defecto swar)");
+        System.out.println("  --hilos N              tableros a la vez (por defecto uno por nucleo)");
+        System.out.println("  --hilos-conjunto MODO  pool (ForkJoinPool, por defecto) o virtuales (hilos virtuales, Java 21+)");
+        System.out.println();
+        System.out.println("Modo barrido (todas las combinaciones de parametros, una linea CSV por corrida):");
+        System.out.println("  --barrido FICHERO      escribe el CSV en FICHERO");
+        System.out.println("  --probabilidades L     probabilidades de cambio espontaneo: lista 0,0.05,0.1 o rango 0:0.2:0.05");
+        System.out.println("                         (por defecto 0.1)");
+        System.out.println("  --densidades L         densidades iniciales, lista o rango (por defecto 0.3)");
+        System.out.println("  --tableros L           tamaños de tablero, por ejemplo 32,64x48 (por defecto 64)");
+        System.out.println("  --reglas L             reglas separadas por comas (por defecto " + Rule.POR_DEFECTO + ")");
+        System.out.println("  --repeticiones N       corridas de cada combinacion, con semillas derivadas de --semilla (por defecto 10)");
+        System.out.println("  --generaciones N       generaciones de cada corrida; para antes si se extingue o, con probabilidad 0,");
+        System.out.println("                         si se repite (periodos hasta --historia-ciclos, por defecto 64)");
+        System.out.println("  --hilos N, --motor NOMBRE  trabajadores (por defecto uno por nucleo) y motor (por defecto swar)");
+        System.out.println();
+        System.out.println("Modo infinito (plano sin bordes que solo guarda las celdas vivas):");
+        System.out.println("  --infinito             simula y muestra la poblacion y el rectangulo que ocupa al final");
+        System.out.println("  --patron NOMBRE        aleatorio o " + String.join(", ", Patterns.nombres()) + " (por defecto vela)");
+        System.out.println("  --ancho N, --alto N    tablero donde se prepara el patron (por defecto 64, alto = ancho)");
+        System.out.println("  --importar, --densidad, --semilla, --regla, --generaciones  como en --headless");
+        System.out.println("                         (reglas de dos estados sin B0, sin cambios espontaneos)");
+    }
+
     /*
       Crea la configuracion predefinida original
     */
@@ -3,13 +3,46 @@
   Permite al usuario seleccionar diferentes opciones de juego
 */
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Scanner;
 
 public class Menu {
+    // Limite superior de filas/columnas (46340^2 celdas caben en un indice int)
+    public static final int TAMAÑO_MAXIMO = 46340;
+    public static final int HILOS_MAXIMOS = 256;
+    private static final double DENSIDAD_ALEATORIA = 0.3;
+    private static final int GENERACIONES_MAXIMAS = 1_000_000;
+    public static final int FOTOGRAMAS_MAXIMOS = 60;
+
     private Scanner scanner;
     private Board tablero;
     private int generaciones;
-    private int retardoMs;
+    private int fotogramasPorSegundo;
+    private boolean saltarFotogramas;
+    private int ancho;
+    private int alto;
+    private int hilos;
+    private RandomSource fuenteAleatoria;
+    private double probabilidadVolteo;
+    private Rule regla;
+    private String motor;
+    private int nodosHashLife;
+    private String ciclos;
+    private int historiaCiclos;
+    private boolean registroDetallado;
+    private boolean vistaReducida;
+    private int columnasTerminal;
+    private int filasTerminal;
+    private boolean fueraDelHeap;
+    private boolean conHistorial;
+    private long memoriaHistorial;
+    private int intervaloHistorial;
+    private Path ficheroHistorial;
+    // Historial de la simulacion en curso (null si no se registra)
+    private GenerationHistory historial;
 
     /*
       Constructor - inicializa el menu
@@ -17,13 +50,30 @@ public class Menu {
     public Menu() {
         this.scanner = new Scanner(System.in);
         this.generaciones = 20;
-        this.retardoMs = 500;
+        this.fotogramasPorSegundo = 2;
+        this.saltarFotogramas = true;
+        this.ancho = 6;
+        this.alto = 6;
+        this.hilos = 1;
+        this.fuenteAleatoria = RandomSource.sinSemilla();
+        this.probabilidadVolteo = 0.1;
+        this.regla = Rule.POR_DEFECTO;
+        this.motor = "swar";
+        this.nodosHashLife = HashLife.CAPACIDAD_POR_DEFECTO;
+        this.ciclos = CycleDetector.SEGUIR;
+        this.historiaCiclos = CycleDetector.HISTORIA_POR_DEFECTO;
+        this.registroDetallado = false;
+        this.vistaReducida = true;
+        this.intervaloHistorial = GenerationHistory.INTERVALO_POR_DEFECTO;
+        // Muchas shells exportan el tamaño de la terminal en COLUMNS y LINES
+        this.columnasTerminal = leerEntorno("COLUMNS", 80);
+        this.filasTerminal = leerEntorno("LINES", 24);
         this.tablero = crearConfiguracionPredefinida();
     }
 
     /*
       Muestra el menu principal y obtiene la opcion del usuario
-      @return la opcion seleccionada (1-6)
+      @return la opcion seleccionada (1-8)
     */
     public int mostrarMenuPrincipal() {
         limpiarPantalla();
@@ -35,16 +85,18 @@ public class Menu {
         System.out.println("3. Generacion Aleatoria");
         System.out.println("4. Patron Predefinido");
         System.out.println("5. Configurar Parametros");
-        System.out.println("6. Salir");
+        System.out.println("6. Saltar Generaciones (HashLife)");
+        System.out.println("7. Guardar / Cargar Tablero");
+        System.out.println("8. Salir");
         System.out.println("\n=====================================");
-        System.out.print("Selecciona una opcion (1-6): ");
+        System.out.print("Selecciona una opcion (1-8): ");
 
-        return obtenerEntrada(1, 6);
+        return obtenerEntrada(1, 8);
     }
 
     /*
       Muestra el menu de patrones predefinidos
-      @return la opcion seleccionada (1-5)
+      @return la opcion seleccionada (1-6)
     */
     public int mostrarMenuPatrones() {
         limpiarPantalla();
@@ -55,11 +107,12 @@ public class Menu {
         System.out.println("2. Parpadeador (Oscilante)");
         System.out.println("3. Vela (En Movimiento)");
         System.out.println("4. Cruz (Patron Interesante)");
-        System.out.println("5. Volver al Menu Principal");
+        System.out.println("5. Importar de un Fichero (RLE, Life 1.06, texto)");
+        System.out.println("6. Volver al Menu Principal");
         System.out.println("\n=====================================");
-        System.out.print("Selecciona un patron (1-5): ");
+        System.out.print("Selecciona un patron (1-6): ");
 
-        return obtenerEntrada(1, 5);
+        return obtenerEntrada(1, 6);
     }
 
     /*
@@ -80,15 +133,17 @@ public class Menu {
         System.out.println("      CONFIGURACION PERSONALIZADA");
         System.out.println("=====================================\n");
 
-        tablero = new Board();
+        sustituirTablero(nuevoTablero());
         boolean agregandoCeldas = true;
+        int ultimaFila = alto - 1;
+        int ultimaColumna = ancho - 1;
 
         System.out.println("Ingresa las coordenadas de las celdas vivas");
-        System.out.println("(Las filas y columnas van de 0 a 5)");
+        System.out.println("(Las filas van de 0 a " + ultimaFila + " y las columnas de 0 a " + ultimaColumna + ")");
         System.out.println("Escribe 'listo' cuando termines\n");
 
         while (agregandoCeldas) {
-            System.out.print("Fila (0-5) o 'listo': ");
+            System.out.print("Fila (0-" + ultimaFila + ") o 'listo': ");
             String inputFila = scanner.nextLine().trim().toLowerCase();
 
             if (inputFila.equals("listo")) {
@@ -99,17 +154,17 @@ public class Menu {
             try {
                 int fila = Integer.parseInt(inputFila);
 
-                if (fila < 0 || fila > 5) {
-                    System.out.println("Error: La fila debe estar entre 0 y 5");
+                if (fila < 0 || fila > ultimaFila) {
+                    System.out.println("Error: La fila debe estar entre 0 y " + ultimaFila);
                     continue;
                 }
 
-                System.out.print("Columna (0-5): ");
+                System.out.print("Columna (0-" + ultimaColumna + "): ");
                 String inputColumna = scanner.nextLine().trim();
                 int columna = Integer.parseInt(inputColumna);
 
-                if (columna < 0 || columna > 5) {
-                    System.out.println("Error: La columna debe estar entre 0 y 5");
+                if (columna < 0 || columna > ultimaColumna) {
+                    System.out.println("Error: La columna debe estar entre 0 y " + ultimaColumna);
                     continue;
                 }
 
@@ -124,7 +179,7 @@ public class Menu {
 
         if (tablero.obtenerCantidadVivas() == 0) {
             System.out.println("\nNo has agregado ninguna celula. Usando configuracion predefinida.");
-            tablero = crearConfiguracionPredefinida();
+            sustituirTablero(crearConfiguracionPredefinida());
         } else {
             System.out.println("\nConfiguracion creada con " + tablero.obtenerCantidadVivas() + " celdas vivas");
             System.out.println("Tablero Inicial:");
@@ -140,16 +195,11 @@ public class Menu {
         limpiarPantalla();
         System.out.println("Generando configuracion aleatoria...\n");
 
-        tablero = new Board();
+        sustituirTablero(nuevoTablero());
+        prepararTablero(tablero);
 
         // Llena aproximadamente el 30% del tablero con celdas aleatorias
-        for (int fila = 0; fila < 6; fila++) {
-            for (int columna = 0; columna < 6; columna++) {
-                if (Math.random() < 0.3) {
-                    tablero.establecerViva(fila, columna);
-                }
-            }
-        }
+        tablero.rellenarAleatorio(DENSIDAD_ALEATORIA);
 
         System.out.println("Configuracion aleatoria creada con " + tablero.obtenerCantidadVivas() + " celdas vivas\n");
         System.out.println("Tablero Inicial:");
@@ -165,22 +215,28 @@ public class Menu {
 
         switch (opcion) {
             case 1:
-                tablero = crearPatronBloque();
+                sustituirTablero(crearPatron("bloque"));
                 System.out.println("\nPatron 'Bloque' creado");
                 break;
             case 2:
-                tablero = crearPatronParpadeador();
+                sustituirTablero(crearPatron("parpadeador"));
                 System.out.println("\nPatron 'Parpadeador' creado");
                 break;
             case 3:
-                tablero = crearPatronVela();
+                sustituirTablero(crearPatron("vela"));
                 System.out.println("\nPatron 'Vela' creado");
                 break;
             case 4:
-                tablero = crearPatronCruz();
+                sustituirTablero(crearPatron("cruz"));
                 System.out.println("\nPatron 'Cruz' creado");
                 break;
             case 5:
+                if (!importarPatron()) {
+                    esperarEnter();
+                    return;
+                }
+                break;
+            case 6:
                 return;
         }
 
@@ -189,6 +245,174 @@ public class Menu {
         esperarEnter();
     }
 
+    /*
+      Pide un fichero de patron y una posicion y lo importa sobre un tablero vacio
+      del tamaño configurado
+      @return true si se importo, false si hubo un error (el tablero actual no cambia)
+    */
+    private boolean importarPatron() {
+        System.out.print("\nFichero del patron: ");
+        String nombre = scanner.nextLine().trim();
+        System.out.print("¿Fila del tablero donde empieza el patron? (0-" + (alto - 1) + "): ");
+        int fila = obtenerEntrada(0, alto - 1);
+        System.out.print("¿Columna del tablero donde empieza el patron? (0-" + (ancho - 1) + "): ");
+        int columna = obtenerEntrada(0, ancho - 1);
+
+        Board importado = nuevoTablero();
+        PatternImporter importador = new PatternImporter(importado, fila, columna);
+        long inicio = System.nanoTime();
+        try {
+            importador.importar(Path.of(nombre));
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("\nError: " + e.getMessage());
+            importado.liberar();
+            return false;
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        sustituirTablero(importado);
+        System.out.printf("%nPatron importado (%s): %d celdas vivas en %.3f s%n",
+                importador.obtenerFormato(), importador.obtenerCeldas(), segundos);
+        if (importador.obtenerRecortadas() > 0) {
+            System.out.println("Quedaron fuera del tablero " + importador.obtenerRecortadas() + " celdas vivas");
+        }
+        if (importador.obtenerRegla() != null) {
+            adoptarRegla(importador.obtenerRegla());
+        }
+        return true;
+    }
+
+    /*
+      Ofrece usar la regla declarada por un patron si es distinta de la configurada
+      @param texto la regla tal como aparece en el fichero
+    */
+    private void adoptarRegla(String texto) {
+        Rule delPatron;
+        try {
+            delPatron = Rule.parsear(texto);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Aviso: el patron es para la regla " + texto + ", que no se puede simular; se usara "
+                    + regla);
+            return;
+        }
+        if (delPatron.equals(regla)) {
+            return;
+        }
+        System.out.print("El patron es para la regla " + delPatron + ". ¿Usarla (1) o seguir con " + regla
+                + " (2)? (1-2): ");
+        if (obtenerEntrada(1, 2) == 1) {
+            this.regla = delPatron;
+        }
+    }
+
+    /*
+      Avanza el tablero actual 2^k generaciones de golpe con HashLife
+      Solo es posible sin cambios espontaneos; el modo toroidal necesita dimensiones potencia de 2
+    */
+    public void saltarGeneraciones() {
+        limpiarPantalla();
+        System.out.println("=====================================");
+        System.out.println("      SALTAR GENERACIONES (HASHLIFE)");
+        System.out.println("=====================================\n");
+
+        if (probabilidadVolteo != 0.0) {
+            System.out.println("HashLife necesita la probabilidad de cambio espontaneo a 0 (Configurar Parametros)");
+            esperarEnter();
+            return;
+        }
+        if (regla.estados() > 2 || regla.naceSinVecinos()) {
+            System.out.println("HashLife no admite la regla " + regla + " (Generations o con B0)");
+            esperarEnter();
+            return;
+        }
+
+        System.out.print("¿Exponente k del salto (se avanzan 2^k generaciones)? (0-40): ");
+        int k = obtenerEntrada(0, 40);
+
+        boolean potencias = Integer.bitCount(tablero.obtenerAncho()) == 1 && Integer.bitCount(tablero.obtenerAlto()) == 1;
+        boolean toroidal = false;
+        if (potencias) {
+            System.out.print("¿Bordes envueltos como en la simulacion (1) o plano infinito recortado (2)? (1-2): ");
+            toroidal = obtenerEntrada(1, 2) == 1;
+        } else {
+            System.out.println("El tablero no mide potencias de 2: se usa un plano infinito recortado al tablero");
+        }
+
+        if (!prepararTablero(tablero)) {
+            esperarEnter();
+            return;
+        }
+        HashLife hashLife = new HashLife(nodosHashLife);
+        long inicio = System.nanoTime();
+        hashLife.cargar(tablero, toroidal);
+        hashLife.avanzar(k);
+        hashLife.volcarEn(tablero);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf("%nAvanzadas %d generaciones en %.3f s (%d nodos, %d recolecciones)%n",
+                1L << k, segundos, hashLife.obtenerNodos(), hashLife.obtenerRecolecciones());
+        mostrarGeneracion(tablero, tablero.obtenerGeneracion());
+        esperarEnter();
+    }
+
+    /*
+      Guarda el tablero actual en una instantanea o lo sustituye por una guardada antes
+    */
+    public void guardarOCargarTablero() {
+        limpiarPantalla();
+        System.out.println("=====================================");
+        System.out.println("      GUARDAR / CARGAR TABLERO");
+        System.out.println("=====================================\n");
+        System.out.println("Tablero actual: " + tablero.obtenerAncho() + "x" + tablero.obtenerAlto()
+                + ", generacion " + tablero.obtenerGeneracion() + "\n");
+
+        System.out.print("¿Guardar el tablero actual (1), cargar uno (2) o volver (3)? (1-3): ");
+        int opcion = obtenerEntrada(1, 3);
+        if (opcion == 3) {
+            return;
+        }
+
+        System.out.print("Fichero: ");
+        String nombre = scanner.nextLine().trim();
+        if (nombre.isEmpty()) {
+            System.out.println("No se ha indicado ningun fichero");
+            esperarEnter();
+            return;
+        }
+
+        try {
+            if (opcion == 1) {
+                prepararTablero(tablero);
+                Snapshot.guardar(tablero, Path.of(nombre));
+                System.out.println("\nTablero guardado en " + nombre);
+            } else {
+                cargarTablero(Path.of(nombre));
+                System.out.println("\nTablero cargado de " + nombre);
+                mostrarGeneracion(tablero, tablero.obtenerGeneracion());
+            }
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.out.println("\nError: " + e.getMessage());
+        }
+        esperarEnter();
+    }
+
+    /*
+      Sustituye el tablero actual por el de una instantanea
+      El tamaño, la regla, la fuente aleatoria y la probabilidad de cambio espontaneo de la instantanea
+      pasan a ser los parametros actuales, para que la simulacion continue igual que se guardo
+      @param ruta el fichero de la instantanea
+      @throws IOException si no se puede leer o no es una instantanea valida
+    */
+    public void cargarTablero(Path ruta) throws IOException {
+        Board cargado = Snapshot.cargar(ruta, fueraDelHeap);
+        sustituirTablero(cargado);
+        this.ancho = cargado.obtenerAncho();
+        this.alto = cargado.obtenerAlto();
+        this.fuenteAleatoria = cargado.obtenerFuenteAleatoria();
+        this.probabilidadVolteo = cargado.obtenerProbabilidadVolteo();
+        this.regla = cargado.obtenerRegla();
+    }
+
     /*
       Permite al usuario configurar parametros del juego
     */
@@ -200,141 +424,402 @@ public class Menu {
 
         System.out.println("Configuracion Actual:");
         System.out.println("Generaciones: " + generaciones);
-        System.out.println("Retardo (ms): " + retardoMs + "\n");
-
-        System.out.print("¿Cuantas generaciones deseas ejecutar? (1-100): ");
-        int nuevasGeneraciones = obtenerEntrada(1, 100);
+        System.out.println("Fotogramas por segundo: " + fotogramasPorSegundo);
+        System.out.println("Simulacion a maxima velocidad (saltando fotogramas): " + (saltarFotogramas ? "si" : "no"));
+        System.out.println("Tamaño del tablero: " + ancho + "x" + alto);
+        System.out.println("Hilos de calculo: " + hilos);
+        System.out.println("Cambio espontaneo (por mil): " + Math.round(probabilidadVolteo * 1000));
+        System.out.println("Semilla: " + (fuenteAleatoria.independienteDeHilos() ? "fija" : "ninguna"));
+        System.out.println("Regla: " + regla);
+        System.out.println("Motor de calculo: " + motor);
+        System.out.println("Al repetirse el tablero: " + ciclos);
+        System.out.println("Registro detallado de celdas: " + (registroDetallado ? "si" : "no"));
+        System.out.println("Tableros mayores que la terminal (" + columnasTerminal + "x" + filasTerminal + "): "
+                + (vistaReducida ? "vista reducida" : "ventana") + "\n");
+
+        System.out.print("¿Cuantas generaciones deseas ejecutar? (1-" + GENERACIONES_MAXIMAS + "): ");
+        int nuevasGeneraciones = obtenerEntrada(1, GENERACIONES_MAXIMAS);
         this.generaciones = nuevasGeneraciones;
 
-        System.out.print("¿Cual es el retardo entre generaciones en ms? (100-2000): ");
-        int nuevoRetardo = obtenerEntrada(100, 2000);
-        this.retardoMs = nuevoRetardo;
+        System.out.print("¿Cuantos fotogramas por segundo se dibujan? (1-" + FOTOGRAMAS_MAXIMOS + "): ");
+        this.fotogramasPorSegundo = obtenerEntrada(1, FOTOGRAMAS_MAXIMOS);
+
+        System.out.print("¿Calcular a maxima velocidad saltando fotogramas (1) o ver cada generacion (2)? (1-2): ");
+        this.saltarFotogramas = obtenerEntrada(1, 2) == 1;
+
+        // Los patrones predefinidos usan coordenadas hasta 5, por eso el minimo es 6
+        System.out.print("¿Ancho del tablero (columnas)? (6-" + TAMAÑO_MAXIMO + "): ");
+        this.ancho = obtenerEntrada(6, TAMAÑO_MAXIMO);
+
+        System.out.print("¿Alto del tablero (filas)? (6-" + TAMAÑO_MAXIMO + "): ");
+        this.alto = obtenerEntrada(6, TAMAÑO_MAXIMO);
+
+        // El tablero actual se recrea con las nuevas dimensiones
+        if (tablero.obtenerAncho() != ancho || tablero.obtenerAlto() != alto) {
+            sustituirTablero(crearConfiguracionPredefinida());
+        }
+
+        System.out.print("¿Cuantos hilos para calcular cada generacion? (1-" + HILOS_MAXIMOS + ", este equipo tiene "
+                + Runtime.getRuntime().availableProcessors() + " nucleos): ");
+        this.hilos = obtenerEntrada(1, HILOS_MAXIMOS);
+
+        System.out.print("¿Probabilidad de cambio espontaneo en tanto por mil? (0-1000): ");
+        this.probabilidadVolteo = obtenerEntrada(0, 1000) / 1000.0;
+
+        System.out.print("¿Semilla para repetir la simulacion? (0 = sin semilla): ");
+        int semilla = obtenerEntrada(0, Integer.MAX_VALUE);
+        this.fuenteAleatoria = semilla == 0 ? RandomSource.sinSemilla() : RandomSource.contador(semilla);
+
+        System.out.print("¿Regla (B3/S234, B36/S23, 23/3, B2/S/C3...)? (Enter = " + regla + "): ");
+        this.regla = leerRegla();
+
+        List<String> motores = EngineRegistry.disponibles();
+        System.out.println("Motores disponibles:");
+        for (int i = 0; i < motores.size(); i++) {
+            System.out.println((i + 1) + ". " + motores.get(i));
+        }
+        System.out.print("¿Que motor quieres usar? (1-" + motores.size() + "): ");
+        this.motor = motores.get(obtenerEntrada(1, motores.size()) - 1);
+
+        // Solo se aplica sin cambios espontaneos (ver CycleDetector)
+        System.out.print("Si el tablero se repite (vida estatica u oscilador): ¿seguir (1), parar (2) o saltar las "
+                + "generaciones que faltan (3)? (1-3): ");
+        this.ciclos = new String[] {CycleDetector.SEGUIR, CycleDetector.PARAR, CycleDetector.SALTAR}[obtenerEntrada(1, 3) - 1];
+
+        System.out.print("¿Mostrar el registro detallado de cada celda en cada generacion? (0 = no, 1 = si): ");
+        this.registroDetallado = obtenerEntrada(0, 1) == 1;
+
+        System.out.print("Si el tablero no cabe en la terminal: ¿ventana (1) o vista reducida (2)? (1-2): ");
+        this.vistaReducida = obtenerEntrada(1, 2) == 2;
 
         System.out.println("\nParametros actualizados correctamente!");
         esperarEnter();
     }
 
     /*
-      Crea la configuracion predefinida original
+      Crea un tablero con las dimensiones configuradas y un patron de Patterns
+      @param patron el nombre del patron
     */
-    private Board crearConfiguracionPredefinida() {
-        Board board = new Board();
-
-        // Bloque estable
-        board.establecerViva(1, 1);
-        board.establecerViva(1, 2);
-        board.establecerViva(2, 1);
-        board.establecerViva(2, 2);
+    private Board crearPatron(String patron) {
+        Board board = nuevoTablero();
+        Patterns.colocar(patron, board);
+        return board;
+    }
 
-        // Parpadeador
-        board.establecerViva(3, 4);
-        board.establecerViva(3, 5);
-        board.establecerViva(3, 3);
+    /*
+      Crea un tablero vacio con las dimensiones configuradas, dentro o fuera del heap
+      @return el tablero
+    */
+    private Board nuevoTablero() {
+        return new Board(ancho, alto, true, fueraDelHeap);
+    }
 
-        // Algunos patrones aleatorios
-        board.establecerViva(0, 0);
-        board.establecerViva(5, 5);
-        board.establecerViva(5, 4);
-        board.establecerViva(4, 4);
+    /*
+      Cambia el tablero actual por otro y libera la memoria directa del anterior si la tenia
+      @param nuevo el nuevo tablero
+    */
+    private void sustituirTablero(Board nuevo) {
+        if (tablero != null && tablero != nuevo) {
+            tablero.liberar();
+        }
+        tablero = nuevo;
+    }
 
-        return board;
+    /*
+      Crea la configuracion predefinida original
+    */
+    private Board crearConfiguracionPredefinida() {
+        return crearPatron("predefinido");
     }
 
     /*
-      Crea un patron "Bloque" (2x2 estable)
+      Ejecuta el ciclo principal del juego
+      La simulacion corre en este hilo y publica cada generacion; un hilo aparte la dibuja
+      al ritmo de fotogramas configurado (ver RenderLoop), asi que dibujar no frena el calculo
+      Con el registro detallado se imprime cada generacion completa desde este mismo hilo
+      Si se buscan ciclos, al repetirse el tablero se para o se saltan los periodos que faltan
     */
-    private Board crearPatronBloque() {
-        Board board = new Board();
+    private void ejecutarJuego(Board board) {
+        if (!prepararTablero(board)) {
+            esperarEnter();
+            return;
+        }
+        CycleDetector detector = crearDetector(board);
+        // Un tablero cargado o ya simulado continua desde su generacion
+        long primera = board.obtenerGeneracion();
+        long ultima = primera + generaciones;
+        historial = crearHistorial(board);
+        registrarGeneracion(board);
+
+        if (registroDetallado) {
+            ejecutarConRegistro(board, detector, ultima);
+        } else {
+            RenderLoop bucle = new RenderLoop(crearRenderizador(), board, fotogramasPorSegundo, saltarFotogramas);
+            long inicio = System.nanoTime();
+            bucle.iniciar();
+            bucle.publicar(board, primera);
+            while (board.obtenerGeneracion() < ultima) {
+                board.proximaGeneracion();
+                bucle.publicar(board, board.obtenerGeneracion());
+                registrarGeneracion(board);
+                if (detector != null && detector.obtenerPeriodo() == 0 && detector.observar()
+                        && !seguirTrasCiclo(board, detector, ultima)) {
+                    break;
+                }
+            }
 
-        board.establecerViva(2, 2);
-        board.establecerViva(2, 3);
-        board.establecerViva(3, 2);
-        board.establecerViva(3, 3);
+            try {
+                bucle.terminar(board, board.obtenerGeneracion());
+            } catch (InterruptedException e) {
+                System.out.println("Simulacion interrumpida");
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("Generaciones: %d en %.3f s | Fotogramas dibujados: %d | Saltados: %d%n",
+                    board.obtenerGeneracion() - primera, segundos, bucle.obtenerDibujados(), bucle.obtenerSaltados());
+        }
+        if (detector != null) {
+            if (detector.obtenerPeriodo() != 0) {
+                System.out.println(detector.describir() + (ciclos.equals(CycleDetector.PARAR) ? ": simulacion detenida"
+                        : ": se saltaron " + detector.obtenerSaltadas() + " generaciones"));
+            }
+            detector.terminar();
+        }
+        // Al saltar los periodos de un ciclo la ultima generacion no pasa por el bucle
+        registrarGeneracion(board);
+        mostrarEstadisticas(board);
 
-        return board;
+        System.out.println("=====================================");
+        System.out.println("Simulacion completada!");
+        System.out.println("=====================================");
+        if (historial != null) {
+            revisarHistorial(board);
+        } else {
+            esperarEnter();
+        }
     }
 
     /*
-      Crea un patron "Parpadeador" (oscilante 2 generaciones)
+      Crea el historial de la simulacion si se ha pedido
+      @param board el tablero preparado
+      @return el historial, o null si no se registra o no se puede crear
     */
-    private Board crearPatronParpadeador() {
-        Board board = new Board();
+    private GenerationHistory crearHistorial(Board board) {
+        if (!conHistorial) {
+            return null;
+        }
+        try {
+            return new GenerationHistory(board.obtenerAncho(), board.obtenerAlto(), intervaloHistorial,
+                    memoriaHistorial, ficheroHistorial);
+        } catch (IllegalArgumentException | IOException e) {
+            System.out.println("Aviso: no se registra el historial: " + e.getMessage());
+            return null;
+        }
+    }
 
-        // Parpadeador horizontal
-        board.establecerViva(2, 2);
-        board.establecerViva(2, 3);
-        board.establecerViva(2, 4);
+    /*
+      Añade al historial la generacion actual del tablero, si no estaba ya
+      Si falla el fichero se deja de registrar y el historial se descarta
+    */
+    private void registrarGeneracion(Board board) {
+        if (historial == null || board.obtenerGeneracion() <= historial.obtenerUltimaGeneracion()) {
+            return;
+        }
+        try {
+            historial.registrar(board);
+        } catch (IOException e) {
+            System.out.println("Aviso: se deja de registrar el historial: " + e.getMessage());
+            cerrarHistorial();
+        }
+    }
 
-        return board;
+    /*
+      Permite volver a cualquier generacion registrada y verla; Enter sin numero termina
+      El tablero de la simulacion no cambia: cada generacion se restaura en un tablero aparte
+      @param board el tablero de la simulacion
+    */
+    private void revisarHistorial(Board board) {
+        Board vista = new Board(board.obtenerAncho(), board.obtenerAlto(), false);
+        try {
+            while (true) {
+                System.out.printf("%nHistorial: generaciones %d a %d (%.1f KiB en memoria desde la %d",
+                        historial.obtenerPrimeraGeneracion(), historial.obtenerUltimaGeneracion(),
+                        historial.obtenerBytesEnMemoria() / 1024.0, historial.obtenerPrimeraEnMemoria());
+                if (historial.obtenerBytesEnFichero() > 0) {
+                    System.out.printf(", %.1f KiB en %s", historial.obtenerBytesEnFichero() / 1024.0, ficheroHistorial);
+                }
+                System.out.print(")\n¿Generacion a revisar? (Enter para terminar): ");
+                String texto = scanner.nextLine().trim();
+                if (texto.isEmpty()) {
+                    break;
+                }
+                long generacion;
+                try {
+                    generacion = Long.parseLong(texto);
+                } catch (NumberFormatException e) {
+                    System.out.println("Entrada invalida");
+                    continue;
+                }
+                long inicio = System.nanoTime();
+                if (!historial.restaurar(generacion, vista)) {
+                    System.out.println("La generacion " + generacion + " no esta en el historial");
+                    continue;
+                }
+                double milisegundos = (System.nanoTime() - inicio) / 1e6;
+                mostrarGeneracion(vista, generacion);
+                System.out.printf("Restaurada en %.3f ms%n", milisegundos);
+            }
+        } catch (IOException e) {
+            System.out.println("Error al leer el historial: " + e.getMessage());
+        } finally {
+            vista.liberar();
+            cerrarHistorial();
+        }
     }
 
     /*
-      Crea un patron "Vela" (glider - se mueve diagonalmente)
+      Cierra el fichero del historial, si lo hay, y lo descarta
     */
-    private Board crearPatronVela() {
-        Board board = new Board();
+    private void cerrarHistorial() {
+        try {
+            historial.cerrar();
+        } catch (IOException e) {
+            System.out.println("Aviso: no se pudo cerrar el fichero del historial: " + e.getMessage());
+        }
+        historial = null;
+    }
 
-        // Glider pattern
-        board.establecerViva(0, 1);
-        board.establecerViva(1, 2);
-        board.establecerViva(2, 0);
-        board.establecerViva(2, 1);
-        board.establecerViva(2, 2);
+    /*
+      Ejecuta la simulacion imprimiendo el tablero y el registro de celdas de cada generacion,
+      con una pausa de un fotograma entre generaciones
+      @param board el tablero preparado
+      @param detector el detector de ciclos, o null si no se buscan
+      @param ultima la generacion en la que termina la simulacion
+    */
+    private void ejecutarConRegistro(Board board, CycleDetector detector, long ultima) {
+        mostrarGeneracion(board, board.obtenerGeneracion());
+        while (board.obtenerGeneracion() < ultima) {
+            try {
+                Thread.sleep(1000 / fotogramasPorSegundo);
+            } catch (InterruptedException e) {
+                System.out.println("Simulacion interrumpida");
+                break;
+            }
 
-        return board;
+            board.proximaGeneracion();
+            mostrarGeneracion(board, board.obtenerGeneracion());
+            registrarGeneracion(board);
+            if (detector != null && detector.obtenerPeriodo() == 0 && detector.observar()
+                    && !seguirTrasCiclo(board, detector, ultima)) {
+                break;
+            }
+        }
     }
 
     /*
-      Crea un patron "Cruz"
+      Crea el detector de ciclos si se ha pedido y el tablero no tiene cambios espontaneos
+      @param board el tablero preparado
+      @return el detector, o null si no se buscan ciclos
     */
-    private Board crearPatronCruz() {
-        Board board = new Board();
-
-        // Cruz en el centro
-        board.establecerViva(2, 3);
-        board.establecerViva(3, 2);
-        board.establecerViva(3, 3);
-        board.establecerViva(3, 4);
-        board.establecerViva(4, 3);
+    private CycleDetector crearDetector(Board board) {
+        if (ciclos.equals(CycleDetector.SEGUIR)) {
+            return null;
+        }
+        if (board.obtenerProbabilidadVolteo() != 0.0) {
+            System.out.println("Aviso: los ciclos solo se buscan sin cambios espontaneos (probabilidad 0)");
+            return null;
+        }
+        if (board.obtenerRegla().estados() > 2) {
+            System.out.println("Aviso: los ciclos no se buscan con reglas Generations");
+            return null;
+        }
+        return new CycleDetector(board, historiaCiclos);
+    }
 
-        return board;
+    /*
+      Aplica el modo de ciclos configurado tras confirmar un ciclo
+      @param board el tablero
+      @param detector el detector que lo ha confirmado
+      @param ultima la generacion en la que termina la simulacion
+      @return true si hay que seguir calculando (las generaciones que no completan un periodo)
+    */
+    private boolean seguirTrasCiclo(Board board, CycleDetector detector, long ultima) {
+        if (ciclos.equals(CycleDetector.PARAR)) {
+            return false;
+        }
+        detector.saltar(ultima - board.obtenerGeneracion());
+        return true;
     }
 
     /*
-      Ejecuta el ciclo principal del juego
+      Muestra los totales de poblacion del tablero (sin recorrerlo, ver BoardStats)
     */
-    private void ejecutarJuego(Board board) {
-        for (int generacion = 0; generacion <= generaciones; generacion++) {
-            if (generacion > 0) {
-                board.proximaGeneracion();
-            }
+    private void mostrarEstadisticas(Board board) {
+        BoardStats estadisticas = board.obtenerEstadisticas();
+        System.out.println("Nacimientos: " + estadisticas.obtenerNacimientosTotales()
+                + " | Muertes: " + estadisticas.obtenerMuertesTotales()
+                + " | Cambios espontaneos: " + estadisticas.obtenerVolteosTotales());
+        System.out.println("Edades de las celdas vivas: " + estadisticas.describirHistograma());
+    }
 
-            mostrarGeneracion(board, generacion);
+    /*
+      Aplica al tablero los parametros de calculo configurados
+      (hilos, regla, fuente aleatoria y probabilidad de cambio espontaneo)
+      @return false si la regla no se puede usar con el tablero (Generations sin registro de edades)
+    */
+    private boolean prepararTablero(Board board) {
+        board.establecerHilos(hilos);
+        board.establecerMotor(EngineRegistry.crear(motor));
+        board.establecerFuenteAleatoria(fuenteAleatoria);
+        board.establecerProbabilidadVolteo(probabilidadVolteo);
+        try {
+            board.establecerRegla(regla);
+        } catch (IllegalStateException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
 
-            if (generacion < generaciones) {
-                try {
-                    Thread.sleep(retardoMs);
-                } catch (InterruptedException e) {
-                    System.out.println("Simulacion interrumpida");
-                    break;
-                }
-            }
+    /*
+      Muestra una generacion con informacion
+      Con el registro detallado activado imprime el tablero entero y una linea por celda;
+      si no, escribe de una vez la vista del tablero que cabe en la terminal
+    */
+    private void mostrarGeneracion(Board board, long generacion) {
+        if (registroDetallado) {
+            System.out.println("\nGeneracion: " + generacion);
+            System.out.println("Celdas vivas: " + board.obtenerCantidadVivas() + "/" + board.obtenerTotalCeldas());
+            board.mostrar();
+            board.mostrarRegistroCeldas();
+            return;
         }
 
-        System.out.println("=====================================");
-        System.out.println("Simulacion completada!");
-        System.out.println("=====================================");
-        esperarEnter();
+        TerminalRenderer renderizador = crearRenderizador();
+        Frame fotograma = renderizador.crearFotograma(board);
+        TerminalRenderer.capturar(board, generacion, fotograma);
+        renderizador.imprimir(fotograma);
     }
 
     /*
-      Muestra una generacion con informacion y registro detallado de celdas
+      Crea un renderizador para la terminal y la vista configuradas
     */
-    private void mostrarGeneracion(Board board, int generacion) {
-        System.out.println("\nGeneracion: " + generacion);
-        System.out.println("Celdas vivas: " + board.obtenerCantidadVivas() + "/" + (board.obtenerTamaño() * board.obtenerTamaño()));
-        board.mostrar();
-        board.mostrarRegistroCeldas();
+    private TerminalRenderer crearRenderizador() {
+        return new TerminalRenderer(System.out, columnasTerminal, filasTerminal, vistaReducida);
+    }
+
+    /*
+      Lee un numero de una variable de entorno
+      @param nombre el nombre de la variable
+      @param porDefecto el valor si no existe o no es un numero valido
+      @return el valor leido
+    */
+    private static int leerEntorno(String nombre, int porDefecto) {
+        try {
+            String valor = System.getenv(nombre);
+            return valor == null ? porDefecto : Math.max(porDefecto / 4, Integer.parseInt(valor.trim()));
+        } catch (NumberFormatException e) {
+            return porDefecto;
+        }
     }
 
     /*
@@ -361,6 +846,24 @@ public class Menu {
         return entrada;
     }
 
+    /*
+      Lee una regla del usuario; una linea vacia deja la regla actual
+      @return la regla validada
+    */
+    private Rule leerRegla() {
+        while (true) {
+            String texto = scanner.nextLine().trim();
+            if (texto.isEmpty()) {
+                return regla;
+            }
+            try {
+                return Rule.parsear(texto);
+            } catch (IllegalArgumentException e) {
+                System.out.print(e.getMessage() + ". Intenta de nuevo: ");
+            }
+        }
+    }
+
     /*
       Espera a que el usuario presione Enter
     */
@@ -377,6 +880,138 @@ public class Menu {
         System.out.flush();
     }
 
+    /*
+      Establece cuantos hilos calculan cada generacion
+      @param hilos el numero de hilos (1 = secuencial)
+    */
+    public void establecerHilos(int hilos) {
+        this.hilos = hilos;
+    }
+
+    /*
+      Establece la fuente aleatoria de los cambios espontaneos y del relleno aleatorio
+      @param fuenteAleatoria la fuente a usar
+    */
+    public void establecerFuenteAleatoria(RandomSource fuenteAleatoria) {
+        this.fuenteAleatoria = fuenteAleatoria;
+    }
+
+    /*
+      Establece la probabilidad de cambio espontaneo de cada celda
+      @param probabilidadVolteo un valor entre 0 y 1
+    */
+    public void establecerProbabilidadVolteo(double probabilidadVolteo) {
+        this.probabilidadVolteo = probabilidadVolteo;
+    }
+
+    /*
+      Establece el motor que calcula cada generacion
+      @param motor el nombre del motor (ver EngineRegistry)
+    */
+    public void establecerMotor(String motor) {
+        this.motor = motor;
+    }
+
+    /*
+      Establece que hacer cuando el tablero vuelve a un estado anterior (ver CycleDetector)
+      @param ciclos seguir, parar o saltar
+    */
+    public void establecerCiclos(String ciclos) {
+        this.ciclos = CycleDetector.validarModo(ciclos);
+    }
+
+    /*
+      Establece el periodo mas largo que se puede detectar
+      @param historiaCiclos las generaciones recientes que se recuerdan
+    */
+    public void establecerHistoriaCiclos(int historiaCiclos) {
+        this.historiaCiclos = historiaCiclos;
+    }
+
+    /*
+      Elige si los tableros nuevos guardan sus celdas fuera del heap (ver OffHeapGrid)
+      El tablero actual se vuelve a crear con el patron predefinido
+      @param fueraDelHeap true para usar memoria directa
+    */
+    public void establecerFueraDelHeap(boolean fueraDelHeap) {
+        this.fueraDelHeap = fueraDelHeap;
+        sustituirTablero(crearConfiguracionPredefinida());
+    }
+
+    /*
+      Activa el historial de generaciones de cada simulacion (ver GenerationHistory), que al
+      terminar permite volver a cualquier generacion
+      @param memoriaBytes los bytes de registros que se guardan en memoria
+      @param intervalo las generaciones entre fotogramas clave
+      @param fichero el fichero donde se añaden todos los registros, o null para no usar fichero
+    */
+    public void establecerHistorial(long memoriaBytes, int intervalo, Path fichero) {
+        this.conHistorial = true;
+        this.memoriaHistorial = memoriaBytes;
+        this.intervaloHistorial = intervalo;
+        this.ficheroHistorial = fichero;
+    }
+
+    /*
+      Establece la regla de nacimiento y supervivencia
+      @param regla la regla
+    */
+    public void establecerRegla(Rule regla) {
+        this.regla = regla;
+    }
+
+    /*
+      Establece cuantos nodos puede guardar HashLife antes de vaciar su memoria
+      @param nodos la capacidad maxima de la tabla de nodos
+    */
+    public void establecerNodosHashLife(int nodos) {
+        this.nodosHashLife = nodos;
+    }
+
+    /*
+      Establece el ritmo de dibujo de la simulacion
+      @param fotogramasPorSegundo los fotogramas por segundo (1-60)
+    */
+    public void establecerFotogramasPorSegundo(int fotogramasPorSegundo) {
+        this.fotogramasPorSegundo = fotogramasPorSegundo;
+    }
+
+    /*
+      Elige si la simulacion espera a que se dibuje cada generacion
+      Por defecto no espera: esperar frena la simulacion al ritmo de fotogramas
+      @param saltarFotogramas true para calcular a maxima velocidad y dibujar solo la generacion mas reciente
+      (por defecto), false para ver cada generacion
+    */
+    public void establecerSaltarFotogramas(boolean saltarFotogramas) {
+        this.saltarFotogramas = saltarFotogramas;
+    }
+
+    /*
+      Activa o desactiva el registro detallado de celdas en cada generacion
+      @param registroDetallado true para imprimir una linea por celda
+    */
+    public void establecerRegistroDetallado(boolean registroDetallado) {
+        this.registroDetallado = registroDetallado;
+    }
+
+    /*
+      Elige como se muestran los tableros que no caben en la terminal
+      @param vistaReducida true para reducir el tablero, false para mostrar una ventana
+    */
+    public void establecerVistaReducida(boolean vistaReducida) {
+        this.vistaReducida = vistaReducida;
+    }
+
+    /*
+      Establece el tamaño de la terminal usado para decidir que parte del tablero se ve
+      @param columnas el ancho en caracteres
+      @param filas el alto en lineas
+    */
+    public void establecerTerminal(int columnas, int filas) {
+        this.columnasTerminal = columnas;
+        this.filasTerminal = filas;
+    }
+
     /*
       Obtiene el tablero actual
       @return el tablero actual
@@ -0,0 +1,428 @@
+/*
+  Clase CuadriculaFueraDelHeap - BitGrid con el plano de celdas vivas y el de edades en
+  memoria directa (ByteBuffer.allocateDirect) en lugar de en arreglos del heap
+  Sirve para tableros mayores que -Xmx: el heap solo guarda los objetos pequeños y el
+  recolector no recorre ni copia los planos, asi que sus pausas no crecen con el tablero
+  La memoria directa tiene su propio limite, -XX:MaxDirectMemorySize (por defecto igual a -Xmx);
+  para un tablero grande con un heap pequeño hay que subirlo al arrancar la JVM
+  Cada plano se reparte en trozos de 1 GiB, porque un ByteBuffer no pasa de 2 GiB; las edades
+  se indexan con long, asi que no tienen el limite de 2^31 celdas de los arreglos
+  La memoria se devuelve con liberar, sin esperar al recolector (Board.liberar lo hace con sus
+  dos cuadriculas); el plano de celdas que se estan muriendo de Generations sigue en el heap
+*/
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+public final class OffHeapGrid extends BitGrid {
+    // 2^27 palabras o 2^29 edades por trozo: 1 GiB
+    private static final int BITS_TROZO_PALABRAS = 27;
+    private static final int BITS_TROZO_EDADES = 29;
+    private static final int MASCARA_PALABRAS = (1 << BITS_TROZO_PALABRAS) - 1;
+    private static final long MASCARA_EDADES = (1L << BITS_TROZO_EDADES) - 1;
+    // Unsafe.invokeCleaner libera un ByteBuffer directo al momento; si no esta, lo hace el recolector
+    private static final MethodHandle LIBERAR_BUFFER = buscarLiberador();
+
+    private final boolean conEdades;
+    private final int totalPalabras;
+    private final long totalEdades;
+    private ByteBuffer[] memoria;
+    private LongBuffer[] trozosPalabras;
+    private ShortBuffer[] trozosEdades;
+
+    /*
+      Constructor - crea una cuadricula con todas las celdas muertas fuera del heap
+      @param ancho el numero de columnas
+      @param alto el numero de filas
+      @param conEdades true para reservar tambien el plano de edades
+      @throws IllegalArgumentException si el tablero no cabe en el plano de celdas vivas
+      @throws IllegalStateException si no queda memoria directa
+    */
+    public OffHeapGrid(int ancho, int alto, boolean conEdades) {
+        super(ancho, alto, conEdades, false);
+        this.conEdades = conEdades;
+        this.totalPalabras = palabrasPorFila * alto;
+        this.totalEdades = conEdades ? (long) ancho * alto : 0L;
+
+        // La suma puede pasar de 2^31, pero >>> la trata sin signo
+        int trozosVivas = (totalPalabras + MASCARA_PALABRAS) >>> BITS_TROZO_PALABRAS;
+        int trozosEdad = (int) ((totalEdades + MASCARA_EDADES) >>> BITS_TROZO_EDADES);
+        this.memoria = new ByteBuffer[trozosVivas + trozosEdad];
+        this.trozosPalabras = new LongBuffer[trozosVivas];
+        this.trozosEdades = new ShortBuffer[trozosEdad];
+        try {
+            for (int i = 0; i < trozosVivas; i++) {
+                long palabrasTrozo = Math.min(1L << BITS_TROZO_PALABRAS, totalPalabras - ((long) i << BITS_TROZO_PALABRAS));
+                memoria[i] = reservar(palabrasTrozo * Long.BYTES);
+                trozosPalabras[i] = memoria[i].asLongBuffer();
+            }
+            for (int i = 0; i < trozosEdad; i++) {
+                long edadesTrozo = Math.min(1L << BITS_TROZO_EDADES, totalEdades - ((long) i << BITS_TROZO_EDADES));
+                memoria[trozosVivas + i] = reservar(edadesTrozo * Short.BYTES);
+                trozosEdades[i] = memoria[trozosVivas + i].asShortBuffer();
+            }
+        } catch (OutOfMemoryError e) {
+            liberar();
+            throw new IllegalStateException("No hay memoria directa para un tablero de " + ancho + "x" + alto
+                    + " fuera del heap; sube -XX:MaxDirectMemorySize al arrancar la JVM", e);
+        }
+    }
+
+    private static ByteBuffer reservar(long bytes) {
+        // allocateDirect ya deja la memoria a cero
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public boolean fueraDelHeap() {
+        return true;
+    }
+
+    /*
+      Devuelve la memoria directa de los dos planos; despues la cuadricula no se puede usar
+      Se puede llamar mas de una vez
+    */
+    @Override
+    public void liberar() {
+        if (memoria == null) {
+            return;
+        }
+        for (ByteBuffer trozo : memoria) {
+            if (trozo != null && LIBERAR_BUFFER != null) {
+                try {
+                    LIBERAR_BUFFER.invokeExact(trozo);
+                } catch (Throwable e) {
+                    // Sin liberador la memoria vuelve cuando el recolector descarta el buffer
+                }
+            }
+        }
+        memoria = null;
+        trozosPalabras = null;
+        trozosEdades = null;
+    }
+
+    @Override
+    public boolean registraEdades() {
+        return conEdades;
+    }
+
+    @Override
+    public long leerPalabra(int fila, int palabra) {
+        int i = fila * palabrasPorFila + palabra;
+        return trozosPalabras[i >>> BITS_TROZO_PALABRAS].get(i & MASCARA_PALABRAS);
+    }
+
+    @Override
+    public void escribirPalabra(int fila, int palabra, long valor) {
+        int i = fila * palabrasPorFila + palabra;
+        trozosPalabras[i >>> BITS_TROZO_PALABRAS].put(i & MASCARA_PALABRAS, valor);
+    }
+
+    private long leerIndice(int i) {
+        return trozosPalabras[i >>> BITS_TROZO_PALABRAS].get(i & MASCARA_PALABRAS);
+    }
+
+    private void escribirIndice(int i, long valor) {
+        trozosPalabras[i >>> BITS_TROZO_PALABRAS].put(i & MASCARA_PALABRAS, valor);
+    }
+
+    private int leerEdad(long i) {
+        return trozosEdades[(int) (i >>> BITS_TROZO_EDADES)].get((int) (i & MASCARA_EDADES));
+    }
+
+    private void escribirEdad(long i, int edad) {
+        trozosEdades[(int) (i >>> BITS_TROZO_EDADES)].put((int) (i & MASCARA_EDADES), (short) edad);
+    }
+
+    @Override
+    public boolean estaViva(int fila, int columna) {
+        return (leerPalabra(fila, columna >>> 6) & (1L << columna)) != 0;
+    }
+
+    @Override
+    public void establecer(int fila, int columna, boolean viva) {
+        int palabra = columna >>> 6;
+        long bits = leerPalabra(fila, palabra);
+        escribirPalabra(fila, palabra, viva ? bits | 1L << columna : bits & ~(1L << columna));
+        if (muriendo != null) {
+            muriendo[fila * palabrasPorFila + palabra] &= ~(1L << columna);
+            escribirEdad((long) fila * ancho + columna, 0);
+        }
+    }
+
+    @Override
+    public void encenderRango(int fila, int desde, int hasta) {
+        if (desde >= hasta) {
+            return;
+        }
+        int primera = desde >>> 6;
+        int ultima = (hasta - 1) >>> 6;
+        long inicio = -1L << desde;
+        long fin = -1L >>> (63 - ((hasta - 1) & 63));
+        if (primera == ultima) {
+            escribirPalabra(fila, primera, leerPalabra(fila, primera) | (inicio & fin));
+            return;
+        }
+        escribirPalabra(fila, primera, leerPalabra(fila, primera) | inicio);
+        for (int palabra = primera + 1; palabra < ultima; palabra++) {
+            escribirPalabra(fila, palabra, -1L);
+        }
+        escribirPalabra(fila, ultima, leerPalabra(fila, ultima) | fin);
+    }
+
+    @Override
+    public int edad(int fila, int columna) {
+        if (!conEdades) {
+            return estaViva(fila, columna) ? 1 : 0;
+        }
+        return leerEdad((long) fila * ancho + columna);
+    }
+
+    @Override
+    public void establecerEdad(int fila, int columna, int edad) {
+        if (conEdades) {
+            escribirEdad((long) fila * ancho + columna, Math.min(edad, EDAD_MAXIMA));
+        }
+    }
+
+    @Override
+    void recalcularMuriendo() {
+        if (!conEdades) {
+            return;
+        }
+        int ultimoEstado = estados - 2;
+        for (int fila = 0; fila < alto; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                long vivas = leerPalabra(fila, palabra);
+                long base = (long) fila * ancho + (palabra << 6);
+                int limite = Math.min(64, ancho - (palabra << 6));
+                long bits = 0L;
+                for (int bit = 0; bit < limite; bit++) {
+                    int edad = leerEdad(base + bit);
+                    if ((vivas >>> bit & 1L) != 0 || edad == 0) {
+                        continue;
+                    }
+                    if (edad <= ultimoEstado) {
+                        bits |= 1L << bit;
+                    } else {
+                        escribirEdad(base + bit, 0);
+                    }
+                }
+                if (muriendo != null) {
+                    muriendo[fila * palabrasPorFila + palabra] = bits;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void actualizarEdades(BitGrid origen, int fila, int palabra, long antes, long despues, long[] histograma) {
+        if (!conEdades) {
+            return;
+        }
+
+        // Las dos cuadriculas de un tablero son siempre del mismo tipo
+        OffHeapGrid previas = (OffHeapGrid) origen;
+        int columna = palabra << 6;
+        long base = (long) fila * ancho + columna;
+        int limite = Math.min(64, ancho - columna);
+        int ultimoEstado = estados - 2;
+        long bitsMuriendo = 0L;
+
+        for (int bit = 0; bit < limite; bit++) {
+            int edad = 0;
+            if ((despues >>> bit & 1L) != 0) {
+                edad = (antes >>> bit & 1L) != 0 ? Math.min(previas.leerEdad(base + bit) + 1, EDAD_MAXIMA) : 1;
+                histograma[BoardStats.cubo(edad)]++;
+            } else if (ultimoEstado > 0) {
+                int previa = previas.leerEdad(base + bit);
+                if ((antes >>> bit & 1L) != 0) {
+                    edad = 1;
+                } else if (previa != 0 && previa < ultimoEstado) {
+                    edad = previa + 1;
+                }
+                if (edad != 0) {
+                    bitsMuriendo |= 1L << bit;
+                }
+            }
+            escribirEdad(base + bit, edad);
+        }
+        if (muriendo != null) {
+            muriendo[fila * palabrasPorFila + palabra] = bitsMuriendo;
+        }
+    }
+
+    @Override
+    public long contarVivas() {
+        long cantidad = 0;
+        for (int i = 0; i < totalPalabras; i++) {
+            cantidad += Long.bitCount(leerIndice(i));
+        }
+        return cantidad;
+    }
+
+    @Override
+    void histogramaEdades(long[] histograma) {
+        for (int fila = 0; fila < alto; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                long bits = leerPalabra(fila, palabra);
+                long base = (long) fila * ancho + (palabra << 6);
+                while (bits != 0L) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    histograma[BoardStats.cubo(leerEdad(base + bit))]++;
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    long calcularHash() {
+        long hash = 0;
+        for (int i = 0; i < totalPalabras; i++) {
+            long palabra = leerIndice(i);
+            if (palabra != 0L) {
+                hash += claveHash(i) * palabra;
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    boolean mismasPalabras(long[] copia) {
+        if (copia == null || copia.length != totalPalabras) {
+            return false;
+        }
+        for (int i = 0; i < totalPalabras; i++) {
+            if (leerIndice(i) != copia[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+      La copia queda en el heap: quien la pide (CycleDetector) necesita tanta memoria como el plano
+    */
+    @Override
+    long[] copiarPalabras(long[] copia) {
+        if (copia == null || copia.length != totalPalabras) {
+            copia = new long[totalPalabras];
+        }
+        for (int i = 0; i < totalPalabras; i++) {
+            copia[i] = leerIndice(i);
+        }
+        return copia;
+    }
+
+    @Override
+    int totalPalabras() {
+        return totalPalabras;
+    }
+
+    @Override
+    void volcarPalabras(int desde, LongBuffer destino) {
+        while (destino.hasRemaining()) {
+            LongBuffer trozo = trozosPalabras[desde >>> BITS_TROZO_PALABRAS].duplicate();
+            int inicio = desde & MASCARA_PALABRAS;
+            int cantidad = Math.min(destino.remaining(), trozo.capacity() - inicio);
+            trozo.position(inicio).limit(inicio + cantidad);
+            destino.put(trozo);
+            desde += cantidad;
+        }
+    }
+
+    @Override
+    void cargarPalabras(int desde, LongBuffer origen) {
+        while (origen.hasRemaining()) {
+            LongBuffer trozo = trozosPalabras[desde >>> BITS_TROZO_PALABRAS].duplicate();
+            int inicio = desde & MASCARA_PALABRAS;
+            int cantidad = Math.min(origen.remaining(), trozo.capacity() - inicio);
+            LongBuffer parte = origen.duplicate();
+            parte.limit(parte.position() + cantidad);
+            trozo.position(inicio);
+            trozo.put(parte);
+            origen.position(origen.position() + cantidad);
+            desde += cantidad;
+        }
+    }
+
+    @Override
+    void volcarEdades(long desde, ShortBuffer destino) {
+        while (destino.hasRemaining()) {
+            ShortBuffer trozo = trozosEdades[(int) (desde >>> BITS_TROZO_EDADES)].duplicate();
+            int inicio = (int) (desde & MASCARA_EDADES);
+            int cantidad = Math.min(destino.remaining(), trozo.capacity() - inicio);
+            trozo.position(inicio).limit(inicio + cantidad);
+            destino.put(trozo);
+            desde += cantidad;
+        }
+    }
+
+    @Override
+    void cargarEdades(long desde, ShortBuffer origen) {
+        while (origen.hasRemaining()) {
+            ShortBuffer trozo = trozosEdades[(int) (desde >>> BITS_TROZO_EDADES)].duplicate();
+            int inicio = (int) (desde & MASCARA_EDADES);
+            int cantidad = Math.min(origen.remaining(), trozo.capacity() - inicio);
+            ShortBuffer parte = origen.duplicate();
+            parte.limit(parte.position() + cantidad);
+            trozo.position(inicio);
+            trozo.put(parte);
+            origen.position(origen.position() + cantidad);
+            desde += cantidad;
+        }
+    }
+
+    @Override
+    public void limpiar() {
+        for (ByteBuffer trozo : memoria) {
+            // Poner a cero de 8 en 8 bytes; el tamaño de cada trozo es multiplo de 8 salvo el ultimo de edades
+            int i = 0;
+            for (; i + Long.BYTES <= trozo.capacity(); i += Long.BYTES) {
+                trozo.putLong(i, 0L);
+            }
+            for (; i < trozo.capacity(); i++) {
+                trozo.put(i, (byte) 0);
+            }
+        }
+        if (muriendo != null) {
+            Arrays.fill(muriendo, 0L);
+        }
+    }
+
+    @Override
+    public long bytesUsados() {
+        long bytes = (long) totalPalabras * Long.BYTES + totalEdades * Short.BYTES;
+        if (muriendo != null) {
+            bytes += (long) muriendo.length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    /*
+      Busca sun.misc.Unsafe.invokeCleaner, que libera un buffer directo sin esperar al recolector
+      (esta en el modulo jdk.unsupported, presente en todas las JVM de OpenJDK)
+      @return el metodo adaptado a (ByteBuffer)void, o null si no esta disponible
+    */
+    private static MethodHandle buscarLiberador() {
+        try {
+            Class<?> claseUnsafe = Class.forName("sun.misc.Unsafe");
+            Field campo = claseUnsafe.getDeclaredField("theUnsafe");
+            campo.setAccessible(true);
+            Object unsafe = campo.get(null);
+            return MethodHandles.lookup()
+                    .findVirtual(claseUnsafe, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(unsafe);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+  Clase BarridoParametros - simula todas las combinaciones de varios valores de probabilidad de
+  cambio espontaneo, densidad inicial, tamaño de tablero y regla, con varias repeticiones de
+  cada una, y escribe una linea CSV por corrida
+  Las corridas se numeran con el tamaño como indice mas lento y la repeticion como el mas rapido,
+  y los trabajadores (uno por hilo, en un ForkJoinPool) toman lotes de corridas seguidas de un
+  contador compartido; cada trabajador guarda un tablero (y su detector de ciclos) y solo crea
+  otro cuando su lote pasa a un tamaño distinto, asi que no se reserva un tablero por corrida
+  Cada corrida para antes de llegar a las generaciones pedidas si:
+  - se extingue (0 celdas vivas; no con reglas B0, en las que el vacio no es estable)
+  - sin cambios espontaneos, entra en una vida estatica o un oscilador (ver CycleDetector)
+  Con cambios espontaneos el tablero nunca repite estado de forma exacta, asi que solo para al
+  extinguirse
+  La repeticion r de todas las combinaciones usa la misma semilla (numeros aleatorios comunes):
+  las diferencias entre combinaciones no se mezclan con las del relleno inicial
+  Las lineas salen en el orden en que terminan los lotes; la columna corrida da el orden
+*/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class ParameterSweep {
+    public static final String CABECERA = "corrida,ancho,alto,regla,densidad,prob_volteo,repeticion,semilla,"
+            + "vivas_iniciales,vivas_finales,vivas_maximas,final,generacion_final,periodo";
+    // Corridas seguidas que toma un trabajador de una vez
+    private static final int CORRIDAS_POR_LOTE = 16;
+    // Mismo incremento que EnsembleRunner para separar las semillas de las repeticiones
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final double[] probabilidades;
+    private final double[] densidades;
+    private final int[][] tamaños;
+    private final Rule[] reglas;
+    private final int repeticiones;
+    private final int generaciones;
+    private long semilla;
+    private String motor;
+    private int hilos;
+    private int historiaCiclos;
+
+    /*
+      Constructor - prepara un barrido (semilla 0, motor swar, un hilo por nucleo, ciclos hasta periodo 64)
+      @param probabilidades las probabilidades de cambio espontaneo (0-1)
+      @param densidades las densidades del relleno inicial (0-1)
+      @param tamaños los tamaños de tablero, cada uno {ancho, alto}
+      @param reglas las reglas (de dos estados)
+      @param repeticiones las corridas de cada combinacion
+      @param generaciones las generaciones de cada corrida como mucho
+      @throws IllegalArgumentException si alguna lista esta vacia o hay una regla Generations
+    */
+    public ParameterSweep(double[] probabilidades, double[] densidades, int[][] tamaños, Rule[] reglas,
+                          int repeticiones, int generaciones) {
+        if (probabilidades.length == 0 || densidades.length == 0 || tamaños.length == 0 || reglas.length == 0) {
+            throw new IllegalArgumentException("Cada parametro del barrido necesita al menos un valor");
+        }
+        if (repeticiones < 1 || generaciones < 0) {
+            throw new IllegalArgumentException("Repeticiones o generaciones invalidas: " + repeticiones + ", " + generaciones);
+        }
+        for (Rule regla : reglas) {
+            if (regla.estados() > 2) {
+                throw new IllegalArgumentException("El barrido no admite reglas Generations: " + regla);
+            }
+        }
+        this.probabilidades = probabilidades.clone();
+        this.densidades = densidades.clone();
+        this.tamaños = tamaños.clone();
+        this.reglas = reglas.clone();
+        this.repeticiones = repeticiones;
+        this.generaciones = generaciones;
+        this.motor = "swar";
+        this.hilos = Runtime.getRuntime().availableProcessors();
+        this.historiaCiclos = 64;
+    }
+
+    /*
+      Interpreta una lista de valores decimales: "0.1,0.2,0.5" o un rango "desde:hasta:paso"
+      (con los dos extremos incluidos)
+      @param texto la lista o el rango
+      @param min el menor valor admitido
+      @param max el mayor valor admitido
+      @return los valores
+      @throws IllegalArgumentException si el texto no es valido o algun valor se sale de [min, max]
+    */
+    public static double[] parsearValores(String texto, double min, double max) {
+        double[] valores;
+        try {
+            String[] partes = texto.split(":", -1);
+            if (partes.length == 3) {
+                double desde = Double.parseDouble(partes[0].trim());
+                double hasta = Double.parseDouble(partes[1].trim());
+                double paso = Double.parseDouble(partes[2].trim());
+                if (!(paso > 0) || hasta < desde) {
+                    throw new IllegalArgumentException("Rango invalido (desde:hasta:paso): " + texto);
+                }
+                // Se cuentan los pasos con redondeo para que 0:0.3:0.1 incluya el 0.3
+                long pasos = Math.round((hasta - desde) / paso);
+                if (pasos > 100_000) {
+                    throw new IllegalArgumentException("Demasiados valores en el rango: " + texto);
+                }
+                valores = new double[(int) pasos + 1];
+                for (int i = 0; i <= pasos; i++) {
+                    // Redondeo a 9 decimales para no escribir 0.30000000000000004 en el CSV
+                    valores[i] = Math.min(hasta, Math.round((desde + i * paso) * 1e9) / 1e9);
+                }
+            } else if (partes.length == 1) {
+                String[] lista = texto.split(",");
+                valores = new double[lista.length];
+                for (int i = 0; i < lista.length; i++) {
+                    valores[i] = Double.parseDouble(lista[i].trim());
+                }
+            } else {
+                throw new IllegalArgumentException("Lista de valores invalida: " + texto);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Lista de valores invalida: " + texto);
+        }
+        for (double valor : valores) {
+            if (!(valor >= min && valor <= max)) {
+                throw new IllegalArgumentException("Valor fuera de [" + min + ", " + max + "]: " + valor);
+            }
+        }
+        return valores;
+    }
+
+    /*
+      Interpreta una lista de tamaños de tablero: "32,64x48" (un numero solo es un tablero cuadrado)
+      @param texto la lista
+      @param min el menor lado admitido
+      @param max el mayor lado admitido
+      @return los tamaños, cada uno {ancho, alto}
+      @throws IllegalArgumentException si el texto no es valido o algun lado se sale de [min, max]
+    */
+    public static int[][] parsearTamaños(String texto, int min, int max) {
+        String[] lista = texto.split(",");
+        int[][] tamaños = new int[lista.length][];
+        for (int i = 0; i < lista.length; i++) {
+            String[] lados = lista[i].trim().toLowerCase(Locale.ROOT).split("x", -1);
+            try {
+                int ancho = Integer.parseInt(lados[0].trim());
+                int alto = lados.length == 2 ? Integer.parseInt(lados[1].trim()) : ancho;
+                if (lados.length > 2 || ancho < min || ancho > max || alto < min || alto > max) {
+                    throw new IllegalArgumentException("Tamaño invalido (lados entre " + min + " y " + max + "): " + lista[i]);
+                }
+                tamaños[i] = new int[] {ancho, alto};
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Tamaño invalido (se espera N o AxB): " + lista[i]);
+            }
+        }
+        return tamaños;
+    }
+
+    /*
+      Interpreta una lista de reglas separadas por comas: "B3/S23,B36/S23"
+      @param texto la lista
+      @return las reglas
+      @throws IllegalArgumentException si alguna regla no es valida
+    */
+    public static Rule[] parsearReglas(String texto) {
+        String[] lista = texto.split(",");
+        Rule[] reglas = new Rule[lista.length];
+        for (int i = 0; i < lista.length; i++) {
+            reglas[i] = Rule.parsear(lista[i]);
+        }
+        return reglas;
+    }
+
+    /*
+      Establece la semilla base de la que sale la de cada repeticion
+      @param semilla la semilla base
+    */
+    public void establecerSemilla(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /*
+      Establece el motor de calculo de los tableros
+      @param motor el nombre del motor (ver EngineRegistry)
+    */
+    public void establecerMotor(String motor) {
+        EngineRegistry.crear(motor);
+        this.motor = motor;
+    }
+
+    /*
+      Establece cuantas corridas se calculan a la vez
+      @param hilos el numero de trabajadores (cada uno con su tablero)
+    */
+    public void establecerHilos(int hilos) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("El numero de hilos debe ser al menos 1: " + hilos);
+        }
+        this.hilos = hilos;
+    }
+
+    /*
+      Establece el periodo mas largo que se detecta para parar una corrida sin cambios espontaneos
+      Cada generacion recorre el anillo de hashes, asi que en tableros pequeños conviene que sea corto
+      @param historiaCiclos las generaciones recientes que se recuerdan
+    */
+    public void establecerHistoriaCiclos(int historiaCiclos) {
+        if (historiaCiclos < 1) {
+            throw new IllegalArgumentException("La historia de ciclos debe ser al menos 1: " + historiaCiclos);
+        }
+        this.historiaCiclos = historiaCiclos;
+    }
+
+    /*
+      Obtiene el numero de corridas del barrido
+      @return combinaciones x repeticiones
+    */
+    public long totalCorridas() {
+        return (long) tamaños.length * reglas.length * probabilidades.length * densidades.length * repeticiones;
+    }
+
+    /*
+      Obtiene la semilla de la fuente contador de una repeticion
+      @param repeticion el indice de la repeticion
+      @return la semilla de esa repeticion en todas las combinaciones
+    */
+    public long semillaDeRepeticion(int repeticion) {
+        return RandomSource.mezclar(semilla + (repeticion + 1L) * GAMMA);
+    }
+
+    /*
+      Ejecuta todas las corridas y escribe la cabecera y una linea CSV por corrida
+      Cada trabajador escribe las lineas de un lote de una vez, con la salida bloqueada
+      @param salida donde se escribe el CSV (no se cierra)
+      @return las corridas escritas
+      @throws IOException si no se puede escribir
+      @throws InterruptedException si se interrumpe la espera
+    */
+    public long ejecutar(Writer salida) throws IOException, InterruptedException {
+        salida.write(CABECERA);
+        salida.write('\n');
+        AtomicLong siguiente = new AtomicLong();
+        long total = totalCorridas();
+        ExecutorService ejecutor = Executors.newWorkStealingPool(hilos);
+        try {
+            List<Callable<Long>> trabajadores = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                trabajadores.add(() -> trabajar(siguiente, total, salida));
+            }
+            long escritas = 0;
+            for (Future<Long> parcial : ejecutor.invokeAll(trabajadores)) {
+                escritas += parcial.get();
+            }
+            salida.flush();
+            return escritas;
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) causa).getCause();
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            throw new IllegalStateException("Fallo una corrida del barrido", causa);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /*
+      Bucle de un trabajador: toma lotes de corridas seguidas hasta que se acaban
+    */
+    private long trabajar(AtomicLong siguiente, long total, Writer salida) {
+        Board tablero = null;
+        CycleDetector detector = null;
+        StringBuilder lineas = new StringBuilder();
+        long escritas = 0;
+
+        for (long lote = siguiente.getAndAdd(CORRIDAS_POR_LOTE); lote < total; lote = siguiente.getAndAdd(CORRIDAS_POR_LOTE)) {
+            long fin = Math.min(total, lote + CORRIDAS_POR_LOTE);
+            for (long corrida = lote; corrida < fin; corrida++) {
+                // corrida = (((tamaño * reglas + regla) * probabilidades + probabilidad) * densidades + densidad) * repeticiones + repeticion
+                long resto = corrida;
+                int repeticion = (int) (resto % repeticiones);
+                resto /= repeticiones;
+                double densidad = densidades[(int) (resto % densidades.length)];
+                resto /= densidades.length;
+                double probabilidad = probabilidades[(int) (resto % probabilidades.length)];
+                resto /= probabilidades.length;
+                Rule regla = reglas[(int) (resto % reglas.length)];
+                int[] tamaño = tamaños[(int) (resto / reglas.length)];
+
+                if (tablero == null || tablero.obtenerAncho() != tamaño[0] || tablero.obtenerAlto() != tamaño[1]) {
+                    tablero = new Board(tamaño[0], tamaño[1], false);
+                    tablero.establecerMotor(EngineRegistry.crear(motor));
+                    detector = null;
+                }
+                tablero.establecerRegla(regla);
+                tablero.establecerProbabilidadVolteo(probabilidad);
+                if (probabilidad != 0.0 && detector != null) {
+                    detector.terminar();
+                }
+                long semillaCorrida = semillaDeRepeticion(repeticion);
+                tablero.establecerGeneracion(0);
+                tablero.establecerFuenteAleatoria(RandomSource.contador(semillaCorrida));
+                tablero.rellenarAleatorio(densidad);
+                if (probabilidad == 0.0) {
+                    if (detector == null) {
+                        detector = new CycleDetector(tablero, historiaCiclos);
+                    } else {
+                        detector.reiniciar();
+                    }
+                }
+
+                long iniciales = tablero.obtenerCantidadVivas();
+                long maximas = iniciales;
+                String motivo = "limite";
+                int periodo = 0;
+                boolean vacioEstable = !regla.naceSinVecinos();
+                if (iniciales == 0 && vacioEstable) {
+                    motivo = "extinto";
+                }
+                while (motivo.equals("limite") && tablero.obtenerGeneracion() < generaciones) {
+                    tablero.proximaGeneracion();
+                    long vivas = tablero.obtenerCantidadVivas();
+                    maximas = Math.max(maximas, vivas);
+                    if (vivas == 0 && vacioEstable) {
+                        motivo = "extinto";
+                    } else if (probabilidad == 0.0 && detector.observar()) {
+                        motivo = "estable";
+                        periodo = detector.obtenerPeriodo();
+                    }
+                }
+
+                lineas.append(corrida).append(',').append(tamaño[0]).append(',').append(tamaño[1]).append(',')
+                        .append(regla).append(',').append(densidad).append(',').append(probabilidad).append(',')
+                        .append(repeticion).append(',').append(semillaCorrida).append(',').append(iniciales).append(',')
+                        .append(tablero.obtenerCantidadVivas()).append(',').append(maximas).append(',').append(motivo)
+                        .append(',').append(tablero.obtenerGeneracion()).append(',').append(periodo).append('\n');
+                escritas++;
+            }
+            try {
+                synchronized (salida) {
+                    salida.append(lineas);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            lineas.setLength(0);
+        }
+        return escritas;
+    }
+}
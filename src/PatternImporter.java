@@ -0,0 +1,419 @@
+/*
+  Clase ImportadorPatrones - carga patrones de ficheros RLE, Life 1.06 y texto plano
+  sobre un tablero, a partir de una fila y columna de origen
+  El fichero se lee por bloques de caracteres y se interpreta sobre la marcha: cada racha
+  de celdas vivas se escribe directamente en las palabras de la cuadricula del tablero,
+  asi que la memoria usada no depende del tamaño del fichero ni del numero de celdas
+  Formatos (se reconocen por su contenido, no por la extension):
+  - RLE: lineas '#' de comentario, cabecera "x = ancho, y = alto[, rule = ...]" y
+    el cuerpo con rachas "<n>o" (vivas), "<n>b" (muertas), "<n>$" (fin de fila) y '!' al final
+  - Life 1.06: cabecera "#Life 1.06" y una celda viva "x y" por linea (pueden ser negativas)
+  - Texto plano (.cells): lineas '!' de comentario, '.' muerta y 'O' o '*' viva
+  Las celdas que caen fuera del tablero se descartan y se cuentan aparte
+*/
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public final class PatternImporter {
+    private static final int TAMAÑO_BUFFER = 1 << 16;
+    // Las lineas de cabecera y comentario mas largas se recortan a este tamaño
+    private static final int LINEA_MAXIMA = 4096;
+    // Ninguna racha ni coordenada razonable pasa de aqui; evita desbordar los long
+    private static final long NUMERO_MAXIMO = 1L << 40;
+
+    private final Board board;
+    private final BitGrid cuadricula;
+    private final int filaOrigen;
+    private final int columnaOrigen;
+
+    private Reader entrada;
+    private char[] buffer;
+    private int posicion;
+    private int limite;
+    private long linea;
+
+    private String formato;
+    private String regla;
+    private long anchoDeclarado;
+    private long altoDeclarado;
+    private long celdas;
+    private long recortadas;
+
+    /*
+      Constructor - prepara la importacion sobre un tablero
+      Las celdas del patron se añaden a las que ya haya en el tablero
+      @param board el tablero destino
+      @param filaOrigen la fila del tablero donde cae la fila 0 del patron
+      @param columnaOrigen la columna del tablero donde cae la columna 0 del patron
+    */
+    public PatternImporter(Board board, int filaOrigen, int columnaOrigen) {
+        this.board = board;
+        this.cuadricula = board.obtenerCuadricula();
+        this.filaOrigen = filaOrigen;
+        this.columnaOrigen = columnaOrigen;
+        this.anchoDeclarado = -1;
+        this.altoDeclarado = -1;
+    }
+
+    /*
+      Importa un fichero de patron
+      @param ruta el fichero
+      @throws IOException si no se puede leer o su formato no es valido
+    */
+    public void importar(Path ruta) throws IOException {
+        // ISO-8859-1 acepta cualquier byte, asi que los comentarios con acentos no dan error
+        try (Reader lector = new InputStreamReader(Files.newInputStream(ruta), StandardCharsets.ISO_8859_1)) {
+            importar(lector);
+        }
+    }
+
+    /*
+      Importa un patron de un flujo de caracteres (no lo cierra)
+      @param lector el flujo
+      @throws IOException si no se puede leer o su formato no es valido
+    */
+    public void importar(Reader lector) throws IOException {
+        this.entrada = lector;
+        this.buffer = new char[TAMAÑO_BUFFER];
+        this.posicion = 0;
+        this.limite = 0;
+        this.linea = 1;
+        try {
+            detectarEImportar();
+        } finally {
+            board.cuadriculaModificada();
+            this.entrada = null;
+            this.buffer = null;
+        }
+    }
+
+    /*
+      Obtiene el formato reconocido
+      @return "rle", "life 1.06" o "texto"
+    */
+    public String obtenerFormato() {
+        return formato;
+    }
+
+    /*
+      Obtiene la regla declarada en la cabecera RLE
+      @return la regla, o null si no se declaro
+    */
+    public String obtenerRegla() {
+        return regla;
+    }
+
+    /*
+      Obtiene el ancho declarado en la cabecera RLE
+      @return el ancho, o -1 si el formato no lo declara
+    */
+    public long obtenerAnchoDeclarado() {
+        return anchoDeclarado;
+    }
+
+    /*
+      Obtiene el alto declarado en la cabecera RLE
+      @return el alto, o -1 si el formato no lo declara
+    */
+    public long obtenerAltoDeclarado() {
+        return altoDeclarado;
+    }
+
+    /*
+      Obtiene las celdas vivas del patron que se han colocado en el tablero
+      @return las celdas colocadas
+    */
+    public long obtenerCeldas() {
+        return celdas;
+    }
+
+    /*
+      Obtiene las celdas vivas del patron que caian fuera del tablero
+      @return las celdas descartadas
+    */
+    public long obtenerRecortadas() {
+        return recortadas;
+    }
+
+    private void detectarEImportar() throws IOException {
+        saltarBlancos();
+        int c = mirar();
+        if (c == -1) {
+            throw error("El fichero esta vacio");
+        }
+        if (c == '#') {
+            leer();
+            String primera = leerLinea();
+            if (primera.startsWith("Life 1.06")) {
+                formato = "life 1.06";
+                importarLife106();
+                return;
+            }
+            if (primera.startsWith("Life 1.05")) {
+                throw error("Life 1.05 no esta soportado; convierte el patron a RLE o Life 1.06");
+            }
+            // Comentarios RLE (#N, #C, #O...) hasta la cabecera
+            saltarBlancos();
+            while (mirar() == '#') {
+                leerLinea();
+                saltarBlancos();
+            }
+            c = mirar();
+        }
+
+        if (c == 'x') {
+            formato = "rle";
+            leerCabeceraRle(leerLinea());
+            importarRle();
+        } else if (c == '!' || c == '.' || c == 'O' || c == '*') {
+            formato = "texto";
+            importarTexto();
+        } else {
+            throw error("Formato de patron no reconocido (se admiten RLE, Life 1.06 y texto plano)");
+        }
+    }
+
+    /*
+      Interpreta "x = 3, y = 3, rule = B3/S23"
+    */
+    private void leerCabeceraRle(String cabecera) throws IOException {
+        for (String parte : cabecera.split(",")) {
+            int igual = parte.indexOf('=');
+            if (igual < 0) {
+                throw error("Cabecera RLE invalida: " + cabecera);
+            }
+            String clave = parte.substring(0, igual).trim();
+            String valor = parte.substring(igual + 1).trim();
+            try {
+                switch (clave) {
+                    case "x":
+                        anchoDeclarado = Long.parseLong(valor);
+                        break;
+                    case "y":
+                        altoDeclarado = Long.parseLong(valor);
+                        break;
+                    case "rule":
+                        regla = valor;
+                        break;
+                    default:
+                        // Claves de otros programas: se ignoran
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                throw error("Cabecera RLE invalida: " + cabecera);
+            }
+        }
+        if (anchoDeclarado < 0 || altoDeclarado < 0) {
+            throw error("La cabecera RLE debe indicar x e y: " + cabecera);
+        }
+    }
+
+    private void importarRle() throws IOException {
+        long fila = 0;
+        long columna = 0;
+        long cuenta = 0;
+        int c;
+        while ((c = leer()) != -1) {
+            if (c >= '0' && c <= '9') {
+                cuenta = cuenta * 10 + (c - '0');
+                if (cuenta > NUMERO_MAXIMO) {
+                    throw error("Racha demasiado larga");
+                }
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                continue;
+            }
+
+            long n = cuenta == 0 ? 1 : cuenta;
+            cuenta = 0;
+            if (c == 'b' || c == '.') {
+                columna += n;
+            } else if (c == '$') {
+                fila += n;
+                columna = 0;
+            } else if (c == '!') {
+                return;
+            } else if (c == '#') {
+                leerLinea();
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                // 'o' es viva; las demas letras son estados de reglas con mas estados y tambien cuentan como vivas
+                encender(fila, columna, n);
+                columna += n;
+            } else {
+                throw error("Caracter inesperado en RLE: '" + (char) c + "'");
+            }
+        }
+        // Muchos ficheros reales no terminan en '!': se acepta el final del fichero
+    }
+
+    private void importarTexto() throws IOException {
+        long fila = 0;
+        long columna = 0;
+        long inicioRacha = -1;
+        boolean inicioLinea = true;
+        int c;
+        while ((c = leer()) != -1) {
+            if (inicioLinea && c == '!') {
+                leerLinea();
+                continue;
+            }
+            inicioLinea = false;
+
+            if (c == 'O' || c == '*') {
+                if (inicioRacha < 0) {
+                    inicioRacha = columna;
+                }
+                columna++;
+                continue;
+            }
+            if (inicioRacha >= 0) {
+                encender(fila, inicioRacha, columna - inicioRacha);
+                inicioRacha = -1;
+            }
+
+            if (c == '.') {
+                columna++;
+            } else if (c == '\n') {
+                fila++;
+                columna = 0;
+                inicioLinea = true;
+            } else if (c != '\r' && c != ' ' && c != '\t') {
+                throw error("Caracter inesperado en texto plano: '" + (char) c + "'");
+            }
+        }
+        if (inicioRacha >= 0) {
+            encender(fila, inicioRacha, columna - inicioRacha);
+        }
+    }
+
+    private void importarLife106() throws IOException {
+        while (true) {
+            saltarBlancos();
+            int c = mirar();
+            if (c == -1) {
+                return;
+            }
+            if (c == '#') {
+                leerLinea();
+                continue;
+            }
+            long x = leerEntero();
+            saltarEspacios();
+            long y = leerEntero();
+            encender(y, x, 1);
+        }
+    }
+
+    /*
+      Pone vivas n celdas seguidas de una fila del patron, recortando lo que cae fuera del tablero
+    */
+    private void encender(long fila, long columna, long n) {
+        long filaTablero = filaOrigen + fila;
+        long desde = columnaOrigen + columna;
+        long hasta = desde + n;
+        if (filaTablero < 0 || filaTablero >= board.obtenerAlto()) {
+            recortadas += n;
+            return;
+        }
+        long desdeDentro = Math.max(desde, 0);
+        long hastaDentro = Math.min(hasta, board.obtenerAncho());
+        if (desdeDentro >= hastaDentro) {
+            recortadas += n;
+            return;
+        }
+        cuadricula.encenderRango((int) filaTablero, (int) desdeDentro, (int) hastaDentro);
+        celdas += hastaDentro - desdeDentro;
+        recortadas += n - (hastaDentro - desdeDentro);
+    }
+
+    private long leerEntero() throws IOException {
+        boolean negativo = false;
+        int c = leer();
+        if (c == '-' || c == '+') {
+            negativo = c == '-';
+            c = leer();
+        }
+        if (c < '0' || c > '9') {
+            throw error("Se esperaba un numero");
+        }
+        long valor = 0;
+        while (true) {
+            valor = valor * 10 + (c - '0');
+            if (valor > NUMERO_MAXIMO) {
+                throw error("Coordenada demasiado grande");
+            }
+            c = mirar();
+            if (c < '0' || c > '9') {
+                break;
+            }
+            leer();
+        }
+        return negativo ? -valor : valor;
+    }
+
+    /*
+      Lee el resto de la linea actual (sin el salto de linea), recortada a LINEA_MAXIMA
+    */
+    private String leerLinea() throws IOException {
+        StringBuilder texto = new StringBuilder();
+        int c;
+        while ((c = leer()) != -1 && c != '\n') {
+            if (c != '\r' && texto.length() < LINEA_MAXIMA) {
+                texto.append((char) c);
+            }
+        }
+        return texto.toString();
+    }
+
+    private void saltarBlancos() throws IOException {
+        int c;
+        while ((c = mirar()) == ' ' || c == '\t' || c == '\r' || c == '\n') {
+            leer();
+        }
+    }
+
+    private void saltarEspacios() throws IOException {
+        int c;
+        while ((c = mirar()) == ' ' || c == '\t') {
+            leer();
+        }
+    }
+
+    private int mirar() throws IOException {
+        if (posicion == limite && !rellenar()) {
+            return -1;
+        }
+        return buffer[posicion];
+    }
+
+    private int leer() throws IOException {
+        if (posicion == limite && !rellenar()) {
+            return -1;
+        }
+        char c = buffer[posicion++];
+        if (c == '\n') {
+            linea++;
+        }
+        return c;
+    }
+
+    private boolean rellenar() throws IOException {
+        int leidos = entrada.read(buffer, 0, buffer.length);
+        if (leidos <= 0) {
+            return false;
+        }
+        posicion = 0;
+        limite = leidos;
+        return true;
+    }
+
+    private IOException error(String mensaje) {
+        return new IOException(mensaje + " (linea " + linea + ")");
+    }
+}
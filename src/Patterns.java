@@ -0,0 +1,116 @@
+/*
+  Clase Patrones - patrones con nombre que se colocan sobre un tablero
+  Los usan el menu y el modo sin pantalla; las coordenadas llegan hasta 5,
+  asi que caben en cualquier tablero de 6x6 o mayor
+*/
+
+import java.util.List;
+
+public final class Patterns {
+    private static final List<String> NOMBRES = List.of("predefinido", "bloque", "parpadeador", "vela", "cruz");
+
+    private Patterns() {
+    }
+
+    /*
+      Obtiene los nombres de los patrones disponibles
+      @return los nombres que acepta colocar
+    */
+    public static List<String> nombres() {
+        return NOMBRES;
+    }
+
+    /*
+      Coloca un patron sobre el tablero (las demas celdas no se tocan)
+      @param nombre el nombre del patron (ver nombres())
+      @param board el tablero destino
+      @throws IllegalArgumentException si el patron no existe
+    */
+    public static void colocar(String nombre, Board board) {
+        switch (nombre) {
+            case "predefinido":
+                predefinido(board);
+                break;
+            case "bloque":
+                bloque(board);
+                break;
+            case "parpadeador":
+                parpadeador(board);
+                break;
+            case "vela":
+                vela(board);
+                break;
+            case "cruz":
+                cruz(board);
+                break;
+            default:
+                throw new IllegalArgumentException("Patron desconocido: " + nombre + " (disponibles: " + NOMBRES + ")");
+        }
+    }
+
+    /*
+      Configuracion predefinida original
+    */
+    private static void predefinido(Board board) {
+        // Bloque estable
+        board.establecerViva(1, 1);
+        board.establecerViva(1, 2);
+        board.establecerViva(2, 1);
+        board.establecerViva(2, 2);
+
+        // Parpadeador
+        board.establecerViva(3, 4);
+        board.establecerViva(3, 5);
+        board.establecerViva(3, 3);
+
+        // Algunos patrones aleatorios
+        board.establecerViva(0, 0);
+        board.establecerViva(5, 5);
+        board.establecerViva(5, 4);
+        board.establecerViva(4, 4);
+    }
+
+    /*
+      Patron "Bloque" (2x2 estable)
+    */
+    private static void bloque(Board board) {
+        board.establecerViva(2, 2);
+        board.establecerViva(2, 3);
+        board.establecerViva(3, 2);
+        board.establecerViva(3, 3);
+    }
+
+    /*
+      Patron "Parpadeador" (oscilante 2 generaciones)
+    */
+    private static void parpadeador(Board board) {
+        // Parpadeador horizontal
+        board.establecerViva(2, 2);
+        board.establecerViva(2, 3);
+        board.establecerViva(2, 4);
+    }
+
+    /*
+      Patron "Vela" (glider - se mueve diagonalmente)
+    */
+    private static void vela(Board board) {
+        // Glider pattern
+        board.establecerViva(0, 1);
+        board.establecerViva(1, 2);
+        board.establecerViva(2, 0);
+        board.establecerViva(2, 1);
+        board.establecerViva(2, 2);
+    }
+
+    /*
+      Patron "Cruz"
+    */
+    private static void cruz(Board board) {
+        // Cruz en el centro
+        board.establecerViva(2, 3);
+        board.establecerViva(3, 2);
+        board.establecerViva(3, 3);
+        board.establecerViva(3, 4);
+        board.establecerViva(4, 3);
+    }
+}
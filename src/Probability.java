@@ -0,0 +1,179 @@
+/*
+  Clase Probabilidad - genera mascaras de 64 bits donde cada bit vale 1 con probabilidad p
+  La probabilidad se guarda como una fraccion binaria de k bits (16 bits significativos)
+  y cada mascara se construye combinando palabras aleatorias con AND/OR, desde el bit
+  menos significativo de la fraccion hasta el mas significativo:
+  un bit 1 de la fraccion hace m = m | r y un bit 0 hace m = m & r
+  Asi se deciden 64 celdas a la vez con unas pocas palabras aleatorias
+  Con probabilidades pequeñas (hasta UMBRAL_DISPERSA) casi todas las mascaras son 0 y aun asi
+  costarian una veintena de rondas. Entonces la fila se parte en bloques de PALABRAS_BLOQUE
+  palabras y en cada bloque se salta de un cambio al siguiente con saltos geometricos: cada
+  ronda aleatoria da la distancia hasta el proximo cambio. Un bloque sin cambios cuesta una
+  sola ronda, y palabrasConCambios dice que palabras de un bloque cambian sin construir sus
+  mascaras. mascara recorre el bloque de su palabra, asi que las dos vistas coinciden
+*/
+public class Probability {
+    private static final int BITS_SIGNIFICATIVOS = 16;
+    // Palabras por bloque de saltos geometricos: cabe en una mascara de 64 bits
+    static final int PALABRAS_BLOQUE = 64;
+    private static final int CELDAS_BLOQUE = PALABRAS_BLOQUE * 64;
+    // Hasta aqui un bloque tiene de media 4 cambios o menos
+    private static final double UMBRAL_DISPERSA = 0x1.0p-10;
+
+    private final double valor;
+    private final long fraccion;
+    private final int primerBit;
+    private final int ultimoBit;
+    private final boolean dispersa;
+    // log(1 - p), para convertir una ronda uniforme en un salto geometrico
+    private final double logComplemento;
+    // Probabilidad de que un bloque entero no tenga ningun cambio, (1 - p)^CELDAS_BLOQUE
+    private final double bloqueSinCambios;
+
+    /*
+      Constructor - compila una probabilidad
+      @param valor la probabilidad, entre 0 y 1
+    */
+    public Probability(double valor) {
+        if (!(valor >= 0.0 && valor <= 1.0)) {
+            throw new IllegalArgumentException("La probabilidad debe estar entre 0 y 1: " + valor);
+        }
+        this.valor = valor;
+
+        // Ceros iniciales de la fraccion mas los bits significativos que se conservan
+        int ceros = valor > 0.0 ? Math.max(0, -Math.getExponent(valor) - 1) : 0;
+        int bits = Math.min(62, ceros + BITS_SIGNIFICATIVOS);
+        long cuantizada = Math.round(Math.scalb(valor, bits));
+
+        if (cuantizada >= (1L << bits)) {
+            // Probabilidad 1 (o tan cerca que se redondea a 1)
+            this.fraccion = -1L;
+            this.primerBit = 0;
+            this.ultimoBit = -1;
+        } else if (cuantizada == 0) {
+            this.fraccion = 0L;
+            this.primerBit = 0;
+            this.ultimoBit = -1;
+        } else {
+            this.fraccion = cuantizada;
+            this.primerBit = Long.numberOfTrailingZeros(cuantizada);
+            this.ultimoBit = bits - 1;
+        }
+
+        // StrictMath para que los saltos sean iguales en cualquier maquina
+        this.dispersa = valor > 0.0 && valor <= UMBRAL_DISPERSA;
+        this.logComplemento = StrictMath.log1p(-valor);
+        this.bloqueSinCambios = StrictMath.exp(logComplemento * CELDAS_BLOQUE);
+    }
+
+    /*
+      Obtiene la probabilidad pedida
+      @return el valor entre 0 y 1
+    */
+    public double obtenerValor() {
+        return valor;
+    }
+
+    /*
+      Indica si la probabilidad es 0 (nunca hay bits activos)
+      @return true si todas las mascaras son 0
+    */
+    public boolean esCero() {
+        return fraccion == 0L;
+    }
+
+    /*
+      Indica si los cambios se reparten con saltos geometricos por bloques de palabras
+      @return true si se puede usar palabrasConCambios
+    */
+    public boolean esDispersa() {
+        return dispersa;
+    }
+
+    /*
+      Genera la mascara de una palabra del tablero
+      @param fuente la fuente de bits aleatorios
+      @param generacion la generacion que se esta calculando
+      @param fila el indice de la fila
+      @param palabra el indice de la palabra dentro de la fila
+      @return 64 bits, cada uno activo con la probabilidad compilada
+    */
+    public long mascara(RandomSource fuente, long generacion, int fila, int palabra) {
+        if (fraccion == 0L) {
+            return 0L;
+        }
+        if (fraccion == -1L) {
+            return -1L;
+        }
+        if (dispersa) {
+            long clave = fuente.clave(generacion, fila, palabra / PALABRAS_BLOQUE);
+            return recorrerBloque(fuente, clave, palabra % PALABRAS_BLOQUE);
+        }
+
+        long clave = fuente.clave(generacion, fila, palabra);
+        long m = 0L;
+        int ronda = 0;
+        for (int bit = primerBit; bit <= ultimoBit; bit++) {
+            long r = fuente.bits(clave, ronda++);
+            if ((fraccion & (1L << bit)) != 0) {
+                m |= r;
+            } else {
+                m &= r;
+                // Los AND restantes no pueden volver a activar bits
+                if (m == 0L && (fraccion >>> bit) == 0L) {
+                    break;
+                }
+            }
+        }
+        return m;
+    }
+
+    /*
+      Indica que palabras de un bloque tienen algun cambio, sin construir sus mascaras
+      Con una fuente que no depende del orden (contador) coincide con llamar a mascara para
+      cada palabra del bloque; con las demas cada llamada saca bits nuevos
+      @param fuente la fuente de bits aleatorios
+      @param generacion la generacion que se esta calculando
+      @param fila el indice de la fila
+      @param bloque el indice del bloque (palabras bloque * PALABRAS_BLOQUE en adelante)
+      @return un bit por palabra del bloque, activo si la mascara de esa palabra no es 0
+      @throws IllegalStateException si la probabilidad no es dispersa
+    */
+    public long palabrasConCambios(RandomSource fuente, long generacion, int fila, int bloque) {
+        if (!dispersa) {
+            throw new IllegalStateException("La probabilidad no es dispersa: " + valor);
+        }
+        return recorrerBloque(fuente, fuente.clave(generacion, fila, bloque), -1);
+    }
+
+    /*
+      Salta de cambio en cambio por las celdas de un bloque
+      @param palabra la palabra del bloque cuya mascara se quiere, o -1 para obtener en su lugar
+             un bit por cada palabra del bloque con algun cambio
+    */
+    private long recorrerBloque(RandomSource fuente, long clave, int palabra) {
+        long resultado = 0L;
+        // Celda del ultimo cambio dentro del bloque
+        long celda = -1;
+        for (int ronda = 0; ; ronda++) {
+            // Uniforme en (0, 1]: el logaritmo nunca es infinito
+            double u = ((fuente.bits(clave, ronda) >>> 11) + 1) * 0x1.0p-53;
+            if (ronda == 0 && u <= bloqueSinCambios) {
+                return 0L;
+            }
+            double salto = StrictMath.log(u) / logComplemento;
+            if (salto >= CELDAS_BLOQUE - 1 - celda) {
+                return resultado;
+            }
+            celda += 1 + (long) salto;
+            int palabraCelda = (int) (celda >>> 6);
+            if (palabra < 0) {
+                resultado |= 1L << palabraCelda;
+            } else if (palabraCelda == palabra) {
+                resultado |= 1L << (celda & 63);
+            } else if (palabraCelda > palabra) {
+                return resultado;
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+  Interfaz FuenteAleatoria - origen de los bits aleatorios del tablero
+  Se usa para los cambios espontaneos y para el relleno aleatorio inicial
+  Los bits se piden por palabra: primero se obtiene una clave para (generacion, fila, palabra)
+  y despues se piden tantas rondas de 64 bits como haga falta
+  Hay tres modos:
+  - sinSemilla: ThreadLocalRandom, sin contencion entre hilos pero no reproducible
+  - flujo: SplittableRandom con semilla; cada hilo o banda recibe su propio flujo con dividir(),
+    reproducible mientras no cambie el numero de bandas
+  - contador: hash de (semilla, generacion, fila, palabra, ronda), reproducible con cualquier
+    numero de hilos porque no depende del orden en que se piden los bits
+*/
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+public interface RandomSource {
+
+    /*
+      Prepara los bits aleatorios de una palabra del tablero
+      @param generacion la generacion que se esta calculando
+      @param fila el indice de la fila
+      @param palabra el indice de la palabra dentro de la fila
+      @return la clave que se pasa a bits()
+    */
+    long clave(long generacion, int fila, int palabra);
+
+    /*
+      Obtiene 64 bits aleatorios independientes
+      @param clave la clave devuelta por clave()
+      @param ronda el numero de ronda dentro de la palabra (0, 1, 2...)
+      @return 64 bits aleatorios
+    */
+    long bits(long clave, int ronda);
+
+    /*
+      Crea una fuente para otro hilo o banda
+      Las fuentes sin estado se devuelven a si mismas
+      @return la fuente que debe usar el nuevo hilo
+    */
+    RandomSource dividir();
+
+    /*
+      Indica si el resultado no depende del numero de hilos
+      @return true para los modos sin estado compartido (contador)
+    */
+    boolean independienteDeHilos();
+
+    /*
+      Obtiene el nombre del modo de la fuente
+      @return "ninguna", "flujo" o "contador"
+    */
+    String modo();
+
+    /*
+      Obtiene la semilla con la que se creo la fuente (0 sin semilla)
+      Con la semilla y el modo se puede volver a crear la fuente con crear()
+      @return la semilla original
+    */
+    long semilla();
+
+    /*
+      Crea una fuente a partir de su modo y su semilla
+      @param modo "ninguna", "flujo" o "contador"
+      @param semilla la semilla (se ignora sin semilla)
+      @return la fuente
+      @throws IllegalArgumentException si el modo no existe
+    */
+    static RandomSource crear(String modo, long semilla) {
+        switch (modo) {
+            case "ninguna":
+                return sinSemilla();
+            case "flujo":
+                return flujo(semilla);
+            case "contador":
+                return contador(semilla);
+            default:
+                throw new IllegalArgumentException("Modo aleatorio desconocido: " + modo);
+        }
+    }
+
+    /*
+      Crea la fuente sin semilla (no reproducible)
+      @return una fuente basada en ThreadLocalRandom
+    */
+    static RandomSource sinSemilla() {
+        return SinSemilla.INSTANCIA;
+    }
+
+    /*
+      Crea una fuente de flujos SplittableRandom
+      @param semilla la semilla del flujo raiz
+      @return la fuente con semilla
+    */
+    static RandomSource flujo(long semilla) {
+        return new Flujo(semilla, new SplittableRandom(semilla));
+    }
+
+    /*
+      Crea una fuente basada en un hash por palabra
+      @param semilla la semilla del hash
+      @return la fuente con semilla
+    */
+    static RandomSource contador(long semilla) {
+        return new Contador(semilla);
+    }
+
+    /*
+      Funcion de mezcla de SplitMix64
+      @param z el valor a mezclar
+      @return 64 bits bien repartidos
+    */
+    static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /*
+      Fuente sin semilla: cada hilo usa su propio ThreadLocalRandom
+    */
+    final class SinSemilla implements RandomSource {
+        static final SinSemilla INSTANCIA = new SinSemilla();
+
+        private SinSemilla() {
+        }
+
+        @Override
+        public long clave(long generacion, int fila, int palabra) {
+            return 0L;
+        }
+
+        @Override
+        public long bits(long clave, int ronda) {
+            return ThreadLocalRandom.current().nextLong();
+        }
+
+        @Override
+        public RandomSource dividir() {
+            return this;
+        }
+
+        @Override
+        public boolean independienteDeHilos() {
+            return false;
+        }
+
+        @Override
+        public String modo() {
+            return "ninguna";
+        }
+
+        @Override
+        public long semilla() {
+            return 0L;
+        }
+    }
+
+    /*
+      Fuente de flujo: los bits salen en orden de un SplittableRandom
+      No es segura entre hilos, cada hilo debe usar su propia copia de dividir()
+    */
+    final class Flujo implements RandomSource {
+        private final long semilla;
+        private final SplittableRandom aleatorio;
+
+        private Flujo(long semilla, SplittableRandom aleatorio) {
+            this.semilla = semilla;
+            this.aleatorio = aleatorio;
+        }
+
+        @Override
+        public long clave(long generacion, int fila, int palabra) {
+            return 0L;
+        }
+
+        @Override
+        public long bits(long clave, int ronda) {
+            return aleatorio.nextLong();
+        }
+
+        @Override
+        public RandomSource dividir() {
+            return new Flujo(semilla, aleatorio.split());
+        }
+
+        @Override
+        public boolean independienteDeHilos() {
+            return false;
+        }
+
+        @Override
+        public String modo() {
+            return "flujo";
+        }
+
+        @Override
+        public long semilla() {
+            return semilla;
+        }
+    }
+
+    /*
+      Fuente por contador: los bits son un hash de la posicion, sin estado
+    */
+    final class Contador implements RandomSource {
+        private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+        private final long semillaOriginal;
+        private final long semilla;
+
+        private Contador(long semilla) {
+            this.semillaOriginal = semilla;
+            this.semilla = mezclar(semilla);
+        }
+
+        @Override
+        public long clave(long generacion, int fila, int palabra) {
+            long h = mezclar(semilla ^ mezclar(generacion));
+            return mezclar(h ^ ((long) fila << 32 | (palabra & 0xFFFFFFFFL)));
+        }
+
+        @Override
+        public long bits(long clave, int ronda) {
+            return mezclar(clave + (ronda + 1) * GAMMA);
+        }
+
+        @Override
+        public RandomSource dividir() {
+            return this;
+        }
+
+        @Override
+        public boolean independienteDeHilos() {
+            return true;
+        }
+
+        @Override
+        public String modo() {
+            return "contador";
+        }
+
+        @Override
+        public long semilla() {
+            return semillaOriginal;
+        }
+    }
+}
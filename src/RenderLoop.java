@@ -0,0 +1,176 @@
+/*
+  Clase BucleDibujo - dibuja la simulacion desde un hilo propio a un ritmo fijo de fotogramas
+  El hilo de la simulacion captura las generaciones en un Frame libre y las publica; el hilo
+  de dibujo toma el fotograma mas reciente en cada tic y lo dibuja con TerminalRenderer
+  Hay tres fotogramas que rotan (el que se escribe, el publicado y el que se dibuja), asi que
+  ningun hilo espera al otro mientras trabaja y no se reserva memoria por generacion
+  Cada fotograma lleva su generacion, que es la marca de tiempo de lo que muestra
+  Dos modos:
+  - saltar fotogramas (el que usa Menu por defecto): la simulacion va a toda velocidad y solo
+    captura una generacion cuando el hilo de dibujo pide un fotograma nuevo (una vez por tic);
+    el resto de generaciones cuestan una lectura volatile. Si publica antes de que se dibuje
+    el fotograma anterior, lo sustituye (el fotograma saltado se reutiliza)
+  - cada generacion (solo si se pide): la simulacion espera a que se recoja el fotograma
+    publicado antes de publicar el siguiente, asi que se ven todas las generaciones al ritmo
+    de fotogramas, pero la simulacion no va mas rapido que el dibujo
+*/
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+public final class RenderLoop implements Runnable {
+    private static final int FOTOGRAMAS_EN_USO = 3;
+
+    private final TerminalRenderer renderizador;
+    private final long nanosPorFotograma;
+    private final boolean saltarFotogramas;
+
+    private final AtomicReference<Frame> publicado;
+    private final ArrayBlockingQueue<Frame> libres;
+    private Frame escritura;
+
+    private Thread hiloDibujo;
+    private Thread hiloSimulacion;
+    private volatile boolean terminado;
+    // El hilo de dibujo lo pone a true cuando quiere un fotograma nuevo (modo saltar fotogramas)
+    private volatile boolean pedido;
+
+    private long ofrecidas;
+    private long ultimaPublicada;
+    private volatile long dibujados;
+
+    /*
+      Constructor - prepara los fotogramas para un tablero
+      @param renderizador el renderizador que dibuja los fotogramas
+      @param board el tablero que se va a mostrar (fija el tamaño de los fotogramas)
+      @param fotogramasPorSegundo el ritmo de dibujo
+      @param saltarFotogramas true para no frenar la simulacion, false para ver cada generacion
+    */
+    public RenderLoop(TerminalRenderer renderizador, Board board, int fotogramasPorSegundo, boolean saltarFotogramas) {
+        if (fotogramasPorSegundo < 1) {
+            throw new IllegalArgumentException("Los fotogramas por segundo deben ser al menos 1: " + fotogramasPorSegundo);
+        }
+        this.renderizador = renderizador;
+        this.nanosPorFotograma = 1_000_000_000L / fotogramasPorSegundo;
+        this.saltarFotogramas = saltarFotogramas;
+        this.publicado = new AtomicReference<>();
+        this.libres = new ArrayBlockingQueue<>(FOTOGRAMAS_EN_USO);
+        this.pedido = true;
+        this.ultimaPublicada = -1;
+
+        this.escritura = renderizador.crearFotograma(board);
+        for (int i = 1; i < FOTOGRAMAS_EN_USO; i++) {
+            libres.add(renderizador.crearFotograma(board));
+        }
+    }
+
+    /*
+      Arranca el hilo de dibujo; se llama desde el hilo de la simulacion
+    */
+    public void iniciar() {
+        hiloSimulacion = Thread.currentThread();
+        hiloDibujo = new Thread(this, "dibujo");
+        hiloDibujo.setDaemon(true);
+        hiloDibujo.start();
+    }
+
+    /*
+      Ofrece una generacion al hilo de dibujo; la captura y la publica como el fotograma mas
+      reciente salvo que, saltando fotogramas, no se haya pedido ninguno desde la ultima captura
+      Solo lo llama el hilo de la simulacion
+      @param board el tablero
+      @param generacion la generacion que se ofrece
+    */
+    public void publicar(Board board, long generacion) {
+        ofrecidas++;
+        if (saltarFotogramas) {
+            if (!pedido) {
+                return;
+            }
+            pedido = false;
+        } else {
+            // Espera a que el hilo de dibujo recoja el fotograma anterior
+            while (publicado.get() != null && hiloDibujo.isAlive()) {
+                LockSupport.park(this);
+            }
+        }
+        capturarYPublicar(board, generacion);
+    }
+
+    /*
+      Publica la ultima generacion si no se publico al ofrecerla, espera a que se dibuje
+      y para el hilo de dibujo
+      @param board el tablero
+      @param generacion la ultima generacion calculada
+      @throws InterruptedException si se interrumpe la espera
+    */
+    public void terminar(Board board, long generacion) throws InterruptedException {
+        if (ultimaPublicada != generacion) {
+            capturarYPublicar(board, generacion);
+        }
+        terminado = true;
+        LockSupport.unpark(hiloDibujo);
+        hiloDibujo.join();
+    }
+
+    private void capturarYPublicar(Board board, long generacion) {
+        TerminalRenderer.capturar(board, generacion, escritura);
+        ultimaPublicada = generacion;
+        Frame anterior = publicado.getAndSet(escritura);
+        if (anterior != null) {
+            // No llego a dibujarse: se reutiliza para la proxima captura
+            escritura = anterior;
+        } else {
+            // Con tres fotogramas siempre queda uno libre: el publicado y, como mucho, el que se dibuja
+            escritura = libres.poll();
+        }
+    }
+
+    /*
+      Obtiene cuantas generaciones no llegaron a dibujarse
+      @return las generaciones ofrecidas menos los fotogramas dibujados
+    */
+    public long obtenerSaltados() {
+        return Math.max(0, ofrecidas - dibujados);
+    }
+
+    /*
+      Obtiene cuantos fotogramas se han dibujado
+      @return los fotogramas dibujados
+    */
+    public long obtenerDibujados() {
+        return dibujados;
+    }
+
+    /*
+      Bucle del hilo de dibujo: en cada tic dibuja el fotograma mas reciente, si hay uno nuevo
+    */
+    @Override
+    public void run() {
+        long siguienteTic = System.nanoTime();
+        while (true) {
+            // Se lee 'terminado' antes de recoger: si ya era true, el ultimo fotograma ya esta publicado
+            boolean fin = terminado;
+            Frame fotograma = publicado.getAndSet(null);
+            pedido = true;
+            if (fotograma != null) {
+                LockSupport.unpark(hiloSimulacion);
+                renderizador.dibujar(fotograma);
+                dibujados++;
+                libres.offer(fotograma);
+            } else if (fin) {
+                return;
+            }
+
+            siguienteTic += nanosPorFotograma;
+            long espera = siguienteTic - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(this, espera);
+            } else {
+                // Si dibujar tarda mas que un tic no se acumula retraso
+                siguienteTic = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+  Clase BandaFilas - rango fijo de filas que calcula un mismo hilo
+  Cada banda tiene su propia fuente aleatoria para no compartir estado entre hilos
+  Tambien cuenta los nacimientos, muertes, cambios espontaneos y edades de sus filas en
+  cada generacion, y lo que cambia el hash del plano de celdas vivas; Board los suma
+  (en BoardStats y en su hash) al terminar el paso
+  Los motores acumulan en variables locales y suman aqui al final de la banda o de cada
+  tesela, para que los hilos no escriban continuamente en memoria cercana
+*/
+
+import java.util.Arrays;
+
+public final class RowBand {
+    final int desde;
+    final int hasta;
+    final RandomSource fuente;
+
+    long nacimientos;
+    long muertes;
+    long volteos;
+    long cambioHash;
+    final long[] histogramaEdades;
+    // Memoria de trabajo de los motores, propia de la banda porque las bandas se calculan a la vez
+    private long[] trabajo;
+
+    /*
+      Constructor - crea una banda de filas
+      @param desde la primera fila (incluida)
+      @param hasta la ultima fila (excluida)
+      @param fuente la fuente aleatoria de la banda
+    */
+    RowBand(int desde, int hasta, RandomSource fuente) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.fuente = fuente;
+        this.histogramaEdades = new long[BoardStats.CUBOS_EDAD];
+    }
+
+    /*
+      Cuenta los cambios de una palabra
+      @param antes los bits de la palabra en la generacion anterior
+      @param despues los bits de la palabra en la nueva generacion
+      @param volteos los cambios espontaneos aplicados (solo bits dentro del ancho)
+      @param cambioHash lo que cambia el hash con esta palabra (ver StepContext.cambioHash)
+      @param conCambios true si hay que contar nacimientos y muertes (StepContext.contarCambios)
+    */
+    void contar(long antes, long despues, long volteos, long cambioHash, boolean conCambios) {
+        if (conCambios) {
+            long cambios = antes ^ despues;
+            nacimientos += Long.bitCount(cambios & despues);
+            muertes += Long.bitCount(cambios & antes);
+        }
+        if (volteos != 0L) {
+            this.volteos += Long.bitCount(volteos);
+        }
+        this.cambioHash += cambioHash;
+    }
+
+    /*
+      Suma las cuentas que un motor ha acumulado por su cuenta
+      @param nacimientos las celdas que pasaron de muertas a vivas
+      @param muertes las celdas que pasaron de vivas a muertas
+      @param volteos los cambios espontaneos
+      @param cambioHash lo que cambia el hash del plano de celdas vivas
+    */
+    void sumar(long nacimientos, long muertes, long volteos, long cambioHash) {
+        this.nacimientos += nacimientos;
+        this.muertes += muertes;
+        this.volteos += volteos;
+        this.cambioHash += cambioHash;
+    }
+
+    /*
+      Obtiene un arreglo de trabajo de la banda, reutilizado entre generaciones
+      Solo crece cuando se pide mas longitud que la ultima vez; el contenido no se limpia
+      @param longitud las posiciones que se necesitan
+      @return un arreglo de al menos esa longitud
+    */
+    long[] trabajo(int longitud) {
+        if (trabajo == null || trabajo.length < longitud) {
+            trabajo = new long[longitud];
+        }
+        return trabajo;
+    }
+
+    /*
+      Pone a cero las cuentas para la siguiente generacion
+    */
+    void reiniciarCuentas() {
+        nacimientos = 0;
+        muertes = 0;
+        volteos = 0;
+        cambioHash = 0;
+        Arrays.fill(histogramaEdades, 0L);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+  Clase Regla - regla totalistica de nacimiento y supervivencia escrita como B/S
+  Formatos aceptados (sin distinguir mayusculas):
+  - "B3/S23" o "S23/B3": nace con los vecinos de B, sobrevive con los de S (digitos 0-8)
+  - "23/3": notacion clasica supervivencia/nacimiento
+  - Generations: "B2/S/C3" o "/2/3" (supervivencia/nacimiento/estados). Con C estados, una
+    celda viva que no sobrevive pasa por C-2 estados de muerte antes de quedar muerta; en esos
+    estados no cuenta como vecina ni puede nacer. El estado de muerte se guarda en la edad
+    de la celda muerta (edad k = k generaciones muriendo), asi que necesita registro de edades
+  Cada regla se compila al crearla:
+  - una tabla de 18 bits (vecinos, viva) para el motor escalar y HashLife
+  - las constantes de una formula sin saltos para los motores empaquetados: con el numero de
+    vecinos en binario (b0..b3, ver SwarEngine) la nueva celda es un multiplexor de 9 hojas;
+    la hoja k vale (centro & d_k) ^ n_k, con n_k = nace con k y d_k = nace con k xor sobrevive con k
+  - la formula reducida que se usa en vez del multiplexor (campo formula): B3/S23 y B3/S234
+    tienen la suya, escrita a mano como antes de que la regla fuera configurable; las reglas
+    que no usan 4 o mas vecinos solo necesitan las hojas 0-3; las demas, el multiplexor entero
+*/
+
+import java.util.Locale;
+
+public final class Rule {
+    // La regla de siempre de este juego: nace con 3, sobrevive con 2, 3 o 4
+    public static final Rule POR_DEFECTO = parsear("B3/S234");
+    public static final Rule CONWAY = parsear("B3/S23");
+    // Mismo limite que Golly; los estados de muerte caben de sobra en una edad
+    public static final int ESTADOS_MAXIMOS = 256;
+
+    // Formulas reducidas para los motores empaquetados (ver aplicar)
+    static final int FORMULA_B3_S23 = 0;
+    static final int FORMULA_B3_S234 = 1;
+    static final int FORMULA_HASTA_3 = 2;
+    static final int FORMULA_MULTIPLEXOR = 3;
+
+    private final int nacimiento;
+    private final int supervivencia;
+    private final int estados;
+    private final int tabla;
+    // Una de las constantes FORMULA_*
+    final int formula;
+
+    // Constantes de la formula (0 o -1): hojas del multiplexor para 0..8 vecinos
+    final long d0, d1, d2, d3, d4, d5, d6, d7, d8;
+    final long n0, n1, n2, n3, n4, n5, n6, n7, n8;
+
+    /*
+      Constructor - compila una regla a partir de sus conjuntos de vecinos
+      @param nacimiento bit k a 1 si una celda muerta nace con k vecinos
+      @param supervivencia bit k a 1 si una celda viva sobrevive con k vecinos
+      @param estados numero de estados (2 = vida normal, mas = Generations)
+    */
+    public Rule(int nacimiento, int supervivencia, int estados) {
+        if ((nacimiento & ~0x1FF) != 0 || (supervivencia & ~0x1FF) != 0) {
+            throw new IllegalArgumentException("Los vecinos deben estar entre 0 y 8");
+        }
+        if (estados < 2 || estados > ESTADOS_MAXIMOS) {
+            throw new IllegalArgumentException("El numero de estados debe estar entre 2 y " + ESTADOS_MAXIMOS + ": " + estados);
+        }
+        this.nacimiento = nacimiento;
+        this.supervivencia = supervivencia;
+        this.estados = estados;
+        this.tabla = nacimiento | supervivencia << 9;
+
+        long[] d = new long[9];
+        long[] n = new long[9];
+        for (int k = 0; k < 9; k++) {
+            n[k] = (nacimiento >>> k & 1) != 0 ? -1L : 0L;
+            d[k] = ((nacimiento ^ supervivencia) >>> k & 1) != 0 ? -1L : 0L;
+        }
+        this.d0 = d[0];
+        this.d1 = d[1];
+        this.d2 = d[2];
+        this.d3 = d[3];
+        this.d4 = d[4];
+        this.d5 = d[5];
+        this.d6 = d[6];
+        this.d7 = d[7];
+        this.d8 = d[8];
+        this.n0 = n[0];
+        this.n1 = n[1];
+        this.n2 = n[2];
+        this.n3 = n[3];
+        this.n4 = n[4];
+        this.n5 = n[5];
+        this.n6 = n[6];
+        this.n7 = n[7];
+        this.n8 = n[8];
+
+        if (nacimiento == 1 << 3 && supervivencia == (1 << 2 | 1 << 3)) {
+            this.formula = FORMULA_B3_S23;
+        } else if (nacimiento == 1 << 3 && supervivencia == (1 << 2 | 1 << 3 | 1 << 4)) {
+            this.formula = FORMULA_B3_S234;
+        } else if (((nacimiento | supervivencia) & ~0xF) == 0) {
+            this.formula = FORMULA_HASTA_3;
+        } else {
+            this.formula = FORMULA_MULTIPLEXOR;
+        }
+    }
+
+    /*
+      Interpreta una regla escrita como texto (ver los formatos en la cabecera)
+      @param texto la regla
+      @return la regla compilada
+      @throws IllegalArgumentException si el texto no es una regla valida
+    */
+    public static Rule parsear(String texto) {
+        String limpio = texto.trim().toUpperCase(Locale.ROOT);
+        String[] partes = limpio.split("/", -1);
+        if (partes.length < 2 || partes.length > 3) {
+            throw new IllegalArgumentException("Regla invalida (se espera B/S, S/B o B/S/C): " + texto);
+        }
+
+        int nacimiento = -1;
+        int supervivencia = -1;
+        int estados = 2;
+        boolean conLetras = !limpio.replace("/", "").isEmpty()
+                && !Character.isDigit(limpio.replace("/", "").charAt(0));
+        if (conLetras) {
+            for (String parte : partes) {
+                if (parte.isEmpty()) {
+                    throw new IllegalArgumentException("Regla invalida: " + texto);
+                }
+                char letra = parte.charAt(0);
+                String resto = parte.substring(1);
+                if (letra == 'B' && nacimiento < 0) {
+                    nacimiento = vecinos(resto, texto);
+                } else if (letra == 'S' && supervivencia < 0) {
+                    supervivencia = vecinos(resto, texto);
+                } else if ((letra == 'C' || letra == 'G') && partes.length == 3) {
+                    estados = numeroEstados(resto, texto);
+                } else {
+                    throw new IllegalArgumentException("Regla invalida: " + texto);
+                }
+            }
+        } else {
+            supervivencia = vecinos(partes[0], texto);
+            nacimiento = vecinos(partes[1], texto);
+            if (partes.length == 3) {
+                estados = numeroEstados(partes[2], texto);
+            }
+        }
+        if (nacimiento < 0 || supervivencia < 0) {
+            throw new IllegalArgumentException("La regla debe indicar B y S: " + texto);
+        }
+        return new Rule(nacimiento, supervivencia, estados);
+    }
+
+    private static int vecinos(String digitos, String texto) {
+        int mascara = 0;
+        for (int i = 0; i < digitos.length(); i++) {
+            char c = digitos.charAt(i);
+            if (c < '0' || c > '8') {
+                // Letras tras un digito = regla no totalistica (B2a...), que no se admite
+                throw new IllegalArgumentException("Regla invalida o no totalistica (solo vecinos 0-8): " + texto);
+            }
+            mascara |= 1 << (c - '0');
+        }
+        return mascara;
+    }
+
+    private static int numeroEstados(String numero, String texto) {
+        try {
+            return Integer.parseInt(numero);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Numero de estados invalido: " + texto);
+        }
+    }
+
+    /*
+      Aplica la regla a una celda por tabla
+      @param viva el estado actual (una celda que se esta muriendo cuenta como muerta)
+      @param vecinos los vecinos vivos (0-8)
+      @return true si la celda esta viva en la siguiente generacion
+    */
+    public boolean siguiente(boolean viva, int vecinos) {
+        return (tabla >>> (viva ? vecinos + 9 : vecinos) & 1) != 0;
+    }
+
+    /*
+      Aplica la regla a 64 celdas a la vez, sin saltos, con la formula reducida de la regla
+      El switch depende solo de la regla, asi que en el bucle de un motor siempre toma la misma rama
+      @param centro las celdas actuales
+      @param b0 bit 0 del numero de vecinos de cada celda (b1, b2 y b3 igual; 8 vecinos = solo b3)
+      @return las celdas en la siguiente generacion
+    */
+    long aplicar(long centro, long b0, long b1, long b2, long b3) {
+        switch (formula) {
+            case FORMULA_B3_S23:
+                // 2 (0010) o 3 (0011) vecinos; con 2 solo sigue viva la que ya lo estaba
+                return b1 & ~b2 & ~b3 & (b0 | centro);
+            case FORMULA_B3_S234:
+                // Lo mismo que B3/S23 mas la supervivencia con 4 (0100)
+                return ~b3 & ((b1 & ~b2 & (b0 | centro)) | (centro & b2 & ~b1 & ~b0));
+            case FORMULA_HASTA_3:
+                // Con 4 vecinos o mas todas las hojas son 0
+                return multiplexor03(centro, b0, b1) & ~(b2 | b3);
+            default:
+                return multiplexor(centro, b0, b1, b2, b3);
+        }
+    }
+
+    /*
+      Multiplexor de las hojas 0-3 por b0 y b1
+    */
+    private long multiplexor03(long centro, long b0, long b1) {
+        long h0 = (centro & d0) ^ n0;
+        long h1 = (centro & d1) ^ n1;
+        long h2 = (centro & d2) ^ n2;
+        long h3 = (centro & d3) ^ n3;
+        long m01 = h0 ^ ((h0 ^ h1) & b0);
+        long m23 = h2 ^ ((h2 ^ h3) & b0);
+        return m01 ^ ((m01 ^ m23) & b1);
+    }
+
+    /*
+      Multiplexor de las 9 hojas, valido para cualquier regla
+    */
+    private long multiplexor(long centro, long b0, long b1, long b2, long b3) {
+        long h0 = (centro & d0) ^ n0;
+        long h1 = (centro & d1) ^ n1;
+        long h2 = (centro & d2) ^ n2;
+        long h3 = (centro & d3) ^ n3;
+        long h4 = (centro & d4) ^ n4;
+        long h5 = (centro & d5) ^ n5;
+        long h6 = (centro & d6) ^ n6;
+        long h7 = (centro & d7) ^ n7;
+        long h8 = (centro & d8) ^ n8;
+
+        // Multiplexor por b0, b1 y b2; con 8 vecinos b0..b2 son 0, asi que b3 elige entre la hoja 0 y la 8
+        long m01 = h0 ^ ((h0 ^ h1) & b0);
+        long m23 = h2 ^ ((h2 ^ h3) & b0);
+        long m45 = h4 ^ ((h4 ^ h5) & b0);
+        long m67 = h6 ^ ((h6 ^ h7) & b0);
+        long m03 = m01 ^ ((m01 ^ m23) & b1);
+        long m47 = m45 ^ ((m45 ^ m67) & b1);
+        long m07 = m03 ^ ((m03 ^ m47) & b2);
+        return m07 ^ ((m07 ^ h8) & b3);
+    }
+
+    /*
+      Obtiene los vecinos con los que nace una celda
+      @return bit k a 1 si nace con k vecinos
+    */
+    public int obtenerNacimiento() {
+        return nacimiento;
+    }
+
+    /*
+      Obtiene los vecinos con los que sobrevive una celda
+      @return bit k a 1 si sobrevive con k vecinos
+    */
+    public int obtenerSupervivencia() {
+        return supervivencia;
+    }
+
+    /*
+      Obtiene el numero de estados
+      @return 2 para una regla de vida normal, mas para Generations
+    */
+    public int estados() {
+        return estados;
+    }
+
+    /*
+      Indica si una celda muerta sin vecinos nace (B0)
+      Con B0 el vacio no es estable, asi que HashLife no puede usar la regla
+      @return true si la regla incluye B0
+    */
+    public boolean naceSinVecinos() {
+        return (nacimiento & 1) != 0;
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        if (!(otro instanceof Rule)) {
+            return false;
+        }
+        Rule regla = (Rule) otro;
+        return nacimiento == regla.nacimiento && supervivencia == regla.supervivencia && estados == regla.estados;
+    }
+
+    @Override
+    public int hashCode() {
+        return (tabla * 31) + estados;
+    }
+
+    /*
+      Escribe la regla en forma canonica
+      @return por ejemplo "B3/S23" o "B2/S/C3"
+    */
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder("B");
+        añadirVecinos(texto, nacimiento);
+        texto.append("/S");
+        añadirVecinos(texto, supervivencia);
+        if (estados > 2) {
+            texto.append("/C").append(estados);
+        }
+        return texto.toString();
+    }
+
+    private static void añadirVecinos(StringBuilder texto, int mascara) {
+        for (int k = 0; k <= 8; k++) {
+            if ((mascara >>> k & 1) != 0) {
+                texto.append(k);
+            }
+        }
+    }
+}
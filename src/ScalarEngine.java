@@ -0,0 +1,88 @@
+/*
+  Clase MotorEscalar - calcula cada celda por separado
+  Cuenta los 8 vecinos con envoltura modular y aplica la regla con su tabla (Rule.siguiente)
+  Es el motor de referencia: sencillo de leer y con el que se comparan los demas
+*/
+public final class ScalarEngine implements SteppingEngine {
+
+    @Override
+    public String nombre() {
+        return "escalar";
+    }
+
+    @Override
+    public void evolucionar(StepContext contexto, RowBand banda) {
+        BitGrid origen = contexto.origen;
+        BitGrid destino = contexto.destino;
+        int ancho = origen.ancho;
+        int palabrasPorFila = origen.palabrasPorFila();
+        long mascaraUltima = origen.mascaraUltima();
+        Rule regla = contexto.regla;
+
+        for (int fila = banda.desde; fila < banda.hasta; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                int base = palabra << 6;
+                int limite = Math.min(64, ancho - base);
+                long volteos = contexto.volteos(banda.fuente, fila, palabra);
+                // Con reglas Generations las celdas que se estan muriendo no pueden nacer
+                long muriendo = origen.leerMuriendo(fila, palabra);
+                long nuevaPalabra = 0L;
+
+                for (int bit = 0; bit < limite; bit++) {
+                    int columna = base + bit;
+                    int vecinos = contarVecinos(origen, fila, columna);
+                    boolean estadoActual = origen.estaViva(fila, columna);
+
+                    // Aplica las reglas de nacimiento, supervivencia y muerte
+                    boolean nuevoEstado = regla.siguiente(estadoActual, vecinos) && (muriendo & (1L << bit)) == 0;
+
+                    // Aplica generacion/muerte espontanea
+                    if ((volteos & (1L << bit)) != 0) {
+                        nuevoEstado = !nuevoEstado;
+                    }
+
+                    if (nuevoEstado) {
+                        nuevaPalabra |= 1L << bit;
+                    }
+                }
+
+                long anterior = origen.leerPalabra(fila, palabra);
+                destino.escribirPalabra(fila, palabra, nuevaPalabra);
+                destino.actualizarEdades(origen, fila, palabra, anterior, nuevaPalabra, banda.histogramaEdades);
+                banda.contar(anterior, nuevaPalabra, palabra == palabrasPorFila - 1 ? volteos & mascaraUltima : volteos,
+                        contexto.cambioHash(fila, palabra, anterior, nuevaPalabra), contexto.contarCambios);
+            }
+        }
+    }
+
+    /*
+      Cuenta el numero de vecinos vivos de una celda con envoltura en los bordes
+      @param cuadricula la cuadricula a consultar
+      @param fila el indice de la fila
+      @param columna el indice de la columna
+      @return el numero de vecinos vivos (0-8)
+    */
+    static int contarVecinos(BitGrid cuadricula, int fila, int columna) {
+        int alto = cuadricula.alto;
+        int ancho = cuadricula.ancho;
+        int cantidad = 0;
+
+        for (int n = -1; n <= 1; n++) {
+            for (int y = -1; y <= 1; y++) {
+                // Salta la celula central (la celula misma)
+                if (n == 0 && y == 0) {
+                    continue;
+                }
+
+                int filaVecino = (fila + n + alto) % alto;
+                int columnaVecino = (columna + y + ancho) % ancho;
+
+                if (cuadricula.estaViva(filaVecino, columnaVecino)) {
+                    cantidad++;
+                }
+            }
+        }
+
+        return cantidad;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+  Clase Instantanea - guarda y carga un tablero completo en un fichero binario versionado
+  Formato (version 1, enteros en little-endian):
+    0  8 bytes  firma "JDLVSNAP"
+    8  int      version
+   12  int      opciones (bit 0: hay plano de edades)
+   16  int      ancho
+   20  int      alto
+   24  long     generacion
+   32  int      palabras por fila
+   36  int      modo aleatorio (0 ninguna, 1 flujo, 2 contador)
+   40  long     semilla
+   48  double   probabilidad de cambio espontaneo
+   56  int      regla: nacimiento | supervivencia << 9 | 1 << 31 (ver Rule); 0 = B3/S234,
+                la regla por defecto, como en los ficheros anteriores a las reglas configurables
+   60  int      estados de la regla (0 o 2 = vida normal, mas = Generations)
+   64  plano de celdas vivas: alto x palabras por fila palabras de 64 bits, fila a fila,
+       igual que en BitGrid (bit i de la palabra p = columna p*64 + i)
+   ... plano de edades opcional: ancho x alto shorts, fila a fila (con Generations las celdas
+       muertas guardan ahi su estado de muerte)
+  Los planos se copian entre los arreglos del tablero y el fichero proyectado en memoria
+  (FileChannel.map) por ventanas de 1 GiB, sin buffers intermedios en el heap, asi que
+  sirve para tableros de varios gigabytes
+  Estado aleatorio: en modo contador los bits solo dependen de la semilla y la generacion,
+  asi que la continuacion es exacta; en modo flujo se guarda la semilla y al cargar se
+  vuelve a empezar su flujo (SplittableRandom no permite leer su estado)
+*/
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public final class Snapshot {
+    public static final int VERSION = 1;
+
+    private static final byte[] FIRMA = "JDLVSNAP".getBytes(StandardCharsets.US_ASCII);
+    private static final int TAMAÑO_CABECERA = 64;
+    private static final int CON_EDADES = 1;
+    private static final int CON_REGLA = 1 << 31;
+    private static final long VENTANA = 1L << 30;
+    private static final String[] MODOS = {"ninguna", "flujo", "contador"};
+
+    private Snapshot() {
+    }
+
+    /*
+      Guarda el tablero en un fichero, sustituyendo su contenido
+      @param board el tablero
+      @param ruta el fichero destino
+      @throws IOException si no se puede escribir
+    */
+    public static void guardar(Board board, Path ruta) throws IOException {
+        BitGrid cuadricula = board.obtenerCuadricula();
+        RandomSource fuente = board.obtenerFuenteAleatoria();
+        long bytesVivas = (long) cuadricula.totalPalabras() * Long.BYTES;
+
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMAÑO_CABECERA);
+            cabecera.order(ByteOrder.LITTLE_ENDIAN);
+            cabecera.put(FIRMA);
+            cabecera.putInt(VERSION);
+            cabecera.putInt(cuadricula.registraEdades() ? CON_EDADES : 0);
+            cabecera.putInt(board.obtenerAncho());
+            cabecera.putInt(board.obtenerAlto());
+            cabecera.putLong(board.obtenerGeneracion());
+            cabecera.putInt(cuadricula.palabrasPorFila());
+            cabecera.putInt(Arrays.asList(MODOS).indexOf(fuente.modo()));
+            cabecera.putLong(fuente.semilla());
+            cabecera.putDouble(board.obtenerProbabilidadVolteo());
+            Rule regla = board.obtenerRegla();
+            cabecera.putInt(regla.obtenerNacimiento() | regla.obtenerSupervivencia() << 9 | CON_REGLA);
+            cabecera.putInt(regla.estados());
+            cabecera.force();
+
+            escribirPalabras(canal, TAMAÑO_CABECERA, cuadricula);
+            if (cuadricula.registraEdades()) {
+                escribirEdades(canal, TAMAÑO_CABECERA + bytesVivas, cuadricula);
+            }
+        }
+    }
+
+    /*
+      Carga un tablero guardado con guardar
+      El tablero queda con el motor por defecto y un hilo; la regla, la fuente aleatoria,
+      la probabilidad de cambio espontaneo y la generacion son las guardadas
+      @param ruta el fichero origen
+      @return el tablero
+      @throws IOException si no se puede leer o el fichero no es una instantanea valida
+    */
+    public static Board cargar(Path ruta) throws IOException {
+        return cargar(ruta, false);
+    }
+
+    /*
+      Carga un tablero guardado con guardar, con las celdas dentro o fuera del heap
+      @param ruta el fichero origen
+      @param fueraDelHeap true para cargarlo en memoria directa (ver OffHeapGrid)
+      @return el tablero
+      @throws IOException si no se puede leer o el fichero no es una instantanea valida
+      @throws IllegalStateException si no queda memoria directa para el tablero
+    */
+    public static Board cargar(Path ruta, boolean fueraDelHeap) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            if (canal.size() < TAMAÑO_CABECERA) {
+                throw new IOException("El fichero es demasiado corto para ser una instantanea: " + ruta);
+            }
+            MappedByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMAÑO_CABECERA);
+            cabecera.order(ByteOrder.LITTLE_ENDIAN);
+
+            byte[] firma = new byte[FIRMA.length];
+            cabecera.get(firma);
+            if (!Arrays.equals(firma, FIRMA)) {
+                throw new IOException("El fichero no es una instantanea del Juego de la Vida: " + ruta);
+            }
+            int version = cabecera.getInt();
+            if (version != VERSION) {
+                throw new IOException("Version de instantanea no soportada: " + version + " (se esperaba " + VERSION + ")");
+            }
+            boolean conEdades = (cabecera.getInt() & CON_EDADES) != 0;
+            int ancho = cabecera.getInt();
+            int alto = cabecera.getInt();
+            long generacion = cabecera.getLong();
+            int palabrasPorFila = cabecera.getInt();
+            int modo = cabecera.getInt();
+            long semilla = cabecera.getLong();
+            double probabilidad = cabecera.getDouble();
+            int reglaGuardada = cabecera.getInt();
+            int estados = cabecera.getInt();
+
+            if (ancho < 1 || alto < 1 || palabrasPorFila != (ancho + 63) / 64 || modo < 0 || modo >= MODOS.length
+                    || generacion < 0 || !(probabilidad >= 0.0 && probabilidad <= 1.0)) {
+                throw new IOException("Cabecera de instantanea corrupta: " + ruta);
+            }
+            long bytesVivas = (long) alto * palabrasPorFila * Long.BYTES;
+            long bytesEdades = conEdades ? (long) ancho * alto * Short.BYTES : 0L;
+            if (canal.size() != TAMAÑO_CABECERA + bytesVivas + bytesEdades) {
+                throw new IOException("El tamaño del fichero no coincide con su cabecera: " + ruta);
+            }
+
+            Rule regla = Rule.POR_DEFECTO;
+            if (reglaGuardada != 0) {
+                try {
+                    regla = new Rule(reglaGuardada & 0x1FF, reglaGuardada >>> 9 & 0x1FF, estados);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Regla de instantanea corrupta: " + ruta);
+                }
+                if ((reglaGuardada & ~(CON_REGLA | 0x3FFFF)) != 0 || (regla.estados() > 2 && !conEdades)) {
+                    throw new IOException("Regla de instantanea corrupta: " + ruta);
+                }
+            }
+
+            Board board = new Board(ancho, alto, conEdades, fueraDelHeap);
+            BitGrid cuadricula = board.obtenerCuadricula();
+            try {
+                leerPalabras(canal, TAMAÑO_CABECERA, cuadricula);
+                if (conEdades) {
+                    leerEdades(canal, TAMAÑO_CABECERA + bytesVivas, cuadricula);
+                }
+            } catch (IOException | RuntimeException e) {
+                board.liberar();
+                throw e;
+            }
+            board.establecerRegla(regla);
+            board.cuadriculaModificada();
+
+            board.establecerGeneracion(generacion);
+            board.establecerFuenteAleatoria(RandomSource.crear(MODOS[modo], semilla));
+            board.establecerProbabilidadVolteo(probabilidad);
+            return board;
+        }
+    }
+
+    private static void escribirPalabras(FileChannel canal, long posicion, BitGrid cuadricula) throws IOException {
+        int total = cuadricula.totalPalabras();
+        int porVentana = (int) (VENTANA / Long.BYTES);
+        for (int i = 0; i < total; i += porVentana) {
+            int cantidad = Math.min(porVentana, total - i);
+            MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_WRITE,
+                    posicion + (long) i * Long.BYTES, (long) cantidad * Long.BYTES);
+            cuadricula.volcarPalabras(i, ventana.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+            ventana.force();
+        }
+    }
+
+    private static void escribirEdades(FileChannel canal, long posicion, BitGrid cuadricula) throws IOException {
+        long total = (long) cuadricula.ancho * cuadricula.alto;
+        int porVentana = (int) (VENTANA / Short.BYTES);
+        for (long i = 0; i < total; i += porVentana) {
+            int cantidad = (int) Math.min(porVentana, total - i);
+            MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_WRITE,
+                    posicion + i * Short.BYTES, (long) cantidad * Short.BYTES);
+            cuadricula.volcarEdades(i, ventana.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer());
+            ventana.force();
+        }
+    }
+
+    private static void leerPalabras(FileChannel canal, long posicion, BitGrid cuadricula) throws IOException {
+        int total = cuadricula.totalPalabras();
+        int porVentana = (int) (VENTANA / Long.BYTES);
+        for (int i = 0; i < total; i += porVentana) {
+            int cantidad = Math.min(porVentana, total - i);
+            MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY,
+                    posicion + (long) i * Long.BYTES, (long) cantidad * Long.BYTES);
+            cuadricula.cargarPalabras(i, ventana.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+        }
+    }
+
+    private static void leerEdades(FileChannel canal, long posicion, BitGrid cuadricula) throws IOException {
+        long total = (long) cuadricula.ancho * cuadricula.alto;
+        int porVentana = (int) (VENTANA / Short.BYTES);
+        for (long i = 0; i < total; i += porVentana) {
+            int cantidad = (int) Math.min(porVentana, total - i);
+            MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY,
+                    posicion + i * Short.BYTES, (long) cantidad * Short.BYTES);
+            cuadricula.cargarEdades(i, ventana.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer());
+        }
+    }
+}
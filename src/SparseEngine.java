@@ -0,0 +1,215 @@
+/*
+  Clase MotorDisperso - motor SWAR que solo recalcula las zonas con actividad
+  El tablero se divide en teselas de 16 filas x 64 columnas (una palabra de ancho)
+  Una tesela esta "activa" si en la generacion anterior cambio algun bit o recibio algun
+  cambio espontaneo; solo se recalculan las teselas activas o vecinas de una activa
+  Una tesela inactiva y rodeada de inactivas es una vida estatica: su siguiente estado es
+  el mismo mas los cambios espontaneos de esta generacion (con probabilidad 0 no se calcula
+  nada). Con una probabilidad dispersa y una fuente por contador primero se busca, fila a
+  fila, en que palabras caen los cambios (Probability.palabrasConCambios, una ronda por
+  bloque sin cambios) y solo se despiertan las teselas tocadas; si no, se saca la mascara
+  de cada palabra
+  Con registro de edades las palabras con celdas vivas se siguen visitando para sumar edad
+  Asi el coste de un mundo casi vacio o estable depende de la actividad y no del area
+*/
+
+import java.util.Arrays;
+
+public final class SparseEngine implements SteppingEngine {
+    // Filas por tesela; el ancho de una tesela es siempre una palabra (64 columnas)
+    static final int FILAS_TESELA = 16;
+
+    private boolean[] cambio;
+    private boolean[] cambioNuevo;
+    private int teselasFila;
+    private int filasTeselas;
+    private boolean todoActivo = true;
+
+    @Override
+    public String nombre() {
+        return "disperso";
+    }
+
+    @Override
+    public void invalidar() {
+        todoActivo = true;
+    }
+
+    @Override
+    public void prepararGeneracion(StepContext contexto) {
+        BitGrid origen = contexto.origen;
+        int palabras = origen.palabrasPorFila();
+        int filas = (origen.alto + FILAS_TESELA - 1) / FILAS_TESELA;
+
+        if (cambio == null || teselasFila != palabras || filasTeselas != filas) {
+            teselasFila = palabras;
+            filasTeselas = filas;
+            cambio = new boolean[palabras * filas];
+            cambioNuevo = new boolean[palabras * filas];
+            todoActivo = true;
+        }
+
+        // Los cambios de la generacion anterior pasan a decidir que se recalcula ahora
+        boolean[] anterior = cambio;
+        cambio = cambioNuevo;
+        cambioNuevo = anterior;
+        if (todoActivo) {
+            Arrays.fill(cambio, true);
+            todoActivo = false;
+        }
+        Arrays.fill(cambioNuevo, false);
+    }
+
+    @Override
+    public void evolucionar(StepContext contexto, RowBand banda) {
+        BitGrid origen = contexto.origen;
+        boolean conVolteos = !contexto.probabilidadVolteo.esCero();
+        boolean conEdades = contexto.destino.registraEdades();
+        // Solo con una fuente por contador los bloques recorridos aqui son los mismos que vera mantener
+        boolean buscarVolteos = conVolteos && contexto.probabilidadVolteo.esDispersa()
+                && banda.fuente.independienteDeHilos();
+        int bloques = (teselasFila + Probability.PALABRAS_BLOQUE - 1) / Probability.PALABRAS_BLOQUE;
+        long[] tocadas = buscarVolteos ? banda.trabajo(bloques) : null;
+
+        for (int tf = banda.desde / FILAS_TESELA; tf * FILAS_TESELA < banda.hasta; tf++) {
+            int desde = Math.max(tf * FILAS_TESELA, banda.desde);
+            int hasta = Math.min((tf + 1) * FILAS_TESELA, banda.hasta);
+
+            if (buscarVolteos) {
+                // Un bit por columna de teselas que recibe algun cambio en estas filas
+                Arrays.fill(tocadas, 0, bloques, 0L);
+                for (int fila = desde; fila < hasta; fila++) {
+                    for (int bloque = 0; bloque < bloques; bloque++) {
+                        tocadas[bloque] |= contexto.palabrasConVolteos(banda.fuente, fila, bloque);
+                    }
+                }
+            }
+
+            for (int palabra = 0; palabra < teselasFila; palabra++) {
+                boolean volteos = buscarVolteos
+                        ? (tocadas[palabra / Probability.PALABRAS_BLOQUE] & 1L << (palabra % Probability.PALABRAS_BLOQUE)) != 0L
+                        : conVolteos;
+                if (activa(tf, palabra)) {
+                    calcular(contexto, banda, tf, palabra, desde, hasta);
+                } else if (volteos || conEdades) {
+                    mantener(contexto, banda, tf, palabra, desde, hasta, volteos);
+                }
+                // Sin volteos ni edades la tesela ya esta escrita en el destino (doble buffer)
+            }
+        }
+    }
+
+    /*
+      Indica si una tesela o alguna de sus 8 vecinas cambio en la generacion anterior
+    */
+    private boolean activa(int tf, int palabra) {
+        for (int df = -1; df <= 1; df++) {
+            int f = tf + df;
+            f = f < 0 ? filasTeselas - 1 : (f == filasTeselas ? 0 : f);
+            int base = f * teselasFila;
+            for (int dp = -1; dp <= 1; dp++) {
+                int p = palabra + dp;
+                p = p < 0 ? teselasFila - 1 : (p == teselasFila ? 0 : p);
+                if (cambio[base + p]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+      Recalcula las filas [desde, hasta) de una columna de palabras con el nucleo SWAR
+    */
+    private void calcular(StepContext contexto, RowBand banda, int tf, int palabra, int desde, int hasta) {
+        BitGrid origen = contexto.origen;
+        BitGrid destino = contexto.destino;
+        int alto = origen.alto;
+        int ultima = teselasFila - 1;
+        int bitsUltima = ((origen.ancho - 1) & 63) + 1;
+        int anterior = palabra == 0 ? ultima : palabra - 1;
+        int siguiente = palabra == ultima ? 0 : palabra + 1;
+        boolean conVolteos = !contexto.probabilidadVolteo.esCero();
+        boolean contarCambios = contexto.contarCambios;
+        boolean cambiada = false;
+        long nacimientos = 0;
+        long muertes = 0;
+        long volteosTesela = 0;
+        long cambioHash = 0;
+
+        for (int fila = desde; fila < hasta; fila++) {
+            int arriba = fila == 0 ? alto - 1 : fila - 1;
+            int abajo = fila == alto - 1 ? 0 : fila + 1;
+            long centro = origen.leerPalabra(fila, palabra);
+
+            long nueva = SwarEngine.evolucionarPalabra(contexto.regla,
+                    origen.leerPalabra(arriba, anterior), origen.leerPalabra(arriba, palabra), origen.leerPalabra(arriba, siguiente),
+                    origen.leerPalabra(fila, anterior), centro, origen.leerPalabra(fila, siguiente),
+                    origen.leerPalabra(abajo, anterior), origen.leerPalabra(abajo, palabra), origen.leerPalabra(abajo, siguiente),
+                    palabra == 0, palabra == ultima, bitsUltima);
+            long muriendo = origen.leerMuriendo(fila, palabra);
+            nueva &= ~muriendo;
+
+            long volteos = conVolteos ? contexto.volteos(banda.fuente, fila, palabra) : 0L;
+            nueva ^= volteos;
+            if (palabra == ultima) {
+                nueva &= origen.mascaraUltima();
+                volteos &= origen.mascaraUltima();
+            }
+
+            destino.escribirPalabra(fila, palabra, nueva);
+            destino.actualizarEdades(origen, fila, palabra, centro, nueva, banda.histogramaEdades);
+            // Con Generations los estados de muerte tambien son actividad: al acabar liberan nacimientos
+            cambiada |= nueva != centro || volteos != 0L || (muriendo | destino.leerMuriendo(fila, palabra)) != 0L;
+
+            if (contarCambios) {
+                long cambios = centro ^ nueva;
+                nacimientos += Long.bitCount(cambios & nueva);
+                muertes += Long.bitCount(cambios & centro);
+            }
+            if (conVolteos) {
+                volteosTesela += Long.bitCount(volteos);
+            }
+            cambioHash += contexto.cambioHash(fila, palabra, centro, nueva);
+        }
+
+        banda.sumar(nacimientos, muertes, volteosTesela, cambioHash);
+        if (cambiada) {
+            cambioNuevo[tf * teselasFila + palabra] = true;
+        }
+    }
+
+    /*
+      Avanza una tesela estable: el estado no cambia salvo por los cambios espontaneos
+    */
+    private void mantener(StepContext contexto, RowBand banda, int tf, int palabra, int desde, int hasta,
+                          boolean conVolteos) {
+        BitGrid origen = contexto.origen;
+        BitGrid destino = contexto.destino;
+        long mascara = palabra == teselasFila - 1 ? origen.mascaraUltima() : -1L;
+        boolean cambiada = false;
+
+        for (int fila = desde; fila < hasta; fila++) {
+            long centro = origen.leerPalabra(fila, palabra);
+            long volteos = conVolteos ? contexto.volteos(banda.fuente, fila, palabra) & mascara : 0L;
+            if (volteos == 0L && centro == 0L && origen.muriendo == null) {
+                // Palabra vacia que sigue vacia: el destino ya la tiene a cero con edades a cero
+                continue;
+            }
+
+            long nueva = centro ^ volteos;
+            destino.escribirPalabra(fila, palabra, nueva);
+            destino.actualizarEdades(origen, fila, palabra, centro, nueva, banda.histogramaEdades);
+            cambiada |= volteos != 0L || destino.leerMuriendo(fila, palabra) != 0L;
+            if (volteos != 0L) {
+                // Aqui solo cambian las celdas volteadas
+                banda.contar(centro, nueva, volteos, contexto.cambioHash(fila, palabra, centro, nueva),
+                        contexto.contarCambios);
+            }
+        }
+
+        if (cambiada) {
+            cambioNuevo[tf * teselasFila + palabra] = true;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+  Clase MundoDisperso - plano sin bordes que guarda solo las celdas vivas
+  Board es un toro de tamaño fijo: un planeador (patron "vela") da la vuelta al tablero para
+  siempre. Aqui cada celda viva es una clave long (fila en los 32 bits altos, columna en los
+  bajos) de un LongHashSet, asi que la memoria y el tiempo de cada generacion dependen de
+  la poblacion y no del rectangulo que la contiene: un puñado de planeadores separados por
+  miles de millones de celdas cuesta lo mismo que si estuvieran juntos
+  Cada generacion cada celda viva suma 1 a sus 8 vecinas y VIVA a si misma en un LongIntMap;
+  despues basta recorrer el mapa y aplicar la regla a cada clave, porque una celda sin
+  ninguna vecina viva no puede nacer (sin B0)
+  Las coordenadas van de COORDENADA_MINIMA a COORDENADA_MAXIMA en los dos ejes; las celdas
+  que nacerian fuera se pierden, como en un tablero plano enorme. Asi las vecinas de una celda
+  nunca desbordan un int y ninguna clave coincide con LongHashSet.VACIA (fila Integer.MIN_VALUE)
+  Reglas: de dos estados y sin B0 (con B0 naceria el plano entero); sin cambios espontaneos,
+  que en un plano infinito tampoco tienen sentido. Las edades no se siguen
+*/
+
+public final class SparseWorld {
+    public static final int COORDENADA_MINIMA = Integer.MIN_VALUE + 2;
+    public static final int COORDENADA_MAXIMA = Integer.MAX_VALUE - 2;
+    // Se suma a la cuenta de la propia celda viva; las vecinas no pasan de 8
+    private static final int VIVA = 16;
+
+    private final Rule regla;
+    private LongHashSet vivas;
+    private LongHashSet siguientes;
+    private final LongIntMap cuentas;
+    private long generacion;
+    private long perdidas;
+
+    /*
+      Constructor - crea un plano vacio
+      @param regla la regla de vida
+      @throws IllegalArgumentException si es una regla Generations o con B0
+    */
+    public SparseWorld(Rule regla) {
+        if (regla.estados() > 2 || regla.naceSinVecinos()) {
+            throw new IllegalArgumentException("El mundo infinito no admite reglas Generations ni con B0: " + regla);
+        }
+        this.regla = regla;
+        this.vivas = new LongHashSet();
+        this.siguientes = new LongHashSet();
+        this.cuentas = new LongIntMap();
+    }
+
+    /*
+      Empaqueta una posicion en una clave
+      @param fila la fila
+      @param columna la columna
+      @return la fila en los 32 bits altos y la columna en los bajos
+    */
+    static long clave(int fila, int columna) {
+        return (long) fila << 32 | (columna & 0xFFFFFFFFL);
+    }
+
+    /*
+      Copia las celdas vivas de un tablero, que se trata como un rectangulo del plano
+      @param tablero el tablero origen (no cambia)
+      @param fila la fila del plano donde cae la fila 0 del tablero
+      @param columna la columna del plano donde cae la columna 0 del tablero
+      @throws IllegalArgumentException si el tablero no cabe en el plano en esa posicion
+    */
+    public void colocarTablero(Board tablero, int fila, int columna) {
+        if (fila < COORDENADA_MINIMA || (long) fila + tablero.obtenerAlto() - 1 > COORDENADA_MAXIMA
+                || columna < COORDENADA_MINIMA || (long) columna + tablero.obtenerAncho() - 1 > COORDENADA_MAXIMA) {
+            throw new IllegalArgumentException("El tablero no cabe en el plano en " + fila + "," + columna);
+        }
+        int palabrasPorFila = (tablero.obtenerAncho() + 63) >>> 6;
+        for (int f = 0; f < tablero.obtenerAlto(); f++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                long bits = tablero.leerPalabra(f, palabra);
+                while (bits != 0) {
+                    int c = (palabra << 6) + Long.numberOfTrailingZeros(bits);
+                    vivas.añadir(clave(fila + f, columna + c));
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    /*
+      Establece una celda como viva
+      @param fila la fila
+      @param columna la columna
+      @throws IllegalArgumentException si la posicion esta fuera del plano
+    */
+    public void establecerViva(int fila, int columna) {
+        if (!dentro(fila) || !dentro(columna)) {
+            throw new IllegalArgumentException("Posicion fuera del plano: " + fila + "," + columna);
+        }
+        vivas.añadir(clave(fila, columna));
+    }
+
+    /*
+      Comprueba si una celda esta viva
+      @param fila la fila
+      @param columna la columna
+      @return true si esta viva
+    */
+    public boolean estaViva(int fila, int columna) {
+        return dentro(fila) && dentro(columna) && vivas.contiene(clave(fila, columna));
+    }
+
+    /*
+      Calcula la siguiente generacion
+    */
+    public void proximaGeneracion() {
+        // Cada celda viva añade hasta 9 claves, pero la mayoria se comparten con sus vecinas
+        cuentas.limpiar(2 * vivas.tamaño());
+        for (int i = 0; i < vivas.capacidad(); i++) {
+            long celda = vivas.clave(i);
+            if (celda == LongHashSet.VACIA) {
+                continue;
+            }
+            int fila = (int) (celda >> 32);
+            int columna = (int) celda;
+            cuentas.sumar(celda, VIVA);
+            cuentas.sumar(clave(fila - 1, columna - 1), 1);
+            cuentas.sumar(clave(fila - 1, columna), 1);
+            cuentas.sumar(clave(fila - 1, columna + 1), 1);
+            cuentas.sumar(clave(fila, columna - 1), 1);
+            cuentas.sumar(clave(fila, columna + 1), 1);
+            cuentas.sumar(clave(fila + 1, columna - 1), 1);
+            cuentas.sumar(clave(fila + 1, columna), 1);
+            cuentas.sumar(clave(fila + 1, columna + 1), 1);
+        }
+
+        siguientes.limpiar(vivas.tamaño());
+        for (int i = 0; i < cuentas.capacidad(); i++) {
+            long celda = cuentas.clave(i);
+            if (celda == LongHashSet.VACIA) {
+                continue;
+            }
+            int cuenta = cuentas.valor(i);
+            if (regla.siguiente(cuenta >= VIVA, cuenta & (VIVA - 1))) {
+                // Solo las vecinas de las celdas del borde pueden caer fuera
+                if (dentro((int) (celda >> 32)) && dentro((int) celda)) {
+                    siguientes.añadir(celda);
+                } else {
+                    perdidas++;
+                }
+            }
+        }
+
+        LongHashSet intercambio = vivas;
+        vivas = siguientes;
+        siguientes = intercambio;
+        generacion++;
+    }
+
+    /*
+      Avanza varias generaciones
+      @param generaciones las generaciones a calcular
+    */
+    public void avanzar(long generaciones) {
+        for (long g = 0; g < generaciones; g++) {
+            proximaGeneracion();
+        }
+    }
+
+    /*
+      Obtiene la generacion actual
+      @return las generaciones calculadas desde que se creo el plano
+    */
+    public long obtenerGeneracion() {
+        return generacion;
+    }
+
+    /*
+      Obtiene el numero de celdas vivas
+      @return la poblacion
+    */
+    public long obtenerCantidadVivas() {
+        return vivas.tamaño();
+    }
+
+    /*
+      Obtiene cuantas celdas no nacieron por caer fuera del plano
+      @return las celdas perdidas desde que se creo el plano
+    */
+    public long obtenerPerdidas() {
+        return perdidas;
+    }
+
+    /*
+      Obtiene el rectangulo que contiene todas las celdas vivas
+      @return {fila minima, columna minima, fila maxima, columna maxima}, o null si no hay ninguna
+    */
+    public int[] obtenerLimites() {
+        if (vivas.tamaño() == 0) {
+            return null;
+        }
+        int[] limites = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        for (int i = 0; i < vivas.capacidad(); i++) {
+            long celda = vivas.clave(i);
+            if (celda != LongHashSet.VACIA) {
+                int fila = (int) (celda >> 32);
+                int columna = (int) celda;
+                limites[0] = Math.min(limites[0], fila);
+                limites[1] = Math.min(limites[1], columna);
+                limites[2] = Math.max(limites[2], fila);
+                limites[3] = Math.max(limites[3], columna);
+            }
+        }
+        return limites;
+    }
+
+    /*
+      Copia a un tablero las celdas vivas de un rectangulo del plano; las de fuera se ignoran
+      @param tablero el tablero destino (se vacia antes)
+      @param fila la fila del plano que cae en la fila 0 del tablero
+      @param columna la columna del plano que cae en la columna 0 del tablero
+    */
+    public void volcarEn(Board tablero, int fila, int columna) {
+        tablero.limpiar();
+        for (int i = 0; i < vivas.capacidad(); i++) {
+            long celda = vivas.clave(i);
+            if (celda != LongHashSet.VACIA) {
+                long f = (long) (int) (celda >> 32) - fila;
+                long c = (long) (int) celda - columna;
+                if (f >= 0 && f < tablero.obtenerAlto() && c >= 0 && c < tablero.obtenerAncho()) {
+                    tablero.establecerViva((int) f, (int) c);
+                }
+            }
+        }
+        tablero.establecerGeneracion(generacion);
+    }
+
+    /*
+      Obtiene la memoria que ocupan las tablas
+      @return bytes de los dos conjuntos de celdas y del mapa de cuentas
+    */
+    public long obtenerMemoriaBytes() {
+        return vivas.bytesUsados() + siguientes.bytesUsados() + cuentas.bytesUsados();
+    }
+
+    private static boolean dentro(int coordenada) {
+        return coordenada >= COORDENADA_MINIMA && coordenada <= COORDENADA_MAXIMA;
+    }
+}
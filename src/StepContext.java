@@ -0,0 +1,71 @@
+/*
+  Clase ContextoPaso - datos comunes a todas las bandas de una generacion
+  Board reutiliza la misma instancia en cada generacion para no reservar memoria
+*/
+public final class StepContext {
+    BitGrid origen;
+    BitGrid destino;
+    long generacion;
+    Probability probabilidadVolteo;
+    Rule regla;
+    boolean conHash;
+    boolean contarCambios;
+
+    /*
+      Prepara el contexto para calcular una generacion
+      @param origen la cuadricula con el estado actual
+      @param destino la cuadricula donde se escribe la nueva generacion
+      @param generacion el numero de la generacion que se calcula
+      @param probabilidadVolteo la probabilidad de cambio espontaneo
+      @param regla la regla de nacimiento y supervivencia
+      @param conHash true si hay que llevar el hash del plano de celdas vivas
+      @param contarCambios true si hay que contar nacimientos y muertes (ver Board.establecerConteoCambios)
+    */
+    void preparar(BitGrid origen, BitGrid destino, long generacion, Probability probabilidadVolteo, Rule regla,
+                  boolean conHash, boolean contarCambios) {
+        this.origen = origen;
+        this.destino = destino;
+        this.generacion = generacion;
+        this.probabilidadVolteo = probabilidadVolteo;
+        this.regla = regla;
+        this.conHash = conHash;
+        this.contarCambios = contarCambios;
+    }
+
+    /*
+      Obtiene lo que cambia el hash del plano de celdas vivas al cambiar una palabra
+      @param fila el indice de la fila
+      @param palabra el indice de la palabra dentro de la fila
+      @param antes los bits de la palabra en la generacion anterior
+      @param despues los bits de la palabra en la nueva generacion
+      @return lo que hay que sumar al hash (0 si no se lleva el hash o la palabra no cambia)
+    */
+    long cambioHash(int fila, int palabra, long antes, long despues) {
+        if (!conHash || antes == despues) {
+            return 0L;
+        }
+        return BitGrid.claveHash(fila * origen.palabrasPorFila + palabra) * (despues - antes);
+    }
+
+    /*
+      Obtiene la mascara de cambios espontaneos de una palabra
+      @param fuente la fuente aleatoria de la banda
+      @param fila el indice de la fila
+      @param palabra el indice de la palabra dentro de la fila
+      @return los bits de las celdas que cambian de estado
+    */
+    long volteos(RandomSource fuente, int fila, int palabra) {
+        return probabilidadVolteo.mascara(fuente, generacion, fila, palabra);
+    }
+
+    /*
+      Indica que palabras de un bloque reciben algun cambio espontaneo (solo si es dispersa)
+      @param fuente la fuente aleatoria de la banda
+      @param fila el indice de la fila
+      @param bloque el indice del bloque de Probability.PALABRAS_BLOQUE palabras
+      @return un bit por palabra del bloque, activo si su mascara de volteos no es 0
+    */
+    long palabrasConVolteos(RandomSource fuente, int fila, int bloque) {
+        return probabilidadVolteo.palabrasConCambios(fuente, generacion, fila, bloque);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+  Interfaz MotorEvolucion - calcula la siguiente generacion de una banda de filas
+  Board reparte las filas en bandas y llama al motor una vez por banda (en paralelo si hay varios hilos)
+  Todos los motores producen exactamente el mismo tablero para la misma fuente aleatoria:
+  mismas reglas, misma envoltura en los bordes y mismas mascaras de cambio espontaneo por palabra
+*/
+public interface SteppingEngine {
+
+    /*
+      Obtiene el nombre del motor
+      @return el nombre corto (se usa en la linea de comandos)
+    */
+    String nombre();
+
+    /*
+      Calcula las filas de una banda leyendo de contexto.origen y escribiendo en contexto.destino
+      No debe escribir fuera de las filas de la banda
+      @param contexto los datos comunes de la generacion
+      @param banda el rango de filas y la fuente aleatoria de la banda
+    */
+    void evolucionar(StepContext contexto, RowBand banda);
+
+    /*
+      Se llama una vez por generacion, antes de repartir las bandas
+      Los motores con estado entre generaciones lo preparan aqui
+      @param contexto los datos comunes de la generacion
+    */
+    default void prepararGeneracion(StepContext contexto) {
+    }
+
+    /*
+      Avisa de que el tablero se ha modificado fuera de proximaGeneracion
+      (celdas cambiadas a mano, relleno aleatorio, carga de un patron...)
+    */
+    default void invalidar() {
+    }
+}
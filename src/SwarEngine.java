@@ -0,0 +1,160 @@
+/*
+  Clase MotorSwar - calcula 64 celdas a la vez sobre las palabras empaquetadas (SIMD dentro de un registro)
+  Para cada palabra construye los 8 vecinos como palabras desplazadas de la fila de arriba,
+  la propia y la de abajo, y los suma con sumadores completos bit a bit:
+  el resultado son 4 palabras (b0..b3) con el numero de vecinos de cada celda en binario
+  La envoltura solo se trata en la primera y ultima palabra de cada fila y al elegir
+  las filas vecinas, nunca con % por celda
+  La regla se aplica con la formula sin saltos de Rule sobre b0..b3; con reglas Generations
+  se quitan despues los nacimientos de las celdas que se estan muriendo
+*/
+public final class SwarEngine implements SteppingEngine {
+
+    @Override
+    public String nombre() {
+        return "swar";
+    }
+
+    @Override
+    public void evolucionar(StepContext contexto, RowBand banda) {
+        BitGrid origen = contexto.origen;
+        BitGrid destino = contexto.destino;
+        int alto = origen.alto;
+        int ultima = origen.palabrasPorFila() - 1;
+        int bitsUltima = ((origen.ancho - 1) & 63) + 1;
+        long mascaraUltima = origen.mascaraUltima();
+        boolean conVolteos = !contexto.probabilidadVolteo.esCero();
+        boolean contarCambios = contexto.contarCambios;
+        Rule regla = contexto.regla;
+        long nacimientos = 0;
+        long muertes = 0;
+        long volteosBanda = 0;
+        long cambioHash = 0;
+
+        for (int fila = banda.desde; fila < banda.hasta; fila++) {
+            int filaArriba = fila == 0 ? alto - 1 : fila - 1;
+            int filaAbajo = fila == alto - 1 ? 0 : fila + 1;
+
+            // Ventanas deslizantes (anterior, actual, siguiente) de cada una de las tres filas
+            long arribaAnt = origen.leerPalabra(filaArriba, ultima);
+            long arribaAct = origen.leerPalabra(filaArriba, 0);
+            long centroAnt = origen.leerPalabra(fila, ultima);
+            long centroAct = origen.leerPalabra(fila, 0);
+            long abajoAnt = origen.leerPalabra(filaAbajo, ultima);
+            long abajoAct = origen.leerPalabra(filaAbajo, 0);
+
+            for (int palabra = 0; palabra <= ultima; palabra++) {
+                int palabraSig = palabra == ultima ? 0 : palabra + 1;
+                long arribaSig = origen.leerPalabra(filaArriba, palabraSig);
+                long centroSig = origen.leerPalabra(fila, palabraSig);
+                long abajoSig = origen.leerPalabra(filaAbajo, palabraSig);
+
+                long nueva = evolucionarPalabra(regla,
+                        arribaAnt, arribaAct, arribaSig,
+                        centroAnt, centroAct, centroSig,
+                        abajoAnt, abajoAct, abajoSig,
+                        palabra == 0, palabra == ultima, bitsUltima);
+                nueva &= ~origen.leerMuriendo(fila, palabra);
+
+                long volteos = conVolteos ? contexto.volteos(banda.fuente, fila, palabra) : 0L;
+                nueva ^= volteos;
+                if (palabra == ultima) {
+                    nueva &= mascaraUltima;
+                    volteos &= mascaraUltima;
+                }
+
+                destino.escribirPalabra(fila, palabra, nueva);
+                destino.actualizarEdades(origen, fila, palabra, centroAct, nueva, banda.histogramaEdades);
+
+                if (contarCambios) {
+                    long cambios = centroAct ^ nueva;
+                    nacimientos += Long.bitCount(cambios & nueva);
+                    muertes += Long.bitCount(cambios & centroAct);
+                }
+                if (conVolteos) {
+                    volteosBanda += Long.bitCount(volteos);
+                }
+                cambioHash += contexto.cambioHash(fila, palabra, centroAct, nueva);
+
+                arribaAnt = arribaAct;
+                arribaAct = arribaSig;
+                centroAnt = centroAct;
+                centroAct = centroSig;
+                abajoAnt = abajoAct;
+                abajoAct = abajoSig;
+            }
+        }
+        banda.sumar(nacimientos, muertes, volteosBanda, cambioHash);
+    }
+
+    /*
+      Calcula la nueva palabra a partir de las 9 palabras que la rodean
+      Los bits de la ultima palabra que quedan fuera del ancho pueden salir con basura;
+      quien llama debe aplicar la mascara de la ultima palabra
+      @param regla la regla a aplicar
+      @param esPrimera true si la palabra es la primera de la fila
+      @param esUltima true si la palabra es la ultima de la fila
+      @param bitsUltima numero de columnas validas de la ultima palabra (1-64)
+      @return los bits de la nueva generacion, sin cambios espontaneos ni estados de muerte
+    */
+    static long evolucionarPalabra(Rule regla, long arribaAnt, long arribaAct, long arribaSig,
+                                   long centroAnt, long centroAct, long centroSig,
+                                   long abajoAnt, long abajoAct, long abajoSig,
+                                   boolean esPrimera, boolean esUltima, int bitsUltima) {
+        // Vecino izquierdo (columna - 1) y derecho (columna + 1) alineados con cada celda
+        long arribaIzq = izquierda(arribaAnt, arribaAct, esPrimera, bitsUltima);
+        long arribaDer = derecha(arribaAct, arribaSig, esUltima, bitsUltima);
+        long centroIzq = izquierda(centroAnt, centroAct, esPrimera, bitsUltima);
+        long centroDer = derecha(centroAct, centroSig, esUltima, bitsUltima);
+        long abajoIzq = izquierda(abajoAnt, abajoAct, esPrimera, bitsUltima);
+        long abajoDer = derecha(abajoAct, abajoSig, esUltima, bitsUltima);
+
+        // Fila de arriba: sumador completo de 3 bits -> (suma, acarreo)
+        long xArriba = arribaIzq ^ arribaAct;
+        long sArriba = xArriba ^ arribaDer;
+        long cArriba = (arribaIzq & arribaAct) | (arribaDer & xArriba);
+
+        // Fila central: semisumador de los 2 vecinos laterales
+        long sCentro = centroIzq ^ centroDer;
+        long cCentro = centroIzq & centroDer;
+
+        // Fila de abajo: sumador completo de 3 bits
+        long xAbajo = abajoIzq ^ abajoAct;
+        long sAbajo = xAbajo ^ abajoDer;
+        long cAbajo = (abajoIzq & abajoAct) | (abajoDer & xAbajo);
+
+        // Unidades: suma de los tres bits de peso 1
+        long xUnos = sArriba ^ sCentro;
+        long b0 = xUnos ^ sAbajo;
+        long k1 = (sArriba & sCentro) | (sAbajo & xUnos);
+
+        // Doses: acarreos de las tres filas mas el acarreo de las unidades
+        long xDoses = cArriba ^ cCentro;
+        long t = xDoses ^ cAbajo;
+        long k2 = (cArriba & cCentro) | (cAbajo & xDoses);
+        long b1 = t ^ k1;
+        long k3 = t & k1;
+        long b2 = k2 ^ k3;
+        long b3 = k2 & k3;
+
+        return regla.aplicar(centroAct, b0, b1, b2, b3);
+    }
+
+    /*
+      Desplaza la fila para que cada bit contenga su vecino de la izquierda
+      En la primera palabra el vecino de la columna 0 es la ultima columna del tablero
+    */
+    static long izquierda(long anterior, long actual, boolean esPrimera, int bitsUltima) {
+        long entrada = esPrimera ? (anterior >>> (bitsUltima - 1)) & 1L : anterior >>> 63;
+        return (actual << 1) | entrada;
+    }
+
+    /*
+      Desplaza la fila para que cada bit contenga su vecino de la derecha
+      En la ultima palabra el vecino de la ultima columna es la columna 0 del tablero
+    */
+    static long derecha(long actual, long siguiente, boolean esUltima, int bitsUltima) {
+        long entrada = esUltima ? (siguiente & 1L) << (bitsUltima - 1) : siguiente << 63;
+        return (actual >>> 1) | entrada;
+    }
+}
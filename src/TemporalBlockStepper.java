@@ -0,0 +1,212 @@
+/*
+  Clase PasoTemporalPorBloques - avanza varias generaciones seguidas de cada franja de filas
+  mientras esta en cache (bloqueo temporal), en lugar de recorrer todo el tablero en cada una
+  Cada banda de Board se parte en franjas; cada franja se copia con un borde de k filas por
+  arriba y por abajo a un buffer del tamaño de la cache L2 y ahi avanza k generaciones: en cada
+  paso la parte valida del buffer pierde una fila por cada lado, y tras k pasos quedan justo las
+  filas de la franja, que se escriben en la cuadricula destino
+  Asi el tablero se lee y se escribe una vez cada k generaciones; a cambio las filas del borde se
+  calculan dos veces, un (k - 1) / filas de la franja mas de trabajo
+  El resultado es el mismo que el de k llamadas a proximaGeneracion: la regla es la misma formula
+  de SwarEngine, las filas completas envuelven las columnas y las filas del borde se toman con la
+  envoltura del toro; los cambios espontaneos se piden con la fila global y la generacion de
+  cada paso, asi que solo valen fuentes que no dependen de quien las pide (modo contador)
+  Solo para reglas de dos estados sin registro de edades: Board decide cuando se puede usar
+  Cuenta nacimientos, muertes y cambios espontaneos de las filas propias en cada paso, para
+  que Board deje las estadisticas igual que generacion a generacion
+*/
+final class TemporalBlockStepper {
+    // Bytes de cada una de las dos copias de una franja: entre las dos caben en una L2 de 1 MiB
+    private static final int BYTES_FRANJA = 256 * 1024;
+
+    private final int profundidad;
+    private final int palabrasPorFila;
+    private final int filasFranja;
+    // Por banda: las dos copias de la franja y las cuentas de cada paso
+    private final long[][] actual;
+    private final long[][] nuevo;
+    final long[][] nacimientos;
+    final long[][] muertes;
+    final long[][] volteos;
+    final long[] cambioHash;
+
+    /*
+      Constructor - prepara los buffers de cada banda
+      @param profundidad las generaciones que avanza cada franja como mucho (k)
+      @param palabrasPorFila las palabras de cada fila del tablero
+      @param bandas el numero de bandas de Board (cada una la calcula un solo hilo)
+    */
+    TemporalBlockStepper(int profundidad, int palabrasPorFila, int bandas) {
+        this.profundidad = profundidad;
+        this.palabrasPorFila = palabrasPorFila;
+        // Al menos 2k filas propias, para que el borde no sea la mayor parte del trabajo
+        int filasBuffer = BYTES_FRANJA / (palabrasPorFila * Long.BYTES);
+        this.filasFranja = Math.max(2 * profundidad, filasBuffer - 2 * profundidad);
+        this.actual = new long[bandas][];
+        this.nuevo = new long[bandas][];
+        this.nacimientos = new long[bandas][profundidad];
+        this.muertes = new long[bandas][profundidad];
+        this.volteos = new long[bandas][profundidad];
+        this.cambioHash = new long[bandas];
+    }
+
+    /*
+      Comprueba si los buffers sirven para un tablero
+      @param profundidad las generaciones por bloque
+      @param palabrasPorFila las palabras de cada fila
+      @param bandas el numero de bandas
+      @return true si se creo con los mismos valores
+    */
+    boolean sirve(int profundidad, int palabrasPorFila, int bandas) {
+        return this.profundidad == profundidad && this.palabrasPorFila == palabrasPorFila && actual.length == bandas;
+    }
+
+    /*
+      Avanza las filas de una banda varias generaciones, de contexto.origen a contexto.destino
+      contexto.generacion es la generacion del origen; el paso p usa la generacion + p - 1
+      como clave de los cambios espontaneos, igual que la p-esima llamada a proximaGeneracion
+      @param contexto los datos comunes del bloque
+      @param banda el rango de filas y la fuente aleatoria de la banda
+      @param indice la posicion de la banda, para sus buffers y cuentas
+      @param pasos las generaciones que se avanzan (entre 1 y la profundidad)
+    */
+    void avanzarBanda(StepContext contexto, RowBand banda, int indice, int pasos) {
+        BitGrid origen = contexto.origen;
+        BitGrid destino = contexto.destino;
+        int alto = origen.alto;
+        int tamaño = (filasFranja + 2 * profundidad) * palabrasPorFila;
+        if (actual[indice] == null) {
+            actual[indice] = new long[tamaño];
+            nuevo[indice] = new long[tamaño];
+        }
+        long[] previa = actual[indice];
+        long[] siguiente = nuevo[indice];
+        long[] nacimientosBanda = nacimientos[indice];
+        long[] muertesBanda = muertes[indice];
+        long[] volteosBanda = volteos[indice];
+        for (int paso = 0; paso < pasos; paso++) {
+            nacimientosBanda[paso] = 0;
+            muertesBanda[paso] = 0;
+            volteosBanda[paso] = 0;
+        }
+        long hashBanda = 0;
+
+        for (int desde = banda.desde; desde < banda.hasta; desde += filasFranja) {
+            int propias = Math.min(filasFranja, banda.hasta - desde);
+            int filas = propias + 2 * pasos;
+            // La fila local i es la fila desde - pasos + i del toro
+            int primera = desde - pasos;
+
+            for (int i = 0; i < filas; i++) {
+                int fila = Math.floorMod(primera + i, alto);
+                int base = i * palabrasPorFila;
+                for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                    previa[base + palabra] = origen.leerPalabra(fila, palabra);
+                }
+            }
+
+            for (int paso = 1; paso <= pasos; paso++) {
+                long generacion = contexto.generacion + paso - 1;
+                for (int i = paso; i < filas - paso; i++) {
+                    boolean propia = i >= pasos && i < pasos + propias;
+                    evolucionarFila(contexto, banda.fuente, generacion, previa, siguiente, i,
+                            Math.floorMod(primera + i, alto), propia, indice, paso - 1);
+                }
+                long[] intercambio = previa;
+                previa = siguiente;
+                siguiente = intercambio;
+            }
+
+            for (int i = pasos; i < pasos + propias; i++) {
+                int fila = primera + i;
+                int base = i * palabrasPorFila;
+                for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                    long nueva = previa[base + palabra];
+                    hashBanda += contexto.cambioHash(fila, palabra, origen.leerPalabra(fila, palabra), nueva);
+                    destino.escribirPalabra(fila, palabra, nueva);
+                }
+            }
+        }
+        cambioHash[indice] = hashBanda;
+    }
+
+    /*
+      Calcula una fila del buffer a partir de la fila de arriba, la propia y la de abajo del paso anterior
+      @param contexto los datos comunes del bloque
+      @param fuente la fuente aleatoria de la banda
+      @param generacion la generacion de la que parte este paso
+      @param previa el buffer del paso anterior
+      @param siguiente el buffer donde se escribe
+      @param i la fila local
+      @param fila la fila del tablero a la que corresponde
+      @param propia true si la fila es de la franja (y no del borde), para contarla
+      @param indice la posicion de la banda
+      @param paso el paso dentro del bloque (desde 0)
+    */
+    private void evolucionarFila(StepContext contexto, RandomSource fuente, long generacion, long[] previa,
+                                 long[] siguiente, int i, int fila, boolean propia, int indice, int paso) {
+        BitGrid origen = contexto.origen;
+        int ultima = palabrasPorFila - 1;
+        int bitsUltima = ((origen.ancho - 1) & 63) + 1;
+        long mascaraUltima = origen.mascaraUltima();
+        boolean conVolteos = !contexto.probabilidadVolteo.esCero();
+        boolean contarCambios = contexto.contarCambios;
+        Rule regla = contexto.regla;
+        int arriba = (i - 1) * palabrasPorFila;
+        int centro = i * palabrasPorFila;
+        int abajo = (i + 1) * palabrasPorFila;
+        long nacimientosFila = 0;
+        long muertesFila = 0;
+        long volteosFila = 0;
+
+        long arribaAnt = previa[arriba + ultima];
+        long arribaAct = previa[arriba];
+        long centroAnt = previa[centro + ultima];
+        long centroAct = previa[centro];
+        long abajoAnt = previa[abajo + ultima];
+        long abajoAct = previa[abajo];
+
+        for (int palabra = 0; palabra <= ultima; palabra++) {
+            int palabraSig = palabra == ultima ? 0 : palabra + 1;
+            long arribaSig = previa[arriba + palabraSig];
+            long centroSig = previa[centro + palabraSig];
+            long abajoSig = previa[abajo + palabraSig];
+
+            long nueva = SwarEngine.evolucionarPalabra(regla,
+                    arribaAnt, arribaAct, arribaSig,
+                    centroAnt, centroAct, centroSig,
+                    abajoAnt, abajoAct, abajoSig,
+                    palabra == 0, palabra == ultima, bitsUltima);
+            long volteos = conVolteos ? contexto.probabilidadVolteo.mascara(fuente, generacion, fila, palabra) : 0L;
+            nueva ^= volteos;
+            if (palabra == ultima) {
+                nueva &= mascaraUltima;
+                volteos &= mascaraUltima;
+            }
+            siguiente[centro + palabra] = nueva;
+
+            if (propia) {
+                if (contarCambios) {
+                    long cambios = centroAct ^ nueva;
+                    nacimientosFila += Long.bitCount(cambios & nueva);
+                    muertesFila += Long.bitCount(cambios & centroAct);
+                }
+                if (conVolteos) {
+                    volteosFila += Long.bitCount(volteos);
+                }
+            }
+
+            arribaAnt = arribaAct;
+            arribaAct = arribaSig;
+            centroAnt = centroAct;
+            centroAct = centroSig;
+            abajoAnt = abajoAct;
+            abajoAct = abajoSig;
+        }
+        if (propia) {
+            nacimientos[indice][paso] += nacimientosFila;
+            muertes[indice][paso] += muertesFila;
+            volteos[indice][paso] += volteosFila;
+        }
+    }
+}
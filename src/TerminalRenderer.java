@@ -0,0 +1,287 @@
+/*
+  Clase RenderizadorTerminal - dibuja el tablero en la terminal con secuencias ANSI
+  Cada fotograma se compone en un unico buffer de bytes reutilizable y se escribe con
+  una sola llamada y un solo flush
+  Solo se redibujan las celdas que han cambiado desde el fotograma anterior: el cursor
+  se lleva a cada celda cambiada con ESC[fila;columnaH (las celdas cambiadas seguidas
+  se escriben sin mover el cursor)
+  Si el tablero no cabe en la terminal hay dos vistas:
+  - ventana: se muestra la esquina superior izquierda que cabe
+  - reducida: cada caracter representa un bloque de NxN celdas y vale '1' si alguna esta viva
+  Cada celda ocupa dos columnas de terminal ("1 " o "0 "), igual que Board.mostrar
+*/
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+public final class TerminalRenderer {
+    // Lineas de cabecera encima del tablero (datos y una linea en blanco)
+    private static final int FILAS_CABECERA = 2;
+
+    private static final byte[] BORRAR_PANTALLA = ascii("\033[H\033[2J");
+    private static final byte[] BORRAR_LINEA = ascii("\033[K");
+    private static final byte[] GENERACION = ascii("Generacion: ");
+    private static final byte[] CELDAS_VIVAS = ascii(" | Celdas vivas: ");
+    private static final byte[] NACIMIENTOS = ascii(" | Nacen: ");
+    private static final byte[] MUERTES = ascii(" | Mueren: ");
+
+    private final PrintStream salida;
+    private final int columnasTerminal;
+    private final int filasTerminal;
+    private final boolean reducir;
+
+    private byte[] buffer;
+    private int longitud;
+    private byte[] anterior;
+    private int filasAnterior;
+    private int columnasAnterior;
+    private boolean redibujar;
+
+    /*
+      Constructor - crea un renderizador
+      @param salida donde se escriben los fotogramas (normalmente System.out)
+      @param columnasTerminal el ancho de la terminal en caracteres
+      @param filasTerminal el alto de la terminal en lineas
+      @param reducir true para la vista reducida si el tablero no cabe, false para la ventana
+    */
+    public TerminalRenderer(PrintStream salida, int columnasTerminal, int filasTerminal, boolean reducir) {
+        if (columnasTerminal < 2 || filasTerminal < FILAS_CABECERA + 2) {
+            throw new IllegalArgumentException("Terminal demasiado pequeña: " + columnasTerminal + "x" + filasTerminal);
+        }
+        this.salida = salida;
+        this.columnasTerminal = columnasTerminal;
+        this.filasTerminal = filasTerminal;
+        this.reducir = reducir;
+        this.buffer = new byte[4096];
+        this.redibujar = true;
+    }
+
+    /*
+      Crea un fotograma con las dimensiones que este renderizador usa para el tablero
+      @param board el tablero que se va a mostrar
+      @return un fotograma vacio, reutilizable en cada generacion
+    */
+    public Frame crearFotograma(Board board) {
+        int ancho = board.obtenerAncho();
+        int alto = board.obtenerAlto();
+        int maxColumnas = columnasTerminal / 2;
+        int maxFilas = filasTerminal - FILAS_CABECERA - 1;
+
+        if (ancho <= maxColumnas && alto <= maxFilas) {
+            return new Frame(alto, ancho, 1, "");
+        }
+        if (reducir) {
+            int escala = Math.max(dividirArriba(ancho, maxColumnas), dividirArriba(alto, maxFilas));
+            return new Frame(dividirArriba(alto, escala), dividirArriba(ancho, escala), escala,
+                    " | Vista reducida: 1 caracter = " + escala + "x" + escala + " celdas");
+        }
+        int columnas = Math.min(ancho, maxColumnas);
+        int filas = Math.min(alto, maxFilas);
+        return new Frame(filas, columnas, 1,
+                " | Ventana " + columnas + "x" + filas + " de " + ancho + "x" + alto);
+    }
+
+    /*
+      Copia al fotograma lo que se ve del tablero y los datos de la cabecera
+      Lee las palabras de 64 celdas directamente, sin crear objetos Cell; los datos de
+      poblacion salen de las estadisticas del tablero, sin recorrerlo
+      @param board el tablero
+      @param generacion el numero de generacion que se mostrara
+      @param fotograma un fotograma creado con crearFotograma para este tablero
+    */
+    public static void capturar(Board board, long generacion, Frame fotograma) {
+        int ancho = board.obtenerAncho();
+        int alto = board.obtenerAlto();
+        int escala = fotograma.escala;
+        byte[] glifos = fotograma.glifos;
+
+        for (int f = 0; f < fotograma.filas; f++) {
+            int filaDesde = f * escala;
+            int filaHasta = Math.min(filaDesde + escala, alto);
+            for (int c = 0; c < fotograma.columnas; c++) {
+                int columnaDesde = c * escala;
+                int columnaHasta = Math.min(columnaDesde + escala, ancho);
+                boolean viva = false;
+                for (int fila = filaDesde; fila < filaHasta && !viva; fila++) {
+                    viva = hayVivas(board, fila, columnaDesde, columnaHasta);
+                }
+                glifos[f * fotograma.columnas + c] = viva ? (byte) '1' : (byte) '0';
+            }
+        }
+
+        BoardStats estadisticas = board.obtenerEstadisticas();
+        fotograma.generacion = generacion;
+        fotograma.vivas = estadisticas.obtenerVivas();
+        fotograma.total = board.obtenerTotalCeldas();
+        fotograma.nacimientos = estadisticas.obtenerNacimientos();
+        fotograma.muertes = estadisticas.obtenerMuertes();
+    }
+
+    /*
+      Dibuja el fotograma en la parte superior de la pantalla, escribiendo solo las celdas
+      que han cambiado desde el ultimo fotograma dibujado
+      @param fotograma el fotograma a dibujar
+    */
+    public void dibujar(Frame fotograma) {
+        longitud = 0;
+        int filas = fotograma.filas;
+        int columnas = fotograma.columnas;
+        byte[] glifos = fotograma.glifos;
+
+        if (anterior == null || filasAnterior != filas || columnasAnterior != columnas) {
+            anterior = new byte[filas * columnas];
+            filasAnterior = filas;
+            columnasAnterior = columnas;
+            redibujar = true;
+        }
+        if (redibujar) {
+            añadir(BORRAR_PANTALLA);
+        }
+
+        moverCursor(1, 1);
+        añadirCabecera(fotograma);
+        añadir(BORRAR_LINEA);
+
+        for (int f = 0; f < filas; f++) {
+            // Columna de pantalla a la que llegaria el cursor escribiendo seguido; -1 = desconocida
+            int cursor = -1;
+            for (int c = 0; c < columnas; c++) {
+                int i = f * columnas + c;
+                if (!redibujar && glifos[i] == anterior[i]) {
+                    continue;
+                }
+                int columnaPantalla = c * 2 + 1;
+                if (cursor != columnaPantalla) {
+                    moverCursor(f + FILAS_CABECERA + 1, columnaPantalla);
+                }
+                añadir(glifos[i]);
+                añadir((byte) ' ');
+                cursor = columnaPantalla + 2;
+                anterior[i] = glifos[i];
+            }
+        }
+
+        // El cursor queda debajo del tablero para los mensajes que vengan despues
+        moverCursor(filas + FILAS_CABECERA + 1, 1);
+        redibujar = false;
+        volcar();
+    }
+
+    /*
+      Escribe el fotograma completo a partir de la posicion actual del cursor, sin ANSI
+      Sirve para mostrar un tablero entre otros mensajes (por ejemplo el tablero inicial)
+      No cambia lo que dibujar considera ya dibujado
+      @param fotograma el fotograma a escribir
+    */
+    public void imprimir(Frame fotograma) {
+        longitud = 0;
+        añadirCabecera(fotograma);
+        añadir((byte) '\n');
+        for (int f = 0; f < fotograma.filas; f++) {
+            for (int c = 0; c < fotograma.columnas; c++) {
+                añadir(fotograma.glifos[f * fotograma.columnas + c]);
+                añadir((byte) ' ');
+            }
+            añadir((byte) '\n');
+        }
+        volcar();
+    }
+
+    /*
+      Hace que el proximo dibujar borre la pantalla y dibuje todo el fotograma
+      (por ejemplo despues de escribir otros mensajes en la pantalla)
+    */
+    public void invalidar() {
+        redibujar = true;
+    }
+
+    /*
+      Indica si hay alguna celda viva en la fila entre las columnas [desde, hasta)
+    */
+    private static boolean hayVivas(Board board, int fila, int desde, int hasta) {
+        int palabraDesde = desde >>> 6;
+        int palabraHasta = (hasta - 1) >>> 6;
+        for (int p = palabraDesde; p <= palabraHasta; p++) {
+            long bits = board.leerPalabra(fila, p);
+            if (p == palabraDesde) {
+                bits &= -1L << (desde & 63);
+            }
+            if (p == palabraHasta) {
+                bits &= -1L >>> (63 - ((hasta - 1) & 63));
+            }
+            if (bits != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void añadirCabecera(Frame fotograma) {
+        añadir(GENERACION);
+        añadirNumero(fotograma.generacion);
+        añadir(CELDAS_VIVAS);
+        añadirNumero(fotograma.vivas);
+        añadir((byte) '/');
+        añadirNumero(fotograma.total);
+        añadir(NACIMIENTOS);
+        añadirNumero(fotograma.nacimientos);
+        añadir(MUERTES);
+        añadirNumero(fotograma.muertes);
+        añadir(fotograma.descripcion);
+    }
+
+    private void moverCursor(int fila, int columna) {
+        añadir((byte) 27);
+        añadir((byte) '[');
+        añadirNumero(fila);
+        añadir((byte) ';');
+        añadirNumero(columna);
+        añadir((byte) 'H');
+    }
+
+    private void añadirNumero(long numero) {
+        if (numero < 0) {
+            añadir((byte) '-');
+            numero = -numero;
+        }
+        long divisor = 1;
+        while (numero / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            añadir((byte) ('0' + numero / divisor % 10));
+        }
+    }
+
+    private void añadir(byte[] bytes) {
+        asegurar(bytes.length);
+        System.arraycopy(bytes, 0, buffer, longitud, bytes.length);
+        longitud += bytes.length;
+    }
+
+    private void añadir(byte b) {
+        asegurar(1);
+        buffer[longitud++] = b;
+    }
+
+    private void asegurar(int extra) {
+        if (longitud + extra > buffer.length) {
+            byte[] mayor = new byte[Math.max(buffer.length * 2, longitud + extra)];
+            System.arraycopy(buffer, 0, mayor, 0, longitud);
+            buffer = mayor;
+        }
+    }
+
+    private void volcar() {
+        salida.write(buffer, 0, longitud);
+        salida.flush();
+    }
+
+    private static int dividirArriba(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    private static byte[] ascii(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+  Clase MotorTeselas - motor SWAR que lee de una copia del tablero organizada en teselas de 64x64
+  con borde (ver TiledGrid) en lugar de leer tres filas de BitGrid
+  Guarda dos juegos de teselas entre generaciones, como el doble buffer de Board: lee del
+  actual y publica cada palabra nueva en el siguiente, con lo que los bordes de las teselas
+  vecinas quedan intercambiados al terminar la generacion sin otra pasada
+  Recorre cada banda tesela a tesela (64 filas de una columna de palabras) y sigue escribiendo
+  el resultado en la cuadricula destino, porque el resto del programa (estadisticas, hash,
+  edades, dibujo, instantaneas) trabaja sobre BitGrid
+  Las teselas se vuelven a copiar de la cuadricula cuando el tablero se modifica fuera de
+  proximaGeneracion o la cuadricula origen no es la que escribio en la generacion anterior
+*/
+public final class TiledEngine implements SteppingEngine {
+    private TiledGrid actual;
+    private TiledGrid siguiente;
+    private BitGrid ultimoDestino;
+    private boolean valido;
+
+    @Override
+    public String nombre() {
+        return "teselas";
+    }
+
+    @Override
+    public void invalidar() {
+        valido = false;
+    }
+
+    @Override
+    public void prepararGeneracion(StepContext contexto) {
+        BitGrid origen = contexto.origen;
+        if (actual == null || !actual.coincide(origen)) {
+            actual = new TiledGrid(origen.alto, origen.palabrasPorFila);
+            siguiente = new TiledGrid(origen.alto, origen.palabrasPorFila);
+            valido = false;
+        }
+
+        if (valido && origen == ultimoDestino) {
+            // Lo publicado en la generacion anterior es el estado actual
+            TiledGrid anterior = actual;
+            actual = siguiente;
+            siguiente = anterior;
+        } else {
+            actual.cargar(origen);
+        }
+        ultimoDestino = contexto.destino;
+        valido = true;
+    }
+
+    @Override
+    public void evolucionar(StepContext contexto, RowBand banda) {
+        BitGrid origen = contexto.origen;
+        BitGrid destino = contexto.destino;
+        long[] teselas = actual.teselas;
+        int ultima = origen.palabrasPorFila() - 1;
+        int bitsUltima = ((origen.ancho - 1) & 63) + 1;
+        long mascaraUltima = origen.mascaraUltima();
+        boolean conVolteos = !contexto.probabilidadVolteo.esCero();
+        boolean contarCambios = contexto.contarCambios;
+        Rule regla = contexto.regla;
+        long nacimientos = 0;
+        long muertes = 0;
+        long volteosBanda = 0;
+        long cambioHash = 0;
+
+        for (int filaTesela = banda.desde / TiledGrid.FILAS; filaTesela * TiledGrid.FILAS < banda.hasta; filaTesela++) {
+            int primera = filaTesela * TiledGrid.FILAS;
+            int desde = Math.max(primera, banda.desde);
+            int hasta = Math.min(primera + TiledGrid.FILAS, banda.hasta);
+
+            for (int palabra = 0; palabra <= ultima; palabra++) {
+                int base = actual.base(filaTesela, palabra);
+                int izquierda = actual.base(filaTesela, palabra == 0 ? ultima : palabra - 1);
+                int derecha = actual.base(filaTesela, palabra == ultima ? 0 : palabra + 1);
+                for (int fila = desde; fila < hasta; fila++) {
+                    // Posicion de la fila local - 1; la fila local y la local + 1 van detras
+                    int i = fila - primera;
+                    long centroAct = teselas[base + i + 1];
+                    long nueva = SwarEngine.evolucionarPalabra(regla,
+                            teselas[izquierda + i], teselas[base + i], teselas[derecha + i],
+                            teselas[izquierda + i + 1], centroAct, teselas[derecha + i + 1],
+                            teselas[izquierda + i + 2], teselas[base + i + 2], teselas[derecha + i + 2],
+                            palabra == 0, palabra == ultima, bitsUltima);
+                    nueva &= ~origen.leerMuriendo(fila, palabra);
+
+                    long volteos = conVolteos ? contexto.volteos(banda.fuente, fila, palabra) : 0L;
+                    nueva ^= volteos;
+                    if (palabra == ultima) {
+                        nueva &= mascaraUltima;
+                        volteos &= mascaraUltima;
+                    }
+
+                    destino.escribirPalabra(fila, palabra, nueva);
+                    siguiente.publicar(fila, palabra, nueva);
+                    destino.actualizarEdades(origen, fila, palabra, centroAct, nueva, banda.histogramaEdades);
+
+                    if (contarCambios) {
+                        long cambios = centroAct ^ nueva;
+                        nacimientos += Long.bitCount(cambios & nueva);
+                        muertes += Long.bitCount(cambios & centroAct);
+                    }
+                    if (conVolteos) {
+                        volteosBanda += Long.bitCount(volteos);
+                    }
+                    cambioHash += contexto.cambioHash(fila, palabra, centroAct, nueva);
+                }
+            }
+        }
+        banda.sumar(nacimientos, muertes, volteosBanda, cambioHash);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+  Clase CuadriculaTeselas - copia del plano de celdas vivas organizada en teselas de 64x64
+  Cada tesela son 64 filas de una palabra (64 columnas) guardadas en un bloque contiguo
+  junto con su borde de arriba y de abajo (la fila anterior y la siguiente): 66 palabras
+  Las teselas de una misma fila de teselas van seguidas, asi que el borde izquierdo y derecho
+  de una tesela son los bloques vecinos (incluidas sus filas de borde, que hacen de esquinas)
+  y las 9 palabras que necesita cada palabra estan en tres bloques de 528 bytes consecutivos,
+  en lugar de en tres filas del tablero separadas por todo el ancho
+  El borde es redundante: la primera y la ultima fila de cada tesela tambien estan en el borde
+  de la tesela de arriba o de abajo, y publicar escribe la palabra en las dos posiciones; cada
+  posicion tiene una sola palabra de origen, asi que varios hilos pueden publicar sin pisarse
+  La envoltura de los bordes del tablero es la misma que en BitGrid: la tesela de debajo de
+  la ultima fila es la de la fila 0 y la palabra siguiente a la ultima es la palabra 0
+  Coste: unas 1.03 veces la memoria del plano de celdas vivas
+*/
+public final class TiledGrid {
+    // Filas por tesela; el ancho de una tesela es siempre una palabra
+    static final int FILAS = 64;
+    // Palabras de una tesela con su borde
+    static final int TAMAÑO = FILAS + 2;
+
+    final int alto;
+    final int palabrasPorFila;
+    final int filasTeselas;
+    final long[] teselas;
+
+    /*
+      Constructor - crea las teselas para un tablero, todas a 0
+      @param alto el numero de filas del tablero
+      @param palabrasPorFila el numero de palabras de cada fila del tablero
+      @throws IllegalArgumentException si las teselas no caben en un arreglo
+    */
+    public TiledGrid(int alto, int palabrasPorFila) {
+        int filas = (alto + FILAS - 1) / FILAS;
+        long total = (long) filas * palabrasPorFila * TAMAÑO;
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Tablero demasiado grande para organizarlo en teselas: "
+                    + palabrasPorFila + " palabras x " + alto + " filas");
+        }
+        this.alto = alto;
+        this.palabrasPorFila = palabrasPorFila;
+        this.filasTeselas = filas;
+        this.teselas = new long[(int) total];
+    }
+
+    /*
+      Comprueba si las teselas sirven para una cuadricula
+      @param cuadricula la cuadricula
+      @return true si tiene el mismo alto y las mismas palabras por fila
+    */
+    boolean coincide(BitGrid cuadricula) {
+        return cuadricula.alto == alto && cuadricula.palabrasPorFila == palabrasPorFila;
+    }
+
+    /*
+      Obtiene donde empieza una tesela en el arreglo
+      La fila local r de la tesela (r = -1 para el borde de arriba, FILAS o las filas que tenga
+      para el de abajo) esta en base + r + 1
+      @param filaTesela la fila de teselas
+      @param palabra la columna de teselas (igual a la palabra de la fila del tablero)
+      @return el indice de la primera palabra de la tesela
+    */
+    int base(int filaTesela, int palabra) {
+        return (filaTesela * palabrasPorFila + palabra) * TAMAÑO;
+    }
+
+    /*
+      Copia todas las palabras de una cuadricula, con sus bordes
+      @param origen la cuadricula (con el mismo alto y palabras por fila)
+    */
+    void cargar(BitGrid origen) {
+        for (int fila = 0; fila < alto; fila++) {
+            for (int palabra = 0; palabra < palabrasPorFila; palabra++) {
+                publicar(fila, palabra, origen.leerPalabra(fila, palabra));
+            }
+        }
+    }
+
+    /*
+      Escribe una palabra del tablero en su tesela y en el borde de las teselas vecinas
+      @param fila la fila del tablero
+      @param palabra la palabra dentro de la fila
+      @param valor los bits de la palabra
+    */
+    void publicar(int fila, int palabra, long valor) {
+        int filaTesela = fila / FILAS;
+        int local = fila - filaTesela * FILAS;
+        escribirFila(filaTesela, local + 1, palabra, valor);
+
+        // La primera fila de una tesela es el borde de abajo de la tesela de arriba
+        if (local == 0) {
+            int arriba = (fila == 0 ? alto - 1 : fila - 1) / FILAS;
+            escribirFila(arriba, filasDe(arriba) + 1, palabra, valor);
+        }
+        // La ultima fila de una tesela es el borde de arriba de la tesela de abajo
+        if (local == FILAS - 1 || fila == alto - 1) {
+            int abajo = (fila == alto - 1 ? 0 : fila + 1) / FILAS;
+            escribirFila(abajo, 0, palabra, valor);
+        }
+    }
+
+    private void escribirFila(int filaTesela, int filaLocal, int palabra, long valor) {
+        teselas[base(filaTesela, palabra) + filaLocal] = valor;
+    }
+
+    /*
+      Obtiene cuantas filas del tablero tiene una fila de teselas (la ultima puede tener menos)
+    */
+    private int filasDe(int filaTesela) {
+        return Math.min(FILAS, alto - filaTesela * FILAS);
+    }
+}
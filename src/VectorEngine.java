@@ -0,0 +1,259 @@
+/*
+  Clase MotorVectorial - version del motor SWAR que usa la Vector API (jdk.incubator.vector)
+  Procesa varias palabras de una fila a la vez con LongVector (4 palabras con AVX2, 8 con AVX-512)
+  La logica es la misma que en SwarEngine: vecinos desplazados, sumadores completos y la formula de Rule
+  Las palabras de los bordes de cada fila, los cambios espontaneos, las edades y las
+  estadisticas se resuelven palabra a palabra con el codigo escalar de SwarEngine
+  Necesita --add-modules jdk.incubator.vector al compilar y al ejecutar; si el modulo no esta
+  disponible EngineRegistry no lo ofrece y se usa el motor SWAR
+  Con un tablero fuera del heap (OffHeapGrid) no hay arreglo que cargar en los vectores y la
+  generacion la calcula SwarEngine
+*/
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public final class VectorEngine implements SteppingEngine {
+    private static final VectorSpecies<Long> ESPECIE = LongVector.SPECIES_PREFERRED;
+    // Cuenta de bits por carril; la Vector API solo la tiene desde Java 19, si no se cuenta en escalar
+    private static final VectorOperators.Unary CONTAR_BITS = buscarContarBits();
+
+    private final SwarEngine respaldo = new SwarEngine();
+
+    @Override
+    public String nombre() {
+        return "vector";
+    }
+
+    @Override
+    public void evolucionar(StepContext contexto, RowBand banda) {
+        BitGrid origen = contexto.origen;
+        BitGrid destino = contexto.destino;
+        if (origen.palabras == null || destino.palabras == null) {
+            respaldo.evolucionar(contexto, banda);
+            return;
+        }
+        long[] entrada = origen.palabras;
+        long[] salida = destino.palabras;
+        int alto = origen.alto;
+        int palabrasPorFila = origen.palabrasPorFila();
+        int ultima = palabrasPorFila - 1;
+        int bitsUltima = ((origen.ancho - 1) & 63) + 1;
+        long mascaraUltima = origen.mascaraUltima();
+        boolean conVolteos = !contexto.probabilidadVolteo.esCero();
+        boolean contarCambios = contexto.contarCambios;
+        Rule regla = contexto.regla;
+        int carriles = ESPECIE.length();
+        long nacimientos = 0;
+        long muertes = 0;
+        long volteosBanda = 0;
+        long cambioHash = 0;
+        boolean soloContar = !conVolteos && !destino.registraEdades() && !contexto.conHash;
+
+        for (int fila = banda.desde; fila < banda.hasta; fila++) {
+            int baseArriba = (fila == 0 ? alto - 1 : fila - 1) * palabrasPorFila;
+            int baseCentro = fila * palabrasPorFila;
+            int baseAbajo = (fila == alto - 1 ? 0 : fila + 1) * palabrasPorFila;
+
+            // Palabra 0 en escalar (su vecino izquierdo es la ultima columna de la fila)
+            escalar(contexto, banda, entrada, salida, fila, 0, baseArriba, baseCentro, baseAbajo,
+                    ultima, bitsUltima, mascaraUltima, conVolteos);
+            if (ultima == 0) {
+                continue;
+            }
+
+            // Palabras interiores en bloques de 'carriles' palabras
+            // Sin volteos, edades ni hash los cambios se cuentan carril a carril y se suman al final de
+            // la fila, y sin conteo de cambios no queda nada que hacer
+            LongVector nacidos = LongVector.zero(ESPECIE);
+            LongVector muertos = LongVector.zero(ESPECIE);
+            int palabra = 1;
+            for (; palabra + carriles <= ultima; palabra += carriles) {
+                vecinos(regla, entrada, salida, baseArriba + palabra, baseCentro + palabra, baseAbajo + palabra);
+
+                if (soloContar) {
+                    // Solo hay que contar los cambios
+                    if (!contarCambios) {
+                        continue;
+                    }
+                    if (CONTAR_BITS != null) {
+                        LongVector antes = LongVector.fromArray(ESPECIE, entrada, baseCentro + palabra);
+                        LongVector despues = LongVector.fromArray(ESPECIE, salida, baseCentro + palabra);
+                        LongVector cambios = antes.lanewise(VectorOperators.XOR, despues);
+                        nacidos = nacidos.add(cambios.and(despues).lanewise(CONTAR_BITS));
+                        muertos = muertos.add(cambios.and(antes).lanewise(CONTAR_BITS));
+                    } else {
+                        for (int i = baseCentro + palabra; i < baseCentro + palabra + carriles; i++) {
+                            long cambios = entrada[i] ^ salida[i];
+                            nacimientos += Long.bitCount(cambios & salida[i]);
+                            muertes += Long.bitCount(cambios & entrada[i]);
+                        }
+                    }
+                    continue;
+                }
+                for (int k = palabra; k < palabra + carriles; k++) {
+                    long centro = entrada[baseCentro + k];
+                    long nueva = salida[baseCentro + k] & ~origen.leerMuriendo(fila, k);
+                    if (conVolteos) {
+                        long volteos = contexto.volteos(banda.fuente, fila, k);
+                        nueva ^= volteos;
+                        volteosBanda += Long.bitCount(volteos);
+                    }
+                    salida[baseCentro + k] = nueva;
+                    destino.actualizarEdades(origen, fila, k, centro, nueva, banda.histogramaEdades);
+
+                    if (contarCambios) {
+                        long cambios = centro ^ nueva;
+                        nacimientos += Long.bitCount(cambios & nueva);
+                        muertes += Long.bitCount(cambios & centro);
+                    }
+                    cambioHash += contexto.cambioHash(fila, k, centro, nueva);
+                }
+            }
+
+            nacimientos += nacidos.reduceLanes(VectorOperators.ADD);
+            muertes += muertos.reduceLanes(VectorOperators.ADD);
+
+            // Resto de palabras interiores y la ultima palabra en escalar
+            for (; palabra <= ultima; palabra++) {
+                escalar(contexto, banda, entrada, salida, fila, palabra, baseArriba, baseCentro, baseAbajo,
+                        ultima, bitsUltima, mascaraUltima, conVolteos);
+            }
+        }
+        banda.sumar(nacimientos, muertes, volteosBanda, cambioHash);
+    }
+
+    /*
+      Calcula 'carriles' palabras interiores consecutivas (ni la primera ni la ultima de la fila)
+      y escribe su nueva generacion, sin cambios espontaneos, en la misma posicion de la salida
+      Escribe directamente en el arreglo en vez de devolver el vector: si el metodo no se
+      integra en el bucle, un LongVector devuelto se reservaria en el heap en cada bloque
+    */
+    private static void vecinos(Rule regla, long[] entrada, long[] salida, int arriba, int centro, int abajo) {
+        LongVector arribaAct = LongVector.fromArray(ESPECIE, entrada, arriba);
+        LongVector arribaIzq = izquierda(LongVector.fromArray(ESPECIE, entrada, arriba - 1), arribaAct);
+        LongVector arribaDer = derecha(arribaAct, LongVector.fromArray(ESPECIE, entrada, arriba + 1));
+        LongVector centroAct = LongVector.fromArray(ESPECIE, entrada, centro);
+        LongVector centroIzq = izquierda(LongVector.fromArray(ESPECIE, entrada, centro - 1), centroAct);
+        LongVector centroDer = derecha(centroAct, LongVector.fromArray(ESPECIE, entrada, centro + 1));
+        LongVector abajoAct = LongVector.fromArray(ESPECIE, entrada, abajo);
+        LongVector abajoIzq = izquierda(LongVector.fromArray(ESPECIE, entrada, abajo - 1), abajoAct);
+        LongVector abajoDer = derecha(abajoAct, LongVector.fromArray(ESPECIE, entrada, abajo + 1));
+
+        // Mismos sumadores que SwarEngine.evolucionarPalabra, carril a carril
+        LongVector xArriba = arribaIzq.lanewise(VectorOperators.XOR, arribaAct);
+        LongVector sArriba = xArriba.lanewise(VectorOperators.XOR, arribaDer);
+        LongVector cArriba = arribaIzq.and(arribaAct).or(arribaDer.and(xArriba));
+
+        LongVector sCentro = centroIzq.lanewise(VectorOperators.XOR, centroDer);
+        LongVector cCentro = centroIzq.and(centroDer);
+
+        LongVector xAbajo = abajoIzq.lanewise(VectorOperators.XOR, abajoAct);
+        LongVector sAbajo = xAbajo.lanewise(VectorOperators.XOR, abajoDer);
+        LongVector cAbajo = abajoIzq.and(abajoAct).or(abajoDer.and(xAbajo));
+
+        LongVector xUnos = sArriba.lanewise(VectorOperators.XOR, sCentro);
+        LongVector b0 = xUnos.lanewise(VectorOperators.XOR, sAbajo);
+        LongVector k1 = sArriba.and(sCentro).or(sAbajo.and(xUnos));
+
+        LongVector xDoses = cArriba.lanewise(VectorOperators.XOR, cCentro);
+        LongVector t = xDoses.lanewise(VectorOperators.XOR, cAbajo);
+        LongVector k2 = cArriba.and(cCentro).or(cAbajo.and(xDoses));
+        LongVector b1 = t.lanewise(VectorOperators.XOR, k1);
+        LongVector k3 = t.and(k1);
+        LongVector b2 = k2.lanewise(VectorOperators.XOR, k3);
+        LongVector b3 = k2.and(k3);
+
+        // Misma formula reducida que Rule.aplicar
+        switch (regla.formula) {
+            case Rule.FORMULA_B3_S23:
+                b1.and(b2.or(b3).not()).and(b0.or(centroAct)).intoArray(salida, centro);
+                return;
+            case Rule.FORMULA_B3_S234:
+                LongVector dosOTres = b1.and(b2.not()).and(b0.or(centroAct));
+                LongVector cuatro = centroAct.and(b2).and(b1.or(b0).not());
+                dosOTres.or(cuatro).and(b3.not()).intoArray(salida, centro);
+                return;
+            case Rule.FORMULA_HASTA_3:
+                LongVector g0 = centroAct.and(regla.d0).lanewise(VectorOperators.XOR, regla.n0);
+                LongVector g1 = centroAct.and(regla.d1).lanewise(VectorOperators.XOR, regla.n1);
+                LongVector g2 = centroAct.and(regla.d2).lanewise(VectorOperators.XOR, regla.n2);
+                LongVector g3 = centroAct.and(regla.d3).lanewise(VectorOperators.XOR, regla.n3);
+                elegir(elegir(g0, g1, b0), elegir(g2, g3, b0), b1).and(b2.or(b3).not()).intoArray(salida, centro);
+                return;
+            default:
+                break;
+        }
+
+        // Multiplexor entero: hojas (centro & d_k) ^ n_k elegidas por b0, b1, b2 y b3
+        LongVector h0 = centroAct.and(regla.d0).lanewise(VectorOperators.XOR, regla.n0);
+        LongVector h1 = centroAct.and(regla.d1).lanewise(VectorOperators.XOR, regla.n1);
+        LongVector h2 = centroAct.and(regla.d2).lanewise(VectorOperators.XOR, regla.n2);
+        LongVector h3 = centroAct.and(regla.d3).lanewise(VectorOperators.XOR, regla.n3);
+        LongVector h4 = centroAct.and(regla.d4).lanewise(VectorOperators.XOR, regla.n4);
+        LongVector h5 = centroAct.and(regla.d5).lanewise(VectorOperators.XOR, regla.n5);
+        LongVector h6 = centroAct.and(regla.d6).lanewise(VectorOperators.XOR, regla.n6);
+        LongVector h7 = centroAct.and(regla.d7).lanewise(VectorOperators.XOR, regla.n7);
+        LongVector h8 = centroAct.and(regla.d8).lanewise(VectorOperators.XOR, regla.n8);
+        LongVector m01 = elegir(h0, h1, b0);
+        LongVector m23 = elegir(h2, h3, b0);
+        LongVector m45 = elegir(h4, h5, b0);
+        LongVector m67 = elegir(h6, h7, b0);
+        LongVector m07 = elegir(elegir(m01, m23, b1), elegir(m45, m67, b1), b2);
+        elegir(m07, h8, b3).intoArray(salida, centro);
+    }
+
+    /*
+      Multiplexor bit a bit: toma el bit de 'cero' donde el selector vale 0 y el de 'uno' donde vale 1
+    */
+    private static LongVector elegir(LongVector cero, LongVector uno, LongVector selector) {
+        return cero.lanewise(VectorOperators.XOR, cero.lanewise(VectorOperators.XOR, uno).and(selector));
+    }
+
+    private static VectorOperators.Unary buscarContarBits() {
+        try {
+            return (VectorOperators.Unary) VectorOperators.class.getField("BIT_COUNT").get(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static LongVector izquierda(LongVector anterior, LongVector actual) {
+        return actual.lanewise(VectorOperators.LSHL, 1).or(anterior.lanewise(VectorOperators.LSHR, 63));
+    }
+
+    private static LongVector derecha(LongVector actual, LongVector siguiente) {
+        return actual.lanewise(VectorOperators.LSHR, 1).or(siguiente.lanewise(VectorOperators.LSHL, 63));
+    }
+
+    /*
+      Calcula una palabra con el codigo escalar de SwarEngine, incluidos volteos y edades
+    */
+    private static void escalar(StepContext contexto, RowBand banda, long[] entrada, long[] salida,
+                                int fila, int palabra, int baseArriba, int baseCentro, int baseAbajo,
+                                int ultima, int bitsUltima, long mascaraUltima, boolean conVolteos) {
+        int anterior = palabra == 0 ? ultima : palabra - 1;
+        int siguiente = palabra == ultima ? 0 : palabra + 1;
+        long centro = entrada[baseCentro + palabra];
+
+        long nueva = SwarEngine.evolucionarPalabra(contexto.regla,
+                entrada[baseArriba + anterior], entrada[baseArriba + palabra], entrada[baseArriba + siguiente],
+                entrada[baseCentro + anterior], centro, entrada[baseCentro + siguiente],
+                entrada[baseAbajo + anterior], entrada[baseAbajo + palabra], entrada[baseAbajo + siguiente],
+                palabra == 0, palabra == ultima, bitsUltima);
+        nueva &= ~contexto.origen.leerMuriendo(fila, palabra);
+
+        long volteos = conVolteos ? contexto.volteos(banda.fuente, fila, palabra) : 0L;
+        nueva ^= volteos;
+        if (palabra == ultima) {
+            nueva &= mascaraUltima;
+            volteos &= mascaraUltima;
+        }
+
+        salida[baseCentro + palabra] = nueva;
+        contexto.destino.actualizarEdades(contexto.origen, fila, palabra, centro, nueva, banda.histogramaEdades);
+        banda.contar(centro, nueva, volteos, contexto.cambioHash(fila, palabra, centro, nueva),
+                contexto.contarCambios);
+    }
+}
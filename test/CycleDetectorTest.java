@@ -0,0 +1,74 @@
+/*
+  Pruebas de CycleDetector - mensajes de describir para los ciclos que confirma
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CycleDetectorTest {
+
+    /*
+      Avanza el tablero hasta que el detector confirma un ciclo
+    */
+    private static void avanzarHastaCiclo(Board board, CycleDetector detector) {
+        for (int g = 0; g < 100 && !detector.observar(); g++) {
+            board.proximaGeneracion();
+        }
+        assertTrue(detector.obtenerPeriodo() != 0, "no se confirmo ningun ciclo");
+    }
+
+    private static Board tableroSinVolteos() {
+        Board board = new Board(8, 8, false);
+        board.establecerProbabilidadVolteo(0.0);
+        board.establecerRegla(Rule.CONWAY);
+        return board;
+    }
+
+    @Test
+    void tableroVacioIndicaLaGeneracionEnQueSeVacio() {
+        // Una celda sola muere en la generacion 1
+        Board board = tableroSinVolteos();
+        board.establecerViva(3, 3);
+        CycleDetector detector = new CycleDetector(board, 16);
+        board.proximaGeneracion();
+        avanzarHastaCiclo(board, detector);
+
+        assertEquals(1, detector.obtenerPeriodo());
+        assertEquals(3, detector.obtenerGeneracionConfirmada());
+        assertEquals("Tablero vacio desde la generacion 1", detector.describir());
+    }
+
+    @Test
+    void tableroVacioDesdeElPrincipio() {
+        Board board = tableroSinVolteos();
+        CycleDetector detector = new CycleDetector(board, 16);
+        board.proximaGeneracion();
+        avanzarHastaCiclo(board, detector);
+
+        assertEquals("Tablero vacio desde la generacion 0", detector.describir());
+    }
+
+    @Test
+    void vidaEstaticaYOscilador() {
+        Board bloque = tableroSinVolteos();
+        bloque.establecerViva(2, 2);
+        bloque.establecerViva(2, 3);
+        bloque.establecerViva(3, 2);
+        bloque.establecerViva(3, 3);
+        CycleDetector detectorBloque = new CycleDetector(bloque, 16);
+        bloque.proximaGeneracion();
+        avanzarHastaCiclo(bloque, detectorBloque);
+        assertEquals("Vida estatica detectada en la generacion 2", detectorBloque.describir());
+
+        Board parpadeador = tableroSinVolteos();
+        parpadeador.establecerViva(3, 2);
+        parpadeador.establecerViva(3, 3);
+        parpadeador.establecerViva(3, 4);
+        CycleDetector detectorParpadeador = new CycleDetector(parpadeador, 16);
+        parpadeador.proximaGeneracion();
+        avanzarHastaCiclo(parpadeador, detectorParpadeador);
+        assertEquals(2, detectorParpadeador.obtenerPeriodo());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+  Pruebas de los motores - todos dan el mismo tablero y las mismas estadisticas que el escalar
+  Cada caso parte del mismo relleno aleatorio con una fuente por contador, que da los mismos
+  cambios espontaneos con cualquier motor y numero de hilos, y compara generacion a generacion
+  celdas, edades, poblacion, nacimientos, muertes, cambios espontaneos e histograma de edades
+*/
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.junit.jupiter.api.Test;
+
+class EngineEquivalenceTest {
+    private static final int[] ANCHOS = {1, 63, 64, 65, 130, 200};
+    private static final int ALTO = 40;
+    private static final double[] PROBABILIDADES = {0.0, 1e-4, 0.1};
+    private static final int[] HILOS = {1, 3};
+    private static final int GENERACIONES = 32;
+
+    private static Board crearTablero(int ancho, Rule regla, double probabilidad, int hilos, boolean fueraDelHeap) {
+        Board board = new Board(ancho, ALTO, true, fueraDelHeap);
+        board.establecerSemilla(2024);
+        board.establecerProbabilidadVolteo(probabilidad);
+        board.establecerRegla(regla);
+        board.establecerHilos(hilos);
+        board.rellenarAleatorio(0.3);
+        return board;
+    }
+
+    /*
+      Compara celdas, edades y estadisticas de dos tableros del mismo tamaño
+    */
+    private static void comparar(Board esperado, Board obtenido, String caso) {
+        BitGrid a = esperado.obtenerCuadricula();
+        BitGrid b = obtenido.obtenerCuadricula();
+        for (int fila = 0; fila < ALTO; fila++) {
+            for (int palabra = 0; palabra < a.palabrasPorFila(); palabra++) {
+                if (a.leerPalabra(fila, palabra) != b.leerPalabra(fila, palabra)) {
+                    fail(caso + ": celdas distintas en la fila " + fila + ", palabra " + palabra);
+                }
+            }
+            for (int columna = 0; columna < esperado.obtenerAncho(); columna++) {
+                if (a.edad(fila, columna) != b.edad(fila, columna)) {
+                    fail(caso + ": edad distinta en (" + fila + ", " + columna + ")");
+                }
+            }
+        }
+
+        BoardStats e = esperado.obtenerEstadisticas();
+        BoardStats o = obtenido.obtenerEstadisticas();
+        assertEquals(e.obtenerVivas(), o.obtenerVivas(), caso + ": vivas");
+        assertEquals(e.obtenerNacimientos(), o.obtenerNacimientos(), caso + ": nacimientos");
+        assertEquals(e.obtenerMuertes(), o.obtenerMuertes(), caso + ": muertes");
+        assertEquals(e.obtenerVolteos(), o.obtenerVolteos(), caso + ": cambios espontaneos");
+        assertArrayEquals(e.obtenerHistogramaEdades(), o.obtenerHistogramaEdades(), caso + ": histograma de edades");
+    }
+
+    /*
+      Avanza el escalar y cada motor (y un tablero fuera del heap) a la vez y los compara
+    */
+    private static void compararConEscalar(Rule regla) {
+        for (int ancho : ANCHOS) {
+            for (double probabilidad : PROBABILIDADES) {
+                Board referencia = crearTablero(ancho, regla, probabilidad, 1, false);
+                referencia.establecerMotor(EngineRegistry.crear("escalar"));
+                Board[] tableros = new Board[EngineRegistry.disponibles().size() * HILOS.length];
+                String[] casos = new String[tableros.length];
+                try {
+                    int i = 0;
+                    for (int hilos : HILOS) {
+                        for (String motor : EngineRegistry.disponibles()) {
+                            // El escalar se compara consigo mismo fuera del heap
+                            boolean fueraDelHeap = motor.equals("escalar");
+                            tableros[i] = crearTablero(ancho, regla, probabilidad, hilos, fueraDelHeap);
+                            tableros[i].establecerMotor(EngineRegistry.crear(fueraDelHeap ? "swar" : motor));
+                            casos[i] = regla + " " + ancho + "x" + ALTO + " p=" + probabilidad + " " + hilos + " hilos "
+                                    + (fueraDelHeap ? "swar fuera del heap" : motor);
+                            i++;
+                        }
+                    }
+
+                    for (int g = 1; g <= GENERACIONES; g++) {
+                        referencia.proximaGeneracion();
+                        for (int t = 0; t < tableros.length; t++) {
+                            tableros[t].proximaGeneracion();
+                            comparar(referencia, tableros[t], casos[t] + ", generacion " + g);
+                        }
+                    }
+                } finally {
+                    for (Board board : tableros) {
+                        if (board != null) {
+                            board.liberar();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void conway() {
+        compararConEscalar(Rule.parsear("B3/S23"));
+    }
+
+    @Test
+    void nacimientoConCeroVecinos() {
+        compararConEscalar(Rule.parsear("B0/S8"));
+    }
+
+    @Test
+    void generations() {
+        compararConEscalar(Rule.parsear("B2/S345/C4"));
+    }
+}
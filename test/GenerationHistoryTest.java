@@ -0,0 +1,114 @@
+/*
+  Pruebas de GenerationHistory - restaurar cualquier generacion registrada devuelve su plano de
+  celdas vivas, hacia delante o hacia atras dentro de un tramo, y tambien las que ya salieron
+  de la memoria y se leen del fichero
+*/
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GenerationHistoryTest {
+    private static final int ANCHO = 100;
+    private static final int ALTO = 40;
+    private static final int INTERVALO = 16;
+    private static final int GENERACIONES = 200;
+    // Caben unos pocos tramos, asi que los primeros se descartan de la memoria
+    private static final long MEMORIA_MAXIMA = 24 * 1024;
+
+    @TempDir
+    Path carpeta;
+
+    private static Board crearTablero() {
+        Board board = new Board(ANCHO, ALTO, false);
+        board.establecerSemilla(5);
+        board.establecerProbabilidadVolteo(0.02);
+        board.establecerRegla(Rule.CONWAY);
+        board.rellenarAleatorio(0.3);
+        return board;
+    }
+
+    /*
+      Registra GENERACIONES + 1 generaciones y devuelve sus planos
+    */
+    private static long[][] registrar(GenerationHistory historial) throws IOException {
+        Board board = crearTablero();
+        long[][] planos = new long[GENERACIONES + 1][];
+        for (int g = 0; g <= GENERACIONES; g++) {
+            historial.registrar(board);
+            planos[g] = board.copiarCeldas(null);
+            board.proximaGeneracion();
+        }
+        return planos;
+    }
+
+    private static void restaurar(GenerationHistory historial, Board destino, long[][] planos, int generacion)
+            throws IOException {
+        assertTrue(historial.restaurar(generacion, destino), "no se restauro la generacion " + generacion);
+        assertEquals(generacion, destino.obtenerGeneracion());
+        assertArrayEquals(planos[generacion], destino.copiarCeldas(null), "celdas de la generacion " + generacion);
+    }
+
+    @Test
+    void restaurarDeMemoriaYDeFichero() throws IOException {
+        GenerationHistory historial = new GenerationHistory(ANCHO, ALTO, INTERVALO, MEMORIA_MAXIMA,
+                carpeta.resolve("historial.bin"));
+        long[][] planos = registrar(historial);
+        long primeraEnMemoria = historial.obtenerPrimeraEnMemoria();
+        // El tramo 32-47 de abajo solo tiene que estar en el fichero
+        assertTrue(primeraEnMemoria >= 3 * INTERVALO, "la memoria no descarto bastantes tramos: " + primeraEnMemoria);
+        assertEquals(0, historial.obtenerPrimeraGeneracion());
+        assertEquals(GENERACIONES, historial.obtenerUltimaGeneracion());
+
+        Board destino = new Board(ANCHO, ALTO, false);
+        // Dentro de un tramo en memoria: hacia delante, hacia atras y otra vez hacia delante
+        int tramo = (int) primeraEnMemoria;
+        assertTrue(tramo + INTERVALO <= GENERACIONES, "no queda ningun tramo completo en memoria");
+        for (int desplazamiento : new int[]{3, 9, 1, 0, 15, 7, 8}) {
+            restaurar(historial, destino, planos, tramo + desplazamiento);
+        }
+        // Lo mismo con un tramo que solo esta en el fichero
+        for (int generacion : new int[]{35, 40, 33, 47, 32, 46}) {
+            restaurar(historial, destino, planos, generacion);
+        }
+        // Saltos al azar entre tramos, en memoria y en el fichero
+        Random random = new Random(9);
+        for (int i = 0; i < 300; i++) {
+            restaurar(historial, destino, planos, random.nextInt(GENERACIONES + 1));
+        }
+
+        // Cerrado el fichero, lo que sigue en memoria se puede restaurar
+        historial.cerrar();
+        restaurar(historial, destino, planos, GENERACIONES);
+        restaurar(historial, destino, planos, (int) primeraEnMemoria);
+    }
+
+    @Test
+    void sinFicheroLoDescartadoNoSeRestaura() throws IOException {
+        GenerationHistory historial = new GenerationHistory(ANCHO, ALTO, INTERVALO, MEMORIA_MAXIMA, null);
+        long[][] planos = registrar(historial);
+        long primeraEnMemoria = historial.obtenerPrimeraEnMemoria();
+        assertTrue(primeraEnMemoria > 0, "la memoria no descarto ningun tramo");
+        assertEquals(primeraEnMemoria, historial.obtenerPrimeraGeneracion());
+
+        Board destino = new Board(ANCHO, ALTO, false);
+        restaurar(historial, destino, planos, GENERACIONES);
+        assertFalse(historial.contiene(primeraEnMemoria - 1));
+        assertFalse(historial.restaurar(primeraEnMemoria - 1, destino));
+        // El tablero se queda como estaba
+        assertEquals(GENERACIONES, destino.obtenerGeneracion());
+        assertArrayEquals(planos[GENERACIONES], destino.copiarCeldas(null));
+
+        for (int g = GENERACIONES; g >= primeraEnMemoria; g--) {
+            restaurar(historial, destino, planos, g);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+  Pruebas de HashLife - cargar, avanzar y volcar deja el mismo tablero que Board generacion a
+  generacion, en modo toroidal y plano, y tambien cuando la tabla de nodos se llena y recolecta
+*/
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HashLifeTest {
+    private static final long[] SALTOS = {1, 2, 3, 7, 64, 100};
+
+    private static Board tableroSinVolteos(int ancho, int alto) {
+        Board board = new Board(ancho, alto, false);
+        board.establecerProbabilidadVolteo(0.0);
+        board.establecerRegla(Rule.CONWAY);
+        return board;
+    }
+
+    /*
+      Enciende al azar un tercio de las celdas del rectangulo en los dos tableros
+    */
+    private static void sembrar(Random random, int desdeFila, int hastaFila, int desdeColumna, int hastaColumna,
+                                Board... tableros) {
+        for (int fila = desdeFila; fila < hastaFila; fila++) {
+            for (int columna = desdeColumna; columna < hastaColumna; columna++) {
+                if (random.nextInt(3) == 0) {
+                    for (Board board : tableros) {
+                        board.establecerViva(fila, columna);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void comparar(Board esperado, Board obtenido, String caso) {
+        assertEquals(esperado.obtenerGeneracion(), obtenido.obtenerGeneracion(), caso + ": generacion");
+        assertArrayEquals(esperado.copiarCeldas(null), obtenido.copiarCeldas(null), caso + ": celdas");
+        assertEquals(esperado.obtenerCantidadVivas(), obtenido.obtenerCantidadVivas(), caso + ": vivas");
+    }
+
+    /*
+      Avanza HashLife y Board a la vez por los saltos de SALTOS y los compara tras cada uno
+    */
+    private static void compararToroidal(int ancho, int alto, int capacidad) {
+        Random random = new Random(ancho * 31L + alto);
+        Board board = tableroSinVolteos(ancho, alto);
+        Board volcado = tableroSinVolteos(ancho, alto);
+        sembrar(random, 0, alto, 0, ancho, board, volcado);
+
+        HashLife hashLife = new HashLife(capacidad);
+        hashLife.cargar(volcado, true);
+        for (long salto : SALTOS) {
+            hashLife.avanzarGeneraciones(salto);
+            board.avanzar(salto);
+            hashLife.volcarEn(volcado);
+            String caso = ancho + "x" + alto + " capacidad " + capacidad + ", generacion " + board.obtenerGeneracion();
+            comparar(board, volcado, caso);
+            assertEquals(board.obtenerCantidadVivas(), hashLife.obtenerPoblacion(), caso + ": poblacion");
+        }
+    }
+
+    @Test
+    void cargarYVolcarSinAvanzarDejaElMismoTablero() {
+        Board original = tableroSinVolteos(256, 64);
+        sembrar(new Random(1), 0, 64, 0, 256, original);
+        Board volcado = tableroSinVolteos(256, 64);
+
+        HashLife hashLife = new HashLife();
+        hashLife.cargar(original, true);
+        hashLife.volcarEn(volcado);
+        comparar(original, volcado, "toroidal");
+
+        hashLife.cargar(original, false);
+        hashLife.volcarEn(volcado);
+        comparar(original, volcado, "plano");
+    }
+
+    @Test
+    void toroidalIgualQueBoard() {
+        int[][] tamaños = {{8, 8}, {64, 32}, {128, 128}, {16, 256}, {256, 64}};
+        for (int[] tamaño : tamaños) {
+            compararToroidal(tamaño[0], tamaño[1], HashLife.CAPACIDAD_POR_DEFECTO);
+        }
+    }
+
+    @Test
+    void toroidalConRecolecciones() {
+        // Con la capacidad minima la tabla se llena y se reconstruye varias veces
+        int[][] tamaños = {{64, 32}, {128, 128}, {256, 64}};
+        for (int[] tamaño : tamaños) {
+            compararToroidal(tamaño[0], tamaño[1], 1024);
+        }
+        HashLife hashLife = new HashLife(1024);
+        Board board = tableroSinVolteos(256, 256);
+        sembrar(new Random(2), 0, 256, 0, 256, board);
+        hashLife.cargar(board, true);
+        hashLife.avanzarGeneraciones(100);
+        assertTrue(hashLife.obtenerRecolecciones() > 0, "la tabla de 1024 nodos no llego a recolectar");
+    }
+
+    @Test
+    void planoIgualQueBoardLejosDeLosBordes() {
+        // El patron empieza en el centro y en 55 generaciones no llega a los bordes, donde Board envuelve
+        for (int capacidad : new int[]{1024, HashLife.CAPACIDAD_POR_DEFECTO}) {
+            Board board = tableroSinVolteos(300, 260);
+            Board volcado = tableroSinVolteos(300, 260);
+            sembrar(new Random(3), 110, 140, 130, 160, board, volcado);
+
+            HashLife hashLife = new HashLife(capacidad);
+            hashLife.cargar(volcado, false);
+            for (long salto : new long[]{1, 5, 16, 33}) {
+                hashLife.avanzarGeneraciones(salto);
+                board.avanzar(salto);
+                hashLife.volcarEn(volcado);
+                comparar(board, volcado, "plano capacidad " + capacidad + ", generacion " + board.obtenerGeneracion());
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+  Pruebas de PatternImporter - RLE, texto plano y Life 1.06 colocan las celdas esperadas a partir
+  del origen, y las que caen fuera del tablero se descartan y se cuentan
+*/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class PatternImporterTest {
+    // Planeador en RLE, texto plano y Life 1.06 (celdas (0,1), (1,2), (2,0), (2,1), (2,2))
+    private static final String PLANEADOR_RLE = "#N Glider\n#C Un comentario\nx = 3, y = 3, rule = B3/S23\nbo$2bo$3o!\n";
+    private static final int[][] PLANEADOR = {{0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}};
+
+    private static PatternImporter importar(Board board, int filaOrigen, int columnaOrigen, String texto)
+            throws IOException {
+        PatternImporter importador = new PatternImporter(board, filaOrigen, columnaOrigen);
+        importador.importar(new StringReader(texto));
+        return importador;
+    }
+
+    /*
+      Comprueba que las celdas vivas del tablero son exactamente las indicadas, desplazadas al origen
+    */
+    private static void comprobarCeldas(Board board, int filaOrigen, int columnaOrigen, int[][] celdas) {
+        boolean[][] esperadas = new boolean[board.obtenerAlto()][board.obtenerAncho()];
+        long dentro = 0;
+        for (int[] celda : celdas) {
+            int fila = filaOrigen + celda[0];
+            int columna = columnaOrigen + celda[1];
+            if (fila >= 0 && fila < board.obtenerAlto() && columna >= 0 && columna < board.obtenerAncho()) {
+                esperadas[fila][columna] = true;
+                dentro++;
+            }
+        }
+        for (int fila = 0; fila < board.obtenerAlto(); fila++) {
+            for (int columna = 0; columna < board.obtenerAncho(); columna++) {
+                assertEquals(esperadas[fila][columna], board.obtenerCelula(fila, columna).estaViva(),
+                        "celda (" + fila + ", " + columna + ")");
+            }
+        }
+        assertEquals(dentro, board.obtenerCantidadVivas());
+    }
+
+    @Test
+    void rleConCabeceraYComentarios() throws IOException {
+        Board board = new Board(10, 8);
+        PatternImporter importador = importar(board, 2, 3, PLANEADOR_RLE);
+
+        assertEquals("rle", importador.obtenerFormato());
+        assertEquals("B3/S23", importador.obtenerRegla());
+        assertEquals(3, importador.obtenerAnchoDeclarado());
+        assertEquals(3, importador.obtenerAltoDeclarado());
+        assertEquals(5, importador.obtenerCeldas());
+        assertEquals(0, importador.obtenerRecortadas());
+        comprobarCeldas(board, 2, 3, PLANEADOR);
+    }
+
+    @Test
+    void rleConRachasDeFilasYPalabrasLargas() throws IOException {
+        // "3$" salta dos filas vacias; la racha de 70 cruza el limite de una palabra
+        Board board = new Board(200, 10);
+        PatternImporter importador = importar(board, 0, 0, "x = 75, y = 4\n2o3$5b70o!");
+
+        assertNull(importador.obtenerRegla());
+        assertEquals(72, importador.obtenerCeldas());
+        int[][] celdas = new int[72][];
+        celdas[0] = new int[]{0, 0};
+        celdas[1] = new int[]{0, 1};
+        for (int i = 0; i < 70; i++) {
+            celdas[2 + i] = new int[]{3, 5 + i};
+        }
+        comprobarCeldas(board, 0, 0, celdas);
+    }
+
+    @Test
+    void rleSinExclamacionFinal() throws IOException {
+        Board board = new Board(10, 8);
+        PatternImporter importador = importar(board, 1, 1, "x = 3, y = 3\nbo$2bo$3o\n");
+
+        assertEquals(5, importador.obtenerCeldas());
+        comprobarCeldas(board, 1, 1, PLANEADOR);
+    }
+
+    @Test
+    void textoPlano() throws IOException {
+        Board board = new Board(10, 8);
+        PatternImporter importador = importar(board, 4, 0, "!Name: Glider\n!\n.O.\n..O\nOOO\n");
+
+        assertEquals("texto", importador.obtenerFormato());
+        assertEquals(-1, importador.obtenerAnchoDeclarado());
+        assertEquals(5, importador.obtenerCeldas());
+        comprobarCeldas(board, 4, 0, PLANEADOR);
+    }
+
+    @Test
+    void life106ConCoordenadasNegativas() throws IOException {
+        // Life 1.06 da "x y": columna y fila, relativas al origen
+        Board board = new Board(20, 20);
+        PatternImporter importador = importar(board, 10, 10, "#Life 1.06\n-1 -2\n0 -1\n-2 0\n-1 0\n0 0\n");
+
+        assertEquals("life 1.06", importador.obtenerFormato());
+        assertEquals(5, importador.obtenerCeldas());
+        comprobarCeldas(board, 8, 8, PLANEADOR);
+    }
+
+    @Test
+    void recorteConOrigenNegativo() throws IOException {
+        // La primera fila y la primera columna del planeador quedan fuera
+        Board board = new Board(10, 8);
+        PatternImporter importador = importar(board, -1, -1, PLANEADOR_RLE);
+
+        assertEquals(3, importador.obtenerCeldas());
+        assertEquals(2, importador.obtenerRecortadas());
+        comprobarCeldas(board, -1, -1, PLANEADOR);
+    }
+
+    @Test
+    void recorteConOrigenQueSeSaleDelTablero() throws IOException {
+        // Del planeador solo cae dentro la celda (0, 1), en (7, 9)
+        Board board = new Board(10, 8);
+        PatternImporter importador = importar(board, 7, 8, PLANEADOR_RLE);
+
+        assertEquals(1, importador.obtenerCeldas());
+        assertEquals(4, importador.obtenerRecortadas());
+        comprobarCeldas(board, 7, 8, PLANEADOR);
+
+        // Una racha que cruza el borde derecho se recorta dentro de la misma fila
+        Board ancho = new Board(70, 3);
+        PatternImporter racha = importar(ancho, 1, 60, "x = 20, y = 1\n20o!");
+        assertEquals(10, racha.obtenerCeldas());
+        assertEquals(10, racha.obtenerRecortadas());
+        int[][] celdas = new int[20][];
+        for (int i = 0; i < 20; i++) {
+            celdas[i] = new int[]{0, i};
+        }
+        comprobarCeldas(ancho, 1, 60, celdas);
+    }
+
+    @Test
+    void formatosInvalidos() {
+        Board board = new Board(10, 8);
+        assertThrows(IOException.class, () -> importar(board, 0, 0, ""));
+        assertThrows(IOException.class, () -> importar(board, 0, 0, "hola\n"));
+        assertThrows(IOException.class, () -> importar(board, 0, 0, "x = 3\nbo$2bo$3o!"));
+        assertThrows(IOException.class, () -> importar(board, 0, 0, "#Life 1.05\n*.\n"));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+  Pruebas de Snapshot - guardar y cargar un tablero deja las mismas celdas, edades, generacion,
+  regla y fuente aleatoria, asi que la siguiente generacion sale igual que sin guardar
+*/
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotTest {
+    private static final int ANCHO = 130;
+    private static final int ALTO = 37;
+
+    @TempDir
+    Path carpeta;
+
+    private static Board crearTablero(Rule regla, boolean edades, boolean fueraDelHeap) {
+        Board board = new Board(ANCHO, ALTO, edades, fueraDelHeap);
+        board.establecerSemilla(11);
+        board.establecerProbabilidadVolteo(0.05);
+        board.establecerRegla(regla);
+        board.rellenarAleatorio(0.4);
+        // Unas generaciones para que haya edades distintas y, con Generations, celdas muriendo
+        board.avanzar(9);
+        return board;
+    }
+
+    private static void comparar(Board esperado, Board obtenido, String caso) {
+        assertEquals(esperado.obtenerGeneracion(), obtenido.obtenerGeneracion(), caso + ": generacion");
+        assertEquals(esperado.obtenerRegla(), obtenido.obtenerRegla(), caso + ": regla");
+        assertEquals(esperado.obtenerProbabilidadVolteo(), obtenido.obtenerProbabilidadVolteo(), caso + ": probabilidad");
+        assertEquals(esperado.registraEdades(), obtenido.registraEdades(), caso + ": registro de edades");
+        assertArrayEquals(esperado.copiarCeldas(null), obtenido.copiarCeldas(null), caso + ": celdas");
+        assertEquals(esperado.obtenerCantidadVivas(), obtenido.obtenerCantidadVivas(), caso + ": vivas");
+        for (int fila = 0; fila < ALTO; fila++) {
+            for (int columna = 0; columna < ANCHO; columna++) {
+                assertEquals(esperado.obtenerCelula(fila, columna).getEdad(), obtenido.obtenerCelula(fila, columna).getEdad(),
+                        caso + ": edad en (" + fila + ", " + columna + ")");
+            }
+        }
+    }
+
+    /*
+      Guarda un tablero, lo carga dentro y fuera del heap y compara, antes y despues de avanzar
+    */
+    private void guardarYCargar(String texto, boolean edades, boolean guardarFueraDelHeap) throws IOException {
+        Rule regla = Rule.parsear(texto);
+        Board original = crearTablero(regla, edades, guardarFueraDelHeap);
+        Path ruta = carpeta.resolve("tablero.snap");
+        try {
+            Snapshot.guardar(original, ruta);
+            for (boolean cargarFueraDelHeap : new boolean[]{false, true}) {
+                String caso = texto + (edades ? " con edades" : " sin edades") + ", guardado "
+                        + (guardarFueraDelHeap ? "fuera del heap" : "en el heap") + " y cargado "
+                        + (cargarFueraDelHeap ? "fuera del heap" : "en el heap");
+                Board cargado = Snapshot.cargar(ruta, cargarFueraDelHeap);
+                try {
+                    assertEquals(cargarFueraDelHeap, cargado.fueraDelHeap(), caso);
+                    comparar(original, cargado, caso);
+
+                    Board siguiente = crearTablero(regla, edades, false);
+                    siguiente.proximaGeneracion();
+                    cargado.proximaGeneracion();
+                    comparar(siguiente, cargado, caso + ", siguiente generacion");
+                } finally {
+                    cargado.liberar();
+                }
+            }
+        } finally {
+            original.liberar();
+        }
+    }
+
+    @Test
+    void conEdades() throws IOException {
+        guardarYCargar("B3/S23", true, false);
+        guardarYCargar("B3/S23", true, true);
+    }
+
+    @Test
+    void sinEdades() throws IOException {
+        guardarYCargar("B36/S23", false, false);
+        guardarYCargar("B36/S23", false, true);
+    }
+
+    @Test
+    void reglaGenerations() throws IOException {
+        guardarYCargar("B2/S345/C4", true, false);
+        guardarYCargar("B2/S345/C4", true, true);
+    }
+}
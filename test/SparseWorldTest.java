@@ -0,0 +1,103 @@
+/*
+  Pruebas de SparseWorld - un patron lejos de los bordes evoluciona igual en el plano infinito
+  que en un Board grande, donde nunca llega a envolver
+*/
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SparseWorldTest {
+    private static final int LADO = 256;
+    private static final int LADO_SEMILLA = 32;
+    private static final int ORIGEN = (LADO - LADO_SEMILLA) / 2;
+    // Celdas que el patron no debe alcanzar junto a los bordes del tablero (donde Board envuelve)
+    private static final int MARGEN = 2;
+
+    private static Board semilla(long valor) {
+        Board semilla = new Board(LADO_SEMILLA, LADO_SEMILLA, false);
+        semilla.establecerFuenteAleatoria(RandomSource.contador(valor));
+        semilla.rellenarAleatorio(0.35);
+        return semilla;
+    }
+
+    /*
+      Avanza un Board grande y un SparseWorld desde la misma semilla centrada y los compara
+      volcando el plano sobre un tablero del mismo tamaño
+      @param desplazamiento donde cae la fila y columna 0 del tablero en el plano
+    */
+    private static void comparar(String texto, long valor, int generaciones, int desplazamiento) {
+        Rule regla = Rule.parsear(texto);
+        Board semilla = semilla(valor);
+        Board board = new Board(LADO, LADO, false);
+        board.establecerProbabilidadVolteo(0.0);
+        board.establecerRegla(regla);
+        SparseWorld mundo = new SparseWorld(regla);
+        for (int fila = 0; fila < LADO_SEMILLA; fila++) {
+            for (int columna = 0; columna < LADO_SEMILLA; columna++) {
+                if (semilla.obtenerCelula(fila, columna).estaViva()) {
+                    board.establecerViva(ORIGEN + fila, ORIGEN + columna);
+                }
+            }
+        }
+        mundo.colocarTablero(semilla, desplazamiento + ORIGEN, desplazamiento + ORIGEN);
+
+        Board volcado = new Board(LADO, LADO, false);
+        for (int g = 1; g <= generaciones; g++) {
+            board.proximaGeneracion();
+            mundo.proximaGeneracion();
+            String caso = texto + " semilla " + valor + ", generacion " + g;
+            assertEquals(board.obtenerCantidadVivas(), mundo.obtenerCantidadVivas(), caso + ": vivas");
+            if (g % 10 == 0 || g == generaciones) {
+                mundo.volcarEn(volcado, desplazamiento, desplazamiento);
+                assertArrayEquals(board.copiarCeldas(null), volcado.copiarCeldas(null), caso + ": celdas");
+            }
+        }
+        assertEquals(generaciones, mundo.obtenerGeneracion());
+        assertEquals(0, mundo.obtenerPerdidas());
+
+        // Si el patron hubiera llegado al borde, Board habria envuelto y la comparacion no valdria
+        int[] limites = mundo.obtenerLimites();
+        if (limites != null) {
+            assertTrue(limites[0] - desplazamiento >= MARGEN && limites[1] - desplazamiento >= MARGEN
+                    && limites[2] - desplazamiento < LADO - MARGEN && limites[3] - desplazamiento < LADO - MARGEN,
+                    texto + ": el patron llego al borde del tablero");
+        }
+    }
+
+    @Test
+    void igualQueBoardLejosDeLosBordes() {
+        for (String regla : new String[]{"B3/S23", "B36/S23", "B3/S234"}) {
+            for (long valor = 1; valor <= 3; valor++) {
+                comparar(regla, valor, 100, 0);
+            }
+        }
+    }
+
+    @Test
+    void reglaQueCreceDeprisa() {
+        // B2/S se expande a velocidad de la luz: pocas generaciones para no llegar al borde
+        comparar("B2/S", 4, 40, 0);
+    }
+
+    @Test
+    void igualConCoordenadasNegativas() {
+        // El mismo patron colocado en coordenadas negativas del plano
+        comparar("B3/S23", 5, 100, -1_000_000);
+    }
+
+    @Test
+    void lasCeldasQueSalenDelPlanoSeCuentanComoPerdidas() {
+        SparseWorld mundo = new SparseWorld(Rule.CONWAY);
+        for (int columna = 0; columna < 3; columna++) {
+            mundo.establecerViva(SparseWorld.COORDENADA_MAXIMA, columna);
+            mundo.establecerViva(SparseWorld.COORDENADA_MINIMA, columna);
+        }
+        mundo.proximaGeneracion();
+        // Cada parpadeador pierde la celda que le tocaria fuera del plano
+        assertEquals(2, mundo.obtenerPerdidas());
+        assertEquals(4, mundo.obtenerCantidadVivas());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+  Pruebas del bloqueo temporal - avanzar(n) con bloques de k generaciones deja el tablero,
+  el hash y las estadisticas igual que n llamadas a proximaGeneracion
+*/
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TemporalBlockTest {
+    private static final int[][] TAMAÑOS = {{7, 9}, {64, 20}, {130, 33}, {200, 70}};
+    private static final String[] REGLAS = {"B3/S23", "B0/S8", "B01/S3", "B36/S23"};
+    private static final double[] PROBABILIDADES = {0.0, 1e-4, 0.05};
+    private static final int[] BLOQUES = {2, 5, 8};
+    private static final int[] HILOS = {1, 3};
+    // No es multiplo de ningun bloque, asi que tambien queda alguna generacion suelta
+    private static final int GENERACIONES = 23;
+
+    private static Board crearTablero(int ancho, int alto, Rule regla, double probabilidad, int hilos) {
+        Board board = new Board(ancho, alto, false);
+        board.establecerSemilla(77);
+        board.establecerProbabilidadVolteo(probabilidad);
+        board.establecerRegla(regla);
+        board.establecerHilos(hilos);
+        board.establecerHashActivo(true);
+        board.rellenarAleatorio(0.35);
+        return board;
+    }
+
+    private static void comparar(Board esperado, Board obtenido, String caso) {
+        assertEquals(esperado.obtenerGeneracion(), obtenido.obtenerGeneracion(), caso + ": generacion");
+        assertArrayEquals(esperado.copiarCeldas(null), obtenido.copiarCeldas(null), caso + ": celdas");
+        assertEquals(esperado.obtenerHash(), obtenido.obtenerHash(), caso + ": hash");
+
+        BoardStats e = esperado.obtenerEstadisticas();
+        BoardStats o = obtenido.obtenerEstadisticas();
+        assertEquals(e.obtenerVivas(), o.obtenerVivas(), caso + ": vivas");
+        assertEquals(e.obtenerNacimientos(), o.obtenerNacimientos(), caso + ": nacimientos");
+        assertEquals(e.obtenerMuertes(), o.obtenerMuertes(), caso + ": muertes");
+        assertEquals(e.obtenerVolteos(), o.obtenerVolteos(), caso + ": cambios espontaneos");
+        assertEquals(e.obtenerNacimientosTotales(), o.obtenerNacimientosTotales(), caso + ": nacimientos totales");
+        assertEquals(e.obtenerMuertesTotales(), o.obtenerMuertesTotales(), caso + ": muertes totales");
+        assertEquals(e.obtenerVolteosTotales(), o.obtenerVolteosTotales(), caso + ": cambios espontaneos totales");
+    }
+
+    @Test
+    void avanzarPorBloquesIgualQueGeneracionAGeneracion() {
+        for (int[] tamaño : TAMAÑOS) {
+            for (String texto : REGLAS) {
+                Rule regla = Rule.parsear(texto);
+                for (double probabilidad : PROBABILIDADES) {
+                    Board referencia = crearTablero(tamaño[0], tamaño[1], regla, probabilidad, 1);
+                    for (int g = 0; g < GENERACIONES; g++) {
+                        referencia.proximaGeneracion();
+                    }
+
+                    for (int bloque : BLOQUES) {
+                        for (int hilos : HILOS) {
+                            Board board = crearTablero(tamaño[0], tamaño[1], regla, probabilidad, hilos);
+                            board.establecerBloqueTemporal(bloque);
+                            board.avanzar(GENERACIONES);
+                            comparar(referencia, board, texto + " " + tamaño[0] + "x" + tamaño[1] + " p=" + probabilidad
+                                    + " bloque " + bloque + ", " + hilos + " hilos");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void avanzarDesdeUnaGeneracionIntermedia() {
+        // El bloque empieza en una generacion impar y los cambios espontaneos dependen de ella
+        Rule regla = Rule.parsear("B3/S23");
+        Board referencia = crearTablero(130, 33, regla, 0.05, 1);
+        Board board = crearTablero(130, 33, regla, 0.05, 3);
+        board.establecerBloqueTemporal(5);
+        for (int g = 0; g < 3; g++) {
+            referencia.proximaGeneracion();
+            board.proximaGeneracion();
+        }
+        for (int g = 0; g < 17; g++) {
+            referencia.proximaGeneracion();
+        }
+        board.avanzar(17);
+        comparar(referencia, board, "desde la generacion 3");
+    }
+}